@@ -0,0 +1,209 @@
+package io.emop.javadocjson;
+
+import io.emop.javadocjson.doclet.JavadocInvoker;
+import io.emop.javadocjson.jfr.FlightRecording;
+import org.apache.maven.artifact.DependencyResolutionRequiredException;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Maven goal to generate JSON documentation for every module of a reactor in one doclet pass.
+ * <p>
+ * Sources of all reactor projects are documented together, so dependency types shared by the modules are
+ * completed once per partition instead of once per module, and reactor modules resolve each other from source.
+ * Run it after the modules are compiled in the same build, e.g. {@code mvn compile javadoc-json:aggregate},
+ * so that every module's dependencies are resolved.
+ */
+@Mojo(name = "aggregate", aggregator = true, requiresDependencyResolution = ResolutionScope.COMPILE_PLUS_RUNTIME)
+public class AggregateMojo extends AbstractMojo {
+
+    /**
+     * All projects of the reactor.
+     */
+    @Parameter(defaultValue = "${reactorProjects}", readonly = true, required = true)
+    private List<MavenProject> reactorProjects;
+
+    /**
+     * Output directory for the combined JSON files.
+     */
+    @Parameter(property = "outputDirectory", defaultValue = "${project.build.directory}/javadoc-json")
+    private String outputDirectory;
+
+    /**
+     * Write each module's classes to {@code <module>/target/javadoc-json} instead of one combined directory.
+     */
+    @Parameter(property = "splitByModule", defaultValue = "false")
+    private boolean splitByModule;
+
+    /**
+     * Include private members in the output.
+     */
+    @Parameter(property = "includePrivate", defaultValue = "true")
+    private boolean includePrivate;
+
+    /**
+     * Source file encoding.
+     */
+    @Parameter(property = "encoding", defaultValue = "UTF-8")
+    private String encoding;
+
+    /**
+     * Number of package-aligned partitions documented concurrently, {@code 0} means one per available core.
+     * Each partition completes the dependency types it uses again, so the default of {@code 1} completes every
+     * shared symbol exactly once; more partitions trade that repeated work for parallelism.
+     */
+    @Parameter(property = "partitions", defaultValue = "1")
+    private int partitions;
+
+    /**
+     * Write canonical JSON: sorted keys and members, normalized whitespace and line endings, so identical
+     * sources always produce byte-identical files.
+     */
+    @Parameter(property = "canonical", defaultValue = "false")
+    private boolean canonical;
+
+    /**
+     * Records the goal with the JDK Flight Recorder into this {@code .jfr} file.
+     */
+    @Parameter(property = "flightRecording")
+    private File flightRecording;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        FlightRecording recording = null;
+        if (flightRecording != null) {
+            try {
+                recording = FlightRecording.start(getLog(), flightRecording);
+            } catch (IOException e) {
+                throw new MojoExecutionException("Cannot start flight recording: " + e.getMessage(), e);
+            }
+        }
+        try {
+            generate();
+        } finally {
+            if (recording != null) {
+                recording.close();
+            }
+        }
+    }
+
+    private void generate() throws MojoExecutionException {
+        List<Path> sourceRoots = new ArrayList<>();
+        List<File> javaFiles = new ArrayList<>();
+        Map<String, String> outputMappings = new LinkedHashMap<>();
+        Set<String> reactorOutputs = new HashSet<>();
+        int modules = 0;
+
+        try {
+            for (MavenProject module : reactorProjects) {
+                reactorOutputs.add(normalize(module.getBuild().getOutputDirectory()));
+                if (module.getArtifact() != null && module.getArtifact().getFile() != null) {
+                    reactorOutputs.add(normalize(module.getArtifact().getFile().getPath()));
+                }
+
+                List<String> roots = module.getCompileSourceRoots().stream()
+                        .filter(root -> Files.isDirectory(Paths.get(root)))
+                        .collect(Collectors.toList());
+                if (roots.isEmpty()) {
+                    continue;
+                }
+                modules++;
+                String moduleOutput = new File(module.getBuild().getDirectory(), "javadoc-json").getPath();
+                for (String root : roots) {
+                    sourceRoots.add(Paths.get(root));
+                    javaFiles.addAll(findJavaFiles(Paths.get(root)));
+                    if (splitByModule) {
+                        outputMappings.put(root, moduleOutput);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Error collecting reactor sources", e);
+        }
+
+        if (javaFiles.isEmpty()) {
+            getLog().warn("No Java source files found in " + reactorProjects.size() + " reactor projects");
+            return;
+        }
+
+        // Reactor modules resolve each other from source, so their own outputs stay off the classpath
+        List<String> classpath = new ArrayList<>(collectClasspath());
+        classpath.removeIf(element -> reactorOutputs.contains(normalize(element)));
+
+        int partitionCount = partitions > 0 ? partitions : Runtime.getRuntime().availableProcessors();
+        getLog().info("Generating JSON documentation for " + modules + " modules: " + javaFiles.size()
+                + " source files, " + classpath.size() + " classpath entries, up to " + partitionCount + " partitions");
+
+        JavadocInvoker invoker = new JavadocInvoker(getLog());
+        invoker.setOutputDirectory(outputDirectory);
+        invoker.setIncludePrivate(includePrivate);
+        invoker.setEncoding(encoding);
+        invoker.setClasspath(classpath);
+        invoker.setSourceRoots(sourceRoots);
+        invoker.setOutputMappings(outputMappings);
+        invoker.setPartitions(partitionCount);
+        invoker.setCanonical(canonical);
+
+        try {
+            if (!invoker.run(javaFiles)) {
+                throw new MojoExecutionException("Doclet execution failed");
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Error during documentation generation", e);
+        }
+
+        getLog().info("JSON documentation generated successfully in: "
+                + (splitByModule ? "target/javadoc-json of each module" : outputDirectory));
+    }
+
+    /**
+     * Union of the compile and runtime classpath of every reactor project, in reactor order.
+     */
+    private Set<String> collectClasspath() throws MojoExecutionException {
+        Set<String> classpath = new LinkedHashSet<>();
+        for (MavenProject module : reactorProjects) {
+            try {
+                classpath.addAll(module.getCompileClasspathElements());
+                classpath.addAll(module.getRuntimeClasspathElements());
+            } catch (DependencyResolutionRequiredException e) {
+                // Documenting against a partial classpath would silently drop or misresolve types
+                throw new MojoExecutionException("Dependencies of " + module.getArtifactId() + " are not resolved, "
+                        + "run the goal after compile in the same build", e);
+            }
+        }
+        return classpath;
+    }
+
+    private static List<File> findJavaFiles(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths
+                .filter(Files::isRegularFile)
+                .filter(path -> path.toString().endsWith(".java"))
+                .map(Path::toFile)
+                .collect(Collectors.toList());
+        }
+    }
+
+    private static String normalize(String path) {
+        return Paths.get(path).toAbsolutePath().normalize().toString();
+    }
+}
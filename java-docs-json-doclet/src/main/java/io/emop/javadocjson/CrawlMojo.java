@@ -1,22 +1,54 @@
 package io.emop.javadocjson;
 
-import io.emop.javadocjson.config.JDK9Dialet;
+import io.emop.javadocjson.config.Dialects;
+import io.emop.javadocjson.jfr.FlightRecording;
 import io.emop.javadocjson.model.JavadocClass;
+import io.emop.javadocjson.parser.CrawlPriority;
+import io.emop.javadocjson.parser.CrawlTraceWriter;
+import io.emop.javadocjson.parser.CrawlerCache;
+import io.emop.javadocjson.parser.FetchScheduler;
 import io.emop.javadocjson.parser.HtmlCrawler;
+import io.emop.javadocjson.parser.HtmlPageCache;
+import io.emop.javadocjson.util.BatchedFileWriter;
+import io.emop.javadocjson.util.CanonicalJson;
+import io.emop.javadocjson.util.CorpusWriter;
+import io.emop.javadocjson.util.CrawlStatusReport;
+import io.emop.javadocjson.util.Durations;
+import io.emop.javadocjson.util.HashUtils;
+import io.emop.javadocjson.util.IncrementalOutputWriter;
 import io.emop.javadocjson.util.JsonGenerator;
+import io.emop.javadocjson.util.SnapshotDirectory;
+import io.emop.javadocjson.util.ZipOutputSink;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.MavenProjectHelper;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.MalformedURLException;
 import java.net.URL;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Maven goal to crawl HTML Javadoc and generate JSON.
@@ -31,11 +63,31 @@ public class CrawlMojo extends AbstractMojo {
     private MavenProject project;
 
     /**
-     * Base URL of the Javadoc website to crawl.
+     * Base URL of the Javadoc website to crawl. Required unless {@code sites} is configured.
      */
-    @Parameter(property = "baseUrl", required = true)
+    @Parameter(property = "baseUrl")
     private String baseUrl;
 
+    /**
+     * Several Javadoc websites to crawl concurrently in one run. Each site has its own base URL,
+     * package filters, dialect and output subdirectory; all sites share one worker pool and HTML cache.
+     */
+    @Parameter
+    private List<CrawlSite> sites;
+
+    /**
+     * Number of crawler worker threads, shared by all sites.
+     */
+    @Parameter(property = "threadPoolSize", defaultValue = "5")
+    private int threadPoolSize;
+
+    /**
+     * Maximum number of concurrent requests to one host, 0 for no limit. Not applied when re-parsing, which
+     * makes no requests.
+     */
+    @Parameter(property = "maxConnectionsPerHost", defaultValue = "0")
+    private int maxConnectionsPerHost;
+
     /**
      * Output directory for individual class JSON files.
      */
@@ -49,7 +101,8 @@ public class CrawlMojo extends AbstractMojo {
     private String userAgent;
 
     /**
-     * Request timeout in milliseconds.
+     * Per-URL deadline in milliseconds, covering connect and the complete page download.
+     * It is shortened automatically so that no request outlives {@code maxCrawlDuration}.
      */
     @Parameter(property = "timeout", defaultValue = "30000")
     private int timeout;
@@ -59,6 +112,13 @@ public class CrawlMojo extends AbstractMojo {
      */
     @Parameter(property = "mcpCompatible", defaultValue = "true")
     private boolean mcpCompatible;
+
+    /**
+     * Write canonical JSON: sorted keys and members, normalized whitespace and line endings, so the same
+     * documentation always produces byte-identical files regardless of crawl order.
+     */
+    @Parameter(property = "canonical", defaultValue = "false")
+    private boolean canonical;
     
     /**
      * Proxy host for HTTP requests.
@@ -97,73 +157,548 @@ public class CrawlMojo extends AbstractMojo {
      */
     @Parameter(property = "packageFilters")
     private Set<String> packageFilters;
+
+    /**
+     * Re-run the parser over the cached raw HTML instead of downloading pages.
+     * Use this after changing the parsing dialect; no network requests are made.
+     */
+    @Parameter(property = "reparse", defaultValue = "false")
+    private boolean reparse;
+
+    /**
+     * Compare the crawl result with the existing output instead of rewriting every file.
+     * Byte-identical class files are left untouched, classes that disappeared are deleted, and a change
+     * manifest (added/changed/removed) is written to {@code .javadoc-json/changes.json}.
+     */
+    @Parameter(property = "diffOutput", defaultValue = "false")
+    private boolean diffOutput;
+
+    /**
+     * Shared coordinator directory that enables sharded crawling. Several crawler processes started with
+     * the same directory split the class pages between them through lease files, and all write into the
+     * same output directory. Use a fresh directory for every crawl.
+     */
+    @Parameter(property = "shardDirectory")
+    private File shardDirectory;
+
+    /**
+     * Identifier of this worker in sharded mode, defaults to {@code pid@hostname}.
+     */
+    @Parameter(property = "workerId")
+    private String workerId;
+
+    /**
+     * Number of class pages per shard in sharded mode.
+     */
+    @Parameter(property = "shardSize", defaultValue = "200")
+    private int shardSize;
+
+    /**
+     * Lease duration in seconds in sharded mode. Shards of a worker that stops renewing its lease
+     * are handed to other workers after this time.
+     */
+    @Parameter(property = "shardLeaseSeconds", defaultValue = "60")
+    private int shardLeaseSeconds;
+
+    /**
+     * Crawl priority by package or class name prefix; higher weights are crawled and written first.
+     * A prefix matches the package itself, its subpackages and classes, e.g. {@code <java.util>10</java.util>}.
+     */
+    @Parameter
+    private Map<String, Integer> packageWeights;
+
+    /**
+     * Query statistics file written by the MCP server ({@code --query-stats}). Classes that are queried
+     * more often are crawled first among classes of equal weight.
+     */
+    @Parameter(property = "queryStatsFile")
+    private File queryStatsFile;
+
+    /**
+     * Maximum crawl duration, e.g. {@code 90s}, {@code 30m} or {@code PT1H}. When the budget runs out,
+     * queued pages are dropped and in-flight fetches are cancelled; classes finished so far are written,
+     * most important first, and {@code .javadoc-json/crawl-status.json} reports {@code PARTIAL}.
+     */
+    @Parameter(property = "maxCrawlDuration")
+    private String maxCrawlDuration;
+
+    /**
+     * Records the goal with the JDK Flight Recorder into this {@code .jfr} file. The recording contains the
+     * fetch, parse, extraction and write events of every class next to the JVM's default events.
+     */
+    @Parameter(property = "flightRecording")
+    private File flightRecording;
+
+    /**
+     * Writes one NDJSON record per class URL to {@code .javadoc-json/crawl-trace.ndjson}, with queue wait,
+     * DNS, time to first byte, body and parse times, HTTP status, size, member counts and cache outcome.
+     * Summarize it with the {@code crawl-report} goal.
+     */
+    @Parameter(property = "crawlTrace", defaultValue = "false")
+    private boolean crawlTrace;
+
+    /**
+     * Write into a staging snapshot next to the output directory and publish it with one atomic switch once the
+     * crawl finished, so readers never see half-written or mixed output. The output directory becomes a symbolic
+     * link to the current snapshot in {@code .<name>.snapshots}; the previous snapshot is kept for open readers.
+     * Not supported for sharded crawls, whose workers share the output directory.
+     */
+    @Parameter(property = "atomicOutput", defaultValue = "false")
+    private boolean atomicOutput;
+
+    /**
+     * With {@code atomicOutput}, force the class files to disk in batches of this many files before the snapshot
+     * is published, 0 to leave durability to the operating system.
+     */
+    @Parameter(property = "syncEvery", defaultValue = "256")
+    private int syncEvery;
+
+    /**
+     * Write the class JSON files as entries of this zip or jar file instead of into {@code outputDirectory}, in
+     * class name order (prefixed with the output subdirectory of each site when crawling several sites). Status
+     * reports stay in {@code outputDirectory}. Not supported with {@code diffOutput} or sharded crawls.
+     */
+    @Parameter(property = "outputArchive")
+    private File outputArchive;
+
+    /**
+     * Store archive entries uncompressed, so readers can use them in place from a memory-mapped archive.
+     */
+    @Parameter(property = "archiveStored", defaultValue = "false")
+    private boolean archiveStored;
+
+    /**
+     * Attach {@code outputArchive} to the project with {@code archiveClassifier}, so that {@code install} and
+     * {@code deploy} publish it next to the main artifact.
+     */
+    @Parameter(property = "attachArchive", defaultValue = "false")
+    private boolean attachArchive;
+
+    @Parameter(property = "archiveClassifier", defaultValue = "javadoc-json")
+    private String archiveClassifier;
+
+    /**
+     * Also write the crawled classes of all sites into this compact corpus file, in the same order as archive
+     * entries. The class JSON files are written as usual. Not supported with sharded crawls.
+     */
+    @Parameter(property = "outputCorpus")
+    private File outputCorpus;
+
+    @Component
+    private MavenProjectHelper projectHelper;
+
+    private CrawlPriority crawlPriority;
+    private long maxCrawlDurationMillis;
+    private int fileSyncEvery;
+    // Crawled classes by entry name prefix, kept for the archive or corpus written once every site is done
+    private Map<String, List<JavadocClass>> crawledClasses;
     
 
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
-        getLog().info("Starting Javadoc HTML crawl from: " + baseUrl);
-        
-        if (baseUrl == null || baseUrl.trim().isEmpty()) {
-            throw new MojoExecutionException("baseUrl parameter is required for crawl goal");
+        FlightRecording recording = null;
+        if (flightRecording != null) {
+            try {
+                recording = FlightRecording.start(getLog(), flightRecording);
+            } catch (IOException e) {
+                throw new MojoExecutionException("Cannot start flight recording: " + e.getMessage(), e);
+            }
+        }
+        try {
+            crawlAll();
+        } finally {
+            if (recording != null) {
+                recording.close();
+            }
         }
+    }
 
+    private void crawlAll() throws MojoExecutionException {
+        List<CrawlSite> targets = resolveSites();
         try {
-            // Validate URL
-            new URL(baseUrl);
+            maxCrawlDurationMillis = Durations.parseMillis(maxCrawlDuration);
+        } catch (IllegalArgumentException e) {
+            throw new MojoExecutionException("Invalid maxCrawlDuration: " + maxCrawlDuration, e);
+        }
+        if ((packageWeights != null && !packageWeights.isEmpty()) || queryStatsFile != null) {
+            crawlPriority = CrawlPriority.load(getLog(), packageWeights, queryStatsFile);
+        }
+        boolean multiSite = sites != null && !sites.isEmpty();
+        if (outputArchive != null && (diffOutput || shardDirectory != null)) {
+            throw new MojoExecutionException("outputArchive cannot be combined with diffOutput or shardDirectory");
+        }
+        if (outputCorpus != null && shardDirectory != null) {
+            throw new MojoExecutionException("outputCorpus cannot be combined with shardDirectory");
+        }
+        crawledClasses = outputArchive != null || outputCorpus != null ? new ConcurrentHashMap<>() : null;
 
-            // Create and configure HTML crawler
-            HtmlCrawler crawler = new HtmlCrawler(getLog(), new JDK9Dialet());
-            crawler.setUserAgent(userAgent);
-            crawler.setTimeout(timeout);
-            
-            // Configure proxy if provided
-            if (proxyHost != null && !proxyHost.trim().isEmpty()) {
-                crawler.setProxyHost(proxyHost);
-                crawler.setProxyPort(proxyPort);
-                if (proxyUsername != null && !proxyUsername.trim().isEmpty()) {
-                    crawler.setProxyUsername(proxyUsername);
-                    crawler.setProxyPassword(proxyPassword);
-                }
-                getLog().info("Using proxy: " + proxyHost + ":" + proxyPort);
+        // Ensure output directory exists
+        if (!outputDirectory.exists()) {
+            outputDirectory.mkdirs();
+        }
+
+        SnapshotDirectory snapshots = null;
+        File target = outputDirectory;
+        fileSyncEvery = 0;
+        if (atomicOutput && shardDirectory != null) {
+            getLog().warn("atomicOutput is not supported for sharded crawls, writing into the output directory");
+        } else if (atomicOutput) {
+            snapshots = new SnapshotDirectory(getLog(), outputDirectory.toPath());
+            try {
+                target = snapshots.stage().toFile();
+            } catch (IOException e) {
+                throw new MojoExecutionException("Cannot stage output directory: " + e.getMessage(), e);
             }
-            
-            // Configure package filters if provided
-            if (packageFilters != null && !packageFilters.isEmpty()) {
-                crawler.setPackageFilters(packageFilters);
-                getLog().info("Using package filters: " + packageFilters);
+            fileSyncEvery = syncEvery;
+        }
+        File crawlOutput = target;
+        boolean published = false;
+
+        // Only network fetches are limited per host; re-parsing cached pages is CPU bound and uses every core
+        FetchScheduler scheduler = reparse ? new FetchScheduler(HtmlCrawler.reparseThreads(threadPoolSize))
+                : new FetchScheduler(threadPoolSize, maxConnectionsPerHost);
+        HtmlPageCache htmlCache = new HtmlPageCache(getLog(), true, CrawlerCache.DEFAULT_CACHE_DIR);
+        ExecutorService siteExecutor = Executors.newFixedThreadPool(targets.size());
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (CrawlSite site : targets) {
+                File siteOutput = multiSite ? new File(crawlOutput, siteOutputName(site)) : crawlOutput;
+                results.add(siteExecutor.submit(() -> crawlSite(site, siteOutput, multiSite, scheduler, htmlCache)));
             }
 
-            // Crawl the Javadoc website
-            List<JavadocClass> classes = crawler.crawl(baseUrl);
+            int totalClasses = 0;
+            for (int i = 0; i < results.size(); i++) {
+                try {
+                    totalClasses += results.get(i).get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException) {
+                        throw new MojoExecutionException("Failed to crawl Javadoc HTML: " + targets.get(i).getBaseUrl(), cause);
+                    }
+                    throw new MojoExecutionException("Unexpected error during Javadoc HTML crawling: " + targets.get(i).getBaseUrl(), cause);
+                }
+            }
 
-            // Ensure output directory exists
-            if (!outputDirectory.exists()) {
-                outputDirectory.mkdirs();
+            if (crawledClasses != null) {
+                Map<String, JavadocClass> entries = new TreeMap<>();
+                for (Map.Entry<String, List<JavadocClass>> site : crawledClasses.entrySet()) {
+                    for (JavadocClass javadocClass : site.getValue()) {
+                        entries.put(site.getKey() + javadocClass.getFullName() + ".json", javadocClass);
+                    }
+                }
+                crawledClasses = null;
+                if (outputArchive != null) {
+                    try {
+                        writeArchive(entries);
+                    } catch (IOException e) {
+                        throw new MojoExecutionException("Cannot write archive " + outputArchive + ": " + e.getMessage(), e);
+                    }
+                }
+                if (outputCorpus != null) {
+                    try {
+                        writeCorpus(entries.values());
+                    } catch (IOException e) {
+                        throw new MojoExecutionException("Cannot write corpus " + outputCorpus + ": " + e.getMessage(), e);
+                    }
+                }
             }
 
-            // Generate individual JSON files for each class
-            JsonGenerator generator = new JsonGenerator();
-            generator.setMcpCompatible(mcpCompatible);
-            
-            int totalClasses = 0;
-            for (JavadocClass javadocClass : classes) {
-                // Create filename based on full class name
-                String fileName = javadocClass.getFullName() + ".json";
-                File classFile = new File(outputDirectory, fileName);
-                
-                // Write individual class JSON file
-                generator.writeClassToFile(javadocClass, classFile);
-                totalClasses++;
+            if (snapshots != null) {
+                try {
+                    snapshots.publish(crawlOutput.toPath());
+                } catch (IOException e) {
+                    throw new MojoExecutionException("Cannot publish output directory: " + e.getMessage(), e);
+                }
             }
+            published = true;
             
             getLog().info("Javadoc crawl completed. Output written to: " + outputDirectory.getAbsolutePath());
             getLog().info("Total classes: " + totalClasses);
             getLog().info("MCP Compatible: " + mcpCompatible);
 
-        } catch (IOException e) {
-            throw new MojoExecutionException("Failed to crawl Javadoc HTML", e);
-        } catch (Exception e) {
-            throw new MojoExecutionException("Unexpected error during Javadoc HTML crawling", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Javadoc HTML crawling interrupted", e);
+        } finally {
+            siteExecutor.shutdownNow();
+            scheduler.shutdownNow();
+            if (snapshots != null && !published) {
+                // The previous snapshot stays published
+                try {
+                    snapshots.discard(crawlOutput.toPath());
+                } catch (IOException e) {
+                    getLog().warn("Cannot delete staged output " + crawlOutput + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the crawled classes of all sites into the archive in entry name order and attaches it if requested.
+     */
+    private void writeArchive(Map<String, JavadocClass> entries) throws IOException {
+        JsonGenerator generator = new JsonGenerator();
+        generator.setMcpCompatible(mcpCompatible);
+        generator.setCanonical(canonical);
+        try (ZipOutputSink archive = new ZipOutputSink(outputArchive.toPath(), archiveStored)) {
+            for (Map.Entry<String, JavadocClass> entry : entries.entrySet()) {
+                generator.writeClassToArchive(entry.getValue(), entry.getKey(), archive);
+            }
+            archive.finish();
+        }
+        getLog().info(entries.size() + " classes written to " + outputArchive.getAbsolutePath());
+
+        if (attachArchive && project != null) {
+            String type = outputArchive.getName().endsWith(".jar") ? "jar" : "zip";
+            projectHelper.attachArtifact(project, type, archiveClassifier, outputArchive);
+            getLog().info("Attached " + outputArchive.getName() + " with classifier " + archiveClassifier);
+        }
+    }
+
+    /**
+     * Writes the crawled classes of all sites into the corpus.
+     */
+    private void writeCorpus(Collection<JavadocClass> classes) throws IOException {
+        CorpusWriter corpus = new CorpusWriter();
+        for (JavadocClass javadocClass : classes) {
+            if (canonical) {
+                CanonicalJson.canonicalize(javadocClass);
+            }
+            corpus.add(javadocClass);
+        }
+        long size = corpus.writeTo(outputCorpus.toPath());
+        getLog().info(String.format("%d classes written to %s (%d strings, %d KiB)", corpus.getClassCount(),
+                outputCorpus.getAbsolutePath(), corpus.getStringCount(), size / 1024));
+    }
+
+    /**
+     * Builds the list of sites to crawl, either from {@code sites} or from the single-site parameters.
+     */
+    private List<CrawlSite> resolveSites() throws MojoExecutionException {
+        List<CrawlSite> targets = new ArrayList<>();
+        if (sites != null && !sites.isEmpty()) {
+            targets.addAll(sites);
+        } else {
+            CrawlSite site = new CrawlSite();
+            site.setBaseUrl(baseUrl);
+            site.setPackageFilters(packageFilters);
+            targets.add(site);
+        }
+
+        Set<String> outputNames = new HashSet<>();
+        for (int i = 0; i < targets.size(); i++) {
+            CrawlSite site = targets.get(i);
+            if (site.getBaseUrl() == null || site.getBaseUrl().trim().isEmpty()) {
+                throw new MojoExecutionException("baseUrl parameter is required for crawl goal");
+            }
+            try {
+                // Validate URL
+                new URL(site.getBaseUrl());
+            } catch (MalformedURLException e) {
+                throw new MojoExecutionException("Invalid baseUrl: " + site.getBaseUrl(), e);
+            }
+            if (site.getName() == null || site.getName().trim().isEmpty()) {
+                // Stable when sites are reordered, since the name also selects the site's class cache
+                site.setName(defaultSiteName(site.getBaseUrl()));
+            }
+            if (!outputNames.add(siteOutputName(site))) {
+                throw new MojoExecutionException("Duplicate output subdirectory for site: " + site.getName());
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * Default name of a site without one, derived from its base URL.
+     */
+    static String defaultSiteName(String baseUrl) {
+        String normalized = baseUrl.trim();
+        while (normalized.endsWith("/")) {
+            normalized = normalized.substring(0, normalized.length() - 1);
+        }
+        return "site-" + HashUtils.sha256Hex(normalized).substring(0, 12);
+    }
+
+    private static String sanitizeFileName(String name) {
+        return name.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+
+    private static String siteOutputName(CrawlSite site) {
+        String subdirectory = site.getOutputSubdirectory();
+        return subdirectory != null && !subdirectory.trim().isEmpty() ? subdirectory.trim() : site.getName();
+    }
+
+    /**
+     * Crawls one site and writes its classes.
+     *
+     * @return the number of classes written
+     */
+    private int crawlSite(CrawlSite site, File siteOutput, boolean multiSite, FetchScheduler scheduler,
+                          HtmlPageCache htmlCache) throws IOException {
+        String siteBaseUrl = site.getBaseUrl();
+        getLog().info("Starting Javadoc HTML crawl from: " + siteBaseUrl);
+
+        // Create and configure HTML crawler
+        HtmlCrawler crawler = new HtmlCrawler(getLog(), Dialects.forName(site.getDialect()));
+        crawler.setUserAgent(userAgent);
+        crawler.setTimeout(timeout);
+        crawler.setScheduler(scheduler);
+        crawler.setSharedHtmlCache(htmlCache);
+        if (multiSite) {
+            // Parsed classes are cached by class name, which is only unique within one site
+            crawler.setCacheDir(CrawlerCache.DEFAULT_CACHE_DIR + File.separator + "sites" + File.separator + site.getName());
+        }
+        
+        // Configure proxy if provided
+        if (proxyHost != null && !proxyHost.trim().isEmpty()) {
+            crawler.setProxyHost(proxyHost);
+            crawler.setProxyPort(proxyPort);
+            if (proxyUsername != null && !proxyUsername.trim().isEmpty()) {
+                crawler.setProxyUsername(proxyUsername);
+                crawler.setProxyPassword(proxyPassword);
+            }
+            getLog().info("Using proxy: " + proxyHost + ":" + proxyPort);
+        }
+        
+        // Configure package filters if provided
+        Set<String> sitePackageFilters = site.getPackageFilters();
+        if (sitePackageFilters != null && !sitePackageFilters.isEmpty()) {
+            crawler.setPackageFilters(sitePackageFilters);
+            getLog().info("Using package filters for " + site.getName() + ": " + sitePackageFilters);
+        }
+
+        if (reparse) {
+            crawler.setReparse(true);
+            getLog().info("Re-parsing cached HTML pages, no network requests will be made");
+        }
+
+        boolean sharded = shardDirectory != null;
+        if (sharded) {
+            File siteShardDirectory = multiSite ? new File(shardDirectory, site.getName()) : shardDirectory;
+            crawler.setShardDirectory(siteShardDirectory.getAbsolutePath());
+            crawler.setWorkerId(workerId);
+            crawler.setShardSize(shardSize);
+            crawler.setShardLeaseMillis(shardLeaseSeconds * 1000L);
+            getLog().info("Sharded crawl using coordinator directory: " + siteShardDirectory.getAbsolutePath());
+        }
+
+        if (crawlPriority != null) {
+            crawler.setCrawlPriority(crawlPriority);
+        }
+        crawler.setMaxCrawlDurationMillis(maxCrawlDurationMillis);
+
+        if (!siteOutput.exists()) {
+            siteOutput.mkdirs();
+        }
+
+        // Generate individual JSON files for each class
+        JsonGenerator generator = new JsonGenerator();
+        generator.setMcpCompatible(mcpCompatible);
+        generator.setCanonical(canonical);
+
+        BatchedFileWriter fileWriter = new BatchedFileWriter(fileSyncEvery);
+        IncrementalOutputWriter writer = null;
+        if (diffOutput) {
+            writer = new IncrementalOutputWriter(getLog(), generator, siteOutput);
+            writer.setFileWriter(fileWriter);
+            if (sharded) {
+                // Each worker only sees its own shards, so it must neither delete other classes nor overwrite their manifest
+                writer.setManifestName("changes-" + sanitizeFileName(crawler.getEffectiveWorkerId()) + ".json");
+            }
+        }
+
+        // Classes are written as they arrive, in priority order, so a crawl stopped at its deadline
+        // leaves the most important classes on disk
+        IncrementalOutputWriter diffWriter = writer;
+        AtomicInteger totalClasses = new AtomicInteger();
+        AtomicReference<IOException> writeFailure = new AtomicReference<>();
+        crawler.setClassListener(javadocClass -> {
+            if (writeFailure.get() != null) {
+                return;
+            }
+            if (outputArchive != null) {
+                // Written to the archive in name order once every site is done
+                totalClasses.incrementAndGet();
+                return;
+            }
+            long writeStart = System.nanoTime();
+            try {
+                if (diffWriter != null) {
+                    diffWriter.write(javadocClass);
+                } else {
+                    // Create filename based on full class name
+                    File classFile = new File(siteOutput, javadocClass.getFullName() + ".json");
+                    generator.writeClassToFile(javadocClass, classFile, fileWriter);
+                }
+                totalClasses.incrementAndGet();
+                crawler.getProgressTracker().recordWrite(System.nanoTime() - writeStart);
+            } catch (IOException e) {
+                writeFailure.set(e);
+            }
+        });
+
+        String workerSuffix = sharded ? "-" + sanitizeFileName(crawler.getEffectiveWorkerId()) : "";
+        File metadataDirectory = new File(siteOutput, JsonGenerator.METADATA_DIRECTORY);
+        CrawlTraceWriter traceWriter = null;
+        if (crawlTrace) {
+            traceWriter = new CrawlTraceWriter(getLog(), new File(metadataDirectory, "crawl-trace" + workerSuffix + ".ndjson"));
+            crawler.setTraceWriter(traceWriter);
+        }
+
+        // Crawl the Javadoc website
+        Instant startedAt = Instant.now();
+        List<JavadocClass> classes;
+        try {
+            classes = crawler.crawl(siteBaseUrl);
+        } finally {
+            if (traceWriter != null) {
+                traceWriter.close();
+            }
+        }
+        if (writeFailure.get() != null) {
+            throw writeFailure.get();
+        }
+        fileWriter.flush();
+
+        if (crawledClasses != null) {
+            crawledClasses.put(multiSite ? siteOutputName(site) + "/" : "", classes);
+        }
+
+        boolean partial = crawler.isDeadlineReached();
+        if (partial) {
+            getLog().warn("Crawl of " + site.getName() + " ran out of its time budget after " + classes.size() +
+                    " classes, " + crawler.getDeferredCount() + " classes were not crawled");
+        }
+
+        if (diffWriter != null) {
+            // An empty result means the crawl failed, not that every class disappeared
+            if (classes.isEmpty()) {
+                getLog().warn("Crawl produced no classes, existing output is kept");
+            }
+            // Classes that failed or were not reached before the deadline keep their previous output
+            crawler.getFailedClassNames().forEach(diffWriter::keep);
+            diffWriter.finish(!classes.isEmpty() && !sharded && !partial);
+        }
+
+        Instant finishedAt = Instant.now();
+        CrawlStatusReport report = new CrawlStatusReport();
+        report.setStatus(classes.isEmpty() ? CrawlStatusReport.Status.FAILED :
+                partial ? CrawlStatusReport.Status.PARTIAL : CrawlStatusReport.Status.COMPLETE);
+        report.setBaseUrl(siteBaseUrl);
+        report.setStartedAt(startedAt.toString());
+        report.setFinishedAt(finishedAt.toString());
+        report.setDurationMillis(Duration.between(startedAt, finishedAt).toMillis());
+        report.setClassesWritten(totalClasses.get());
+        report.setClassesFailed(crawler.getFailedCount());
+        report.setClassesNotCrawled(crawler.getDeferredCount());
+        report.writeTo(siteOutput, sharded ? "crawl-status" + workerSuffix + ".json" : CrawlStatusReport.STATUS_FILE);
+
+        // Counters and latency percentiles of this crawl, for dashboards and regression checks
+        crawler.getProgressTracker().writeSummary(new File(metadataDirectory, "crawl-summary" + workerSuffix + ".json"));
+
+        if (multiSite) {
+            getLog().info("Site " + site.getName() + " completed: " + totalClasses.get() + " classes written to " + siteOutput.getAbsolutePath());
         }
+        return totalClasses.get();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,65 @@
+package io.emop.javadocjson;
+
+import io.emop.javadocjson.parser.CrawlTraceAnalyzer;
+import io.emop.javadocjson.parser.CrawlTraceWriter;
+import io.emop.javadocjson.util.JsonGenerator;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Maven goal to print a summary of a crawl trace written by the crawl goal with {@code crawlTrace} enabled.
+ */
+@Mojo(name = "crawl-report", requiresProject = false)
+public class CrawlReportMojo extends AbstractMojo {
+
+    /**
+     * Output directory of the crawl; the trace is read from its {@code .javadoc-json} directory.
+     */
+    @Parameter(property = "outputDirectory", defaultValue = "${project.build.directory}/javadoc-json")
+    private File outputDirectory;
+
+    /**
+     * Trace file to analyze, overrides the trace in {@code outputDirectory}.
+     */
+    @Parameter(property = "traceFile")
+    private File traceFile;
+
+    /**
+     * Number of slowest pages to list.
+     */
+    @Parameter(property = "top", defaultValue = "20")
+    private int top;
+
+    /**
+     * Width of the throughput timeline buckets in seconds.
+     */
+    @Parameter(property = "timelineSeconds", defaultValue = "10")
+    private int timelineSeconds;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        File trace = traceFile != null ? traceFile :
+                new File(new File(outputDirectory, JsonGenerator.METADATA_DIRECTORY), CrawlTraceWriter.TRACE_FILE);
+        if (!trace.isFile()) {
+            throw new MojoExecutionException("Crawl trace not found: " + trace.getAbsolutePath() +
+                    ", run the crawl goal with -DcrawlTrace=true first");
+        }
+
+        CrawlTraceAnalyzer analyzer;
+        try {
+            analyzer = CrawlTraceAnalyzer.load(trace);
+        } catch (IOException e) {
+            throw new MojoExecutionException("Failed to read crawl trace: " + trace.getAbsolutePath(), e);
+        }
+
+        getLog().info("Crawl trace: " + trace.getAbsolutePath());
+        for (String line : analyzer.formatReport(top, Math.max(1, timelineSeconds) * 1000L)) {
+            getLog().info(line);
+        }
+    }
+}
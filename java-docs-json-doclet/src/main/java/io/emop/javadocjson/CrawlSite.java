@@ -0,0 +1,37 @@
+package io.emop.javadocjson;
+
+import lombok.Data;
+
+import java.util.Set;
+
+/**
+ * One Javadoc website to crawl, configured as a {@code <site>} of the crawl goal.
+ */
+@Data
+public class CrawlSite {
+
+    /**
+     * Short name of the site, used in log messages and as default output subdirectory.
+     */
+    private String name;
+
+    /**
+     * Base URL of the Javadoc website.
+     */
+    private String baseUrl;
+
+    /**
+     * Package filters using regular expressions, same semantics as the goal-level packageFilters.
+     */
+    private Set<String> packageFilters;
+
+    /**
+     * Parsing dialect: "jdk9" (default) or a fully qualified JavadocParsingConfig class name.
+     */
+    private String dialect;
+
+    /**
+     * Subdirectory of the output directory for this site's JSON files; defaults to the site name.
+     */
+    private String outputSubdirectory;
+}
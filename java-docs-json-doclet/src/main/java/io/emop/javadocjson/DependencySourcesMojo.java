@@ -0,0 +1,292 @@
+package io.emop.javadocjson;
+
+import io.emop.javadocjson.doclet.SourcesJarCache;
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Component;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.collection.CollectRequest;
+import org.eclipse.aether.graph.Dependency;
+import org.eclipse.aether.graph.DependencyFilter;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResolutionException;
+import org.eclipse.aether.resolution.ArtifactResult;
+import org.eclipse.aether.resolution.DependencyRequest;
+import org.eclipse.aether.resolution.DependencyResolutionException;
+import org.eclipse.aether.resolution.DependencyResult;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Maven goal to generate JSON documentation from the {@code -sources.jar} of dependencies.
+ * <p>
+ * Sources are resolved from the project's repositories and read straight from the jar, without extracting it.
+ * The JSON of each dependency version is kept in a shared cache keyed by {@code groupId:artifactId:version} and
+ * the coordinates of the dependency's own transitive dependencies, which are resolved separately as the classpath
+ * of the doclet. The consuming project's classpath plays no part, so each version is generated once per machine
+ * and then copied into the output directory of every build that asks for it.
+ * Dependencies missing from the cache are documented concurrently.
+ */
+@Mojo(name = "dependency-sources", requiresDependencyResolution = ResolutionScope.COMPILE_PLUS_RUNTIME)
+public class DependencySourcesMojo extends AbstractMojo {
+
+    @Parameter(defaultValue = "${project}", readonly = true, required = true)
+    private MavenProject project;
+
+    @Component
+    private RepositorySystem repositorySystem;
+
+    @Parameter(defaultValue = "${repositorySystemSession}", readonly = true, required = true)
+    private RepositorySystemSession repositorySession;
+
+    @Parameter(defaultValue = "${project.remoteProjectRepositories}", readonly = true, required = true)
+    private List<RemoteRepository> remoteRepositories;
+
+    /**
+     * Dependencies to document as {@code groupId:artifactId} patterns, {@code *} matches any characters,
+     * e.g. {@code com.fasterxml.jackson.core:*}. Without includes every direct dependency is documented.
+     */
+    @Parameter(property = "includes")
+    private List<String> includes;
+
+    /**
+     * Output directory for the JSON files.
+     */
+    @Parameter(property = "outputDirectory", defaultValue = "${project.build.directory}/javadoc-json")
+    private String outputDirectory;
+
+    /**
+     * Shared cache of generated dependency documentation, {@link SourcesJarCache#DEFAULT_CACHE_DIR} by default.
+     */
+    @Parameter(property = "sourcesCacheDirectory")
+    private File cacheDirectory;
+
+    /**
+     * Regenerate cached dependencies.
+     */
+    @Parameter(property = "refreshCache", defaultValue = "false")
+    private boolean refreshCache;
+
+    /**
+     * Include private members in the output.
+     */
+    @Parameter(property = "includePrivate", defaultValue = "false")
+    private boolean includePrivate;
+
+    /**
+     * Source file encoding of the dependency sources.
+     */
+    @Parameter(property = "encoding", defaultValue = "UTF-8")
+    private String encoding;
+
+    /**
+     * Number of threads documenting dependencies, {@code 0} means one per available core.
+     */
+    @Parameter(property = "threads", defaultValue = "0")
+    private int threads;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        List<Artifact> dependencies = selectDependencies();
+        if (dependencies.isEmpty()) {
+            getLog().warn("No dependencies match " + (includes == null || includes.isEmpty() ? "the direct dependencies" : includes));
+            return;
+        }
+
+        SourcesJarCache cache = new SourcesJarCache(getLog(),
+                cacheDirectory != null ? cacheDirectory.toPath() : Paths.get(SourcesJarCache.DEFAULT_CACHE_DIR));
+        cache.setIncludePrivate(includePrivate);
+        cache.setEncoding(encoding);
+
+        // Resolve sources jars and split into cache hits and dependencies to document
+        List<Artifact> misses = new ArrayList<>();
+        List<Path> sourcesJars = new ArrayList<>();
+        List<Map<String, String>> classpaths = new ArrayList<>();
+        List<Path> entries = new ArrayList<>();
+        for (Artifact dependency : dependencies) {
+            Path sourcesJar = resolveSources(dependency);
+            if (sourcesJar == null) {
+                continue;
+            }
+            Map<String, String> classpath = resolveDependencies(dependency);
+            Path entry = refreshCache ? null : cache.lookup(dependency.getGroupId(), dependency.getArtifactId(),
+                    dependency.getVersion(), sourcesJar, classpath);
+            if (entry != null) {
+                getLog().info("Using cached documentation of " + dependency.getId());
+                entries.add(entry);
+            } else {
+                misses.add(dependency);
+                sourcesJars.add(sourcesJar);
+                classpaths.add(classpath);
+            }
+        }
+
+        entries.addAll(generate(cache, misses, sourcesJars, classpaths));
+
+        Path output = Paths.get(outputDirectory);
+        int files = 0;
+        try {
+            for (Path entry : entries) {
+                files += SourcesJarCache.copyEntry(entry, output);
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Error copying cached documentation to " + outputDirectory, e);
+        }
+        getLog().info(String.format("JSON documentation of %d dependencies (%d generated, %d cached) in %s: %d files",
+                entries.size(), misses.size(), entries.size() - misses.size(), outputDirectory, files));
+    }
+
+    /**
+     * Document the dependencies missing from the cache, each with a share of the available threads.
+     */
+    private List<Path> generate(SourcesJarCache cache, List<Artifact> misses, List<Path> sourcesJars,
+                                List<Map<String, String>> classpaths) throws MojoExecutionException {
+        List<Path> entries = new ArrayList<>();
+        if (misses.isEmpty()) {
+            return entries;
+        }
+        int threadCount = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        int workers = Math.min(threadCount, misses.size());
+        int partitions = Math.max(1, threadCount / workers);
+        getLog().info("Documenting " + misses.size() + " dependencies from sources with " + workers
+                + " workers, " + partitions + " partitions each");
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "javadoc-json-sources-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Path>> futures = new ArrayList<>();
+            for (int i = 0; i < misses.size(); i++) {
+                Artifact dependency = misses.get(i);
+                Path sourcesJar = sourcesJars.get(i);
+                Map<String, String> classpath = classpaths.get(i);
+                futures.add(executor.submit(() -> {
+                    long start = System.nanoTime();
+                    Path entry = cache.generate(dependency.getGroupId(), dependency.getArtifactId(),
+                            dependency.getVersion(), sourcesJar, classpath, partitions);
+                    getLog().info(String.format("Documented %s in %d ms", dependency.getId(),
+                            (System.nanoTime() - start) / 1_000_000));
+                    return entry;
+                }));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    entries.add(futures.get(i).get());
+                } catch (ExecutionException e) {
+                    throw new MojoExecutionException("Error documenting " + misses.get(i).getId() + ": "
+                            + e.getCause().getMessage(), e.getCause());
+                }
+            }
+            return entries;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while documenting dependencies", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<Artifact> selectDependencies() {
+        List<Artifact> selected = new ArrayList<>();
+        if (includes == null || includes.isEmpty()) {
+            for (Artifact artifact : project.getArtifacts()) {
+                if (artifact.getDependencyTrail() == null || artifact.getDependencyTrail().size() <= 2) {
+                    selected.add(artifact);
+                }
+            }
+            return selected;
+        }
+        List<Pattern> patterns = new ArrayList<>();
+        for (String include : includes) {
+            patterns.add(toPattern(include.trim()));
+        }
+        for (Artifact artifact : project.getArtifacts()) {
+            String key = artifact.getGroupId() + ":" + artifact.getArtifactId();
+            if (patterns.stream().anyMatch(pattern -> pattern.matcher(key).matches())) {
+                selected.add(artifact);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Pattern for {@code groupId[:artifactId]} where {@code *} matches any characters.
+     */
+    static Pattern toPattern(String include) {
+        String glob = include.contains(":") ? include : include + ":*";
+        return Pattern.compile(Pattern.quote(glob).replace("*", "\\E.*\\Q"));
+    }
+
+    private Path resolveSources(Artifact dependency) {
+        ArtifactRequest request = new ArtifactRequest();
+        request.setArtifact(new DefaultArtifact(dependency.getGroupId(), dependency.getArtifactId(), "sources",
+                "jar", dependency.getVersion()));
+        request.setRepositories(remoteRepositories);
+        try {
+            return repositorySystem.resolveArtifact(repositorySession, request).getArtifact().getFile().toPath();
+        } catch (ArtifactResolutionException e) {
+            getLog().warn("No sources jar for " + dependency.getId() + ", skipping: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Resolve the compile and runtime dependencies of a dependency itself, independent of the project that uses it.
+     *
+     * @return the coordinates of each resolved dependency mapped to its jar file
+     */
+    private Map<String, String> resolveDependencies(Artifact dependency) {
+        CollectRequest collect = new CollectRequest();
+        collect.setRoot(new Dependency(new DefaultArtifact(dependency.getGroupId(), dependency.getArtifactId(),
+                dependency.getClassifier(), dependency.getArtifactHandler().getExtension(), dependency.getVersion()),
+                "compile"));
+        collect.setRepositories(remoteRepositories);
+        DependencyFilter filter = (node, parents) -> !parents.isEmpty() && node.getDependency() != null
+                && ("compile".equals(node.getDependency().getScope())
+                || "runtime".equals(node.getDependency().getScope()));
+
+        List<ArtifactResult> results;
+        try {
+            results = repositorySystem.resolveDependencies(repositorySession, new DependencyRequest(collect, filter))
+                    .getArtifactResults();
+        } catch (DependencyResolutionException e) {
+            DependencyResult partial = e.getResult();
+            results = partial != null ? partial.getArtifactResults() : Collections.emptyList();
+            getLog().warn("Not all dependencies of " + dependency.getId()
+                    + " resolved, documenting against the rest: " + e.getMessage());
+        }
+
+        Map<String, String> classpath = new TreeMap<>();
+        for (ArtifactResult result : results) {
+            if (result.isResolved() && result.getArtifact().getFile() != null) {
+                classpath.put(result.getArtifact().toString(), result.getArtifact().getFile().getAbsolutePath());
+            }
+        }
+        return classpath;
+    }
+}
@@ -1,25 +1,33 @@
 package io.emop.javadocjson;
 
+import io.emop.javadocjson.daemon.DaemonClient;
+import io.emop.javadocjson.daemon.DaemonRequest;
+import io.emop.javadocjson.daemon.DaemonResponse;
+import io.emop.javadocjson.daemon.DocletDaemon;
+import io.emop.javadocjson.doclet.JavadocInvoker;
+import io.emop.javadocjson.jfr.FlightRecording;
+import io.emop.javadocjson.util.BuildStamp;
+import io.emop.javadocjson.util.SnapshotDirectory;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Component;
 import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
 import org.apache.maven.project.MavenProject;
+import org.apache.maven.project.MavenProjectHelper;
 
-import javax.tools.DocumentationTool;
-import javax.tools.JavaFileObject;
-import javax.tools.StandardJavaFileManager;
-import javax.tools.StandardLocation;
-import javax.tools.ToolProvider;
 import java.io.File;
 import java.io.IOException;
+import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.security.CodeSource;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -73,69 +81,323 @@ public class PublishMojo extends AbstractMojo {
     @Parameter(property = "encoding", defaultValue = "UTF-8")
     private String encoding;
 
+    /**
+     * Records the goal with the JDK Flight Recorder into this {@code .jfr} file. The recording contains the
+     * doclet and write events of every class next to the JVM's default events.
+     */
+    @Parameter(property = "flightRecording")
+    private File flightRecording;
+
+    /**
+     * Number of package-aligned partitions documented concurrently. javac attributes a task on one thread,
+     * so values above 1 spread large source sets over several cores; each partition still resolves types
+     * from every source root.
+     */
+    @Parameter(property = "partitions", defaultValue = "1")
+    private int partitions;
+
+    /**
+     * Write canonical JSON: sorted keys and members, normalized whitespace and line endings, so identical
+     * sources always produce byte-identical files.
+     */
+    @Parameter(property = "canonical", defaultValue = "false")
+    private boolean canonical;
+
+    /**
+     * Skip the doclet when sources, classpath and configuration are unchanged since the last run. The check
+     * compares file sizes and modification times with a stamp kept in the output directory.
+     */
+    @Parameter(property = "upToDateCheck", defaultValue = "true")
+    private boolean upToDateCheck;
+
+    /**
+     * Generate in a long-lived daemon JVM that keeps javac, the class path indexes and the doclet warm between
+     * builds. The daemon is started on first use and stops after {@code daemonIdleTimeout} seconds without requests.
+     */
+    @Parameter(property = "daemon", defaultValue = "false")
+    private boolean daemon;
+
+    @Parameter(property = "daemonIdleTimeout", defaultValue = "1800")
+    private long daemonIdleTimeout;
+
+    /**
+     * State file of the daemon, shared by every build that uses the same daemon.
+     */
+    @Parameter(property = "daemonStateFile", defaultValue = "${user.home}/.javadoc-json/daemon.json")
+    private File daemonStateFile;
+
+    /**
+     * Write into a staging snapshot next to the output directory and publish it with one atomic switch once the
+     * run succeeded, so readers never see half-written or mixed output. The output directory becomes a symbolic
+     * link to the current snapshot in {@code .<name>.snapshots}; the previous snapshot is kept for open readers.
+     */
+    @Parameter(property = "atomicOutput", defaultValue = "false")
+    private boolean atomicOutput;
+
+    /**
+     * With {@code atomicOutput}, force the class files to disk in batches of this many files before the snapshot
+     * is published, 0 to leave durability to the operating system.
+     */
+    @Parameter(property = "syncEvery", defaultValue = "256")
+    private int syncEvery;
+
+    /**
+     * Write the class JSON files as entries of this zip or jar file instead of into {@code outputDirectory}, in
+     * one streaming pass and in class name order. The build stamp stays in {@code outputDirectory}.
+     */
+    @Parameter(property = "outputArchive")
+    private File outputArchive;
+
+    /**
+     * Store archive entries uncompressed, so readers can use them in place from a memory-mapped archive.
+     */
+    @Parameter(property = "archiveStored", defaultValue = "false")
+    private boolean archiveStored;
+
+    /**
+     * Attach {@code outputArchive} to the project with {@code archiveClassifier}, so that {@code install} and
+     * {@code deploy} publish it next to the main artifact.
+     */
+    @Parameter(property = "attachArchive", defaultValue = "false")
+    private boolean attachArchive;
+
+    @Parameter(property = "archiveClassifier", defaultValue = "javadoc-json")
+    private String archiveClassifier;
+
+    /**
+     * Also write all classes into this compact corpus file, which stores every distinct string once and loads
+     * into far less memory than the class JSON files, see {@link io.emop.javadocjson.util.CorpusReader}.
+     */
+    @Parameter(property = "outputCorpus")
+    private File outputCorpus;
+
+    @Component
+    private MavenProjectHelper projectHelper;
+
+    @Parameter(defaultValue = "${plugin.version}", readonly = true)
+    private String pluginVersion;
+
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
+        FlightRecording recording = null;
+        if (flightRecording != null) {
+            try {
+                recording = FlightRecording.start(getLog(), flightRecording);
+            } catch (IOException e) {
+                throw new MojoExecutionException("Cannot start flight recording: " + e.getMessage(), e);
+            }
+        }
+        try {
+            generate();
+        } finally {
+            if (recording != null) {
+                recording.close();
+            }
+        }
+    }
+
+    private void generate() throws MojoExecutionException {
         try {
             getLog().info("Generating JSON documentation using JDK Doclet API...");
             getLog().info("Source directory: " + sourceDirectory);
             getLog().info("Output directory: " + outputDirectory);
 
-            // Get the documentation tool
-            DocumentationTool docTool = ToolProvider.getSystemDocumentationTool();
-            if (docTool == null) {
-                throw new MojoExecutionException("Documentation tool not available. Make sure you're running with JDK (not JRE).");
+            // Collect all Java source files
+            List<File> javaFiles = collectJavaFiles();
+            if (javaFiles.isEmpty()) {
+                getLog().warn("No Java source files found in: " + sourceDirectory);
+                return;
             }
 
-            // Get file manager
-            StandardJavaFileManager fileManager = docTool.getStandardFileManager(null, null, null);
-
-            try {
-                // Set up classpath for the file manager
-                setupClasspath(fileManager);
-                
-                // Collect all Java source files
-                List<File> javaFiles = collectJavaFiles();
-                if (javaFiles.isEmpty()) {
-                    getLog().warn("No Java source files found in: " + sourceDirectory);
+            getLog().info("Found " + javaFiles.size() + " Java source files");
+            List<String> classpathElements = resolveClasspath();
+
+            Path output = Paths.get(outputDirectory);
+            String fingerprint = null;
+            if (upToDateCheck) {
+                long start = System.nanoTime();
+                fingerprint = fingerprint(javaFiles, classpathElements);
+                if (BuildStamp.matches(output, fingerprint) && (outputArchive == null || outputArchive.isFile())
+                        && (outputCorpus == null || outputCorpus.isFile())) {
+                    getLog().info(String.format("JSON documentation is up to date (checked in %d ms), skipping",
+                            (System.nanoTime() - start) / 1_000_000));
+                    attachArchive();
                     return;
                 }
+                BuildStamp.delete(output);
+            }
 
-                getLog().info("Found " + javaFiles.size() + " Java source files");
-
-                // Convert to JavaFileObject
-                Iterable<? extends JavaFileObject> compilationUnits = 
-                    fileManager.getJavaFileObjectsFromFiles(javaFiles);
-
-                // Prepare doclet arguments
-                List<String> options = prepareDocletOptions();
-
-                // Create and run the documentation task
-                DocumentationTool.DocumentationTask task = docTool.getTask(
-                    null,           // Writer for additional output
-                    fileManager,    // File manager
-                    null,           // Diagnostic listener
-                    io.emop.javadocjson.doclet.JsonDoclet.class, // Doclet class
-                    options,        // Options
-                    compilationUnits // Source files
-                );
-
-                // Execute the task
-                Boolean result = task.call();
-                if (result == null || !result) {
-                    throw new MojoExecutionException("Doclet execution failed");
-                }
-
-                getLog().info("JSON documentation generated successfully in: " + outputDirectory);
+            SnapshotDirectory snapshots = atomicOutput ? new SnapshotDirectory(getLog(), output) : null;
+            Path target = snapshots != null ? snapshots.stage() : output;
+            boolean published = false;
+            try {
+                if (!daemon || !runInDaemon(javaFiles, classpathElements, target)) {
+                    JavadocInvoker invoker = new JavadocInvoker(getLog());
+                    invoker.setOutputDirectory(target.toString());
+                    invoker.setIncludePrivate(includePrivate);
+                    invoker.setEncoding(encoding);
+                    invoker.setClasspath(classpathElements);
+                    invoker.setSourceRoots(collectSourceRoots());
+                    invoker.setPartitions(partitions);
+                    invoker.setCanonical(canonical);
+                    invoker.setSyncEvery(atomicOutput ? syncEvery : 0);
+                    if (outputArchive != null) {
+                        invoker.setOutputArchive(outputArchive.toPath());
+                        invoker.setArchiveStored(archiveStored);
+                    }
+                    if (outputCorpus != null) {
+                        invoker.setOutputCorpus(outputCorpus.toPath());
+                    }
 
+                    // Execute the documentation task(s)
+                    if (!invoker.run(javaFiles)) {
+                        throw new MojoExecutionException("Doclet execution failed");
+                    }
+                }
+                if (fingerprint != null) {
+                    BuildStamp.write(target, fingerprint);
+                }
+                if (snapshots != null) {
+                    snapshots.publish(target);
+                }
+                published = true;
             } finally {
-                fileManager.close();
+                if (snapshots != null && !published) {
+                    // The previous snapshot stays published
+                    snapshots.discard(target);
+                }
             }
 
+            attachArchive();
+            getLog().info("JSON documentation generated successfully in: "
+                    + (outputArchive != null ? outputArchive.getPath() : outputDirectory));
+
         } catch (IOException e) {
             throw new MojoExecutionException("Error during documentation generation", e);
         }
     }
 
+    /**
+     * Send the run to the doclet daemon, starting it if needed.
+     *
+     * @return false if no daemon could be reached and the run has to happen in this JVM
+     */
+    private boolean runInDaemon(List<File> javaFiles, List<String> classpathElements, Path target)
+            throws MojoExecutionException {
+        DaemonRequest request = new DaemonRequest();
+        request.setOutputDirectory(target.toAbsolutePath().toString());
+        request.setFiles(javaFiles.stream().map(File::getAbsolutePath).collect(Collectors.toList()));
+        request.setSourceRoots(collectSourceRoots().stream()
+                .map(root -> root.toAbsolutePath().toString())
+                .collect(Collectors.toList()));
+        request.setClasspath(classpathElements);
+        request.setIncludePrivate(includePrivate);
+        request.setCanonical(canonical);
+        request.setEncoding(encoding);
+        request.setPartitions(partitions);
+        request.setSyncEvery(atomicOutput ? syncEvery : 0);
+        if (outputArchive != null) {
+            request.setOutputArchive(outputArchive.getAbsolutePath());
+            request.setArchiveStored(archiveStored);
+        }
+        if (outputCorpus != null) {
+            request.setOutputCorpus(outputCorpus.getAbsolutePath());
+        }
+
+        DaemonResponse response;
+        try {
+            Path stateFile = daemonStateFile.toPath();
+            DaemonClient.ensureRunning(stateFile, DaemonClient.daemonClasspath(), daemonIdleTimeout, getLog());
+            response = DaemonClient.send(stateFile, request);
+        } catch (IOException e) {
+            getLog().warn("Doclet daemon not available, generating in this JVM: " + e.getMessage());
+            return false;
+        }
+        if (response.getOutput() != null && !response.getOutput().isEmpty()) {
+            getLog().info(response.getOutput().trim());
+        }
+        if (!response.isSuccess()) {
+            throw new MojoExecutionException("Doclet execution failed in daemon: " + response.getMessage());
+        }
+        getLog().info(String.format("Generated by the doclet daemon in %d ms (%d requests served, %d file managers reused)",
+                response.getMillis(), response.getRequestsServed(), response.getFileManagersReused()));
+        return true;
+    }
+
+    /**
+     * Fingerprint of the sources, the dependency classpath, the plugin's own classes and the configuration that
+     * affects the output.
+     */
+    private String fingerprint(List<File> javaFiles, List<String> classpathElements) throws IOException {
+        // The project's own classes change with every compile but are documented from source
+        List<String> dependencies = new ArrayList<>(classpathElements);
+        if (project != null) {
+            dependencies.remove(project.getBuild().getOutputDirectory());
+        }
+        return new BuildStamp()
+                .addValue("pluginVersion", pluginVersion)
+                // A rebuilt snapshot of the plugin keeps its version, so its jar counts by path, size and time
+                .addValue("pluginJar", DocletDaemon.classpathHash(pluginLocation()))
+                .addValue("javaVersion", System.getProperty("java.version"))
+                .addValue("outputDirectory", outputDirectory)
+                .addValue("sourceDirectory", sourceDirectory)
+                .addValue("sourcePaths", sourcePaths)
+                .addValue("includePrivate", includePrivate)
+                .addValue("encoding", encoding)
+                .addValue("canonical", canonical)
+                .addValue("outputArchive", outputArchive != null ? outputArchive.getAbsolutePath() : null)
+                .addValue("archiveStored", archiveStored)
+                .addValue("outputCorpus", outputCorpus != null ? outputCorpus.getAbsolutePath() : null)
+                .addValue("atomicOutput", atomicOutput)
+                .addFiles(javaFiles.stream().map(File::toPath).collect(Collectors.toList()))
+                .addClasspath(dependencies)
+                .fingerprint();
+    }
+
+    /**
+     * The jar, or class directory, the plugin was loaded from.
+     */
+    private static String pluginLocation() {
+        CodeSource source = PublishMojo.class.getProtectionDomain().getCodeSource();
+        if (source == null) {
+            return "";
+        }
+        try {
+            return Paths.get(source.getLocation().toURI()).toString();
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            // Not a file location
+            return "";
+        }
+    }
+
+    /**
+     * Attach the archive to the project if requested.
+     */
+    private void attachArchive() {
+        if (outputArchive == null || !attachArchive || project == null) {
+            return;
+        }
+        String type = outputArchive.getName().endsWith(".jar") ? "jar" : "zip";
+        projectHelper.attachArtifact(project, type, archiveClassifier, outputArchive);
+        getLog().info("Attached " + outputArchive.getName() + " with classifier " + archiveClassifier);
+    }
+
+    private List<Path> collectSourceRoots() {
+        List<Path> roots = new ArrayList<>();
+        if (sourceDirectory != null && !sourceDirectory.isEmpty() && Files.exists(Paths.get(sourceDirectory))) {
+            roots.add(Paths.get(sourceDirectory));
+        }
+        if (sourcePaths != null) {
+            for (String path : sourcePaths) {
+                Path root = Paths.get(path);
+                if (Files.exists(root) && !roots.contains(root)) {
+                    roots.add(root);
+                }
+            }
+        }
+        return roots;
+    }
+
     private List<File> collectJavaFiles() throws IOException {
         List<File> javaFiles = new ArrayList<>();
 
@@ -170,107 +432,35 @@ public class PublishMojo extends AbstractMojo {
         }
     }
 
-    private void setupClasspath(StandardJavaFileManager fileManager) throws MojoExecutionException {
+    /**
+     * The explicit classpath parameter if set, otherwise the project's compile and runtime classpath elements.
+     */
+    private List<String> resolveClasspath() throws MojoExecutionException {
+        if (classpath != null && !classpath.isEmpty()) {
+            return Arrays.asList(classpath.split(File.pathSeparator));
+        }
+        List<String> classpathElements = new ArrayList<>();
+        if (project == null) {
+            return classpathElements;
+        }
         try {
-            if (project != null) {
-                // Get both compile and runtime classpath elements
-                List<String> classpathElements = new ArrayList<>();
-                
-                // Add compile dependencies
-                List<String> compileClasspath = project.getCompileClasspathElements();
-                getLog().info("Compile classpath elements: " + compileClasspath.size());
-                for (String element : compileClasspath) {
-                    getLog().debug("Compile classpath: " + element);
-                }
-                classpathElements.addAll(compileClasspath);
-                
-                // Add runtime dependencies (this includes Apache Commons, etc.)
-                List<String> runtimeClasspath = project.getRuntimeClasspathElements();
-                getLog().info("Runtime classpath elements: " + runtimeClasspath.size());
-                for (String element : runtimeClasspath) {
-                    getLog().debug("Runtime classpath: " + element);
-                }
-                for (String runtimeElement : runtimeClasspath) {
-                    if (!classpathElements.contains(runtimeElement)) {
-                        classpathElements.add(runtimeElement);
-                    }
-                }
-                
-                if (!classpathElements.isEmpty()) {
-                    // Convert string paths to File objects
-                    List<File> classpathFiles = classpathElements.stream()
-                        .map(File::new)
-                        .filter(File::exists)
-                        .collect(Collectors.toList());
-                    
-                    // Set the classpath in the file manager
-                    fileManager.setLocation(StandardLocation.CLASS_PATH, classpathFiles);
-                    
-                    getLog().info("Set classpath with " + classpathFiles.size() + " entries");
-                    getLog().debug("Classpath entries: " + classpathFiles);
+            // Add compile dependencies
+            List<String> compileClasspath = project.getCompileClasspathElements();
+            getLog().info("Compile classpath elements: " + compileClasspath.size());
+            classpathElements.addAll(compileClasspath);
+
+            // Add runtime dependencies (this includes Apache Commons, etc.)
+            List<String> runtimeClasspath = project.getRuntimeClasspathElements();
+            getLog().info("Runtime classpath elements: " + runtimeClasspath.size());
+            for (String runtimeElement : runtimeClasspath) {
+                if (!classpathElements.contains(runtimeElement)) {
+                    classpathElements.add(runtimeElement);
                 }
             }
+            getLog().debug("Using classpath: " + String.join(File.pathSeparator, classpathElements));
+            return classpathElements;
         } catch (Exception e) {
             throw new MojoExecutionException("Failed to setup classpath: " + e.getMessage(), e);
         }
     }
-
-    private List<String> prepareDocletOptions() {
-        List<String> options = new ArrayList<>();
-
-        // Add custom doclet options
-        options.add("-outputDirectory");
-        options.add(outputDirectory);
-
-        if (includePrivate) {
-            options.add("-includePrivate");
-        }
-
-        // Add encoding option to handle UTF-8 source files
-        options.add("-encoding");
-        options.add(encoding);
-
-        // Add classpath - include both compile and runtime dependencies
-        if (classpath != null && !classpath.isEmpty()) {
-            options.add("-classpath");
-            options.add(classpath);
-        } else if (project != null) {
-            try {
-                // Get both compile and runtime classpath elements
-                List<String> classpathElements = new ArrayList<>();
-
-                // Add compile dependencies
-                classpathElements.addAll(project.getCompileClasspathElements());
-                
-                // Add runtime dependencies (this includes Apache Commons, etc.)
-                List<String> runtimeClasspath = project.getRuntimeClasspathElements();
-                for (String runtimeElement : runtimeClasspath) {
-                    if (!classpathElements.contains(runtimeElement)) {
-                        classpathElements.add(runtimeElement);
-                    }
-                }
-                
-                if (!classpathElements.isEmpty()) {
-                    options.add("-classpath");
-                    options.add(String.join(File.pathSeparator, classpathElements));
-                    getLog().debug("Using classpath: " + String.join(File.pathSeparator, classpathElements));
-                }
-            } catch (Exception e) {
-                getLog().warn("Could not determine project classpath: " + e.getMessage());
-            }
-        }
-
-        // Add standard javadoc options
-        options.add("-quiet");
-        
-        // Add source path for better resolution
-        if (sourceDirectory != null && !sourceDirectory.isEmpty()) {
-            options.add("-sourcepath");
-            options.add(sourceDirectory);
-        }
-
-        getLog().debug("Doclet options: " + String.join(" ", options));
-        return options;
-    }
-
 }
\ No newline at end of file
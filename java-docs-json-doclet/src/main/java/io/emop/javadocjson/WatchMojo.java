@@ -0,0 +1,170 @@
+package io.emop.javadocjson;
+
+import io.emop.javadocjson.doclet.FileManagerPool;
+import io.emop.javadocjson.doclet.IncrementalRegenerator;
+import io.emop.javadocjson.doclet.SourceWatcher;
+import io.emop.javadocjson.util.BuildStamp;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Maven goal that keeps the JSON documentation up to date while sources are edited.
+ * <p>
+ * It documents the sources once, then watches the source directories and regenerates only the JSON of the
+ * source files that changed, replacing each class file atomically. It runs until the build is interrupted,
+ * e.g. {@code mvn compile javadoc-json:watch}.
+ */
+@Mojo(name = "watch", requiresDependencyResolution = ResolutionScope.COMPILE_PLUS_RUNTIME)
+public class WatchMojo extends AbstractMojo {
+
+    @Parameter(defaultValue = "${project}", readonly = true)
+    private MavenProject project;
+
+    /**
+     * Output directory for JSON files.
+     */
+    @Parameter(property = "outputDirectory", defaultValue = "${project.build.directory}/javadoc-json")
+    private String outputDirectory;
+
+    /**
+     * Source directory to watch.
+     */
+    @Parameter(property = "sourceDirectory", defaultValue = "${project.build.sourceDirectory}")
+    private String sourceDirectory;
+
+    /**
+     * Additional source paths to watch.
+     */
+    @Parameter(property = "sourcePaths")
+    private List<String> sourcePaths;
+
+    /**
+     * Include private members in the output.
+     */
+    @Parameter(property = "includePrivate", defaultValue = "true")
+    private boolean includePrivate;
+
+    /**
+     * Classpath for the documentation generation.
+     */
+    @Parameter(property = "classpath")
+    private String classpath;
+
+    /**
+     * Source file encoding.
+     */
+    @Parameter(property = "encoding", defaultValue = "UTF-8")
+    private String encoding;
+
+    /**
+     * Number of package-aligned partitions documented concurrently when many files change at once.
+     */
+    @Parameter(property = "partitions", defaultValue = "1")
+    private int partitions;
+
+    /**
+     * Write canonical JSON: sorted keys and members, normalized whitespace and line endings.
+     */
+    @Parameter(property = "canonical", defaultValue = "false")
+    private boolean canonical;
+
+    /**
+     * Quiet period in milliseconds after the last change before the changed files are documented.
+     */
+    @Parameter(property = "debounceMillis", defaultValue = "300")
+    private long debounceMillis;
+
+    @Override
+    public void execute() throws MojoExecutionException {
+        List<Path> roots = collectSourceRoots();
+        if (roots.isEmpty()) {
+            getLog().warn("No source directories to watch");
+            return;
+        }
+        Path output = Paths.get(outputDirectory);
+
+        try (FileManagerPool fileManagers = new FileManagerPool(Math.max(1, partitions))) {
+            IncrementalRegenerator regenerator = new IncrementalRegenerator(getLog(), output, roots);
+            regenerator.setClasspath(resolveClasspath());
+            regenerator.setIncludePrivate(includePrivate);
+            regenerator.setEncoding(encoding);
+            regenerator.setCanonical(canonical);
+            regenerator.setPartitions(partitions);
+            regenerator.setDocumentationTool(ToolProvider.getSystemDocumentationTool());
+            regenerator.setFileManagerPool(fileManagers);
+
+            // Output edited from here on no longer matches a publish stamp
+            BuildStamp.delete(output);
+            IncrementalRegenerator.Result initial = regenerator.regenerateAll();
+            if (!initial.isSuccess()) {
+                throw new MojoExecutionException("Doclet execution failed");
+            }
+            getLog().info(String.format("Documented %d source files in %d ms into %s",
+                    initial.getSourceFiles(), initial.getMillis(), outputDirectory));
+
+            try (SourceWatcher watcher = new SourceWatcher(getLog(), regenerator, roots)) {
+                watcher.setDebounceMillis(debounceMillis);
+                watcher.start();
+                getLog().info("Watching " + roots.size() + " source directories for changes, press Ctrl+C to stop");
+                watcher.run();
+            }
+        } catch (IOException e) {
+            throw new MojoExecutionException("Error while watching sources", e);
+        }
+    }
+
+    private List<Path> collectSourceRoots() {
+        Set<Path> roots = new LinkedHashSet<>();
+        if (sourceDirectory != null && !sourceDirectory.isEmpty()) {
+            roots.add(Paths.get(sourceDirectory));
+        }
+        if (sourcePaths != null) {
+            for (String path : sourcePaths) {
+                roots.add(Paths.get(path));
+            }
+        }
+        List<Path> existing = new ArrayList<>();
+        for (Path root : roots) {
+            if (Files.isDirectory(root)) {
+                existing.add(root);
+            }
+        }
+        return existing;
+    }
+
+    /**
+     * The explicit classpath parameter if set, otherwise the project's compile and runtime classpath elements.
+     */
+    private List<String> resolveClasspath() throws MojoExecutionException {
+        if (classpath != null && !classpath.isEmpty()) {
+            return Arrays.asList(classpath.split(File.pathSeparator));
+        }
+        Set<String> classpathElements = new LinkedHashSet<>();
+        if (project == null) {
+            return new ArrayList<>(classpathElements);
+        }
+        try {
+            classpathElements.addAll(project.getCompileClasspathElements());
+            classpathElements.addAll(project.getRuntimeClasspathElements());
+            return new ArrayList<>(classpathElements);
+        } catch (Exception e) {
+            throw new MojoExecutionException("Failed to setup classpath: " + e.getMessage(), e);
+        }
+    }
+}
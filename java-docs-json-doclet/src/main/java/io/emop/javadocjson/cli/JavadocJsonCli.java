@@ -0,0 +1,474 @@
+package io.emop.javadocjson.cli;
+
+import io.emop.javadocjson.config.Dialects;
+import io.emop.javadocjson.doclet.JavadocInvoker;
+import io.emop.javadocjson.model.JavadocClass;
+import io.emop.javadocjson.parser.CrawlerCache;
+import io.emop.javadocjson.parser.HtmlCrawler;
+import io.emop.javadocjson.util.BatchedFileWriter;
+import io.emop.javadocjson.util.CanonicalJson;
+import io.emop.javadocjson.util.CorpusWriter;
+import io.emop.javadocjson.util.Durations;
+import io.emop.javadocjson.util.JsonGenerator;
+import io.emop.javadocjson.util.SnapshotDirectory;
+import io.emop.javadocjson.util.ZipOutputSink;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Command line entry point for using the crawler and the doclet without Maven, e.g. from scripts that crawl many
+ * sites. Build the self-contained jar with {@code mvn package -Pcli} and run {@code java -jar
+ * java-docs-json-doclet-<version>-cli.jar <command>}.
+ * <p>
+ * Most of a short run is class loading and verification. The {@code cds} command performs a training run of any
+ * other command with {@code -XX:ArchiveClassesAtExit} and leaves an AppCDS archive behind; later runs started with
+ * {@code -XX:SharedArchiveFile} map those classes directly instead of loading them from the jar (JDK 13 or later).
+ */
+public final class JavadocJsonCli {
+
+    static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: java -jar java-docs-json-doclet-cli.jar <command> [options]",
+            "",
+            "Commands:",
+            "  crawl <baseUrl>          Crawl a Javadoc HTML site into JSON",
+            "      --output <dir>            Output directory (default javadoc-json)",
+            "      --threads <n>             Concurrent page fetches (default 5)",
+            "      --package-filter <regex>  Only crawl matching packages, may be repeated",
+            "      --dialect <name>          Javadoc HTML dialect (default jdk9)",
+            "      --user-agent <text>       HTTP user agent",
+            "      --timeout <millis>        Connection and read timeout (default 30000)",
+            "      --max-duration <time>     Time budget, e.g. 10m; unfinished classes are skipped",
+            "      --no-cache                Do not read or write the crawl caches in " + CrawlerCache.DEFAULT_CACHE_DIR,
+            "      --canonical               Write canonical, byte-stable JSON",
+            "      --atomic-output           Publish the output as a whole snapshot when the crawl finished",
+            "      --archive <file>          Write the classes into this zip or jar file instead of --output",
+            "      --stored                  Store archive entries uncompressed",
+            "      --corpus <file>           Also write all classes into this compact corpus file",
+            "  publish                  Generate JSON from Java sources with the doclet",
+            "      --output <dir>            Output directory (default javadoc-json)",
+            "      --source-root <dir>       Source directory, may be repeated (default src/main/java)",
+            "      --classpath <path>        Class path of the sources' dependencies",
+            "      --include-private         Include private members",
+            "      --encoding <charset>      Source encoding (default UTF-8)",
+            "      --partitions <n>          Package-aligned partitions documented concurrently (default 1)",
+            "      --canonical               Write canonical, byte-stable JSON",
+            "      --atomic-output           Publish the output as a whole snapshot when the run succeeded",
+            "      --archive <file>          Write the classes into this zip or jar file instead of --output",
+            "      --stored                  Store archive entries uncompressed",
+            "      --corpus <file>           Also write all classes into this compact corpus file",
+            "  corpus <dir> <file>      Convert a directory of class JSON files into a compact corpus file",
+            "  cds <archive> <command> [options]",
+            "                           Run a command as a training run and write an AppCDS archive of the",
+            "                           classes it loaded; start later runs with -XX:SharedArchiveFile=<archive>");
+
+    // Files per fsync batch of a snapshot written with --atomic-output
+    private static final int SYNC_EVERY = 256;
+
+    private JavadocJsonCli() {
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args, new SystemStreamLog()));
+    }
+
+    /**
+     * Run a command.
+     *
+     * @return the process exit code: 0 on success, 1 when the command failed, 2 on invalid arguments
+     */
+    static int run(String[] args, Log log) {
+        if (args.length == 0 || "--help".equals(args[0]) || "help".equals(args[0])) {
+            System.out.println(USAGE);
+            return args.length == 0 ? 2 : 0;
+        }
+        List<String> options = Arrays.asList(args).subList(1, args.length);
+        try {
+            switch (args[0]) {
+                case "crawl":
+                    return crawl(options, log);
+                case "publish":
+                    return publish(options, log);
+                case "corpus":
+                    return corpus(options, log);
+                case "cds":
+                    return cds(options, log);
+                default:
+                    throw new IllegalArgumentException("Unknown command: " + args[0]);
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            return 2;
+        } catch (IOException e) {
+            log.error(args[0] + " failed: " + e.getMessage());
+            return 1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 1;
+        }
+    }
+
+    private static int crawl(List<String> options, Log log) throws IOException {
+        String baseUrl = null;
+        File output = new File("javadoc-json");
+        String dialect = null;
+        Set<String> packageFilters = new HashSet<>();
+        int threads = 5;
+        String userAgent = null;
+        int timeout = 30000;
+        long maxDurationMillis = 0;
+        boolean cache = true;
+        boolean canonical = false;
+        boolean atomicOutput = false;
+        Path archive = null;
+        boolean stored = false;
+        Path corpus = null;
+        for (int i = 0; i < options.size(); i++) {
+            String option = options.get(i);
+            switch (option) {
+                case "--output":
+                    output = new File(value(options, ++i, option));
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(value(options, ++i, option));
+                    break;
+                case "--package-filter":
+                    packageFilters.add(value(options, ++i, option));
+                    break;
+                case "--dialect":
+                    dialect = value(options, ++i, option);
+                    break;
+                case "--user-agent":
+                    userAgent = value(options, ++i, option);
+                    break;
+                case "--timeout":
+                    timeout = Integer.parseInt(value(options, ++i, option));
+                    break;
+                case "--max-duration":
+                    maxDurationMillis = Durations.parseMillis(value(options, ++i, option));
+                    break;
+                case "--no-cache":
+                    cache = false;
+                    break;
+                case "--canonical":
+                    canonical = true;
+                    break;
+                case "--atomic-output":
+                    atomicOutput = true;
+                    break;
+                case "--archive":
+                    archive = Paths.get(value(options, ++i, option));
+                    break;
+                case "--stored":
+                    stored = true;
+                    break;
+                case "--corpus":
+                    corpus = Paths.get(value(options, ++i, option));
+                    break;
+                default:
+                    if (option.startsWith("--") || baseUrl != null) {
+                        throw new IllegalArgumentException("Unexpected argument: " + option);
+                    }
+                    baseUrl = option;
+            }
+        }
+        if (baseUrl == null) {
+            throw new IllegalArgumentException("crawl needs a base URL");
+        }
+        logStartup(log);
+
+        HtmlCrawler crawler = new HtmlCrawler(log, Dialects.forName(dialect));
+        crawler.setThreadPoolSize(threads);
+        crawler.setTimeout(timeout);
+        if (userAgent != null) {
+            crawler.setUserAgent(userAgent);
+        }
+        crawler.setPackageFilters(packageFilters);
+        crawler.setMaxCrawlDurationMillis(maxDurationMillis);
+        crawler.setEnableCache(cache);
+        crawler.setEnableHtmlCache(cache);
+
+        // An archive is published atomically on its own and never touches the output directory
+        if (archive == null && !output.exists()) {
+            output.mkdirs();
+        }
+        SnapshotDirectory snapshots = atomicOutput && archive == null ? new SnapshotDirectory(log, output.toPath()) : null;
+        File outputDirectory = snapshots != null ? snapshots.stage().toFile() : output;
+        BatchedFileWriter fileWriter = new BatchedFileWriter(atomicOutput ? SYNC_EVERY : 0);
+        JsonGenerator generator = new JsonGenerator();
+        generator.setCanonical(canonical);
+        AtomicInteger written = new AtomicInteger();
+        AtomicReference<IOException> writeFailure = new AtomicReference<>();
+        boolean archiveOutput = archive != null;
+        crawler.setClassListener(javadocClass -> {
+            if (writeFailure.get() != null || archiveOutput) {
+                return;
+            }
+            try {
+                generator.writeClassToFile(javadocClass, new File(outputDirectory, javadocClass.getFullName() + ".json"),
+                        fileWriter);
+                written.incrementAndGet();
+            } catch (IOException e) {
+                writeFailure.set(e);
+            }
+        });
+
+        List<JavadocClass> classes;
+        try {
+            classes = crawler.crawl(baseUrl);
+            if (writeFailure.get() != null) {
+                throw writeFailure.get();
+            }
+            fileWriter.flush();
+            if (archive != null && !classes.isEmpty()) {
+                // Entries in class name order
+                List<JavadocClass> sorted = new ArrayList<>(classes);
+                sorted.sort(Comparator.comparing(javadocClass -> javadocClass.getFullName() + ".json"));
+                try (ZipOutputSink sink = new ZipOutputSink(archive, stored)) {
+                    for (JavadocClass javadocClass : sorted) {
+                        generator.writeClassToArchive(javadocClass, javadocClass.getFullName() + ".json", sink);
+                    }
+                    sink.finish();
+                }
+                written.set(classes.size());
+            }
+            if (corpus != null && !classes.isEmpty()) {
+                writeCorpus(classes, canonical, corpus, log);
+            }
+        } catch (IOException | RuntimeException e) {
+            if (snapshots != null) {
+                snapshots.discard(outputDirectory.toPath());
+            }
+            throw e;
+        }
+        if (snapshots != null) {
+            if (classes.isEmpty()) {
+                // Keep the previous output of a crawl that failed
+                snapshots.discard(outputDirectory.toPath());
+            } else {
+                snapshots.publish(outputDirectory.toPath());
+            }
+        }
+        log.info(written.get() + " classes written to " + (archive != null ? archive.toAbsolutePath() : output.getAbsolutePath()));
+        return classes.isEmpty() ? 1 : 0;
+    }
+
+    private static int publish(List<String> options, Log log) throws IOException {
+        File output = new File("javadoc-json");
+        List<Path> sourceRoots = new ArrayList<>();
+        List<String> classpath = new ArrayList<>();
+        boolean includePrivate = false;
+        String encoding = "UTF-8";
+        int partitions = 1;
+        boolean canonical = false;
+        boolean atomicOutput = false;
+        Path archive = null;
+        boolean stored = false;
+        Path corpus = null;
+        for (int i = 0; i < options.size(); i++) {
+            String option = options.get(i);
+            switch (option) {
+                case "--output":
+                    output = new File(value(options, ++i, option));
+                    break;
+                case "--source-root":
+                    sourceRoots.add(Paths.get(value(options, ++i, option)));
+                    break;
+                case "--classpath":
+                    classpath.addAll(Arrays.asList(value(options, ++i, option).split(File.pathSeparator)));
+                    break;
+                case "--include-private":
+                    includePrivate = true;
+                    break;
+                case "--encoding":
+                    encoding = value(options, ++i, option);
+                    break;
+                case "--partitions":
+                    partitions = Integer.parseInt(value(options, ++i, option));
+                    break;
+                case "--canonical":
+                    canonical = true;
+                    break;
+                case "--atomic-output":
+                    atomicOutput = true;
+                    break;
+                case "--archive":
+                    archive = Paths.get(value(options, ++i, option));
+                    break;
+                case "--stored":
+                    stored = true;
+                    break;
+                case "--corpus":
+                    corpus = Paths.get(value(options, ++i, option));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unexpected argument: " + option);
+            }
+        }
+        if (sourceRoots.isEmpty()) {
+            sourceRoots.add(Paths.get("src", "main", "java"));
+        }
+        logStartup(log);
+
+        List<Path> sources = new ArrayList<>();
+        for (Path root : sourceRoots) {
+            if (!Files.isDirectory(root)) {
+                throw new IllegalArgumentException("Source directory not found: " + root);
+            }
+            try (Stream<Path> paths = Files.walk(root)) {
+                sources.addAll(paths.filter(Files::isRegularFile)
+                        .filter(path -> path.toString().endsWith(".java"))
+                        .collect(Collectors.toList()));
+            }
+        }
+        if (sources.isEmpty()) {
+            log.warn("No Java source files found in: " + sourceRoots);
+            return 0;
+        }
+
+        SnapshotDirectory snapshots = atomicOutput ? new SnapshotDirectory(log, output.toPath()) : null;
+        Path target = snapshots != null ? snapshots.stage() : output.toPath();
+        JavadocInvoker invoker = new JavadocInvoker(log);
+        invoker.setOutputDirectory(target.toString());
+        invoker.setIncludePrivate(includePrivate);
+        invoker.setEncoding(encoding);
+        invoker.setClasspath(classpath);
+        invoker.setSourceRoots(sourceRoots);
+        invoker.setPartitions(partitions);
+        invoker.setCanonical(canonical);
+        invoker.setSyncEvery(atomicOutput ? SYNC_EVERY : 0);
+        invoker.setOutputArchive(archive);
+        invoker.setArchiveStored(stored);
+        invoker.setOutputCorpus(corpus);
+        boolean success = false;
+        try {
+            success = invoker.runSources(sources);
+            if (success && snapshots != null) {
+                snapshots.publish(target);
+            }
+        } finally {
+            if (snapshots != null && !success) {
+                snapshots.discard(target);
+            }
+        }
+        if (!success) {
+            log.error("Doclet execution failed");
+            return 1;
+        }
+        log.info("JSON documentation generated successfully in: " + (archive != null ? archive.toAbsolutePath() : output.getAbsolutePath()));
+        return 0;
+    }
+
+    /**
+     * Write crawled classes into a corpus, in the same order as archive entries.
+     */
+    private static void writeCorpus(List<JavadocClass> classes, boolean canonical, Path file, Log log) throws IOException {
+        List<JavadocClass> sorted = new ArrayList<>(classes);
+        sorted.sort(Comparator.comparing(javadocClass -> javadocClass.getFullName() + ".json"));
+        CorpusWriter writer = new CorpusWriter();
+        for (JavadocClass javadocClass : sorted) {
+            if (canonical) {
+                CanonicalJson.canonicalize(javadocClass);
+            }
+            writer.add(javadocClass);
+        }
+        long size = writer.writeTo(file);
+        log.info(String.format("Corpus written to %s (%d strings, %d KiB)", file.toAbsolutePath(), writer.getStringCount(), size / 1024));
+    }
+
+    /**
+     * Convert the class JSON files of an output directory, as written by crawl or publish, into a corpus.
+     */
+    private static int corpus(List<String> options, Log log) throws IOException {
+        if (options.size() != 2) {
+            throw new IllegalArgumentException("corpus needs a JSON directory and a corpus file");
+        }
+        Path directory = Paths.get(options.get(0));
+        if (!Files.isDirectory(directory)) {
+            throw new IllegalArgumentException("JSON directory not found: " + directory);
+        }
+        List<Path> files;
+        try (Stream<Path> paths = Files.list(directory)) {
+            files = paths.filter(path -> path.getFileName().toString().endsWith(".json"))
+                    .filter(Files::isRegularFile)
+                    .sorted(Comparator.comparing(path -> path.getFileName().toString()))
+                    .collect(Collectors.toList());
+        }
+        CorpusWriter writer = new CorpusWriter();
+        long jsonBytes = 0;
+        for (Path file : files) {
+            writer.add(JsonGenerator.readClassFromFile(file.toFile()));
+            jsonBytes += Files.size(file);
+        }
+        long size = writer.writeTo(Paths.get(options.get(1)));
+        log.info(String.format("%d classes (%d KiB of JSON) written to %s (%d strings, %d KiB)", writer.getClassCount(),
+                jsonBytes / 1024, Paths.get(options.get(1)).toAbsolutePath(), writer.getStringCount(), size / 1024));
+        return 0;
+    }
+
+    /**
+     * Run the remaining arguments as a command in a JVM that dumps the classes it loaded into an AppCDS archive.
+     */
+    private static int cds(List<String> options, Log log) throws IOException, InterruptedException {
+        if (options.size() < 2) {
+            throw new IllegalArgumentException("cds needs an archive file and a command to train with");
+        }
+        String classpath = System.getProperty("java.class.path");
+        for (String entry : classpath.split(File.pathSeparator)) {
+            if (new File(entry).isDirectory()) {
+                // The JVM refuses to archive classes loaded from directories
+                log.error("AppCDS archives need a class path of jar files, run the cli jar instead of " + entry);
+                return 1;
+            }
+        }
+        Path archive = Paths.get(options.get(0)).toAbsolutePath();
+        if (archive.getParent() != null) {
+            Files.createDirectories(archive.getParent());
+        }
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-XX:ArchiveClassesAtExit=" + archive);
+        command.add("-cp");
+        command.add(classpath);
+        command.add(JavadocJsonCli.class.getName());
+        command.addAll(options.subList(1, options.size()));
+
+        log.info("Training run: " + String.join(" ", options.subList(1, options.size())));
+        int exitCode = new ProcessBuilder(command).inheritIO().start().waitFor();
+        if (exitCode != 0 || !Files.isRegularFile(archive)) {
+            log.error("Training run failed with exit code " + exitCode + ", no archive written");
+            return 1;
+        }
+        log.info(String.format("AppCDS archive written to %s (%d KiB); start later runs with -XX:SharedArchiveFile=%s",
+                archive, Files.size(archive) / 1024, archive));
+        return 0;
+    }
+
+    private static String value(List<String> options, int index, String option) {
+        if (index >= options.size()) {
+            throw new IllegalArgumentException(option + " needs a value");
+        }
+        return options.get(index);
+    }
+
+    private static void logStartup(Log log) {
+        log.info(String.format("JVM started %d ms ago", ManagementFactory.getRuntimeMXBean().getUptime()));
+    }
+}
@@ -0,0 +1,43 @@
+package io.emop.javadocjson.config;
+
+import io.emop.javadocjson.parser.JavadocParsingConfig;
+
+/**
+ * Resolves parsing dialects by name, so they can be chosen from plugin configuration.
+ */
+public final class Dialects {
+
+    /**
+     * Name of the built-in JDK9 dialect.
+     */
+    public static final String JDK9 = "jdk9";
+
+    private Dialects() {
+    }
+
+    /**
+     * Creates the dialect with the given name.
+     *
+     * @param name {@value #JDK9} (the default when empty) or the fully qualified name of a
+     *             {@link JavadocParsingConfig} implementation with a no-arg constructor
+     * @return a new dialect instance
+     * @throws IllegalArgumentException if the dialect cannot be created
+     */
+    public static JavadocParsingConfig forName(String name) {
+        if (name == null || name.trim().isEmpty() || JDK9.equalsIgnoreCase(name.trim())) {
+            return new JDK9Dialet();
+        }
+
+        String className = name.trim();
+        try {
+            ClassLoader loader = Thread.currentThread().getContextClassLoader();
+            Class<?> dialectClass = Class.forName(className, true, loader != null ? loader : Dialects.class.getClassLoader());
+            if (!JavadocParsingConfig.class.isAssignableFrom(dialectClass)) {
+                throw new IllegalArgumentException(className + " does not implement " + JavadocParsingConfig.class.getName());
+            }
+            return (JavadocParsingConfig) dialectClass.getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalArgumentException("Cannot create parsing dialect: " + className, e);
+        }
+    }
+}
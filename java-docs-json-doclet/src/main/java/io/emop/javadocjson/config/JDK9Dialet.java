@@ -55,6 +55,17 @@ public class JDK9Dialet implements JavadocParsingConfig {
         return "allclasses.html";
     }
 
+    /**
+     * 移除常见的不可见字符，并将各种空白字符标准化为空格，
+     * 然后压缩多个连续空格为单个空格。
+     */
+    static String cleanInvisibleChars(String input) {
+        if (input == null) return null;
+        return input
+                .replaceAll("[\\p{Cf}\\p{Z}\\p{Cc}]+", "") // Cf=格式控制符（如零宽空格），Z=分隔符（各种空格），Cc=控制字符
+                .trim();
+    }
+
     /**
      * JDK9 方法解析配置
      */
@@ -121,17 +132,6 @@ public class JDK9Dialet implements JavadocParsingConfig {
             return ""; // 如果没有找到匹配项，返回空字符串
         }
 
-        /**
-         * 移除常见的不可见字符，并将各种空白字符标准化为空格，
-         * 然后压缩多个连续空格为单个空格。
-         */
-        private static String cleanInvisibleChars(String input) {
-            if (input == null) return null;
-            return input
-                    .replaceAll("[\\p{Cf}\\p{Z}\\p{Cc}]+", "") // Cf=格式控制符（如零宽空格），Z=分隔符（各种空格），Cc=控制字符
-                    .trim();
-        }
-
         @Override
         public boolean isValidMethodElement(Element element) {
             // 验证是否为有效的方法元素
@@ -0,0 +1,124 @@
+package io.emop.javadocjson.daemon;
+
+import org.apache.maven.plugin.logging.Log;
+
+/**
+ * Log that collects the messages of one daemon request so they can be returned to the client.
+ * Debug messages are dropped; every message is also passed on to the daemon's own log.
+ */
+class BufferedLog implements Log {
+
+    private final Log delegate;
+    private final StringBuilder buffer = new StringBuilder();
+
+    BufferedLog(Log delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * The collected messages, one per line with a level prefix.
+     */
+    synchronized String getOutput() {
+        return buffer.toString();
+    }
+
+    private synchronized void append(String level, CharSequence content, Throwable error) {
+        buffer.append('[').append(level).append("] ");
+        if (content != null) {
+            buffer.append(content);
+        }
+        if (error != null) {
+            buffer.append(content != null ? ": " : "").append(error);
+        }
+        buffer.append('\n');
+    }
+
+    @Override
+    public boolean isDebugEnabled() {
+        return delegate.isDebugEnabled();
+    }
+
+    @Override
+    public void debug(CharSequence content) {
+        delegate.debug(content);
+    }
+
+    @Override
+    public void debug(CharSequence content, Throwable error) {
+        delegate.debug(content, error);
+    }
+
+    @Override
+    public void debug(Throwable error) {
+        delegate.debug(error);
+    }
+
+    @Override
+    public boolean isInfoEnabled() {
+        return true;
+    }
+
+    @Override
+    public void info(CharSequence content) {
+        append("INFO", content, null);
+        delegate.info(content);
+    }
+
+    @Override
+    public void info(CharSequence content, Throwable error) {
+        append("INFO", content, error);
+        delegate.info(content, error);
+    }
+
+    @Override
+    public void info(Throwable error) {
+        append("INFO", null, error);
+        delegate.info(error);
+    }
+
+    @Override
+    public boolean isWarnEnabled() {
+        return true;
+    }
+
+    @Override
+    public void warn(CharSequence content) {
+        append("WARNING", content, null);
+        delegate.warn(content);
+    }
+
+    @Override
+    public void warn(CharSequence content, Throwable error) {
+        append("WARNING", content, error);
+        delegate.warn(content, error);
+    }
+
+    @Override
+    public void warn(Throwable error) {
+        append("WARNING", null, error);
+        delegate.warn(error);
+    }
+
+    @Override
+    public boolean isErrorEnabled() {
+        return true;
+    }
+
+    @Override
+    public void error(CharSequence content) {
+        append("ERROR", content, null);
+        delegate.error(content);
+    }
+
+    @Override
+    public void error(CharSequence content, Throwable error) {
+        append("ERROR", content, error);
+        delegate.error(content, error);
+    }
+
+    @Override
+    public void error(Throwable error) {
+        append("ERROR", null, error);
+        delegate.error(error);
+    }
+}
@@ -0,0 +1,267 @@
+package io.emop.javadocjson.daemon;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Client of the {@link DocletDaemon}: finds a running daemon through its state file, starts one when needed and
+ * sends requests.
+ * <p>
+ * It can also be run from scripts and hooks, with the plugin jar, its dependencies and {@code maven-plugin-api}
+ * on the class path:
+ * <pre>
+ * DaemonClient [--state-file &lt;file&gt;] start [--idle-timeout &lt;seconds&gt;]
+ * DaemonClient [--state-file &lt;file&gt;] status | stop
+ * DaemonClient [--state-file &lt;file&gt;] generate --output &lt;dir&gt; [--source-root &lt;dir&gt;]... [--classpath &lt;path&gt;]
+ *     [--include-private] [--canonical] [--encoding &lt;charset&gt;] [--partitions &lt;n&gt;] &lt;file.java&gt;...
+ * </pre>
+ */
+public final class DaemonClient {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final int CONNECT_TIMEOUT_MILLIS = 2000;
+    private static final long START_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    private DaemonClient() {
+    }
+
+    /**
+     * Read the state file of a daemon.
+     *
+     * @return the state, or null when there is no readable state file
+     */
+    public static DocletDaemon.State readState(Path stateFile) {
+        if (!Files.isRegularFile(stateFile)) {
+            return null;
+        }
+        try {
+            return OBJECT_MAPPER.readValue(stateFile.toFile(), DocletDaemon.State.class);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Send a request to the daemon of the state file, filling in its token.
+     *
+     * @throws IOException if no daemon is reachable
+     */
+    public static DaemonResponse send(Path stateFile, DaemonRequest request) throws IOException {
+        DocletDaemon.State state = readState(stateFile);
+        if (state == null) {
+            throw new IOException("No doclet daemon state in " + stateFile);
+        }
+        request.setToken(state.getToken());
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(InetAddress.getLoopbackAddress(), state.getPort()), CONNECT_TIMEOUT_MILLIS);
+            OutputStream out = socket.getOutputStream();
+            out.write((OBJECT_MAPPER.writeValueAsString(request) + "\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            String line = reader.readLine();
+            if (line == null) {
+                throw new IOException("Doclet daemon closed the connection without a response");
+            }
+            return OBJECT_MAPPER.readValue(line, DaemonResponse.class);
+        }
+    }
+
+    /**
+     * Whether a daemon answers on the state file's port.
+     */
+    public static boolean isRunning(Path stateFile) {
+        DaemonRequest request = new DaemonRequest();
+        request.setCommand(DaemonRequest.STATUS);
+        try {
+            return send(stateFile, request).isSuccess();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Start a daemon in a background JVM unless one with the same class path is already running, and wait until it
+     * answers. A daemon running other classes, e.g. from before a plugin upgrade, is stopped and replaced.
+     *
+     * @param stateFile   the daemon's state file
+     * @param classpath   class path of the daemon JVM
+     * @param idleSeconds idle timeout of a new daemon
+     * @param log         log for progress messages
+     * @throws IOException if the daemon does not come up
+     */
+    public static void ensureRunning(Path stateFile, String classpath, long idleSeconds, Log log) throws IOException {
+        DocletDaemon.State state = readState(stateFile);
+        if (isRunning(stateFile)) {
+            if (state != null && DocletDaemon.classpathHash(classpath).equals(state.getClasspathHash())) {
+                return;
+            }
+            // Requests already accepted by the old daemon still complete before it exits
+            log.info("Doclet daemon runs other plugin classes, restarting it");
+            DaemonRequest stop = statusRequest();
+            stop.setCommand(DaemonRequest.STOP);
+            send(stateFile, stop);
+        }
+        // A daemon that crashed or was stopped leaves its state file behind
+        Files.deleteIfExists(stateFile);
+        Files.createDirectories(stateFile.toAbsolutePath().getParent());
+
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        ProcessBuilder builder = new ProcessBuilder(java, "-cp", classpath, DocletDaemon.class.getName(),
+                "--state-file", stateFile.toString(), "--idle-timeout", String.valueOf(idleSeconds));
+        File daemonLog = stateFile.resolveSibling("daemon.log").toFile();
+        builder.redirectErrorStream(true);
+        builder.redirectOutput(ProcessBuilder.Redirect.appendTo(daemonLog));
+        Process process = builder.start();
+        log.info("Starting doclet daemon, log in " + daemonLog);
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(START_TIMEOUT_MILLIS);
+        while (System.nanoTime() < deadline) {
+            if (isRunning(stateFile)) {
+                return;
+            }
+            if (!process.isAlive()) {
+                throw new IOException("Doclet daemon exited with " + process.exitValue() + ", see " + daemonLog);
+            }
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while starting the doclet daemon", e);
+            }
+        }
+        process.destroy();
+        throw new IOException("Doclet daemon did not start within " + START_TIMEOUT_MILLIS / 1000 + " s, see " + daemonLog);
+    }
+
+    /**
+     * Class path that runs the daemon with the classes that loaded this client. Inside Maven that is the plugin
+     * realm, which imports the Maven API from the core realm, so the API's own location is added.
+     */
+    public static String daemonClasspath() {
+        Set<String> entries = new LinkedHashSet<>();
+        ClassLoader loader = DaemonClient.class.getClassLoader();
+        if (loader instanceof URLClassLoader) {
+            for (URL url : ((URLClassLoader) loader).getURLs()) {
+                addLocation(entries, url);
+            }
+        }
+        if (entries.isEmpty()) {
+            entries.addAll(Arrays.asList(System.getProperty("java.class.path").split(File.pathSeparator)));
+        }
+        addLocation(entries, Log.class.getProtectionDomain().getCodeSource().getLocation());
+        return String.join(File.pathSeparator, entries);
+    }
+
+    private static void addLocation(Set<String> entries, URL url) {
+        try {
+            entries.add(Paths.get(url.toURI()).toString());
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            // Not a file location
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> arguments = new ArrayList<>(Arrays.asList(args));
+        Path stateFile = Paths.get(DocletDaemon.DEFAULT_STATE_FILE);
+        if (arguments.size() >= 2 && "--state-file".equals(arguments.get(0))) {
+            stateFile = Paths.get(arguments.get(1));
+            arguments = arguments.subList(2, arguments.size());
+        }
+        String command = arguments.isEmpty() ? DaemonRequest.STATUS : arguments.get(0);
+        List<String> options = arguments.subList(Math.min(1, arguments.size()), arguments.size());
+
+        DaemonResponse response;
+        if ("start".equals(command)) {
+            long idleSeconds = options.size() >= 2 && "--idle-timeout".equals(options.get(0))
+                    ? Long.parseLong(options.get(1)) : TimeUnit.MINUTES.toSeconds(30);
+            ensureRunning(stateFile, System.getProperty("java.class.path"), idleSeconds,
+                    new SystemStreamLog());
+            response = send(stateFile, statusRequest());
+        } else if (DaemonRequest.STATUS.equals(command) || DaemonRequest.STOP.equals(command)) {
+            DaemonRequest request = statusRequest();
+            request.setCommand(command);
+            response = send(stateFile, request);
+        } else if (DaemonRequest.GENERATE.equals(command)) {
+            response = send(stateFile, parseGenerate(options));
+        } else {
+            throw new IllegalArgumentException("Unknown command: " + command);
+        }
+
+        if (response.getOutput() != null && !response.getOutput().isEmpty()) {
+            System.out.print(response.getOutput());
+        }
+        System.out.println(String.format("%s (%d ms, %d requests served)", response.getMessage(), response.getMillis(),
+                response.getRequestsServed()));
+        System.exit(response.isSuccess() ? 0 : 1);
+    }
+
+    private static DaemonRequest statusRequest() {
+        DaemonRequest request = new DaemonRequest();
+        request.setCommand(DaemonRequest.STATUS);
+        return request;
+    }
+
+    private static DaemonRequest parseGenerate(List<String> options) {
+        DaemonRequest request = new DaemonRequest();
+        for (int i = 0; i < options.size(); i++) {
+            String option = options.get(i);
+            switch (option) {
+                case "--output":
+                    request.setOutputDirectory(absolute(options.get(++i)));
+                    break;
+                case "--source-root":
+                    request.getSourceRoots().add(absolute(options.get(++i)));
+                    break;
+                case "--classpath":
+                    request.getClasspath().addAll(Arrays.asList(options.get(++i).split(File.pathSeparator)));
+                    break;
+                case "--include-private":
+                    request.setIncludePrivate(true);
+                    break;
+                case "--canonical":
+                    request.setCanonical(true);
+                    break;
+                case "--encoding":
+                    request.setEncoding(options.get(++i));
+                    break;
+                case "--partitions":
+                    request.setPartitions(Integer.parseInt(options.get(++i)));
+                    break;
+                default:
+                    request.getFiles().add(absolute(option));
+            }
+        }
+        if (request.getOutputDirectory() == null) {
+            throw new IllegalArgumentException("--output is required");
+        }
+        return request;
+    }
+
+    // The daemon resolves paths against its own working directory
+    private static String absolute(String path) {
+        return Paths.get(path).toAbsolutePath().normalize().toString();
+    }
+}
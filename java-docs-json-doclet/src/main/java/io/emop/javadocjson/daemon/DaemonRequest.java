@@ -0,0 +1,36 @@
+package io.emop.javadocjson.daemon;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A request to the doclet daemon, sent as one line of JSON.
+ */
+@Data
+public class DaemonRequest {
+
+    public static final String GENERATE = "generate";
+    public static final String STATUS = "status";
+    public static final String STOP = "stop";
+
+    /**
+     * Secret from the daemon's state file; requests without it are rejected.
+     */
+    private String token;
+    private String command = GENERATE;
+
+    private String outputDirectory;
+    private List<String> files = new ArrayList<>();
+    private List<String> sourceRoots = new ArrayList<>();
+    private List<String> classpath = new ArrayList<>();
+    private boolean includePrivate;
+    private boolean canonical;
+    private String encoding = "UTF-8";
+    private int partitions = 1;
+    private int syncEvery;
+    private String outputArchive;
+    private boolean archiveStored;
+    private String outputCorpus;
+}
@@ -0,0 +1,20 @@
+package io.emop.javadocjson.daemon;
+
+import lombok.Data;
+
+/**
+ * The daemon's answer to a {@link DaemonRequest}, sent as one line of JSON.
+ */
+@Data
+public class DaemonResponse {
+    private boolean success;
+    private String message;
+    /**
+     * Log output of the request.
+     */
+    private String output;
+    private long millis;
+    private long requestsServed;
+    private long fileManagersCreated;
+    private long fileManagersReused;
+}
@@ -0,0 +1,398 @@
+package io.emop.javadocjson.daemon;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.emop.javadocjson.doclet.FileManagerPool;
+import io.emop.javadocjson.doclet.JavadocInvoker;
+import io.emop.javadocjson.util.FileUtils;
+import io.emop.javadocjson.util.HashUtils;
+import lombok.Data;
+import lombok.Setter;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.plugin.logging.SystemStreamLog;
+
+import javax.tools.DocumentationTool;
+import javax.tools.ToolProvider;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Long-lived process that documents sources on request, so repeated small runs skip JVM and javac warm-up.
+ * <p>
+ * The daemon listens on a loopback port and publishes the port, a random token and a hash of its class path in a
+ * state file readable only by the user; {@link DaemonClient} reads it to send requests and replaces a daemon that
+ * runs other plugin classes. It keeps one {@link DocumentationTool} and a
+ * {@link FileManagerPool} whose class path indexes survive between requests, and the JIT-compiled doclet code
+ * stays warm. Requests run concurrently, except that requests writing to the same output directory are
+ * serialized. The daemon stops itself after {@code idleTimeout} without requests.
+ */
+@Setter
+public class DocletDaemon implements Closeable {
+
+    /**
+     * Default state file, shared by all builds of the user.
+     */
+    public static final String DEFAULT_STATE_FILE = System.getProperty("user.home") + File.separator + ".javadoc-json"
+            + File.separator + "daemon.json";
+
+    /**
+     * Longest request line accepted; class paths of large reactors stay well below it.
+     */
+    static final int MAX_REQUEST_LENGTH = 8 * 1024 * 1024;
+
+    private final Log log;
+    private final Path stateFile;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final DocumentationTool documentationTool = ToolProvider.getSystemDocumentationTool();
+    private final FileManagerPool fileManagers = new FileManagerPool(Runtime.getRuntime().availableProcessors());
+    private final ConcurrentHashMap<String, ReentrantLock> outputLocks = new ConcurrentHashMap<>();
+    private final AtomicInteger activeRequests = new AtomicInteger();
+    private final AtomicLong lastActivity = new AtomicLong(System.nanoTime());
+    private final AtomicLong requestsServed = new AtomicLong();
+    private final CountDownLatch stopped = new CountDownLatch(1);
+    private long idleTimeoutMillis = TimeUnit.MINUTES.toMillis(30);
+    private int maxConcurrentRequests = Runtime.getRuntime().availableProcessors();
+
+    private ServerSocket serverSocket;
+    private String token;
+    private ExecutorService handlers;
+    private ScheduledExecutorService idleChecker;
+
+    public DocletDaemon(Log log, Path stateFile) {
+        this.log = log;
+        this.stateFile = stateFile;
+    }
+
+    /**
+     * Bind the socket, publish the state file and start serving.
+     *
+     * @return the port the daemon listens on
+     * @throws IOException if the socket or the state file cannot be created
+     */
+    public int start() throws IOException {
+        if (documentationTool == null) {
+            throw new IOException("Documentation tool not available. Make sure you're running with JDK (not JRE).");
+        }
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        byte[] secret = new byte[16];
+        new SecureRandom().nextBytes(secret);
+        token = HashUtils.toHex(secret);
+        writeState();
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        handlers = Executors.newFixedThreadPool(maxConcurrentRequests, runnable -> {
+            Thread thread = new Thread(runnable, "javadoc-json-daemon-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        idleChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "javadoc-json-daemon-idle");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long checkInterval = Math.max(100, Math.min(idleTimeoutMillis / 4, 10_000));
+        idleChecker.scheduleWithFixedDelay(this::stopIfIdle, checkInterval, checkInterval, TimeUnit.MILLISECONDS);
+
+        Thread acceptor = new Thread(this::acceptLoop, "javadoc-json-daemon-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+        log.info("Doclet daemon listening on port " + serverSocket.getLocalPort() + ", state file " + stateFile
+                + ", idle timeout " + idleTimeoutMillis / 1000 + " s");
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Wait until the daemon has stopped.
+     */
+    public void awaitStop() throws InterruptedException {
+        stopped.await();
+    }
+
+    public boolean isStopped() {
+        return stopped.getCount() == 0;
+    }
+
+    public long getRequestsServed() {
+        return requestsServed.get();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (isStopped()) {
+            return;
+        }
+        try {
+            serverSocket.close();
+        } catch (IOException e) {
+            log.debug("Error closing daemon socket: " + e.getMessage());
+        }
+        idleChecker.shutdownNow();
+        handlers.shutdown();
+        try {
+            if (!handlers.awaitTermination(1, TimeUnit.MINUTES)) {
+                handlers.shutdownNow();
+            }
+            fileManagers.close();
+            deleteState();
+        } catch (IOException e) {
+            log.warn("Error shutting down the doclet daemon: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Doclet daemon stopped after " + requestsServed.get() + " requests");
+        stopped.countDown();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                // Counted as active while queued, so the idle check never stops a daemon with pending requests
+                activeRequests.incrementAndGet();
+                handlers.execute(() -> handle(socket));
+            } catch (SocketException e) {
+                // Socket closed by close()
+                return;
+            } catch (IOException e) {
+                log.warn("Error accepting a daemon connection: " + e.getMessage());
+            } catch (RuntimeException e) {
+                // Rejected after shutdown
+                activeRequests.decrementAndGet();
+                return;
+            }
+        }
+    }
+
+    private void handle(Socket socket) {
+        boolean stop = false;
+        try (Socket connection = socket) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+            String line = readRequestLine(reader);
+            DaemonResponse response;
+            DaemonRequest request = line != null ? objectMapper.readValue(line, DaemonRequest.class) : null;
+            if (request == null || !isToken(request.getToken())) {
+                response = failure("Invalid daemon token");
+            } else if (DaemonRequest.STOP.equals(request.getCommand())) {
+                response = status("Stopping");
+                stop = true;
+            } else if (DaemonRequest.STATUS.equals(request.getCommand())) {
+                response = status("Running");
+            } else {
+                response = generate(request);
+            }
+            OutputStream out = connection.getOutputStream();
+            out.write((objectMapper.writeValueAsString(response) + "\n").getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        } catch (IOException e) {
+            log.warn("Error handling a daemon request: " + e.getMessage());
+        } finally {
+            lastActivity.set(System.nanoTime());
+            activeRequests.decrementAndGet();
+        }
+        if (stop) {
+            new Thread(this::close, "javadoc-json-daemon-stop").start();
+        }
+    }
+
+    /**
+     * Read one request line, refusing to buffer more than {@link #MAX_REQUEST_LENGTH} characters before the token
+     * has been checked.
+     */
+    static String readRequestLine(BufferedReader reader) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int c;
+        while ((c = reader.read()) != -1 && c != '\n') {
+            if (line.length() >= MAX_REQUEST_LENGTH) {
+                throw new IOException("Daemon request longer than " + MAX_REQUEST_LENGTH + " characters");
+            }
+            line.append((char) c);
+        }
+        if (c == -1 && line.length() == 0) {
+            return null;
+        }
+        int end = line.length();
+        if (end > 0 && line.charAt(end - 1) == '\r') {
+            line.setLength(end - 1);
+        }
+        return line.toString();
+    }
+
+    DaemonResponse generate(DaemonRequest request) {
+        long start = System.nanoTime();
+        BufferedLog requestLog = new BufferedLog(log);
+        DaemonResponse response = status(null);
+        String output = Paths.get(request.getOutputDirectory()).toAbsolutePath().normalize().toString();
+        ReentrantLock lock = outputLocks.computeIfAbsent(output, key -> new ReentrantLock());
+        lock.lock();
+        try {
+            JavadocInvoker invoker = new JavadocInvoker(requestLog);
+            invoker.setOutputDirectory(output);
+            invoker.setIncludePrivate(request.isIncludePrivate());
+            invoker.setCanonical(request.isCanonical());
+            invoker.setEncoding(request.getEncoding());
+            invoker.setClasspath(request.getClasspath());
+            invoker.setSourceRoots(request.getSourceRoots().stream().map(Paths::get).collect(Collectors.toList()));
+            invoker.setPartitions(request.getPartitions());
+            invoker.setSyncEvery(request.getSyncEvery());
+            if (request.getOutputArchive() != null) {
+                invoker.setOutputArchive(Paths.get(request.getOutputArchive()));
+                invoker.setArchiveStored(request.isArchiveStored());
+            }
+            if (request.getOutputCorpus() != null) {
+                invoker.setOutputCorpus(Paths.get(request.getOutputCorpus()));
+            }
+            invoker.setDocumentationTool(documentationTool);
+            invoker.setFileManagerPool(fileManagers);
+            boolean success = invoker.run(request.getFiles().stream().map(File::new).collect(Collectors.toList()));
+            response.setSuccess(success);
+            response.setMessage(success ? "Generated" : "Doclet execution failed");
+        } catch (IOException | RuntimeException e) {
+            requestLog.error("Error during documentation generation", e);
+            response.setSuccess(false);
+            response.setMessage(e.getMessage());
+        } finally {
+            lock.unlock();
+        }
+        requestsServed.incrementAndGet();
+        response.setOutput(requestLog.getOutput());
+        response.setMillis((System.nanoTime() - start) / 1_000_000);
+        response.setRequestsServed(requestsServed.get());
+        response.setFileManagersCreated(fileManagers.getCreated());
+        response.setFileManagersReused(fileManagers.getReused());
+        return response;
+    }
+
+    // Constant time, so the token cannot be guessed from response times
+    private boolean isToken(String candidate) {
+        return candidate != null
+                && MessageDigest.isEqual(token.getBytes(StandardCharsets.UTF_8), candidate.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private DaemonResponse status(String message) {
+        DaemonResponse response = new DaemonResponse();
+        response.setSuccess(true);
+        response.setMessage(message);
+        response.setRequestsServed(requestsServed.get());
+        response.setFileManagersCreated(fileManagers.getCreated());
+        response.setFileManagersReused(fileManagers.getReused());
+        return response;
+    }
+
+    private static DaemonResponse failure(String message) {
+        DaemonResponse response = new DaemonResponse();
+        response.setMessage(message);
+        return response;
+    }
+
+    private void stopIfIdle() {
+        long idleMillis = (System.nanoTime() - lastActivity.get()) / 1_000_000;
+        if (activeRequests.get() == 0 && idleMillis >= idleTimeoutMillis) {
+            log.info("Doclet daemon idle for " + idleMillis / 1000 + " s, stopping");
+            new Thread(this::close, "javadoc-json-daemon-stop").start();
+        }
+    }
+
+    private void writeState() throws IOException {
+        State state = new State();
+        state.setPort(serverSocket.getLocalPort());
+        state.setToken(token);
+        state.setPid(ProcessHandle.current().pid());
+        state.setClasspathHash(classpathHash(System.getProperty("java.class.path")));
+        Path directory = stateFile.toAbsolutePath().getParent();
+        // The token guards the daemon against other local users, so the state is never readable by them
+        if (directory.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            if (!Files.isDirectory(directory)) {
+                Files.createDirectories(directory,
+                        PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+            }
+            FileUtils.writeAtomically(stateFile, objectMapper.writeValueAsBytes(state),
+                    PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } else {
+            Files.createDirectories(directory);
+            FileUtils.writeAtomically(stateFile, objectMapper.writeValueAsBytes(state));
+        }
+    }
+
+    private void deleteState() throws IOException {
+        // Another daemon may have replaced the state file in the meantime
+        State current = DaemonClient.readState(stateFile);
+        if (current != null && isToken(current.getToken())) {
+            Files.deleteIfExists(stateFile);
+        }
+    }
+
+    /**
+     * Hash identifying the classes a daemon runs: every class path entry with its size and modification time, so a
+     * plugin jar rebuilt at the same path is told apart as well as an upgraded one.
+     *
+     * @param classpath the class path, separated by {@link File#pathSeparator}
+     * @return lower-case hex encoded hash
+     */
+    public static String classpathHash(String classpath) {
+        StringBuilder entries = new StringBuilder();
+        for (String entry : classpath.split(File.pathSeparator)) {
+            File file = new File(entry);
+            entries.append(entry).append('|').append(file.length()).append('|').append(file.lastModified()).append('\n');
+        }
+        return HashUtils.sha256Hex(entries.toString());
+    }
+
+    /**
+     * Contents of the state file.
+     */
+    @Data
+    public static class State {
+        private int port;
+        private String token;
+        private long pid;
+        private String classpathHash;
+    }
+
+    /**
+     * Run a daemon until it is stopped or idle.
+     * <p>
+     * Usage: {@code DocletDaemon [--state-file <file>] [--idle-timeout <seconds>]}
+     */
+    public static void main(String[] args) throws Exception {
+        Path stateFile = Paths.get(DEFAULT_STATE_FILE);
+        long idleSeconds = TimeUnit.MINUTES.toSeconds(30);
+        for (int i = 0; i < args.length - 1; i += 2) {
+            if ("--state-file".equals(args[i])) {
+                stateFile = Paths.get(args[i + 1]);
+            } else if ("--idle-timeout".equals(args[i])) {
+                idleSeconds = Long.parseLong(args[i + 1]);
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        DocletDaemon daemon = new DocletDaemon(new SystemStreamLog(), stateFile);
+        daemon.setIdleTimeoutMillis(TimeUnit.SECONDS.toMillis(idleSeconds));
+        daemon.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(daemon::close));
+        daemon.awaitStop();
+    }
+}
@@ -0,0 +1,195 @@
+package io.emop.javadocjson.doclet;
+
+import com.sun.source.doctree.DocCommentTree;
+import com.sun.source.doctree.DocTree;
+import com.sun.source.doctree.EntityTree;
+import com.sun.source.doctree.ParamTree;
+import com.sun.source.doctree.ReturnTree;
+import com.sun.source.doctree.SinceTree;
+import com.sun.source.doctree.TextTree;
+import com.sun.source.doctree.ThrowsTree;
+import com.sun.source.util.SimpleDocTreeVisitor;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Extracts the main description and the {@code @param}, {@code @return}, {@code @throws} and {@code @since}
+ * block tags of a doc comment in a single visit of its {@link DocCommentTree}.
+ * <p>
+ * Body trees are rendered into a reused builder: text nodes are appended directly and only inline tags and
+ * HTML fall back to their source form. Unicode escapes are decoded in the same step, and text without
+ * escapes is returned without an extra copy. Instances keep per-call state and are not thread safe.
+ */
+class DocCommentExtractor extends SimpleDocTreeVisitor<Void, StringBuilder> {
+
+    private final StringBuilder text = new StringBuilder(256);
+    private final StringBuilder decoded = new StringBuilder(256);
+    private Comment current;
+
+    /**
+     * Visit a doc comment once and collect its description and block tags.
+     *
+     * @param docCommentTree the doc comment of a method or constructor
+     * @return the extracted parts, never null
+     */
+    Comment extract(DocCommentTree docCommentTree) {
+        current = new Comment();
+        docCommentTree.accept(this, null);
+        Comment result = current;
+        current = null;
+        return result;
+    }
+
+    @Override
+    public Void visitDocComment(DocCommentTree node, StringBuilder target) {
+        current.description = render(node.getFullBody());
+        for (DocTree blockTag : node.getBlockTags()) {
+            blockTag.accept(this, null);
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitParam(ParamTree node, StringBuilder target) {
+        // Type parameter docs (@param <T>) never match a method parameter name
+        if (!node.isTypeParameter()) {
+            current.params.put(node.getName().getName().toString(), render(node.getDescription()));
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitReturn(ReturnTree node, StringBuilder target) {
+        current.returnDescription = render(node.getDescription());
+        return null;
+    }
+
+    @Override
+    public Void visitThrows(ThrowsTree node, StringBuilder target) {
+        // Called for both @throws and @exception
+        current.exceptionDescriptions.put(node.getExceptionName().toString(), render(node.getDescription()));
+        return null;
+    }
+
+    @Override
+    public Void visitSince(SinceTree node, StringBuilder target) {
+        current.since = render(node.getBody());
+        return null;
+    }
+
+    @Override
+    public Void visitText(TextTree node, StringBuilder target) {
+        if (target != null) {
+            target.append(node.getBody());
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitEntity(EntityTree node, StringBuilder target) {
+        if (target != null) {
+            target.append('&').append(node.getName()).append(';');
+        }
+        return null;
+    }
+
+    @Override
+    protected Void defaultAction(DocTree node, StringBuilder target) {
+        // Inline tags, HTML elements and anything else keep their source form
+        if (target != null) {
+            target.append(node);
+        }
+        return null;
+    }
+
+    private String render(List<? extends DocTree> trees) {
+        text.setLength(0);
+        for (DocTree tree : trees) {
+            tree.accept(this, text);
+        }
+        int start = 0;
+        int end = text.length();
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        return decode(text, start, end);
+    }
+
+    /**
+     * Decode Unicode escape sequences (a backslash, {@code u} and four hex digits) back to readable characters.
+     *
+     * @param input the text that may contain escape sequences
+     * @return the decoded text, or the input itself when it contains none
+     */
+    String decode(String input) {
+        if (input == null || input.indexOf("\\u") < 0) {
+            return input;
+        }
+        return decode(input, 0, input.length());
+    }
+
+    private String decode(CharSequence input, int start, int end) {
+        int escape = indexOfEscape(input, start, end);
+        if (escape < 0) {
+            return input.subSequence(start, end).toString();
+        }
+        decoded.setLength(0);
+        decoded.append(input, start, escape);
+        int i = escape;
+        while (i < end) {
+            char c = input.charAt(i);
+            if (c == '\\' && i < end - 5 && input.charAt(i + 1) == 'u') {
+                int codePoint = parseHex(input, i + 2);
+                if (codePoint >= 0) {
+                    decoded.append((char) codePoint);
+                    i += 6;
+                    continue;
+                }
+            }
+            decoded.append(c);
+            i++;
+        }
+        return decoded.toString();
+    }
+
+    private static int indexOfEscape(CharSequence input, int start, int end) {
+        for (int i = start; i < end - 1; i++) {
+            if (input.charAt(i) == '\\' && input.charAt(i + 1) == 'u') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int parseHex(CharSequence input, int offset) {
+        int value = 0;
+        for (int i = offset; i < offset + 4; i++) {
+            int digit = Character.digit(input.charAt(i), 16);
+            if (digit < 0) {
+                return -1;
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    /**
+     * Parts of one doc comment.
+     */
+    @Getter
+    static final class Comment {
+        @Setter
+        private String description = "";
+        private final Map<String, String> params = new LinkedHashMap<>();
+        private String returnDescription;
+        private final Map<String, String> exceptionDescriptions = new LinkedHashMap<>();
+        private String since;
+    }
+}
@@ -0,0 +1,101 @@
+package io.emop.javadocjson.doclet;
+
+import javax.tools.DocumentationTool;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Idle file managers kept for reuse by a long-lived process.
+ * <p>
+ * A javac file manager indexes every archive on its class path the first time a package is looked up, which is a
+ * large part of the start-up cost of a small doclet run. Pooled managers keep those indexes between runs. A file
+ * manager is not thread-safe, so each run borrows its own; managers are keyed by encoding and class path, where
+ * class path archives contribute their size and modification time so a rebuilt jar is indexed again.
+ */
+public class FileManagerPool implements Closeable {
+
+    private final Map<String, Deque<StandardJavaFileManager>> idle = new HashMap<>();
+    private final Map<StandardJavaFileManager, String> keys = new HashMap<>();
+    private final int maxIdlePerKey;
+    private boolean closed;
+    private long created;
+    private long reused;
+
+    public FileManagerPool(int maxIdlePerKey) {
+        this.maxIdlePerKey = maxIdlePerKey;
+    }
+
+    /**
+     * Borrow a file manager with the given class path; return it with {@link #release}.
+     */
+    public synchronized StandardJavaFileManager borrow(DocumentationTool tool, Charset charset, List<File> classpath)
+            throws IOException {
+        String key = key(charset, classpath);
+        Deque<StandardJavaFileManager> managers = idle.get(key);
+        StandardJavaFileManager fileManager = managers != null ? managers.pollFirst() : null;
+        if (fileManager != null) {
+            reused++;
+        } else {
+            fileManager = tool.getStandardFileManager(null, null, charset);
+            if (!classpath.isEmpty()) {
+                fileManager.setLocation(StandardLocation.CLASS_PATH, classpath);
+            }
+            created++;
+        }
+        keys.put(fileManager, key);
+        return fileManager;
+    }
+
+    /**
+     * Return a borrowed file manager; it is closed when the pool is full or closed.
+     */
+    public synchronized void release(StandardJavaFileManager fileManager) throws IOException {
+        String key = keys.remove(fileManager);
+        Deque<StandardJavaFileManager> managers = key != null ? idle.computeIfAbsent(key, k -> new ArrayDeque<>()) : null;
+        if (closed || managers == null || managers.size() >= maxIdlePerKey) {
+            fileManager.close();
+            return;
+        }
+        managers.addFirst(fileManager);
+    }
+
+    public synchronized long getCreated() {
+        return created;
+    }
+
+    public synchronized long getReused() {
+        return reused;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closed = true;
+        for (Deque<StandardJavaFileManager> managers : idle.values()) {
+            for (StandardJavaFileManager fileManager : managers) {
+                fileManager.close();
+            }
+        }
+        idle.clear();
+    }
+
+    private static String key(Charset charset, List<File> classpath) {
+        List<String> parts = new ArrayList<>();
+        parts.add(charset.name());
+        for (File element : classpath) {
+            // Directories are listed on every lookup, archives are indexed once
+            parts.add(element.isFile() ? element.getPath() + "@" + element.length() + "@" + element.lastModified()
+                    : element.getPath());
+        }
+        return String.join(File.pathSeparator, parts);
+    }
+}
@@ -0,0 +1,292 @@
+package io.emop.javadocjson.doclet;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.emop.javadocjson.util.FileUtils;
+import io.emop.javadocjson.util.JsonGenerator;
+import lombok.Data;
+import lombok.Setter;
+import org.apache.maven.plugin.logging.Log;
+
+import javax.tools.DocumentationTool;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Keeps an output directory in step with changing source files by documenting only the affected compilation units.
+ * <p>
+ * Every run documents its source files into a staging directory inside the output's metadata directory, with the
+ * other source roots still on the source path, and records which classes each source file produced. The class
+ * files are then moved over the published ones one at a time with an atomic rename, so a reader sees either the
+ * old or the new content of a class, never a partial file; byte-identical files are left untouched. Classes a
+ * source file no longer declares are deleted, unless another source file now declares them. When the doclet
+ * fails, typically on a file saved in the middle of an edit, the published output is kept as it was.
+ * <p>
+ * Instances are not thread-safe; a single watcher thread drives them.
+ */
+@Setter
+public class IncrementalRegenerator {
+
+    /**
+     * Name prefix of the staging directories inside {@link JsonGenerator#METADATA_DIRECTORY}.
+     */
+    public static final String STAGING_PREFIX = "watch-staging-";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final Log log;
+    private final Path outputDirectory;
+    private final List<Path> sourceRoots;
+    private List<String> classpath = Collections.emptyList();
+    private boolean includePrivate;
+    private String encoding = "UTF-8";
+    private boolean canonical;
+    private int partitions = 1;
+    private DocumentationTool documentationTool;
+    private FileManagerPool fileManagerPool;
+
+    // Source file -> full names of the classes published from it
+    private final Map<Path, Set<String>> index = new HashMap<>();
+
+    public IncrementalRegenerator(Log log, Path outputDirectory, List<Path> sourceRoots) {
+        this.log = log;
+        this.outputDirectory = outputDirectory.toAbsolutePath().normalize();
+        this.sourceRoots = new ArrayList<>();
+        for (Path root : sourceRoots) {
+            this.sourceRoots.add(root.toAbsolutePath().normalize());
+        }
+    }
+
+    /**
+     * Document every source file under the source roots, and delete the classes of source files that are gone.
+     * Also removes staging directories left behind by an interrupted process.
+     */
+    public Result regenerateAll() throws IOException {
+        Path metadata = outputDirectory.resolve(JsonGenerator.METADATA_DIRECTORY);
+        if (Files.isDirectory(metadata)) {
+            try (DirectoryStream<Path> stale = Files.newDirectoryStream(metadata, STAGING_PREFIX + "*")) {
+                for (Path staging : stale) {
+                    FileUtils.deleteRecursively(staging);
+                }
+            }
+        }
+        Set<Path> affected = new TreeSet<>(index.keySet());
+        for (Path root : sourceRoots) {
+            findSources(root, affected);
+        }
+        return run(affected);
+    }
+
+    /**
+     * Document the source files affected by changes to the given paths. A path may be a source file, a new
+     * directory, whose source files are all documented, or a deleted file or directory, whose classes are removed.
+     */
+    public Result regenerate(Collection<Path> changedPaths) throws IOException {
+        Set<Path> affected = new TreeSet<>();
+        for (Path changed : changedPaths) {
+            Path path = changed.toAbsolutePath().normalize();
+            if (Files.isDirectory(path)) {
+                findSources(path, affected);
+            } else if (isSource(path)) {
+                affected.add(path);
+            }
+            if (!Files.isRegularFile(path)) {
+                // A deleted directory takes every source file below it along
+                for (Path source : index.keySet()) {
+                    if (source.startsWith(path)) {
+                        affected.add(source);
+                    }
+                }
+            }
+        }
+        if (affected.isEmpty()) {
+            return new Result();
+        }
+        return run(affected);
+    }
+
+    /**
+     * Full names of the published classes declared in a source file.
+     */
+    public Set<String> classesOf(Path sourceFile) {
+        Set<String> classes = index.get(sourceFile.toAbsolutePath().normalize());
+        return classes != null ? Collections.unmodifiableSet(classes) : Collections.emptySet();
+    }
+
+    private Result run(Set<Path> affected) throws IOException {
+        long start = System.nanoTime();
+        Result result = new Result();
+        List<Path> existing = new ArrayList<>();
+        for (Path source : affected) {
+            if (Files.isRegularFile(source)) {
+                existing.add(source);
+            }
+        }
+
+        Path staging = outputDirectory.resolve(JsonGenerator.METADATA_DIRECTORY).resolve(STAGING_PREFIX + UUID.randomUUID());
+        try {
+            Map<String, List<String>> produced = Collections.emptyMap();
+            if (!existing.isEmpty()) {
+                Path stagingIndex = staging.resolve(JsonGenerator.METADATA_DIRECTORY);
+                JavadocInvoker invoker = new JavadocInvoker(log);
+                invoker.setOutputDirectory(staging.toString());
+                invoker.setSourceIndexDirectory(stagingIndex);
+                invoker.setIncludePrivate(includePrivate);
+                invoker.setEncoding(encoding);
+                invoker.setClasspath(classpath);
+                invoker.setSourceRoots(sourceRoots);
+                invoker.setPartitions(partitions);
+                invoker.setCanonical(canonical);
+                // A change may reference a type that is not written yet; document what can be resolved
+                invoker.setIgnoreSourceErrors(true);
+                invoker.setDocumentationTool(documentationTool);
+                invoker.setFileManagerPool(fileManagerPool);
+                if (!invoker.runSources(existing)) {
+                    log.warn("Doclet failed for " + existing.size() + " changed source files, keeping the previous JSON");
+                    result.setSuccess(false);
+                    result.setMillis((System.nanoTime() - start) / 1_000_000);
+                    return result;
+                }
+                produced = readSourceIndexes(stagingIndex);
+            }
+            result.setSourceFiles(existing.size());
+
+            Set<String> declared = new HashSet<>();
+            for (List<String> classes : produced.values()) {
+                declared.addAll(classes);
+            }
+            for (String fullName : declared) {
+                if (publish(staging.resolve(fullName + ".json"), outputDirectory.resolve(fullName + ".json"))) {
+                    result.setWritten(result.getWritten() + 1);
+                } else {
+                    result.setUnchanged(result.getUnchanged() + 1);
+                }
+            }
+
+            // Classes that moved to a source file outside this run are still declared there
+            Set<String> declaredElsewhere = new HashSet<>();
+            for (Map.Entry<Path, Set<String>> entry : index.entrySet()) {
+                if (!affected.contains(entry.getKey())) {
+                    declaredElsewhere.addAll(entry.getValue());
+                }
+            }
+            for (Path source : affected) {
+                Set<String> previous = index.remove(source);
+                if (previous == null) {
+                    continue;
+                }
+                for (String fullName : previous) {
+                    if (!declared.contains(fullName) && !declaredElsewhere.contains(fullName)
+                            && Files.deleteIfExists(outputDirectory.resolve(fullName + ".json"))) {
+                        result.setDeleted(result.getDeleted() + 1);
+                    }
+                }
+            }
+            for (Map.Entry<String, List<String>> entry : produced.entrySet()) {
+                if (!entry.getKey().isEmpty()) {
+                    index.put(Paths.get(entry.getKey()), new HashSet<>(entry.getValue()));
+                }
+            }
+        } finally {
+            FileUtils.deleteRecursively(staging);
+        }
+        result.setMillis((System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    /**
+     * Move a staged class file over the published one unless both have the same content.
+     *
+     * @return whether the published file changed
+     */
+    private static boolean publish(Path staged, Path target) throws IOException {
+        if (!Files.isRegularFile(staged)) {
+            return false;
+        }
+        if (Files.isRegularFile(target) && Files.size(target) == Files.size(staged)
+                && Arrays.equals(Files.readAllBytes(target), Files.readAllBytes(staged))) {
+            return false;
+        }
+        Files.createDirectories(target.getParent());
+        FileUtils.moveAtomically(staged, target);
+        return true;
+    }
+
+    private static Map<String, List<String>> readSourceIndexes(Path directory) throws IOException {
+        Map<String, List<String>> merged = new HashMap<>();
+        if (!Files.isDirectory(directory)) {
+            return merged;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, JavadocInvoker.SOURCE_INDEX_PREFIX + "*.json")) {
+            for (Path file : files) {
+                Map<String, List<String>> partition = OBJECT_MAPPER.readValue(file.toFile(),
+                        new TypeReference<Map<String, List<String>>>() {
+                        });
+                for (Map.Entry<String, List<String>> entry : partition.entrySet()) {
+                    merged.computeIfAbsent(entry.getKey(), key -> new ArrayList<>()).addAll(entry.getValue());
+                }
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Add the source files below a directory; entries that vanish during the walk, as in a branch switch, are skipped.
+     */
+    private static void findSources(Path directory, Set<Path> sources) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile() && isSource(file)) {
+                    sources.add(file.toAbsolutePath().normalize());
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static boolean isSource(Path path) {
+        return path.getFileName() != null && path.getFileName().toString().endsWith(".java");
+    }
+
+    /**
+     * Outcome of a run.
+     */
+    @Data
+    public static class Result {
+        /**
+         * False when the doclet failed and the output was left unchanged.
+         */
+        private boolean success = true;
+        private int sourceFiles;
+        private int written;
+        private int unchanged;
+        private int deleted;
+        private long millis;
+    }
+}
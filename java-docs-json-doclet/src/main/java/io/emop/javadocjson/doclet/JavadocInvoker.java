@@ -0,0 +1,284 @@
+package io.emop.javadocjson.doclet;
+
+import jdk.javadoc.doclet.Doclet;
+import lombok.Setter;
+import org.apache.maven.plugin.logging.Log;
+
+import javax.tools.DocumentationTool;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Runs {@link JsonDoclet} through the JDK {@link DocumentationTool} over a set of source files.
+ * <p>
+ * javac attributes a task on a single thread, so with {@code partitions > 1} the source files are split into
+ * package-aligned partitions that are documented by concurrent tasks. Each task has its own file manager and
+ * only documents its own files, but sees every source root on its source path, so types from other partitions
+ * resolve exactly as in a single run. Every type is written by exactly one partition and the per-class files
+ * land in the same output directory.
+ * <p>
+ * Source files and source roots are {@link Path}s, so sources can also be read from another file system such as
+ * a zip file system opened over a {@code -sources.jar}.
+ */
+@Setter
+public class JavadocInvoker {
+
+    /**
+     * File name prefix of the per-partition source indexes written to {@code sourceIndexDirectory}.
+     */
+    public static final String SOURCE_INDEX_PREFIX = "source-index-";
+
+    private final Log log;
+    private String outputDirectory;
+    private boolean includePrivate;
+    private String encoding = "UTF-8";
+    private List<String> classpath = Collections.emptyList();
+    private List<Path> sourceRoots = Collections.emptyList();
+    private int partitions = 1;
+    // Keep documenting when sources reference types that are not on the classpath (third-party sources)
+    private boolean ignoreSourceErrors;
+    private boolean canonical;
+    // Set by long-lived processes to reuse the tool and the file managers' class path indexes between runs
+    private DocumentationTool documentationTool;
+    private FileManagerPool fileManagerPool;
+    private Class<? extends Doclet> docletClass = JsonDoclet.class;
+    // Source root -> output directory; types under a mapped root are written there instead of outputDirectory
+    private Map<String, String> outputMappings = Collections.emptyMap();
+    // When set, each partition records the classes written per source file in source-index-<partition>.json here
+    private Path sourceIndexDirectory;
+    // Files per fsync batch written by the doclet, 0 to leave durability to the operating system
+    private int syncEvery;
+    // When set, the classes are written as entries of this zip or jar file instead of into outputDirectory
+    private Path outputArchive;
+    private boolean archiveStored;
+    // When set, all classes are also written into this compact corpus file, see CorpusWriter
+    private Path outputCorpus;
+
+    public JavadocInvoker(Log log) {
+        this.log = log;
+    }
+
+    /**
+     * Document the given source files.
+     *
+     * @param sourceFiles the Java source files to document
+     * @return true if every partition succeeded
+     * @throws IOException if a file manager cannot be set up
+     */
+    public boolean run(List<File> sourceFiles) throws IOException {
+        return runSources(sourceFiles.stream().map(File::toPath).collect(Collectors.toList()));
+    }
+
+    /**
+     * Document the given source files, which may live in any file system.
+     *
+     * @param sourceFiles the Java source files to document
+     * @return true if every partition succeeded
+     * @throws IOException if a file manager cannot be set up
+     */
+    public boolean runSources(List<Path> sourceFiles) throws IOException {
+        DocumentationTool docTool = documentationTool != null ? documentationTool : ToolProvider.getSystemDocumentationTool();
+        if (docTool == null) {
+            throw new IOException("Documentation tool not available. Make sure you're running with JDK (not JRE).");
+        }
+
+        int partitionCount = Math.max(1, partitions);
+        if ((outputArchive != null || outputCorpus != null) && partitionCount > 1) {
+            // Entries are streamed in name order into one archive or corpus, which a single doclet run does
+            log.warn("partitions is ignored when writing an archive or corpus, documenting in one partition");
+            partitionCount = 1;
+        }
+        List<List<Path>> parts = partitionByPackage(sourceFiles, partitionCount);
+        if (parts.size() == 1) {
+            return runPartition(docTool, 0, parts.get(0));
+        }
+
+        log.info("Documenting " + sourceFiles.size() + " source files in " + parts.size() + " partitions");
+        AtomicInteger threadIndex = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(parts.size(), runnable -> {
+            Thread thread = new Thread(runnable, "javadoc-json-partition-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (int i = 0; i < parts.size(); i++) {
+                int index = i;
+                List<Path> part = parts.get(i);
+                futures.add(executor.submit(() -> runPartition(docTool, index, part)));
+            }
+            boolean success = true;
+            for (Future<Boolean> future : futures) {
+                try {
+                    success &= future.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException) {
+                        throw (IOException) cause;
+                    }
+                    throw new IOException("Doclet partition failed: " + cause.getMessage(), cause);
+                }
+            }
+            return success;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for doclet partitions", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private boolean runPartition(DocumentationTool docTool, int index, List<Path> files) throws IOException {
+        long start = System.nanoTime();
+        StringWriter output = new StringWriter();
+        Charset charset = Charset.forName(encoding);
+        List<File> classpathFiles = classpath.stream()
+                .map(File::new)
+                .filter(File::exists)
+                .collect(Collectors.toList());
+        StandardJavaFileManager fileManager;
+        if (fileManagerPool != null) {
+            fileManager = fileManagerPool.borrow(docTool, charset, classpathFiles);
+        } else {
+            fileManager = docTool.getStandardFileManager(null, null, charset);
+            if (!classpathFiles.isEmpty()) {
+                fileManager.setLocation(StandardLocation.CLASS_PATH, classpathFiles);
+            }
+        }
+        try {
+            // Every partition sees all source roots so types outside it resolve from source;
+            // null restores the default of a pooled file manager
+            fileManager.setLocationFromPaths(StandardLocation.SOURCE_PATH, sourceRoots.isEmpty() ? null : sourceRoots);
+
+            Iterable<? extends JavaFileObject> compilationUnits = fileManager.getJavaFileObjectsFromPaths(files);
+            List<String> options = prepareOptions(index);
+            Boolean result = docTool.getTask(output, fileManager, null, docletClass, options, compilationUnits).call();
+            boolean success = result != null && result;
+
+            String text = output.toString().trim();
+            if (!success) {
+                log.error("Doclet partition " + index + " failed" + (text.isEmpty() ? "" : ":\n" + text));
+            } else {
+                if (!text.isEmpty()) {
+                    log.info(text);
+                }
+                if (partitions > 1) {
+                    log.info(String.format("Partition %d: %d source files in %d ms",
+                            index, files.size(), (System.nanoTime() - start) / 1_000_000));
+                }
+            }
+            return success;
+        } finally {
+            if (fileManagerPool != null) {
+                fileManagerPool.release(fileManager);
+            } else {
+                fileManager.close();
+            }
+        }
+    }
+
+    private List<String> prepareOptions(int index) {
+        List<String> options = new ArrayList<>();
+        options.add("-outputDirectory");
+        options.add(outputDirectory);
+        if (includePrivate) {
+            options.add("-includePrivate");
+        }
+        if (canonical) {
+            options.add("-canonical");
+        }
+        for (Map.Entry<String, String> mapping : outputMappings.entrySet()) {
+            options.add("-outputMapping");
+            options.add(mapping.getKey() + "=" + mapping.getValue());
+        }
+        if (sourceIndexDirectory != null) {
+            options.add("-sourceIndex");
+            options.add(sourceIndexDirectory.resolve(SOURCE_INDEX_PREFIX + index + ".json").toString());
+        }
+        if (outputArchive != null) {
+            options.add("-outputArchive");
+            options.add(outputArchive.toAbsolutePath().toString());
+            if (archiveStored) {
+                options.add("-archiveStored");
+            }
+        }
+        if (outputCorpus != null) {
+            options.add("-outputCorpus");
+            options.add(outputCorpus.toAbsolutePath().toString());
+        }
+        if (syncEvery > 0) {
+            options.add("-syncEvery");
+            options.add(String.valueOf(syncEvery));
+        }
+        options.add("-encoding");
+        options.add(encoding);
+        // A pooled file manager already has its class path; setting it again would drop the archive indexes
+        if (!classpath.isEmpty() && fileManagerPool == null) {
+            options.add("-classpath");
+            options.add(String.join(File.pathSeparator, classpath));
+        }
+        options.add("-quiet");
+        if (ignoreSourceErrors) {
+            options.add("--ignore-source-errors");
+        }
+        log.debug("Doclet options: " + String.join(" ", options));
+        return options;
+    }
+
+    /**
+     * Split source files into at most {@code partitions} groups without splitting a package (a source directory),
+     * balancing the number of files per group. The result is deterministic for the same input.
+     *
+     * @param sourceFiles the source files
+     * @param partitions  the maximum number of groups
+     * @return non-empty groups of files, or a single group holding every file
+     */
+    static List<List<Path>> partitionByPackage(List<Path> sourceFiles, int partitions) {
+        Map<String, List<Path>> packages = new TreeMap<>();
+        for (Path file : sourceFiles) {
+            Path parent = file.toAbsolutePath().getParent();
+            packages.computeIfAbsent(parent != null ? parent.toString() : "", key -> new ArrayList<>()).add(file);
+        }
+        int count = Math.min(partitions, packages.size());
+        if (count <= 1) {
+            return Collections.singletonList(sourceFiles);
+        }
+
+        // Largest packages first, each into the currently smallest partition
+        List<List<Path>> groups = new ArrayList<>(packages.values());
+        groups.sort(Comparator.comparingInt((List<Path> group) -> group.size()).reversed());
+        List<List<Path>> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            result.add(new ArrayList<>());
+        }
+        for (List<Path> group : groups) {
+            List<Path> smallest = result.get(0);
+            for (List<Path> candidate : result) {
+                if (candidate.size() < smallest.size()) {
+                    smallest = candidate;
+                }
+            }
+            smallest.addAll(group);
+        }
+        return result;
+    }
+}
@@ -1,7 +1,15 @@
 package io.emop.javadocjson.doclet;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.emop.javadocjson.jfr.DocletElementEvent;
+import io.emop.javadocjson.jfr.JfrSupport;
+import io.emop.javadocjson.jfr.JsonWriteEvent;
 import io.emop.javadocjson.model.*;
+import io.emop.javadocjson.util.BatchedFileWriter;
+import io.emop.javadocjson.util.CanonicalJson;
+import io.emop.javadocjson.util.CorpusWriter;
+import io.emop.javadocjson.util.ZipOutputSink;
 import jdk.javadoc.doclet.Doclet;
 import jdk.javadoc.doclet.DocletEnvironment;
 import jdk.javadoc.doclet.Reporter;
@@ -12,15 +20,18 @@ import javax.lang.model.SourceVersion;
 import javax.lang.model.element.*;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
 import javax.tools.Diagnostic;
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.stream.Collectors;
 
 import com.sun.source.doctree.DocCommentTree;
-import com.sun.source.doctree.DocTree;
-import com.sun.source.doctree.ParamTree;
 import com.sun.source.util.DocTrees;
+import com.sun.source.util.TreePath;
 
 /**
  * Custom Doclet implementation that generates JSON output from Javadoc.
@@ -32,6 +43,19 @@ public class JsonDoclet implements Doclet {
     private String outputDirectory = "javadoc-output";
     private String baseUrl = "";
     private boolean includePrivate = false;
+    private boolean canonical = false;
+    // Source root -> output directory, for types whose source file lies under that root
+    private final Map<Path, File> outputMappings = new LinkedHashMap<>();
+    // When set, source file -> full names of the classes written from it, recorded for incremental runs
+    private File sourceIndexFile;
+    // Files per fsync batch, 0 to leave durability to the operating system
+    private int syncEvery = 0;
+    // When set, classes are written as entries of this zip or jar file instead of individual files
+    private File outputArchive;
+    private boolean archiveStored = false;
+    // When set, all classes are also written into this compact corpus file
+    private File outputCorpus;
+    private DocCommentExtractor docCommentExtractor;
 
     @Override
     public void init(Locale locale, Reporter reporter) {
@@ -66,6 +90,65 @@ public class JsonDoclet implements Doclet {
                         includePrivate = true;
                         return true;
                     }
+                },
+                new SimpleOption("-canonical", 0, "Write canonical, byte-stable JSON") {
+                    @Override
+                    public boolean process(String option, List<String> arguments) {
+                        canonical = true;
+                        return true;
+                    }
+                },
+                new SimpleOption("-outputMapping", 1, "<sourceRoot>=<outputDirectory>, may be repeated") {
+                    @Override
+                    public boolean process(String option, List<String> arguments) {
+                        String value = arguments.get(0);
+                        int separator = value.lastIndexOf('=');
+                        if (separator <= 0) {
+                            return false;
+                        }
+                        outputMappings.put(Paths.get(value.substring(0, separator)).toAbsolutePath().normalize(),
+                                new File(value.substring(separator + 1)));
+                        return true;
+                    }
+                },
+                new SimpleOption("-sourceIndex", 1, "File to record the classes written from each source file") {
+                    @Override
+                    public boolean process(String option, List<String> arguments) {
+                        sourceIndexFile = new File(arguments.get(0));
+                        return true;
+                    }
+                },
+                new SimpleOption("-outputArchive", 1, "Zip or jar file to write the class JSON entries into") {
+                    @Override
+                    public boolean process(String option, List<String> arguments) {
+                        outputArchive = new File(arguments.get(0));
+                        return true;
+                    }
+                },
+                new SimpleOption("-archiveStored", 0, "Store archive entries uncompressed") {
+                    @Override
+                    public boolean process(String option, List<String> arguments) {
+                        archiveStored = true;
+                        return true;
+                    }
+                },
+                new SimpleOption("-outputCorpus", 1, "Compact corpus file to also write all classes into") {
+                    @Override
+                    public boolean process(String option, List<String> arguments) {
+                        outputCorpus = new File(arguments.get(0));
+                        return true;
+                    }
+                },
+                new SimpleOption("-syncEvery", 1, "Force written files to disk in batches of this many files") {
+                    @Override
+                    public boolean process(String option, List<String> arguments) {
+                        try {
+                            syncEvery = Integer.parseInt(arguments.get(0));
+                        } catch (NumberFormatException e) {
+                            return false;
+                        }
+                        return true;
+                    }
                 }
         );
     }
@@ -79,6 +162,7 @@ public class JsonDoclet implements Doclet {
     public boolean run(DocletEnvironment environment) {
         try {
             reporter.print(Diagnostic.Kind.NOTE, "Starting JSON generation...");
+            docCommentExtractor = new DocCommentExtractor();
 
             // Create output directory
             File outputDir = new File(outputDirectory);
@@ -86,37 +170,87 @@ public class JsonDoclet implements Doclet {
                 outputDir.mkdirs();
             }
 
-            // Process all included elements
-            Set<? extends Element> includedElements = environment.getIncludedElements();
-            List<JavadocClass> allClasses = new ArrayList<>();
-
-            // Process each type element and generate individual JSON files
-            for (Element element : includedElements) {
+            // Types in output file name order, so archive entries and incremental indexes come out the same in
+            // every run
+            List<TypeElement> typeElements = new ArrayList<>();
+            for (Element element : environment.getIncludedElements()) {
                 if (element.getKind() == ElementKind.CLASS ||
                         element.getKind() == ElementKind.INTERFACE ||
                         element.getKind() == ElementKind.ENUM ||
                         element.getKind() == ElementKind.ANNOTATION_TYPE) {
-
-                    TypeElement typeElement = (TypeElement) element;
+                    typeElements.add((TypeElement) element);
+                }
+            }
+            Elements elementUtils = environment.getElementUtils();
+            typeElements.sort(Comparator.comparing(type -> elementUtils.getBinaryName(type) + ".json"));
+            // One writer for the whole run; classes are built, written and released one at a time
+            // so only these counters outlive a type
+            ObjectWriter writer = canonical ? CanonicalJson.newMapper().writer()
+                    : new ObjectMapper().findAndRegisterModules().writerWithDefaultPrettyPrinter();
+            Set<String> packageNames = new HashSet<>();
+            Map<String, List<String>> sourceIndex = new TreeMap<>();
+            BatchedFileWriter fileWriter = new BatchedFileWriter(syncEvery);
+            // Keeps only the encoded records, not the classes
+            CorpusWriter corpus = outputCorpus != null ? new CorpusWriter() : null;
+            int classCount = 0;
+            int memberCount = 0;
+
+            try (ZipOutputSink archive = outputArchive != null ? new ZipOutputSink(outputArchive.toPath(), archiveStored) : null) {
+                // Process each type element and generate individual JSON files
+                for (TypeElement typeElement : typeElements) {
+                    DocletElementEvent elementEvent = JfrSupport.AVAILABLE ? new DocletElementEvent() : null;
+                    if (elementEvent != null) {
+                        elementEvent.begin();
+                    }
                     JavadocClass javadocClass = createJavadocClass(typeElement, environment);
+                    if (elementEvent != null) {
+                        commitElementEvent(elementEvent, typeElement, javadocClass);
+                    }
 
                     if (javadocClass != null) {
-                        allClasses.add(javadocClass);
+                        if (canonical) {
+                            CanonicalJson.canonicalize(javadocClass);
+                        }
+                        writeClass(writer, fileWriter, archive, javadocClass, resolveOutputDir(typeElement, environment, outputDir));
+                        if (corpus != null) {
+                            corpus.add(javadocClass);
+                        }
+                        if (sourceIndexFile != null) {
+                            Path sourceFile = sourceFile(typeElement, environment);
+                            sourceIndex.computeIfAbsent(sourceFile != null ? sourceFile.toString() : "", key -> new ArrayList<>())
+                                    .add(javadocClass.getFullName());
+                        }
+                        classCount++;
+                        memberCount += javadocClass.getMethods().size() + javadocClass.getFields().size()
+                                + javadocClass.getConstructors().size();
+                        if (javadocClass.getPackageName() != null) {
+                            packageNames.add(javadocClass.getPackageName());
+                        }
+                    }
+                }
 
-                        // Generate individual JSON file for this class
-                        String fileName = javadocClass.getFullName() + ".json";
-                        File classFile = new File(outputDir, fileName);
+                fileWriter.flush();
+                if (archive != null) {
+                    archive.finish();
+                }
+            }
+            if (corpus != null) {
+                long size = corpus.writeTo(outputCorpus.toPath());
+                reporter.print(Diagnostic.Kind.NOTE, String.format("Corpus written to: %s (%d classes, %d strings, %d bytes)",
+                        outputCorpus, corpus.getClassCount(), corpus.getStringCount(), size));
+            }
 
-                        ObjectMapper mapper = new ObjectMapper();
-                        mapper.findAndRegisterModules();
-                        mapper.writerWithDefaultPrettyPrinter().writeValue(classFile, javadocClass);
-                    }
+            if (sourceIndexFile != null) {
+                File parent = sourceIndexFile.getAbsoluteFile().getParentFile();
+                if (!parent.exists()) {
+                    parent.mkdirs();
                 }
+                new ObjectMapper().writeValue(sourceIndexFile, sourceIndex);
             }
 
             reporter.print(Diagnostic.Kind.NOTE,
-                    String.format("JSON documentation generated in: %s (%d classes)",
-                            outputDirectory, allClasses.size()));
+                    String.format("JSON documentation generated in: %s (%d classes, %d members, %d packages)",
+                            outputArchive != null ? outputArchive : outputDirectory, classCount, memberCount, packageNames.size()));
 
             return true;
 
@@ -127,6 +261,87 @@ public class JsonDoclet implements Doclet {
         }
     }
 
+    /**
+     * The mapped output directory of the source root holding the type, or the default output directory.
+     */
+    private File resolveOutputDir(TypeElement typeElement, DocletEnvironment environment, File defaultDir) {
+        if (outputMappings.isEmpty()) {
+            return defaultDir;
+        }
+        Path sourceFile = sourceFile(typeElement, environment);
+        if (sourceFile == null) {
+            return defaultDir;
+        }
+        // The deepest matching root wins when roots are nested
+        Path bestRoot = null;
+        for (Path root : outputMappings.keySet()) {
+            if (sourceFile.startsWith(root) && (bestRoot == null || root.getNameCount() > bestRoot.getNameCount())) {
+                bestRoot = root;
+            }
+        }
+        if (bestRoot == null) {
+            return defaultDir;
+        }
+        File dir = outputMappings.get(bestRoot);
+        if (!dir.exists()) {
+            dir.mkdirs();
+        }
+        return dir;
+    }
+
+    /**
+     * The absolute, normalized source file declaring the type, or null if it has no source tree.
+     */
+    private static Path sourceFile(TypeElement typeElement, DocletEnvironment environment) {
+        TreePath path = environment.getDocTrees().getPath(typeElement);
+        if (path == null) {
+            return null;
+        }
+        return Paths.get(path.getCompilationUnit().getSourceFile().toUri()).toAbsolutePath().normalize();
+    }
+
+    private void writeClass(ObjectWriter writer, BatchedFileWriter fileWriter, ZipOutputSink archive,
+                            JavadocClass javadocClass, File outputDir) throws IOException {
+        // Generate individual JSON file for this class
+        String fileName = javadocClass.getFullName() + ".json";
+        File classFile = new File(outputDir, fileName);
+
+        JsonWriteEvent writeEvent = JfrSupport.AVAILABLE ? new JsonWriteEvent() : null;
+        if (writeEvent != null) {
+            writeEvent.begin();
+        }
+        // Serialized in memory and written with one call, replacing rather than truncating an existing file
+        byte[] content = writer.writeValueAsBytes(javadocClass);
+        if (archive != null) {
+            archive.write(fileName, content);
+        } else {
+            fileWriter.write(classFile.toPath(), content);
+        }
+        if (writeEvent != null) {
+            writeEvent.end();
+            if (writeEvent.shouldCommit()) {
+                writeEvent.setClassName(javadocClass.getFullName());
+                writeEvent.setFile(archive != null ? archive.getArchive() + "!/" + fileName : classFile.getPath());
+                writeEvent.setBytes(content.length);
+                writeEvent.commit();
+            }
+        }
+    }
+
+    private void commitElementEvent(DocletElementEvent event, TypeElement typeElement, JavadocClass javadocClass) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.setClassName(typeElement.getQualifiedName().toString());
+            event.setKind(getElementType(typeElement));
+            if (javadocClass != null) {
+                event.setMethodCount(javadocClass.getMethods().size());
+                event.setFieldCount(javadocClass.getFields().size());
+                event.setConstructorCount(javadocClass.getConstructors().size());
+            }
+            event.commit();
+        }
+    }
+
     private JavadocClass createJavadocClass(TypeElement typeElement, DocletEnvironment environment) {
         // Check visibility
         if (!includePrivate && !isPublicOrProtected(typeElement)) {
@@ -225,11 +440,13 @@ public class JsonDoclet implements Doclet {
         javadocMethod.setSignature(generateMethodSignature(method));
         javadocMethod.setModifiers(getModifiers(method));
 
-        // Set description (main body only, excluding block tags to avoid duplication)
-        javadocMethod.setDescription(extractMainDescription(method, environment));
-
-        // Extract parameter descriptions from @param tags
-        Map<String, String> paramDescriptions = extractParameterDescriptions(method, environment);
+        // Description (main body only, excluding block tags to avoid duplication) and block tags in one pass
+        DocCommentExtractor.Comment comment = extractDocComment(method, environment);
+        javadocMethod.setDescription(comment.getDescription());
+        javadocMethod.setReturnDescription(comment.getReturnDescription());
+        javadocMethod.setExceptionDescriptions(comment.getExceptionDescriptions());
+        javadocMethod.setSince(comment.getSince());
+        Map<String, String> paramDescriptions = comment.getParams();
 
         // Set parameters
         List<JavadocParameter> parameters = new ArrayList<>();
@@ -287,11 +504,12 @@ public class JsonDoclet implements Doclet {
         javadocConstructor.setSignature(generateMethodSignature(constructor));
         javadocConstructor.setModifiers(getModifiers(constructor));
 
-        // Set description (main body only, excluding block tags to avoid duplication)
-        javadocConstructor.setDescription(extractMainDescription(constructor, environment));
-
-        // Extract parameter descriptions from @param tags
-        Map<String, String> paramDescriptions = extractParameterDescriptions(constructor, environment);
+        // Description (main body only, excluding block tags to avoid duplication) and block tags in one pass
+        DocCommentExtractor.Comment comment = extractDocComment(constructor, environment);
+        javadocConstructor.setDescription(comment.getDescription());
+        javadocConstructor.setExceptionDescriptions(comment.getExceptionDescriptions());
+        javadocConstructor.setSince(comment.getSince());
+        Map<String, String> paramDescriptions = comment.getParams();
 
         // Set parameters
         List<JavadocParameter> parameters = new ArrayList<>();
@@ -381,52 +599,28 @@ public class JsonDoclet implements Doclet {
     }
 
     /**
-     * Extracts parameter descriptions from @param tags in the Javadoc comment.
+     * Extracts the main description and the @param, @return, @throws and @since tags of an element
+     * with a single pass over its DocCommentTree.
      *
      * @param element     The method or constructor element
      * @param environment The doclet environment
-     * @return A map of parameter names to their descriptions
-     */
-    private Map<String, String> extractParameterDescriptions(ExecutableElement element, DocletEnvironment environment) {
-        Map<String, String> paramDescriptions = new HashMap<>();
-
-        DocTrees docTrees = environment.getDocTrees();
-        DocCommentTree docCommentTree = docTrees.getDocCommentTree(element);
-
-        if (docCommentTree != null) {
-            for (DocTree blockTag : docCommentTree.getBlockTags()) {
-                if (blockTag.getKind() == DocTree.Kind.PARAM) {
-                    ParamTree paramTag = (ParamTree) blockTag;
-                    String paramName = paramTag.getName().toString();
-                    String description = paramTag.getDescription().toString().trim();
-                    paramDescriptions.put(paramName, decodeUnicodeEscapes(description));
-                }
-            }
-        }
-
-        return paramDescriptions;
-    }
-
-    /**
-     * Extracts the main description from Javadoc comment, excluding @param and other block tags.
-     * This helps avoid duplicate parameter descriptions in method descriptions.
-     *
-     * @param element     The element to extract description from
-     * @param environment The doclet environment
-     * @return The main description without block tags
+     * @return The extracted comment parts; only the description is set when no DocCommentTree is available
      */
-    private String extractMainDescription(Element element, DocletEnvironment environment) {
+    private DocCommentExtractor.Comment extractDocComment(Element element, DocletEnvironment environment) {
         DocTrees docTrees = environment.getDocTrees();
         DocCommentTree docCommentTree = docTrees.getDocCommentTree(element);
 
         if (docCommentTree != null) {
-            // Get only the main body, excluding block tags
-            return decodeUnicodeEscapes(docCommentTree.getFullBody().toString().trim());
+            return docCommentExtractor.extract(docCommentTree);
         }
 
-        // Fallback to the old method if DocCommentTree is not available
+        // Fallback to the raw comment if DocCommentTree is not available
+        DocCommentExtractor.Comment comment = new DocCommentExtractor.Comment();
         String docComment = environment.getElementUtils().getDocComment(element);
-        return docComment != null ? decodeUnicodeEscapes(docComment.trim()) : "";
+        if (docComment != null) {
+            comment.setDescription(decodeUnicodeEscapes(docComment.trim()));
+        }
+        return comment;
     }
 
     /**
@@ -437,32 +631,7 @@ public class JsonDoclet implements Doclet {
      * @return The decoded string with Unicode characters
      */
     private String decodeUnicodeEscapes(String input) {
-        if (input == null || input.isEmpty()) {
-            return input;
-        }
-
-        StringBuilder result = new StringBuilder();
-        int i = 0;
-        while (i < input.length()) {
-            if (i < input.length() - 5 && input.charAt(i) == '\\' && input.charAt(i + 1) == 'u') {
-                // Found a potential Unicode escape sequence
-                try {
-                    String hexCode = input.substring(i + 2, i + 6);
-                    int codePoint = Integer.parseInt(hexCode, 16);
-                    result.append((char) codePoint);
-                    i += 6; // Skip the \\uXXXX sequence
-                } catch (NumberFormatException e) {
-                    // Not a valid Unicode escape, just append the character
-                    result.append(input.charAt(i));
-                    i++;
-                }
-            } else {
-                result.append(input.charAt(i));
-                i++;
-            }
-        }
-
-        return result.toString();
+        return docCommentExtractor.decode(input);
     }
 
     /**
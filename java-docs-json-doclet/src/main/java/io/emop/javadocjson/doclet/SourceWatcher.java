@@ -0,0 +1,199 @@
+package io.emop.javadocjson.doclet;
+
+import lombok.Setter;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Watches source roots with a {@link WatchService} and hands batches of changed paths to an
+ * {@link IncrementalRegenerator}.
+ * <p>
+ * Changes are collected until no event has arrived for {@code debounceMillis}, so an editor saving a file several
+ * times, a formatter touching many files or a branch switch becomes one regeneration. A batch is cut after ten
+ * debounce periods at the latest so continuous changes still show up. New directories are watched as they appear.
+ * When the watch service overflows, as it can when thousands of files change at once, events are lost, so every
+ * directory is registered again and the whole tree is regenerated. The changes of a batch the doclet failed on,
+ * such as a file saved with a syntax error, are retried with the next batch.
+ */
+@Setter
+public class SourceWatcher implements Closeable {
+
+    private final Log log;
+    private final IncrementalRegenerator regenerator;
+    private final List<Path> sourceRoots;
+    private long debounceMillis = 300;
+
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+    private final AtomicLong batches = new AtomicLong();
+    // Changes of a failed batch, retried with the next one
+    private final Set<Path> pending = new LinkedHashSet<>();
+    private WatchService watchService;
+
+    public SourceWatcher(Log log, IncrementalRegenerator regenerator, List<Path> sourceRoots) {
+        this.log = log;
+        this.regenerator = regenerator;
+        this.sourceRoots = new ArrayList<>();
+        for (Path root : sourceRoots) {
+            this.sourceRoots.add(root.toAbsolutePath().normalize());
+        }
+    }
+
+    /**
+     * Register the source roots; changes made from now on are picked up by {@link #run()}.
+     */
+    public void start() throws IOException {
+        watchService = sourceRoots.get(0).getFileSystem().newWatchService();
+        for (Path root : sourceRoots) {
+            register(root);
+        }
+        log.debug("Watching " + directories.size() + " directories");
+    }
+
+    /**
+     * Process changes until {@link #close()} is called or the thread is interrupted.
+     */
+    public void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                Set<Path> changed = new LinkedHashSet<>(pending);
+                boolean overflow = collect(watchService.take(), changed);
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(debounceMillis * 10);
+                while (true) {
+                    long wait = Math.min(debounceMillis, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+                    WatchKey key = wait > 0 ? watchService.poll(wait, TimeUnit.MILLISECONDS) : null;
+                    if (key == null) {
+                        break;
+                    }
+                    overflow |= collect(key, changed);
+                }
+                process(changed, overflow);
+            }
+        } catch (ClosedWatchServiceException e) {
+            // Closed
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void process(Set<Path> changed, boolean overflow) {
+        try {
+            IncrementalRegenerator.Result result;
+            if (overflow) {
+                log.info("Too many changes to track individually, regenerating all sources");
+                for (Path root : sourceRoots) {
+                    register(root);
+                }
+                result = regenerator.regenerateAll();
+            } else {
+                result = regenerator.regenerate(changed);
+            }
+            batches.incrementAndGet();
+            pending.clear();
+            if (!result.isSuccess() && !overflow) {
+                pending.addAll(changed);
+            }
+            if (result.isSuccess() && result.getSourceFiles() + result.getDeleted() > 0) {
+                log.info(String.format("Regenerated %d source files in %d ms: %d classes written, %d unchanged, %d deleted",
+                        result.getSourceFiles(), result.getMillis(), result.getWritten(), result.getUnchanged(),
+                        result.getDeleted()));
+            }
+        } catch (IOException e) {
+            log.warn("Regeneration failed: " + e.getMessage());
+            pending.addAll(changed);
+        }
+    }
+
+    /**
+     * Add the paths of a key's events to {@code changed} and watch new directories.
+     *
+     * @return whether events were lost
+     */
+    private boolean collect(WatchKey key, Set<Path> changed) {
+        boolean overflow = false;
+        Path directory = directories.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflow = true;
+                continue;
+            }
+            if (directory == null) {
+                continue;
+            }
+            Path path = directory.resolve((Path) event.context());
+            changed.add(path);
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                try {
+                    register(path);
+                } catch (IOException e) {
+                    log.warn("Cannot watch " + path + ": " + e.getMessage());
+                }
+            }
+        }
+        if (!key.reset()) {
+            // The directory is gone
+            directories.remove(key);
+        }
+        return overflow;
+    }
+
+    private void register(Path root) throws IOException {
+        if (!Files.isDirectory(root)) {
+            return;
+        }
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                WatchKey key;
+                try {
+                    key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+                } catch (NoSuchFileException e) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                directories.put(key, dir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                // Deleted while walking
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Number of batches processed so far.
+     */
+    public long getBatches() {
+        return batches.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+}
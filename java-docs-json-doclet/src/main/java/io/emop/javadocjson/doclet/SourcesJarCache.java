@@ -0,0 +1,295 @@
+package io.emop.javadocjson.doclet;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.emop.javadocjson.util.FileUtils;
+import io.emop.javadocjson.util.HashUtils;
+import io.emop.javadocjson.util.JsonGenerator;
+import lombok.Data;
+import lombok.Setter;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Shared local store of JSON documentation generated from dependency {@code -sources.jar} files.
+ * <p>
+ * Entries are keyed by {@code groupId/artifactId/version}, the member visibility and a hash of the source encoding
+ * and the sorted coordinates of the dependency's own resolved dependencies, the classpath the doclet resolved types
+ * against. Nothing of the consuming project enters the key, so once a version has been documented every other
+ * project and build on the machine reuses it. Sources are read straight from the jar
+ * through the zip file system and documented into a temporary sibling directory that is renamed into place when
+ * complete, so concurrent builds never see a partial entry. SNAPSHOT entries are also checked against the size and
+ * modification time of the sources jar they were generated from.
+ */
+@Setter
+public class SourcesJarCache {
+
+    /**
+     * Default cache directory, shared by all projects of the user.
+     */
+    public static final String DEFAULT_CACHE_DIR = System.getProperty("user.home") + File.separator + ".javadoc-json"
+            + File.separator + "sources";
+
+    /**
+     * File name of the entry descriptor inside {@link JsonGenerator#METADATA_DIRECTORY} of a cache entry.
+     */
+    public static final String ENTRY_FILE = "sources-cache.json";
+
+    /**
+     * Version of the cached output; entries written with another version are regenerated.
+     */
+    static final int FORMAT_VERSION = 3;
+
+    private final Log log;
+    private final Path cacheDirectory;
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private boolean includePrivate;
+    private String encoding = "UTF-8";
+
+    public SourcesJarCache(Log log, Path cacheDirectory) {
+        this.log = log;
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    /**
+     * Directory of the cache entry for a dependency version.
+     *
+     * @param dependencies the dependency's own resolved dependencies, from coordinates to jar file
+     */
+    public Path entryDirectory(String groupId, String artifactId, String version, Map<String, String> dependencies) {
+        return cacheDirectory.resolve(groupId).resolve(artifactId).resolve(version)
+                .resolve((includePrivate ? "private" : "public") + "-" + settingsHash(dependencies));
+    }
+
+    /**
+     * Hash of the settings that change the generated documentation besides the sources themselves: the encoding
+     * and the coordinates of the dependencies types are resolved against. Their jar locations differ between
+     * machines and do not count.
+     */
+    private String settingsHash(Map<String, String> dependencies) {
+        StringBuilder settings = new StringBuilder(encoding);
+        for (String coordinates : new TreeSet<>(dependencies.keySet())) {
+            settings.append('\n').append(coordinates);
+        }
+        return HashUtils.sha256Hex(settings.toString()).substring(0, 12);
+    }
+
+    /**
+     * Look up a complete, current cache entry.
+     *
+     * @param groupId      the dependency group id
+     * @param artifactId   the dependency artifact id
+     * @param version      the dependency version
+     * @param sourcesJar   the resolved sources jar
+     * @param dependencies the dependency's own resolved dependencies, from coordinates to jar file
+     * @return the entry directory, or null when the dependency has to be documented
+     */
+    public Path lookup(String groupId, String artifactId, String version, Path sourcesJar,
+                       Map<String, String> dependencies) {
+        Path directory = entryDirectory(groupId, artifactId, version, dependencies);
+        Path entryFile = directory.resolve(JsonGenerator.METADATA_DIRECTORY).resolve(ENTRY_FILE);
+        if (!Files.isRegularFile(entryFile)) {
+            return null;
+        }
+        try {
+            Entry entry = objectMapper.readValue(entryFile.toFile(), Entry.class);
+            if (entry.getFormat() != FORMAT_VERSION) {
+                return null;
+            }
+            if (version.endsWith("-SNAPSHOT") && (entry.getJarSize() != Files.size(sourcesJar)
+                    || entry.getJarModified() != Files.getLastModifiedTime(sourcesJar).toMillis())) {
+                return null;
+            }
+            return directory;
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable cache entry " + entryFile + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Document a sources jar and publish the result as the cache entry of the dependency version.
+     *
+     * @param groupId      the dependency group id
+     * @param artifactId   the dependency artifact id
+     * @param version      the dependency version
+     * @param sourcesJar   the resolved sources jar
+     * @param dependencies the dependency's own resolved dependencies, from coordinates to jar file
+     * @param partitions   the number of partitions the jar is documented with
+     * @return the entry directory
+     * @throws IOException if the jar cannot be read or the doclet fails
+     */
+    public Path generate(String groupId, String artifactId, String version, Path sourcesJar,
+                         Map<String, String> dependencies, int partitions) throws IOException {
+        Path directory = entryDirectory(groupId, artifactId, version, dependencies);
+        Map<String, String> sorted = new TreeMap<>(dependencies);
+        Files.createDirectories(directory.getParent());
+        Path staging = directory.resolveSibling(directory.getFileName() + ".tmp-" + UUID.randomUUID());
+
+        try (FileSystem zip = FileSystems.newFileSystem(sourcesJar, (ClassLoader) null)) {
+            Path root = zip.getRootDirectories().iterator().next();
+            List<Path> sources = findSources(root);
+            if (sources.isEmpty()) {
+                log.warn("No Java sources in " + sourcesJar);
+            } else {
+                JavadocInvoker invoker = new JavadocInvoker(log);
+                invoker.setOutputDirectory(staging.toString());
+                invoker.setIncludePrivate(includePrivate);
+                invoker.setEncoding(encoding);
+                invoker.setClasspath(new ArrayList<>(sorted.values()));
+                invoker.setSourceRoots(Collections.singletonList(root));
+                invoker.setPartitions(partitions);
+                // Optional dependencies of the library are usually not on the classpath
+                invoker.setIgnoreSourceErrors(true);
+                // Entries are shared between builds, so they are byte-stable
+                invoker.setCanonical(true);
+                if (!invoker.runSources(sources)) {
+                    FileUtils.deleteRecursively(staging);
+                    throw new IOException("Doclet execution failed for " + sourcesJar);
+                }
+            }
+
+            Entry entry = new Entry();
+            entry.setFormat(FORMAT_VERSION);
+            entry.setGav(groupId + ":" + artifactId + ":" + version);
+            entry.setSourcesJar(sourcesJar.toString());
+            entry.setJarSize(Files.size(sourcesJar));
+            entry.setJarModified(Files.getLastModifiedTime(sourcesJar).toMillis());
+            entry.setSourceFiles(sources.size());
+            entry.setEncoding(encoding);
+            entry.setDependencies(new ArrayList<>(sorted.keySet()));
+            Path metadata = Files.createDirectories(staging.resolve(JsonGenerator.METADATA_DIRECTORY));
+            objectMapper.writeValue(metadata.resolve(ENTRY_FILE).toFile(), entry);
+        } catch (IOException e) {
+            FileUtils.deleteRecursively(staging);
+            throw e;
+        }
+
+        publish(staging, directory);
+        return directory;
+    }
+
+    /**
+     * Copy the class JSON files of a cache entry into an output directory.
+     *
+     * @return the number of files copied
+     */
+    public static int copyEntry(Path entryDirectory, Path outputDirectory) throws IOException {
+        Files.createDirectories(outputDirectory);
+        int count = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(entryDirectory, "*.json")) {
+            for (Path file : files) {
+                Files.copy(file, outputDirectory.resolve(file.getFileName().toString()), StandardCopyOption.REPLACE_EXISTING);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Move the staged entry into place. A stale entry is moved aside first; if another build published the same
+     * entry in the meantime, its entry is kept and the staged copy discarded. Where directories cannot be renamed
+     * atomically the entry is copied instead, with its descriptor last, so {@link #lookup} never accepts a partial
+     * entry.
+     */
+    private void publish(Path staging, Path directory) throws IOException {
+        Path stale = null;
+        if (Files.exists(directory)) {
+            stale = directory.resolveSibling(directory.getFileName() + ".stale-" + UUID.randomUUID());
+            try {
+                Files.move(directory, stale, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                stale = null;
+            }
+        }
+        try {
+            Files.move(staging, directory, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            try {
+                copyEntryFiles(staging, directory);
+            } catch (FileAlreadyExistsException concurrent) {
+                log.debug("Cache entry " + directory + " was published concurrently, discarding " + staging);
+            } finally {
+                FileUtils.deleteRecursively(staging);
+            }
+        } catch (FileAlreadyExistsException e) {
+            log.debug("Cache entry " + directory + " was published concurrently, discarding " + staging);
+            FileUtils.deleteRecursively(staging);
+        } catch (IOException e) {
+            // Renaming onto a non-empty directory reports a generic error on some platforms
+            if (!Files.isDirectory(directory)) {
+                throw e;
+            }
+            FileUtils.deleteRecursively(staging);
+        }
+        if (stale != null) {
+            FileUtils.deleteRecursively(stale);
+        }
+    }
+
+    private static void copyEntryFiles(Path staging, Path directory) throws IOException {
+        Path entryFile = staging.resolve(JsonGenerator.METADATA_DIRECTORY).resolve(ENTRY_FILE);
+        Files.createDirectory(directory);
+        try (Stream<Path> paths = Files.walk(staging)) {
+            for (Path path : paths.sorted().collect(Collectors.toList())) {
+                Path target = directory.resolve(staging.relativize(path).toString());
+                if (Files.isDirectory(path)) {
+                    Files.createDirectories(target);
+                } else if (!path.equals(entryFile)) {
+                    Files.copy(path, target);
+                }
+            }
+        }
+        Files.copy(entryFile, directory.resolve(JsonGenerator.METADATA_DIRECTORY).resolve(ENTRY_FILE));
+    }
+
+    /**
+     * Java sources of a sources jar, skipping module descriptors and multi-release variants that would clash with
+     * the base classes.
+     */
+    static List<Path> findSources(Path root) throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            return paths
+                    .filter(Files::isRegularFile)
+                    .filter(path -> path.toString().endsWith(".java"))
+                    .filter(path -> !path.getFileName().toString().equals("module-info.java"))
+                    .filter(path -> !path.startsWith(root.resolve("META-INF")))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Descriptor of a published cache entry.
+     */
+    @Data
+    public static class Entry {
+        private int format;
+        private String gav;
+        private String sourcesJar;
+        private long jarSize;
+        private long jarModified;
+        private int sourceFiles;
+        private String encoding;
+        private List<String> dependencies;
+    }
+}
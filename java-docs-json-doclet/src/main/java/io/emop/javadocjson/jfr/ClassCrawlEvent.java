@@ -0,0 +1,33 @@
+package io.emop.javadocjson.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lombok.Setter;
+
+/**
+ * Processing of one class by the crawler, from the class cache lookup to the parsed class.
+ */
+@Name("io.emop.javadocjson.ClassCrawl")
+@Label("Class Crawl")
+@Category({"Javadoc JSON", "Crawl"})
+@Description("Processing of one class by the crawler, including fetch, parse and caching")
+@StackTrace(false)
+@Setter
+public class ClassCrawlEvent extends jdk.jfr.Event {
+
+    @Label("URL")
+    private String url;
+
+    @Label("Class Name")
+    private String className;
+
+    @Label("Outcome")
+    @Description("CACHED, PARSED or FAILED")
+    private String outcome;
+
+    @Label("Members")
+    private int memberCount;
+}
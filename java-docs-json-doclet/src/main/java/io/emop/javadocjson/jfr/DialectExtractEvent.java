@@ -0,0 +1,35 @@
+package io.emop.javadocjson.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lombok.Setter;
+
+/**
+ * Extraction of class information and members from a parsed page by a dialect.
+ */
+@Name("io.emop.javadocjson.DialectExtract")
+@Label("Dialect Extract")
+@Category({"Javadoc JSON", "Crawl"})
+@Description("Extraction of class information and members from a parsed page by a dialect")
+@StackTrace(false)
+@Setter
+public class DialectExtractEvent extends jdk.jfr.Event {
+
+    @Label("Class Name")
+    private String className;
+
+    @Label("Dialect")
+    private String dialect;
+
+    @Label("Methods")
+    private int methodCount;
+
+    @Label("Fields")
+    private int fieldCount;
+
+    @Label("Constructors")
+    private int constructorCount;
+}
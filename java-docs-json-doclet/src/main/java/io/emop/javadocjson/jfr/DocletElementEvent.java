@@ -0,0 +1,35 @@
+package io.emop.javadocjson.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lombok.Setter;
+
+/**
+ * Conversion of one type element into a class model by the doclet.
+ */
+@Name("io.emop.javadocjson.DocletElement")
+@Label("Doclet Element")
+@Category({"Javadoc JSON", "Doclet"})
+@Description("Conversion of one type element into a class model by the doclet")
+@StackTrace(false)
+@Setter
+public class DocletElementEvent extends jdk.jfr.Event {
+
+    @Label("Class Name")
+    private String className;
+
+    @Label("Kind")
+    private String kind;
+
+    @Label("Methods")
+    private int methodCount;
+
+    @Label("Fields")
+    private int fieldCount;
+
+    @Label("Constructors")
+    private int constructorCount;
+}
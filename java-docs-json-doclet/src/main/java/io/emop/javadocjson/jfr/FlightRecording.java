@@ -0,0 +1,86 @@
+package io.emop.javadocjson.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Flight recording of one goal execution.
+ * <p>
+ * The recording uses the JDK {@code default} settings, which keep the overhead low enough for production
+ * runs, and records every event of this plugin regardless of its duration. It is written to the target
+ * file when closed.
+ */
+public class FlightRecording implements AutoCloseable {
+
+    /**
+     * Event types emitted by this plugin.
+     */
+    public static final List<Class<? extends jdk.jfr.Event>> EVENT_TYPES = Arrays.asList(
+            ClassCrawlEvent.class,
+            PageFetchEvent.class,
+            PageParseEvent.class,
+            DialectExtractEvent.class,
+            DocletElementEvent.class,
+            JsonWriteEvent.class
+    );
+
+    private final Log log;
+    private final File file;
+    private final Recording recording;
+
+    private FlightRecording(Log log, File file, Recording recording) {
+        this.log = log;
+        this.file = file;
+        this.recording = recording;
+    }
+
+    /**
+     * Starts a recording that is written to a file when closed.
+     *
+     * @param log  The Maven logger
+     * @param file The target {@code .jfr} file
+     * @return The running recording
+     * @throws IOException if the JVM does not support flight recording or the file cannot be created
+     */
+    public static FlightRecording start(Log log, File file) throws IOException {
+        if (!JfrSupport.AVAILABLE) {
+            throw new IOException("Flight recording requires a JVM with the jdk.jfr module");
+        }
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+
+        Recording recording;
+        try {
+            recording = new Recording(Configuration.getConfiguration("default"));
+        } catch (ParseException e) {
+            throw new IOException("Cannot read the default flight recorder settings", e);
+        }
+        for (Class<? extends jdk.jfr.Event> eventType : EVENT_TYPES) {
+            recording.enable(eventType).withoutThreshold();
+        }
+        recording.setName("javadoc-json");
+        recording.setToDisk(true);
+        recording.setDestination(file.toPath());
+        recording.start();
+        log.info("Flight recording started, writing to: " + file.getAbsolutePath());
+        return new FlightRecording(log, file, recording);
+    }
+
+    /**
+     * Stops the recording and writes it to the target file.
+     */
+    @Override
+    public void close() {
+        recording.stop();
+        recording.close();
+        log.info("Flight recording written to: " + file.getAbsolutePath());
+    }
+}
@@ -0,0 +1,27 @@
+package io.emop.javadocjson.jfr;
+
+/**
+ * Guards the use of the JDK Flight Recorder API.
+ * <p>
+ * The event classes extend {@code jdk.jfr.Event}, which is missing on some older runtimes, so code only
+ * instantiates them when {@link #AVAILABLE} is true. This class itself does not reference the JFR API.
+ */
+public final class JfrSupport {
+
+    /**
+     * Whether the running JVM provides the {@code jdk.jfr} API.
+     */
+    public static final boolean AVAILABLE = isJfrPresent();
+
+    private JfrSupport() {
+    }
+
+    private static boolean isJfrPresent() {
+        try {
+            Class.forName("jdk.jfr.Event", false, JfrSupport.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
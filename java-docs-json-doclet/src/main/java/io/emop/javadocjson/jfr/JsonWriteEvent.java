@@ -0,0 +1,32 @@
+package io.emop.javadocjson.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lombok.Setter;
+
+/**
+ * Serialization of one class to JSON, and its write when a file is given.
+ */
+@Name("io.emop.javadocjson.JsonWrite")
+@Label("JSON Write")
+@Category({"Javadoc JSON", "Output"})
+@Description("Serialization of one class to JSON and its write to the output directory")
+@StackTrace(false)
+@Setter
+public class JsonWriteEvent extends jdk.jfr.Event {
+
+    @Label("Class Name")
+    private String className;
+
+    @Label("File")
+    @Description("Target file, empty when the class was only serialized")
+    private String file;
+
+    @Label("Bytes")
+    @DataAmount
+    private long bytes;
+}
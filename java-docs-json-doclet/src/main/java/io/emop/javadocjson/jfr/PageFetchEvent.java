@@ -0,0 +1,32 @@
+package io.emop.javadocjson.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lombok.Setter;
+
+/**
+ * Download of one Javadoc page, or its lookup in the HTML cache.
+ */
+@Name("io.emop.javadocjson.PageFetch")
+@Label("Page Fetch")
+@Category({"Javadoc JSON", "Crawl"})
+@Description("Download of one Javadoc page or its lookup in the HTML cache")
+@StackTrace(false)
+@Setter
+public class PageFetchEvent extends jdk.jfr.Event {
+
+    @Label("URL")
+    private String url;
+
+    @Label("Bytes")
+    @DataAmount
+    private long bytes;
+
+    @Label("Cache Hit")
+    @Description("The page was served from the HTML cache")
+    private boolean cacheHit;
+}
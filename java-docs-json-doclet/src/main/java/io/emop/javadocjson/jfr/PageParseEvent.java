@@ -0,0 +1,30 @@
+package io.emop.javadocjson.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import lombok.Setter;
+
+/**
+ * Parsing of the HTML of one class page into a DOM.
+ */
+@Name("io.emop.javadocjson.PageParse")
+@Label("Page Parse")
+@Category({"Javadoc JSON", "Crawl"})
+@Description("Parsing of the HTML of one class page into a DOM")
+@StackTrace(false)
+@Setter
+public class PageParseEvent extends jdk.jfr.Event {
+
+    @Label("URL")
+    private String url;
+
+    @Label("Class Name")
+    private String className;
+
+    @Label("HTML Length")
+    @Description("Length of the page HTML in characters; the downloaded bytes are on the Page Fetch event")
+    private long htmlSize;
+}
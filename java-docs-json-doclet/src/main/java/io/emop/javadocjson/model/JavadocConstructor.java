@@ -1,12 +1,14 @@
 package io.emop.javadocjson.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Map;
 
 /**
  * Represents a constructor in a Java class with detailed parsing information.
@@ -27,6 +29,14 @@ public class JavadocConstructor extends BaseJavadocConstructor {
     @JsonProperty("exceptions")
     private List<String> exceptions;
     
+    @JsonProperty("exceptionDescriptions")
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private Map<String, String> exceptionDescriptions;
+    
+    @JsonProperty("since")
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private String since;
+    
     public JavadocConstructor() {
         super();
         this.modifiers = new ArrayList<>();
@@ -1,11 +1,13 @@
 package io.emop.javadocjson.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.Map;
 
 /**
  * Represents a method in a Java class with detailed parsing information.
@@ -29,6 +31,18 @@ public class JavadocMethod extends BaseJavadocMethod {
     @JsonProperty("exceptions")
     private List<String> exceptions;
     
+    @JsonProperty("returnDescription")
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private String returnDescription;
+    
+    @JsonProperty("exceptionDescriptions")
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private Map<String, String> exceptionDescriptions;
+    
+    @JsonProperty("since")
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    private String since;
+    
     public JavadocMethod() {
         super();
         this.modifiers = new ArrayList<>();
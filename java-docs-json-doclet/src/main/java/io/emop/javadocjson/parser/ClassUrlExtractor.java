@@ -109,7 +109,13 @@ public class ClassUrlExtractor {
 
     private static Map<String, Pattern> compiledPatterns = new HashMap<>();
 
-    private boolean passesPackageFilter(String url) {
+    /**
+     * Checks whether the package of a class URL matches the configured package filters.
+     *
+     * @param url The absolute class URL
+     * @return true if the URL should be crawled
+     */
+    public boolean passesPackageFilter(String url) {
         if (packageFilters == null || packageFilters.isEmpty()) {
             return true;
         }
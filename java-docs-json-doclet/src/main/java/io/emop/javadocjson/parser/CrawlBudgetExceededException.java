@@ -0,0 +1,14 @@
+package io.emop.javadocjson.parser;
+
+import java.io.InterruptedIOException;
+
+/**
+ * Signals that a page was not fetched completely because the crawl time budget ran out.
+ * Such pages count as not crawled rather than failed.
+ */
+public class CrawlBudgetExceededException extends InterruptedIOException {
+
+    public CrawlBudgetExceededException(String message) {
+        super(message);
+    }
+}
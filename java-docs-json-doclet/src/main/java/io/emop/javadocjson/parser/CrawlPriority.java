@@ -0,0 +1,111 @@
+package io.emop.javadocjson.parser;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Ranks classes so the most useful part of a site is crawled and written first.
+ * <p>
+ * The score of a class is the weight of the longest matching prefix rule plus a popularity bonus.
+ * A prefix rule such as {@code java.util} matches the package itself, its subpackages and its classes,
+ * but not {@code java.utility}. The popularity bonus comes from a query statistics file written by the
+ * MCP server ({@code {"classes": {"java.util.List": 12, ...}}}); hits of a class and of its package are
+ * added on a logarithmic scale, so weights stay the dominant ordering and popularity breaks ties.
+ */
+public class CrawlPriority {
+
+    private final Map<String, Integer> prefixWeights;
+    private final Map<String, Long> classHits;
+    private final Map<String, Long> packageHits = new HashMap<>();
+
+    public CrawlPriority(Map<String, Integer> prefixWeights, Map<String, Long> classHits) {
+        this.prefixWeights = prefixWeights != null ? new LinkedHashMap<>(prefixWeights) : Collections.emptyMap();
+        this.classHits = classHits != null ? new HashMap<>(classHits) : Collections.emptyMap();
+        for (Map.Entry<String, Long> entry : this.classHits.entrySet()) {
+            packageHits.merge(packageOf(entry.getKey()), entry.getValue(), Long::sum);
+        }
+    }
+
+    /**
+     * Creates a priority from prefix weights and an optional query statistics file.
+     *
+     * @param log           Logger for statistics loading problems
+     * @param prefixWeights Package or class name prefix to weight, higher is crawled first
+     * @param statsFile     Query statistics written by the MCP server, may be null
+     * @return The crawl priority
+     */
+    public static CrawlPriority load(Log log, Map<String, Integer> prefixWeights, File statsFile) {
+        Map<String, Long> hits = new HashMap<>();
+        if (statsFile != null) {
+            if (!statsFile.isFile()) {
+                log.warn("Query statistics file not found, ignoring popularity: " + statsFile);
+            } else {
+                try {
+                    JsonNode root = new ObjectMapper().readTree(statsFile);
+                    JsonNode classes = root.has("classes") ? root.get("classes") : root;
+                    Iterator<Map.Entry<String, JsonNode>> fields = classes.fields();
+                    while (fields.hasNext()) {
+                        Map.Entry<String, JsonNode> field = fields.next();
+                        if (field.getValue().canConvertToLong()) {
+                            hits.put(field.getKey(), field.getValue().asLong());
+                        }
+                    }
+                    log.info("Loaded query statistics for " + hits.size() + " classes from " + statsFile);
+                } catch (IOException e) {
+                    log.warn("Failed to read query statistics " + statsFile + ": " + e.getMessage());
+                }
+            }
+        }
+        return new CrawlPriority(prefixWeights, hits);
+    }
+
+    /**
+     * Computes the score of a class; higher scores are crawled first.
+     *
+     * @param fullClassName The fully qualified class name
+     * @return The score
+     */
+    public double score(String fullClassName) {
+        if (fullClassName == null) {
+            return 0;
+        }
+        double score = weightOf(fullClassName);
+        Long hits = classHits.get(fullClassName);
+        if (hits != null) {
+            score += Math.log1p(hits);
+        }
+        Long pkgHits = packageHits.get(packageOf(fullClassName));
+        if (pkgHits != null) {
+            score += 0.5 * Math.log1p(pkgHits);
+        }
+        return score;
+    }
+
+    private int weightOf(String fullClassName) {
+        String bestRule = null;
+        int weight = 0;
+        for (Map.Entry<String, Integer> rule : prefixWeights.entrySet()) {
+            String prefix = rule.getKey();
+            boolean matches = fullClassName.equals(prefix) || fullClassName.startsWith(prefix + ".");
+            if (matches && (bestRule == null || prefix.length() > bestRule.length())) {
+                bestRule = prefix;
+                weight = rule.getValue() != null ? rule.getValue() : 0;
+            }
+        }
+        return weight;
+    }
+
+    private static String packageOf(String fullClassName) {
+        int lastDot = fullClassName.lastIndexOf('.');
+        return lastDot > 0 ? fullClassName.substring(0, lastDot) : "";
+    }
+}
@@ -0,0 +1,225 @@
+package io.emop.javadocjson.parser;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Data;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Summarizes a crawl trace written by {@link CrawlTraceWriter}: slowest pages, per-package totals and
+ * a throughput timeline.
+ */
+public class CrawlTraceAnalyzer {
+
+    private final List<CrawlTraceRecord> records;
+
+    public CrawlTraceAnalyzer(List<CrawlTraceRecord> records) {
+        this.records = records;
+    }
+
+    /**
+     * Reads a trace file. Lines that cannot be parsed, e.g. a line cut off by a killed crawl, are skipped.
+     *
+     * @param traceFile The NDJSON trace
+     * @return The analyzer
+     * @throws IOException if the file cannot be read
+     */
+    public static CrawlTraceAnalyzer load(File traceFile) throws IOException {
+        ObjectMapper mapper = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        List<CrawlTraceRecord> records = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(traceFile.toPath(), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                try {
+                    records.add(mapper.readValue(line, CrawlTraceRecord.class));
+                } catch (IOException e) {
+                    // Incomplete last line
+                }
+            }
+        }
+        return new CrawlTraceAnalyzer(records);
+    }
+
+    public List<CrawlTraceRecord> getRecords() {
+        return records;
+    }
+
+    /**
+     * Gets the pages that took longest from pick-up to result.
+     *
+     * @param limit The maximum number of pages
+     * @return The slowest pages, slowest first
+     */
+    public List<CrawlTraceRecord> getSlowestPages(int limit) {
+        return records.stream()
+                .sorted(Comparator.comparingLong(CrawlTraceRecord::getTotalMicros).reversed())
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Gets the totals per package, ordered by package name.
+     *
+     * @return The totals by package name
+     */
+    public Map<String, PackageTotals> getPackageTotals() {
+        Map<String, PackageTotals> totals = new TreeMap<>();
+        for (CrawlTraceRecord record : records) {
+            String packageName = record.getPackageName() != null ? record.getPackageName() : "(unknown)";
+            PackageTotals total = totals.computeIfAbsent(packageName, name -> new PackageTotals());
+            total.setPages(total.getPages() + 1);
+            if (CrawlTraceRecord.OUTCOME_FAILED.equals(record.getOutcome())) {
+                total.setFailed(total.getFailed() + 1);
+            }
+            if (CrawlTraceRecord.CACHE_MISS.equals(record.getCache())) {
+                total.setDownloaded(total.getDownloaded() + 1);
+            }
+            total.setBytes(total.getBytes() + record.getBytes());
+            total.setFetchMicros(total.getFetchMicros() + Math.max(0, record.getTtfbMicros()) + Math.max(0, record.getBodyMicros()));
+            total.setParseMicros(total.getParseMicros() + Math.max(0, record.getParseMicros()));
+            total.setTotalMicros(total.getTotalMicros() + Math.max(0, record.getTotalMicros()));
+        }
+        return totals;
+    }
+
+    /**
+     * Groups finished pages into time buckets, measured from the first pick-up.
+     *
+     * @param bucketMillis The bucket width
+     * @return The buckets in time order, including empty ones
+     */
+    public List<TimelineBucket> getTimeline(long bucketMillis) {
+        List<TimelineBucket> timeline = new ArrayList<>();
+        if (records.isEmpty() || bucketMillis <= 0) {
+            return timeline;
+        }
+        long start = records.stream().mapToLong(CrawlTraceRecord::getStartedAt).min().getAsLong();
+        for (CrawlTraceRecord record : records) {
+            long finishedAt = record.getStartedAt() + Math.max(0, record.getTotalMicros()) / 1000;
+            int index = (int) ((finishedAt - start) / bucketMillis);
+            while (timeline.size() <= index) {
+                TimelineBucket bucket = new TimelineBucket();
+                bucket.setOffsetMillis(timeline.size() * bucketMillis);
+                timeline.add(bucket);
+            }
+            TimelineBucket bucket = timeline.get(index);
+            bucket.setPages(bucket.getPages() + 1);
+            bucket.setBytes(bucket.getBytes() + record.getBytes());
+            if (CrawlTraceRecord.OUTCOME_FAILED.equals(record.getOutcome())) {
+                bucket.setFailed(bucket.getFailed() + 1);
+            }
+        }
+        return timeline;
+    }
+
+    /**
+     * Formats the full report for log output.
+     *
+     * @param slowestLimit The number of slowest pages to list
+     * @param bucketMillis The timeline bucket width
+     * @return The report lines
+     */
+    public List<String> formatReport(int slowestLimit, long bucketMillis) {
+        List<String> lines = new ArrayList<>();
+        long ok = countOutcome(CrawlTraceRecord.OUTCOME_OK);
+        long failed = countOutcome(CrawlTraceRecord.OUTCOME_FAILED);
+        long deferred = countOutcome(CrawlTraceRecord.OUTCOME_DEFERRED);
+        long bytes = records.stream().mapToLong(CrawlTraceRecord::getBytes).sum();
+        lines.add(String.format("Crawl trace: %d pages (%d ok, %d failed, %d deferred), cache: %d class, %d html, %d downloaded, %s",
+                records.size(), ok, failed, deferred, countCache(CrawlTraceRecord.CACHE_CLASS),
+                countCache(CrawlTraceRecord.CACHE_HTML), countCache(CrawlTraceRecord.CACHE_MISS), formatBytes(bytes)));
+
+        lines.add("");
+        lines.add("Slowest pages:");
+        lines.add(String.format("  %10s %10s %10s %10s %10s %10s %6s %10s  %s",
+                "total ms", "queue ms", "dns ms", "ttfb ms", "body ms", "parse ms", "status", "size", "class"));
+        for (CrawlTraceRecord record : getSlowestPages(slowestLimit)) {
+            lines.add(String.format("  %10s %10s %10s %10s %10s %10s %6s %10s  %s%s",
+                    formatMicros(record.getTotalMicros()), formatMicros(record.getQueueWaitMicros()),
+                    formatMicros(record.getDnsMicros()), formatMicros(record.getTtfbMicros()),
+                    formatMicros(record.getBodyMicros()), formatMicros(record.getParseMicros()),
+                    record.getStatus() > 0 ? String.valueOf(record.getStatus()) : "-", formatBytes(record.getBytes()),
+                    record.getClassName() != null ? record.getClassName() : record.getUrl(),
+                    record.getCache() != null && !CrawlTraceRecord.CACHE_MISS.equals(record.getCache()) ? " [cache " + record.getCache() + "]" : ""));
+        }
+
+        lines.add("");
+        lines.add("Per package:");
+        lines.add(String.format("  %6s %6s %10s %10s %10s %10s  %s", "pages", "failed", "size", "fetch ms", "parse ms", "total ms", "package"));
+        for (Map.Entry<String, PackageTotals> entry : getPackageTotals().entrySet()) {
+            PackageTotals total = entry.getValue();
+            lines.add(String.format("  %6d %6d %10s %10s %10s %10s  %s", total.getPages(), total.getFailed(),
+                    formatBytes(total.getBytes()), formatMicros(total.getFetchMicros()), formatMicros(total.getParseMicros()),
+                    formatMicros(total.getTotalMicros()), entry.getKey()));
+        }
+
+        lines.add("");
+        lines.add(String.format("Throughput timeline (%.1fs buckets):", bucketMillis / 1000.0));
+        for (TimelineBucket bucket : getTimeline(bucketMillis)) {
+            lines.add(String.format("  +%8.1fs %6d pages %8.1f pages/s %10s %4d failed", bucket.getOffsetMillis() / 1000.0,
+                    bucket.getPages(), bucket.getPages() * 1000.0 / bucketMillis, formatBytes(bucket.getBytes()), bucket.getFailed()));
+        }
+        return lines;
+    }
+
+    private long countOutcome(String outcome) {
+        return records.stream().filter(record -> outcome.equals(record.getOutcome())).count();
+    }
+
+    private long countCache(String cache) {
+        return records.stream().filter(record -> cache.equals(record.getCache())).count();
+    }
+
+    private static String formatMicros(long micros) {
+        return micros < 0 ? "-" : String.format("%.1f", micros / 1000.0);
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format("%.1f KiB", bytes / 1024.0);
+        }
+        return String.format("%.1f MiB", bytes / (1024.0 * 1024.0));
+    }
+
+    /**
+     * Totals of all traced pages of one package.
+     */
+    @Data
+    public static class PackageTotals {
+        private long pages;
+        private long failed;
+        private long downloaded;
+        private long bytes;
+        private long fetchMicros;
+        private long parseMicros;
+        private long totalMicros;
+    }
+
+    /**
+     * Pages finished within one time bucket.
+     */
+    @Data
+    public static class TimelineBucket {
+        private long offsetMillis;
+        private long pages;
+        private long failed;
+        private long bytes;
+    }
+}
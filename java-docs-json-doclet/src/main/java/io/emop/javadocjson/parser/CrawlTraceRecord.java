@@ -0,0 +1,48 @@
+package io.emop.javadocjson.parser;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+
+/**
+ * Trace of one class URL in a crawl, written as one line of the crawl trace.
+ * <p>
+ * Durations are in microseconds; {@code -1} means the phase did not happen, e.g. no download for a cache hit.
+ * The JDK HTTP client used by jsoup does not expose the TCP connect, so {@code ttfbMicros} covers connecting,
+ * sending the request and waiting for the response headers.
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CrawlTraceRecord {
+
+    /** The class came from the parsed class cache. */
+    public static final String CACHE_CLASS = "CLASS";
+    /** The page HTML came from the HTML cache and was parsed again. */
+    public static final String CACHE_HTML = "HTML";
+    /** The page was downloaded. */
+    public static final String CACHE_MISS = "MISS";
+
+    public static final String OUTCOME_OK = "OK";
+    public static final String OUTCOME_FAILED = "FAILED";
+    public static final String OUTCOME_DEFERRED = "DEFERRED";
+
+    private String url;
+    private String className;
+    private String packageName;
+    /** Wall clock time at which a worker picked up the URL, in epoch milliseconds. */
+    private long startedAt;
+    private long queueWaitMicros = -1;
+    private long dnsMicros = -1;
+    private long ttfbMicros = -1;
+    private long bodyMicros = -1;
+    private long parseMicros = -1;
+    /** Time from pick-up to result, excluding the queue wait. */
+    private long totalMicros = -1;
+    private int status;
+    private long bytes;
+    private int methods;
+    private int fields;
+    private int constructors;
+    private String cache;
+    private String outcome;
+    private String error;
+}
@@ -0,0 +1,125 @@
+package io.emop.javadocjson.parser;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Asynchronous NDJSON writer for {@link CrawlTraceRecord}s.
+ * <p>
+ * Crawler threads only enqueue records; a single background thread serializes and writes them. When the queue
+ * is full, records are dropped and counted instead of blocking the crawl.
+ */
+public class CrawlTraceWriter implements AutoCloseable {
+
+    /**
+     * File name of the trace inside {@link io.emop.javadocjson.util.JsonGenerator#METADATA_DIRECTORY}.
+     */
+    public static final String TRACE_FILE = "crawl-trace.ndjson";
+
+    private static final int QUEUE_CAPACITY = 16384;
+
+    // Ends the writer thread once every earlier record is written
+    private static final CrawlTraceRecord END = new CrawlTraceRecord();
+
+    private final Log log;
+    private final File file;
+    private final Writer out;
+    private final ObjectWriter jsonWriter = new ObjectMapper().writer();
+    private final BlockingQueue<CrawlTraceRecord> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Thread writerThread;
+    private volatile boolean closed;
+
+    public CrawlTraceWriter(Log log, File file) throws IOException {
+        this.log = log;
+        this.file = file;
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        this.out = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file.toPath()), StandardCharsets.UTF_8));
+        this.writerThread = new Thread(this::drain, "crawl-trace-writer");
+        this.writerThread.setDaemon(true);
+        this.writerThread.start();
+    }
+
+    /**
+     * Queues a record without blocking.
+     *
+     * @param record The record to write
+     */
+    public void append(CrawlTraceRecord record) {
+        if (closed || !queue.offer(record)) {
+            dropped.increment();
+        }
+    }
+
+    public long getWrittenCount() {
+        return written.sum();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                CrawlTraceRecord record = queue.take();
+                if (record == END) {
+                    break;
+                }
+                try {
+                    out.write(jsonWriter.writeValueAsString(record));
+                    out.write('\n');
+                    written.increment();
+                    // Flush whenever the queue runs dry, so the trace is readable while the crawl runs
+                    if (queue.isEmpty()) {
+                        out.flush();
+                    }
+                } catch (IOException e) {
+                    dropped.increment();
+                    log.debug("Failed to write crawl trace record: " + e.getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes the queued records and closes the file.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            queue.put(END);
+            writerThread.join();
+        } catch (InterruptedException e) {
+            writerThread.interrupt();
+            Thread.currentThread().interrupt();
+        } finally {
+            out.close();
+        }
+        if (dropped.sum() > 0) {
+            log.warn("Crawl trace dropped " + dropped.sum() + " records");
+        }
+        log.info("Crawl trace with " + written.sum() + " records written to: " + file.getAbsolutePath());
+    }
+}
@@ -3,6 +3,7 @@ package io.emop.javadocjson.parser;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import io.emop.javadocjson.model.JavadocClass;
+import io.emop.javadocjson.util.JsonGenerator;
 import lombok.Getter;
 import org.apache.maven.plugin.logging.Log;
 
@@ -13,6 +14,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
 
 /**
  * Cache management class for the Javadoc crawler.
@@ -20,6 +22,11 @@ import java.util.concurrent.ConcurrentHashMap;
 @Getter
 public class CrawlerCache {
 
+    /**
+     * Default cache directory, shared by all crawls on this machine.
+     */
+    public static final String DEFAULT_CACHE_DIR = System.getProperty("java.io.tmpdir") + File.separator + "javadoc-crawler-cache";
+
     private final Log log;
     private final boolean enableCache;
     private final String cacheDir;
@@ -29,8 +36,7 @@ public class CrawlerCache {
     public CrawlerCache(Log log, boolean enableCache, String cacheDir) {
         this.log = log;
         this.enableCache = enableCache;
-        this.cacheDir = cacheDir != null ? cacheDir :
-                System.getProperty("java.io.tmpdir") + File.separator + "javadoc-crawler-cache";
+        this.cacheDir = cacheDir != null ? cacheDir : DEFAULT_CACHE_DIR;
         this.cachedClasses = ConcurrentHashMap.newKeySet();
 
         // Initialize ObjectMapper for JSON serialization
@@ -68,16 +74,18 @@ public class CrawlerCache {
         try {
             Path cachePath = Paths.get(cacheDir);
             if (Files.exists(cachePath) && Files.isDirectory(cachePath)) {
-                Files.walk(cachePath)
-                        .filter(Files::isRegularFile)
-                        .filter(path -> {
-                            String fileName = path.toString();
-                            return fileName.endsWith(".json");
-                        })
-                        .forEach(path -> {
-                            String fileName = path.getFileName().toString();
-                            cachedClasses.add(fileName.replace(".json", ""));
-                        });
+                // Class objects live at the top level; nested directories hold other cache tiers
+                try (Stream<Path> files = Files.list(cachePath)) {
+                    files.filter(Files::isRegularFile)
+                            .filter(path -> {
+                                String fileName = path.toString();
+                                return fileName.endsWith(".json");
+                            })
+                            .forEach(path -> {
+                                String fileName = path.getFileName().toString();
+                                cachedClasses.add(fileName.replace(".json", ""));
+                            });
+                }
 
                 if (!cachedClasses.isEmpty()) {
                     log.info("Loaded " + cachedClasses.size() + " cached classes");
@@ -108,6 +116,16 @@ public class CrawlerCache {
      * @param javadocClass The JavadocClass object to cache
      */
     public void markAsCached(JavadocClass javadocClass) {
+        markAsCached(javadocClass, false);
+    }
+
+    /**
+     * Marks a class as cached and stores the JavadocClass object.
+     *
+     * @param javadocClass The JavadocClass object to cache
+     * @param overwrite    Whether to replace an existing cached object, e.g. after re-parsing
+     */
+    public void markAsCached(JavadocClass javadocClass, boolean overwrite) {
         if (!enableCache || javadocClass == null || javadocClass.getFullName() == null) {
             return;
         }
@@ -118,7 +136,7 @@ public class CrawlerCache {
         // Serialize and store the JavadocClass object
         try {
             Path cacheFile = Paths.get(cacheDir, className + ".json");
-            if (!Files.exists(cacheFile)) {
+            if (overwrite || !Files.exists(cacheFile)) {
                 objectMapper.writeValue(cacheFile.toFile(), javadocClass);
                 log.debug("Cached JavadocClass object for: " + className);
             }
@@ -141,7 +159,8 @@ public class CrawlerCache {
         try {
             Path cacheFile = Paths.get(cacheDir, className + ".json");
             if (Files.exists(cacheFile)) {
-                return objectMapper.readValue(cacheFile.toFile(), JavadocClass.class);
+                // Members are abstract types, told apart by their properties
+                return JsonGenerator.readClassFromFile(cacheFile.toFile());
             }
         } catch (IOException e) {
             log.debug("Failed to read cached JavadocClass for " + className + ": " + e.getMessage());
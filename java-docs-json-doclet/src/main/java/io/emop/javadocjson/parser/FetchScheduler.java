@@ -0,0 +1,221 @@
+package io.emop.javadocjson.parser;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Fixed-size worker pool that schedules crawl tasks fairly across hosts.
+ * <p>
+ * Every host gets its own FIFO queue, and idle workers take the next task round-robin from the hosts
+ * that have pending work, so one large site cannot starve the others. An optional per-host limit caps
+ * the number of concurrent requests to a single host. One scheduler can be shared by several crawlers.
+ */
+public class FetchScheduler {
+
+    private final int maxPerHost;
+    private final List<Thread> workers = new ArrayList<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    private final Map<String, Deque<FutureTask<?>>> queues = new HashMap<>();
+    private final Map<String, Integer> running = new HashMap<>();
+    // Hosts with pending tasks that are below their concurrency limit, in round-robin order
+    private final Deque<String> readyHosts = new ArrayDeque<>();
+    private final Set<String> readySet = new HashSet<>();
+    private boolean shutdown;
+
+    /**
+     * Creates a scheduler without a per-host limit.
+     *
+     * @param threads The number of worker threads
+     */
+    public FetchScheduler(int threads) {
+        this(threads, 0);
+    }
+
+    /**
+     * Creates a scheduler.
+     *
+     * @param threads    The number of worker threads
+     * @param maxPerHost The maximum number of concurrent tasks per host, or 0 for no limit
+     */
+    public FetchScheduler(int threads, int maxPerHost) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads must be positive: " + threads);
+        }
+        this.maxPerHost = maxPerHost;
+        for (int i = 0; i < threads; i++) {
+            Thread worker = new Thread(this::workLoop, "crawl-worker-" + (i + 1));
+            worker.setDaemon(true);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    /**
+     * Queues a task for the given host.
+     *
+     * @param host The host the task talks to, used as fairness key
+     * @param task The task to run
+     * @param <T>  The result type
+     * @return Future of the task result
+     */
+    public <T> Future<T> submit(String host, Callable<T> task) {
+        FutureTask<T> futureTask = new FutureTask<>(task);
+        String key = host != null ? host : "";
+        lock.lock();
+        try {
+            if (shutdown) {
+                throw new RejectedExecutionException("Scheduler has been shut down");
+            }
+            queues.computeIfAbsent(key, k -> new ArrayDeque<>()).addLast(futureTask);
+            markReadyIfEligible(key);
+            changed.signal();
+        } finally {
+            lock.unlock();
+        }
+        return futureTask;
+    }
+
+    /**
+     * Gets the number of worker threads.
+     *
+     * @return The pool size
+     */
+    public int getThreadCount() {
+        return workers.size();
+    }
+
+    /**
+     * Stops accepting tasks; queued tasks still run.
+     */
+    public void shutdown() {
+        lock.lock();
+        try {
+            shutdown = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting tasks, cancels queued tasks and interrupts running ones.
+     */
+    public void shutdownNow() {
+        lock.lock();
+        try {
+            shutdown = true;
+            for (Deque<FutureTask<?>> queue : queues.values()) {
+                for (FutureTask<?> task : queue) {
+                    task.cancel(false);
+                }
+                queue.clear();
+            }
+            readyHosts.clear();
+            readySet.clear();
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+    }
+
+    /**
+     * Waits until all workers have exited after a shutdown request.
+     *
+     * @param timeout The maximum time to wait
+     * @param unit    The unit of the timeout
+     * @return true if all workers exited
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (Thread worker : workers) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedJoin(worker, remaining);
+            if (worker.isAlive()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void workLoop() {
+        while (true) {
+            String host;
+            FutureTask<?> task;
+            lock.lock();
+            try {
+                while (readyHosts.isEmpty()) {
+                    if (shutdown && allQueuesEmpty()) {
+                        return;
+                    }
+                    changed.awaitUninterruptibly();
+                }
+                host = readyHosts.pollFirst();
+                readySet.remove(host);
+                task = queues.get(host).pollFirst();
+                running.merge(host, 1, Integer::sum);
+                // Rotate the host to the back so other hosts get the next workers
+                markReadyIfEligible(host);
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                task.run();
+            } finally {
+                // Do not let an interrupt aimed at a cancelled task leak into the next one
+                Thread.interrupted();
+                lock.lock();
+                try {
+                    running.merge(host, -1, Integer::sum);
+                    markReadyIfEligible(host);
+                    changed.signalAll();
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+    }
+
+    private void markReadyIfEligible(String host) {
+        Deque<FutureTask<?>> queue = queues.get(host);
+        if (queue == null || queue.isEmpty() || readySet.contains(host)) {
+            return;
+        }
+        if (maxPerHost > 0 && running.getOrDefault(host, 0) >= maxPerHost) {
+            return;
+        }
+        readyHosts.addLast(host);
+        readySet.add(host);
+    }
+
+    private boolean allQueuesEmpty() {
+        for (Deque<FutureTask<?>> queue : queues.values()) {
+            if (!queue.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
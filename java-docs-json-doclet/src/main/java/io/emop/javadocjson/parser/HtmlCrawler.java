@@ -1,13 +1,23 @@
 package io.emop.javadocjson.parser;
 
 import io.emop.javadocjson.config.JDK9Dialet;
+import io.emop.javadocjson.jfr.ClassCrawlEvent;
+import io.emop.javadocjson.jfr.JfrSupport;
 import io.emop.javadocjson.model.JavadocClass;
+import lombok.Getter;
 import lombok.Setter;
 import org.apache.maven.plugin.logging.Log;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
  * HTML Crawler for extracting Javadoc information from HTML documentation websites.
@@ -32,16 +42,52 @@ public class HtmlCrawler {
 
     // Cache support
     private boolean enableCache = true;
-    private String cacheDir = System.getProperty("java.io.tmpdir") + java.io.File.separator + "javadoc-crawler-cache";
+    private boolean enableHtmlCache = true;
+    private String cacheDir = CrawlerCache.DEFAULT_CACHE_DIR;
+
+    // Re-run the parser over cached HTML only, without any network access
+    private boolean reparse = false;
+
+    // Sharded mode: several processes split the crawl through a shared coordinator directory
+    private String shardDirectory;
+    private String workerId;
+    private int shardSize = 200;
+    private long shardLeaseMillis = 60000;
+
+    // Crawl order and time box: URLs are submitted by descending priority; at the deadline queued URLs are
+    // dropped and in-flight fetches are cancelled
+    private CrawlPriority crawlPriority;
+    private long maxCrawlDurationMillis = 0;
+
+    // Receives each class as soon as it is available, in priority order
+    private Consumer<JavadocClass> classListener;
+
+    // Receives one record per class URL picked up by a worker when set
+    private CrawlTraceWriter traceWriter;
+
+    // Shared resources when several crawlers run in one build; created per crawl when not set
+    private FetchScheduler scheduler;
+    private CrawlerCache sharedCache;
+    private HtmlPageCache sharedHtmlCache;
 
     // Component instances
     private CrawlerCache cache;
+    private HtmlPageCache htmlCache;
+    @Getter
     private ProgressTracker progressTracker;
     private EntryPointStrategy entryPointStrategy;
     private ClassUrlExtractor classUrlExtractor;
     private JavadocPageParser pageParser;
 
     private final Set<String> visitedUrls = ConcurrentHashMap.newKeySet();
+    // Marks tasks that were not started because the deadline passed
+    private static final JavadocClass DEFERRED = new JavadocClass();
+    private final AtomicInteger deferredCount = new AtomicInteger();
+    // Full names of the classes whose page could not be fetched or parsed in this crawl
+    private final Set<String> failedClassNames = ConcurrentHashMap.newKeySet();
+    private volatile long deadlineNanos;
+    @Getter
+    private volatile boolean deadlineReached;
     private final Map<String, List<JavadocClass>> classMap = new ConcurrentHashMap<>();
 
     private final JavadocParsingConfig parsingConfig;
@@ -68,12 +114,33 @@ public class HtmlCrawler {
      * @return List of JavadocClass containing all extracted documentation
      */
     public List<JavadocClass> crawl(String baseUrl) {
+        try {
+            return doCrawl(baseUrl);
+        } finally {
+            progressTracker.stop();
+        }
+    }
+
+    private List<JavadocClass> doCrawl(String baseUrl) {
         log.info("Starting crawl of Javadoc website: " + baseUrl);
 
         // Initialize URL-dependent components
         initializeUrlDependentComponents(baseUrl);
 
         progressTracker.start();
+        deadlineNanos = maxCrawlDurationMillis > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxCrawlDurationMillis) : 0;
+        pageParser.setBudgetDeadlineNanos(deadlineNanos);
+        deadlineReached = false;
+        deferredCount.set(0);
+        failedClassNames.clear();
+
+        if (shardDirectory != null) {
+            return crawlSharded(baseUrl);
+        }
+
+        if (reparse) {
+            return reparseFromCache(baseUrl);
+        }
 
         try {
             // Find valid entry point
@@ -113,10 +180,154 @@ public class HtmlCrawler {
 
         this.entryPointStrategy = new EntryPointStrategy(log, baseUrl, userAgent, timeout, proxyHost, proxyPort, proxyUsername, proxyPassword, config.getAllClassesEntryPoint());
         this.classUrlExtractor = new ClassUrlExtractor(log, baseUrl, packageFilters);
-        this.pageParser = new JavadocPageParser(log, userAgent, timeout, proxyHost, proxyPort, proxyUsername, proxyPassword);
+        this.pageParser = new JavadocPageParser(log, config, userAgent, timeout, proxyHost, proxyPort, proxyUsername, proxyPassword);
 
         // Update cache with current settings
-        this.cache = new CrawlerCache(log, enableCache, cacheDir);
+        this.cache = sharedCache != null ? sharedCache : new CrawlerCache(log, enableCache, cacheDir);
+        this.htmlCache = sharedHtmlCache != null ? sharedHtmlCache : new HtmlPageCache(log, enableHtmlCache, cacheDir);
+        this.pageParser.setHtmlCache(htmlCache);
+        this.pageParser.setProgressTracker(progressTracker);
+        this.pageParser.setOffline(reparse);
+    }
+
+    /**
+     * Re-parses all cached HTML pages below the base URL without any network access.
+     * Used after changing the parsing dialect, so pages do not have to be downloaded again.
+     */
+    private List<JavadocClass> reparseFromCache(String baseUrl) {
+        if (!htmlCache.isEnableCache()) {
+            log.error("Reparse requires the HTML cache to be enabled");
+            return createEmptyResult();
+        }
+
+        try {
+            Set<String> classUrls = findCachedClassUrls(baseUrl);
+
+            if (!classUrls.isEmpty()) {
+                progressTracker.setTotalClasses(classUrls.size());
+                crawlClassesConcurrently(classUrls);
+            }
+
+            progressTracker.logFinalSummary();
+
+            return buildClassList();
+
+        } catch (Exception e) {
+            log.error("Error during re-parsing: " + e.getMessage(), e);
+            return createEmptyResult();
+        }
+    }
+
+    /**
+     * Finds the cached class pages below the base URL that pass the package filters.
+     */
+    private Set<String> findCachedClassUrls(String baseUrl) {
+        String prefix = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+        Set<String> classUrls = new HashSet<>();
+        for (String url : htmlCache.getCachedUrls()) {
+            if (url.startsWith(prefix) && classUrlExtractor.passesPackageFilter(url)) {
+                classUrls.add(url);
+            }
+        }
+        log.info("Re-parsing " + classUrls.size() + " cached pages below: " + prefix);
+        return classUrls;
+    }
+
+    /**
+     * Crawls the part of the site assigned to this worker in sharded mode.
+     * The first worker publishes the class URLs as shared frontier; every worker then claims shards
+     * until all of them are done. Returns only the classes crawled by this worker.
+     */
+    private List<JavadocClass> crawlSharded(String baseUrl) {
+        String worker = getEffectiveWorkerId();
+        ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "shard-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            ShardCoordinator coordinator = new ShardCoordinator(log, Paths.get(shardDirectory), worker, shardSize, shardLeaseMillis);
+            if (!coordinator.hasFrontier()) {
+                Set<String> classUrls;
+                if (reparse) {
+                    classUrls = findCachedClassUrls(baseUrl);
+                } else {
+                    EntryPointStrategy.EntryPointResult entryPoint = entryPointStrategy.findValidEntryPoint();
+                    if (entryPoint == null) {
+                        log.error("No valid entry point found for: " + baseUrl);
+                        return createEmptyResult();
+                    }
+                    classUrls = extractClassUrls(entryPoint);
+                }
+                coordinator.publishFrontier(classUrls);
+            }
+            log.info("Worker " + worker + " joined sharded crawl with " + coordinator.getShardCount() + " shards");
+
+            long renewInterval = Math.max(1, shardLeaseMillis / 3);
+            ShardCoordinator.Shard shard;
+            while (!isPastDeadline() && (shard = coordinator.claimNextShard()) != null) {
+                ShardCoordinator.Shard claimed = shard;
+                log.info("Worker " + worker + " claimed shard " + claimed.getIndex() + " with " + claimed.getUrls().size() + " URLs");
+                progressTracker.addToTotalClasses(claimed.getUrls().size());
+
+                List<Future<JavadocClass>> shardFutures = new CopyOnWriteArrayList<>();
+                AtomicBoolean leaseLost = new AtomicBoolean();
+                ScheduledFuture<?> renewal = heartbeat.scheduleAtFixedRate(() -> {
+                    try {
+                        if (!leaseLost.get() && !coordinator.renew(claimed)) {
+                            // Another worker owns the shard now; stop spending requests on it
+                            leaseLost.set(true);
+                            cancelPending(shardFutures);
+                        }
+                    } catch (IOException e) {
+                        log.warn("Failed to renew lease of shard " + claimed.getIndex() + ": " + e.getMessage());
+                    }
+                }, renewInterval, renewInterval, TimeUnit.MILLISECONDS);
+                try {
+                    crawlClassesConcurrently(new LinkedHashSet<>(claimed.getUrls()), shardFutures, leaseLost);
+                } finally {
+                    renewal.cancel(false);
+                }
+                if (leaseLost.get()) {
+                    log.warn("Worker " + worker + " abandoned shard " + claimed.getIndex() + " after losing its lease");
+                    continue;
+                }
+                if (deadlineReached) {
+                    // Leave the shard leased; it is handed to another worker once the lease expires
+                    log.warn("Deadline reached, shard " + claimed.getIndex() + " is left unfinished");
+                    break;
+                }
+                if (!coordinator.complete(claimed)) {
+                    // The new owner crawls the shard again, so its classes may also appear in that worker's output
+                    log.warn("Worker " + worker + " finished shard " + claimed.getIndex() + " after losing its lease");
+                }
+            }
+
+            progressTracker.logFinalSummary();
+
+            return buildClassList();
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Sharded crawl interrupted");
+            return buildClassList();
+        } catch (Exception e) {
+            log.error("Error during sharded crawling: " + e.getMessage(), e);
+            return createEmptyResult();
+        } finally {
+            heartbeat.shutdownNow();
+        }
+    }
+
+    /**
+     * Gets the worker identifier used in sharded mode.
+     *
+     * @return The configured worker id, or {@code pid@hostname} when none is set
+     */
+    public String getEffectiveWorkerId() {
+        // RuntimeMXBean names are "pid@hostname" on all common JVMs
+        return workerId != null && !workerId.trim().isEmpty() ? workerId : ManagementFactory.getRuntimeMXBean().getName();
     }
 
     /**
@@ -132,47 +343,121 @@ public class HtmlCrawler {
      * Crawls classes concurrently using thread pool.
      */
     private void crawlClassesConcurrently(Set<String> classUrls) {
+        crawlClassesConcurrently(classUrls, new ArrayList<>(), null);
+    }
+
+    /**
+     * Crawls class URLs concurrently, collecting the submitted tasks in {@code futures} so another thread can cancel
+     * them. Tasks cancelled after {@code abandoned} was set are dropped rather than counted as deferred.
+     */
+    private void crawlClassesConcurrently(Set<String> classUrls, List<Future<JavadocClass>> futures,
+                                          AtomicBoolean abandoned) {
         if (classUrls.isEmpty()) {
             return;
         }
 
-        ExecutorService executor = Executors.newFixedThreadPool(threadPoolSize);
-        List<Future<JavadocClass>> futures = new ArrayList<>();
+        int poolSize = reparse ? reparseThreads(threadPoolSize) : threadPoolSize;
+        boolean ownScheduler = scheduler == null;
+        FetchScheduler executor = ownScheduler ? new FetchScheduler(poolSize) : scheduler;
+        List<String> submittedUrls = new ArrayList<>();
 
-        log.info("Starting concurrent crawling of " + classUrls.size() + " classes with " + threadPoolSize + " threads");
+        log.info("Starting concurrent crawling of " + classUrls.size() + " classes with " + executor.getThreadCount() +
+                (ownScheduler ? " threads" : " shared threads"));
 
-        for (String classUrl : classUrls) {
-            Future<JavadocClass> future = executor.submit(() -> {
+        for (String classUrl : orderByPriority(classUrls)) {
+            if (isAbandoned(abandoned)) {
+                break;
+            }
+            long submittedAt = System.nanoTime();
+            Future<JavadocClass> future = executor.submit(hostOf(classUrl), () -> {
+                long pickedUpAt = System.nanoTime();
+                CrawlTraceRecord trace = traceWriter != null ? startTrace(classUrl, pickedUpAt - submittedAt) : null;
+                JavadocClass result = null;
                 try {
-                    return crawlClass(classUrl);
+                    if (isPastDeadline()) {
+                        result = DEFERRED;
+                        return result;
+                    }
+                    result = crawlClass(classUrl, trace);
+                    return result;
                 } catch (Exception e) {
+                    if (trace != null) {
+                        trace.setError(e.getClass().getSimpleName() + ": " + e.getMessage());
+                    }
+                    if (e instanceof CrawlBudgetExceededException || Thread.currentThread().isInterrupted() || isPastDeadline()) {
+                        // Cancelled at the end of the time budget, not a failure of the page
+                        result = DEFERRED;
+                        return result;
+                    }
                     log.warn("Failed to crawl class: " + classUrl + " - " + e.getMessage());
-                    progressTracker.incrementFailed();
                     return null;
+                } finally {
+                    if (trace != null) {
+                        finishTrace(trace, result, System.nanoTime() - pickedUpAt);
+                    }
                 }
             });
             futures.add(future);
+            submittedUrls.add(classUrl);
+        }
+        if (isAbandoned(abandoned)) {
+            // Tasks added after the other thread cancelled the list
+            cancelPending(futures);
         }
 
-        // Collect results
-        for (Future<JavadocClass> future : futures) {
+        // Collect results in submission order, so listeners see classes in priority order
+        for (int i = 0; i < futures.size(); i++) {
+            Future<JavadocClass> future = futures.get(i);
+            JavadocClass javadocClass;
             try {
-                JavadocClass javadocClass = future.get();
-                if (javadocClass != null) {
-                    addClassToPackage(javadocClass);
-                    progressTracker.incrementProcessed();
-                } else {
-                    progressTracker.incrementFailed();
+                javadocClass = awaitResult(future, futures);
+            } catch (CancellationException e) {
+                if (!isAbandoned(abandoned)) {
+                    deferredCount.incrementAndGet();
                 }
-            } catch (Exception e) {
+                continue;
+            } catch (InterruptedException e) {
+                log.warn("Crawl interrupted, cancelling remaining classes");
+                cancelPending(futures);
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
                 log.warn("Failed to get crawl result: " + e.getMessage());
                 progressTracker.incrementFailed();
+                failedClassNames.add(fullClassNameOf(submittedUrls.get(i)));
+                continue;
+            }
+            if (javadocClass == DEFERRED) {
+                deferredCount.incrementAndGet();
+            } else if (javadocClass != null) {
+                addClassToPackage(javadocClass);
+                progressTracker.incrementProcessed();
+                if (classListener != null) {
+                    classListener.accept(javadocClass);
+                }
+            } else {
+                progressTracker.incrementFailed();
+                failedClassNames.add(fullClassNameOf(submittedUrls.get(i)));
             }
         }
 
-        executor.shutdown();
+        if (deferredCount.get() > 0) {
+            // Requests capped by the budget may give up just before the deadline itself passes
+            deadlineReached = true;
+            log.warn("Crawl time budget exhausted, " + deferredCount.get() + " classes were not crawled");
+        }
+
+        if (!ownScheduler) {
+            return;
+        }
+        // Workers still blocked on a socket are released by the request timeout, which never exceeds the budget
+        if (deadlineReached) {
+            executor.shutdownNow();
+        } else {
+            executor.shutdown();
+        }
         try {
-            if (!executor.awaitTermination(60, TimeUnit.SECONDS)) {
+            if (!executor.awaitTermination(Math.max(1000, timeout), TimeUnit.MILLISECONDS)) {
                 executor.shutdownNow();
             }
         } catch (InterruptedException e) {
@@ -181,10 +466,148 @@ public class HtmlCrawler {
         }
     }
 
+    /**
+     * Waits for a crawl result until the crawl deadline. When the deadline passes, all unfinished
+     * tasks are cancelled: queued ones never start and running ones are interrupted.
+     */
+    private JavadocClass awaitResult(Future<JavadocClass> future, List<Future<JavadocClass>> allFutures)
+            throws InterruptedException, ExecutionException {
+        if (deadlineNanos == 0 || future.isDone()) {
+            return future.get();
+        }
+        try {
+            return future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            deadlineReached = true;
+            log.warn("Crawl time budget exhausted, cancelling in-flight and queued classes");
+            cancelPending(allFutures);
+            // Either cancelled now or completed just before the cancellation
+            return future.get();
+        }
+    }
+
+    private static boolean isAbandoned(AtomicBoolean abandoned) {
+        return abandoned != null && abandoned.get();
+    }
+
+    private static void cancelPending(List<Future<JavadocClass>> futures) {
+        for (Future<JavadocClass> pending : futures) {
+            if (!pending.isDone()) {
+                pending.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Orders class URLs by descending priority; URLs of equal priority keep a stable alphabetical order.
+     */
+    private List<String> orderByPriority(Collection<String> classUrls) {
+        List<String> ordered = new ArrayList<>(classUrls);
+        if (crawlPriority == null) {
+            Collections.sort(ordered);
+            return ordered;
+        }
+        Map<String, Double> scores = new HashMap<>();
+        for (String url : ordered) {
+            scores.put(url, crawlPriority.score(fullClassNameOf(url)));
+        }
+        ordered.sort(Comparator.comparing((String url) -> scores.get(url)).reversed().thenComparing(Comparator.naturalOrder()));
+        return ordered;
+    }
+
+    /**
+     * The number of worker threads for re-parsing cached pages. Re-parsing is CPU bound, so all cores are used
+     * instead of the network-oriented pool size.
+     *
+     * @param threadPoolSize The configured number of crawler threads
+     * @return The number of threads to re-parse with
+     */
+    public static int reparseThreads(int threadPoolSize) {
+        return Math.max(threadPoolSize, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * The full class name a class page URL documents, as used for cache entries and output files.
+     */
+    private String fullClassNameOf(String classUrl) {
+        String packageName = classUrlExtractor.extractPackageFromPath(classUrl);
+        String simpleName = classUrlExtractor.extractSimpleClassNameFromUrl(classUrl);
+        return (packageName != null && !packageName.isEmpty()) ? (packageName + "." + simpleName) : simpleName;
+    }
+
+    private static CrawlTraceRecord startTrace(String classUrl, long queueWaitNanos) {
+        CrawlTraceRecord trace = new CrawlTraceRecord();
+        trace.setUrl(classUrl);
+        trace.setStartedAt(System.currentTimeMillis());
+        trace.setQueueWaitMicros(TimeUnit.NANOSECONDS.toMicros(queueWaitNanos));
+        return trace;
+    }
+
+    private void finishTrace(CrawlTraceRecord trace, JavadocClass result, long elapsedNanos) {
+        trace.setTotalMicros(TimeUnit.NANOSECONDS.toMicros(elapsedNanos));
+        if (result == DEFERRED) {
+            trace.setOutcome(CrawlTraceRecord.OUTCOME_DEFERRED);
+        } else if (result != null) {
+            trace.setOutcome(CrawlTraceRecord.OUTCOME_OK);
+            trace.setMethods(result.getMethods().size());
+            trace.setFields(result.getFields().size());
+            trace.setConstructors(result.getConstructors().size());
+        } else {
+            trace.setOutcome(CrawlTraceRecord.OUTCOME_FAILED);
+        }
+        traceWriter.append(trace);
+    }
+
+    private boolean isPastDeadline() {
+        if (deadlineNanos == 0) {
+            return false;
+        }
+        if (!deadlineReached && System.nanoTime() - deadlineNanos >= 0) {
+            deadlineReached = true;
+        }
+        return deadlineReached;
+    }
+
+    /**
+     * Gets the number of classes that failed to crawl.
+     *
+     * @return The number of failed classes
+     */
+    public int getFailedCount() {
+        return progressTracker.getFailedCount();
+    }
+
+    /**
+     * Gets the full names of the classes whose page could not be fetched or parsed in the last crawl. Their
+     * output from a previous crawl is still valid and should be kept.
+     *
+     * @return The failed class names
+     */
+    public Set<String> getFailedClassNames() {
+        return Collections.unmodifiableSet(failedClassNames);
+    }
+
+    /**
+     * Gets the number of classes that were skipped because the crawl deadline passed.
+     *
+     * @return The number of deferred classes
+     */
+    public int getDeferredCount() {
+        return deferredCount.get();
+    }
+
+    private static String hostOf(String url) {
+        try {
+            return new URL(url).getHost();
+        } catch (MalformedURLException e) {
+            return "";
+        }
+    }
+
     /**
      * Crawls a single class page.
      */
-    private JavadocClass crawlClass(String classUrl) throws IOException {
+    private JavadocClass crawlClass(String classUrl, CrawlTraceRecord trace) throws IOException {
         if (visitedUrls.contains(classUrl)) {
             progressTracker.incrementSkipped();
             return null;
@@ -194,29 +617,66 @@ public class HtmlCrawler {
         String simpleName = classUrlExtractor.extractSimpleClassNameFromUrl(classUrl);
         String packageName = classUrlExtractor.extractPackageFromPath(classUrl);
         String fullClassName = (packageName != null && !packageName.isEmpty()) ? (packageName + "." + simpleName) : simpleName;
-        if (fullClassName != null && cache.isCached(fullClassName)) {
+        if (trace != null) {
+            trace.setClassName(fullClassName);
+            trace.setPackageName(packageName);
+        }
+        ClassCrawlEvent event = JfrSupport.AVAILABLE ? new ClassCrawlEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        if (!reparse && fullClassName != null && cache.isCached(fullClassName)) {
+            long cacheStart = System.nanoTime();
             JavadocClass cachedClass = cache.getCachedClass(fullClassName);
             if (cachedClass != null) {
+                progressTracker.recordClassCacheHit(System.nanoTime() - cacheStart);
                 log.info("Using cached JavadocClass for: " + fullClassName);
                 progressTracker.incrementSkipped();
+                commitClassEvent(event, classUrl, fullClassName, "CACHED", cachedClass);
+                if (trace != null) {
+                    trace.setCache(CrawlTraceRecord.CACHE_CLASS);
+                }
                 return cachedClass;
             }
         }
 
         visitedUrls.add(classUrl);
 
+        progressTracker.pageStarted();
+        JavadocClass javadocClass = null;
         try {
-            JavadocClass javadocClass = pageParser.parseClassPage(classUrl, packageName, simpleName);
+            javadocClass = pageParser.parseClassPage(classUrl, packageName, simpleName, trace);
 
-            // Cache the parsed JavadocClass object
+            // Cache the parsed JavadocClass object, replacing stale results when re-parsing
             if (javadocClass != null) {
-                cache.markAsCached(javadocClass);
+                cache.markAsCached(javadocClass, reparse);
             }
 
             return javadocClass;
         } catch (IOException e) {
             log.debug("Failed to parse class page: " + classUrl + " - " + e.getMessage());
             throw e;
+        } finally {
+            progressTracker.pageFinished();
+            commitClassEvent(event, classUrl, fullClassName, javadocClass != null ? "PARSED" : "FAILED", javadocClass);
+        }
+    }
+
+    private static void commitClassEvent(ClassCrawlEvent event, String classUrl, String fullClassName, String outcome,
+                                         JavadocClass javadocClass) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.setUrl(classUrl);
+            event.setClassName(fullClassName);
+            event.setOutcome(outcome);
+            if (javadocClass != null) {
+                event.setMemberCount(javadocClass.getMethods().size() + javadocClass.getFields().size()
+                        + javadocClass.getConstructors().size());
+            }
+            event.commit();
         }
     }
 
@@ -241,6 +701,9 @@ public class HtmlCrawler {
 
         if (!packageFilters.isEmpty()) {
             for (String packageFilter : packageFilters) {
+                if (isPastDeadline()) {
+                    break;
+                }
                 String packagePath = packageFilter.replace(".", "/");
                 String packageUrl = baseUrl + "/" + packagePath + "/package-summary.html";
 
@@ -287,6 +750,9 @@ public class HtmlCrawler {
         if (cache.isEnableCache()) {
             log.info(cache.getCacheStats());
         }
+        if (htmlCache.isEnableCache()) {
+            log.info(htmlCache.getCacheStats());
+        }
 
         return allClasses;
     }
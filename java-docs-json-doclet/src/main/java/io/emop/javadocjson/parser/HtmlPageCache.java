@@ -0,0 +1,239 @@
+package io.emop.javadocjson.parser;
+
+import io.emop.javadocjson.util.FileUtils;
+import io.emop.javadocjson.util.HashUtils;
+import lombok.Getter;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Raw HTML tier of the crawler cache.
+ * <p>
+ * Page bodies are stored as received, gzip-compressed under {@code objects/} keyed by their content hash, and
+ * every fetched URL gets a small reference file under {@code urls/} holding the content hash and the charset
+ * the body was decoded with. This lets the
+ * crawler re-run the parsing dialect over previously downloaded pages without any network access.
+ * All writes go through a temporary file followed by a rename, so several crawler processes can share
+ * one cache directory.
+ */
+@Getter
+public class HtmlPageCache {
+
+    private static final String OBJECTS_DIR = "objects";
+    private static final String URLS_DIR = "urls";
+    private static final String REF_SUFFIX = ".ref";
+    private static final String OBJECT_SUFFIX = ".html.gz";
+
+    private final Log log;
+    private final boolean enableCache;
+    private final Path rootDir;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+    private final AtomicInteger stored = new AtomicInteger();
+
+    public HtmlPageCache(Log log, boolean enableCache, String cacheDir) {
+        this.log = log;
+        this.enableCache = enableCache;
+        String baseDir = cacheDir != null ? cacheDir : CrawlerCache.DEFAULT_CACHE_DIR;
+        this.rootDir = Paths.get(baseDir, "html");
+
+        if (enableCache) {
+            try {
+                Files.createDirectories(rootDir.resolve(OBJECTS_DIR));
+                Files.createDirectories(rootDir.resolve(URLS_DIR));
+            } catch (IOException e) {
+                log.warn("Failed to initialize HTML cache directory: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Gets the cached HTML of a page.
+     *
+     * @param url The page URL
+     * @return The cached HTML, or null if the page is not cached
+     */
+    public String get(String url) {
+        if (!enableCache || url == null) {
+            return null;
+        }
+
+        try {
+            String contentHash = readContentHash(refFile(url));
+            if (contentHash != null) {
+                Path objectFile = objectFile(contentHash);
+                if (Files.exists(objectFile)) {
+                    hits.incrementAndGet();
+                    return decode(readCompressed(objectFile), readCharset(refFile(url)));
+                }
+            }
+        } catch (IOException e) {
+            log.debug("Failed to read cached HTML for " + url + ": " + e.getMessage());
+        }
+
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Stores the HTML of a page as UTF-8.
+     *
+     * @param url  The page URL
+     * @param html The page HTML
+     */
+    public void put(String url, String html) {
+        if (html != null) {
+            put(url, html.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Stores the body of a page as received. Identical page bodies are stored only once.
+     *
+     * @param url     The page URL
+     * @param content The response body
+     * @param charset The charset the body is decoded with
+     */
+    public void put(String url, byte[] content, Charset charset) {
+        if (!enableCache || url == null || content == null) {
+            return;
+        }
+
+        String contentHash = HashUtils.sha256Hex(content);
+
+        try {
+            Path objectFile = objectFile(contentHash);
+            if (!Files.exists(objectFile)) {
+                Files.createDirectories(objectFile.getParent());
+                FileUtils.writeAtomically(objectFile, compress(content));
+            }
+
+            Path refFile = refFile(url);
+            if (!contentHash.equals(readContentHash(refFile)) || !charset.equals(readCharset(refFile))) {
+                String ref = url + "\n" + contentHash + "\n" + charset.name() + "\n";
+                FileUtils.writeAtomically(refFile, ref.getBytes(StandardCharsets.UTF_8));
+            }
+            stored.incrementAndGet();
+        } catch (IOException e) {
+            log.debug("Failed to cache HTML for " + url + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Lists all URLs that have cached HTML.
+     *
+     * @return The cached URLs, in no particular order
+     */
+    public List<String> getCachedUrls() {
+        List<String> urls = new ArrayList<>();
+        if (!enableCache) {
+            return urls;
+        }
+
+        Path urlsDir = rootDir.resolve(URLS_DIR);
+        if (!Files.isDirectory(urlsDir)) {
+            return urls;
+        }
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(urlsDir, "*" + REF_SUFFIX)) {
+            for (Path refFile : stream) {
+                List<String> lines = Files.readAllLines(refFile, StandardCharsets.UTF_8);
+                if (lines.size() >= 2) {
+                    urls.add(lines.get(0));
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to list cached HTML pages: " + e.getMessage());
+        }
+
+        return urls;
+    }
+
+    /**
+     * Gets cache statistics as a formatted string.
+     *
+     * @return Cache statistics string
+     */
+    public String getCacheStats() {
+        if (!enableCache) {
+            return "HTML cache disabled";
+        }
+
+        return String.format("HTML cache: %d hits, %d misses, %d pages stored in %s",
+                hits.get(), misses.get(), stored.get(), rootDir);
+    }
+
+    private Path refFile(String url) {
+        return rootDir.resolve(URLS_DIR).resolve(HashUtils.sha256Hex(url) + REF_SUFFIX);
+    }
+
+    private Path objectFile(String contentHash) {
+        return rootDir.resolve(OBJECTS_DIR).resolve(contentHash.substring(0, 2)).resolve(contentHash + OBJECT_SUFFIX);
+    }
+
+    private String readContentHash(Path refFile) throws IOException {
+        if (!Files.exists(refFile)) {
+            return null;
+        }
+        List<String> lines = Files.readAllLines(refFile, StandardCharsets.UTF_8);
+        return lines.size() >= 2 ? lines.get(1) : null;
+    }
+
+    /**
+     * Decodes a page body, dropping a leading byte order mark the decoder keeps.
+     */
+    static String decode(byte[] content, Charset charset) {
+        String html = new String(content, charset);
+        return html.startsWith("\uFEFF") ? html.substring(1) : html;
+    }
+
+    /**
+     * The charset recorded in a reference file; references written before charsets were recorded hold UTF-8.
+     */
+    private Charset readCharset(Path refFile) throws IOException {
+        List<String> lines = Files.readAllLines(refFile, StandardCharsets.UTF_8);
+        if (lines.size() >= 3) {
+            try {
+                return Charset.forName(lines.get(2).trim());
+            } catch (IllegalArgumentException e) {
+                log.debug("Unknown charset in " + refFile + ": " + lines.get(2));
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    private static byte[] compress(byte[] content) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(content.length / 4 + 64);
+        try (OutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(content);
+        }
+        return buffer.toByteArray();
+    }
+
+    private static byte[] readCompressed(Path file) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file), 64 * 1024)) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            byte[] chunk = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(chunk)) > 0) {
+                buffer.write(chunk, 0, read);
+            }
+            return buffer.toByteArray();
+        }
+    }
+}
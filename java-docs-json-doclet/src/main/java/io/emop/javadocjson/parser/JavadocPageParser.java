@@ -1,23 +1,36 @@
 package io.emop.javadocjson.parser;
 
 import io.emop.javadocjson.config.JDK9Dialet;
+import io.emop.javadocjson.jfr.DialectExtractEvent;
+import io.emop.javadocjson.jfr.JfrSupport;
+import io.emop.javadocjson.jfr.PageFetchEvent;
+import io.emop.javadocjson.jfr.PageParseEvent;
 import io.emop.javadocjson.model.JavadocClass;
 import io.emop.javadocjson.model.SimpleJavadocConstructor;
 import io.emop.javadocjson.model.SimpleJavadocField;
 import io.emop.javadocjson.model.SimpleJavadocMethod;
 import org.apache.maven.plugin.logging.Log;
 import org.jsoup.Connection;
+import org.jsoup.HttpStatusException;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 
 import java.io.IOException;
+import java.net.InetAddress;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Parser class for extracting Javadoc information from HTML pages.
@@ -25,6 +38,12 @@ import java.util.Set;
  */
 public class JavadocPageParser {
 
+    // Prefix of a page searched for a meta charset, the same as jsoup's
+    private static final int CHARSET_SNIFF_BYTES = 5 * 1024;
+
+    private static final Pattern META_CHARSET =
+            Pattern.compile("<meta\\s[^>]*charset\\s*=\\s*[\"']?([A-Za-z0-9_.:\\-]+)", Pattern.CASE_INSENSITIVE);
+
     private final Log log;
     private final String userAgent;
     private final int timeout;
@@ -36,7 +55,24 @@ public class JavadocPageParser {
     // List of supported parsing configurations
     private final List<JavadocParsingConfig> parsingConfigs;
 
+    // Raw HTML cache; fetched pages are always stored, but only read back when offline so a normal crawl
+    // never serves a stale page
+    private HtmlPageCache htmlCache;
+
+    // When true, pages are only read from the HTML cache and never fetched
+    private boolean offline;
+
+    // System.nanoTime() at which the crawl time budget runs out, 0 for no budget
+    private volatile long budgetDeadlineNanos;
+
+    // Receives fetch, parse and cache timings when set
+    private ProgressTracker progressTracker;
+
     public JavadocPageParser(Log log, String userAgent, int timeout, String proxyHost, int proxyPort, String proxyUsername, String proxyPassword) {
+        this(log, new JDK9Dialet(), userAgent, timeout, proxyHost, proxyPort, proxyUsername, proxyPassword);
+    }
+
+    public JavadocPageParser(Log log, JavadocParsingConfig parsingConfig, String userAgent, int timeout, String proxyHost, int proxyPort, String proxyUsername, String proxyPassword) {
         this.log = log;
         this.userAgent = userAgent;
         this.timeout = timeout;
@@ -45,13 +81,53 @@ public class JavadocPageParser {
         this.proxyUsername = proxyUsername;
         this.proxyPassword = proxyPassword;
 
-        // Initialize parsing configurations
-        this.parsingConfigs = Arrays.asList(
+        // Initialize parsing configurations, the configured dialect takes precedence
+        this.parsingConfigs = parsingConfig instanceof JDK9Dialet ? Arrays.asList(parsingConfig) : Arrays.asList(
+                parsingConfig,
                 new JDK9Dialet()
                 // More parsing configurations can be added here
         );
     }
 
+    /**
+     * Sets the raw HTML cache. Every fetched page is stored in it as the server sent it, decoded with the
+     * detected charset; pages are only served from it in {@link #setOffline(boolean) offline} mode, which
+     * re-parses a previous crawl without network access.
+     *
+     * @param htmlCache The HTML cache, or null to not record pages
+     */
+    public void setHtmlCache(HtmlPageCache htmlCache) {
+        this.htmlCache = htmlCache;
+    }
+
+    /**
+     * Restricts page access to the HTML cache, so no network requests are made.
+     *
+     * @param offline true to only read cached pages
+     */
+    public void setOffline(boolean offline) {
+        this.offline = offline;
+    }
+
+    /**
+     * Sets the end of the crawl time budget. Request timeouts are shortened so that no request
+     * outlives the budget, and no request is started after it.
+     *
+     * @param budgetDeadlineNanos The {@link System#nanoTime()} deadline, or 0 for no budget
+     */
+    public void setBudgetDeadlineNanos(long budgetDeadlineNanos) {
+        this.budgetDeadlineNanos = budgetDeadlineNanos;
+    }
+
+    /**
+     * Sets the tracker that records fetch, parse and cache timings.
+     *
+     * @param progressTracker The tracker, or null to record nothing
+     */
+    public void setProgressTracker(ProgressTracker progressTracker) {
+        this.progressTracker = progressTracker;
+    }
+
     /**
      * Parses a class page and extracts JavadocClass information.
      *
@@ -60,10 +136,237 @@ public class JavadocPageParser {
      * @throws IOException if the page cannot be accessed
      */
     public JavadocClass parseClassPage(String classUrl, String packageName, String simpleClzName) throws IOException {
+        return parseClassPage(classUrl, packageName, simpleClzName, null);
+    }
+
+    /**
+     * Parses a class page and records the fetch and parse phases in a trace record.
+     *
+     * @param classUrl The URL of the class page to parse
+     * @param trace    The trace record to fill, or null
+     * @return JavadocClass object with extracted information
+     * @throws IOException if the page cannot be accessed
+     */
+    public JavadocClass parseClassPage(String classUrl, String packageName, String simpleClzName, CrawlTraceRecord trace) throws IOException {
         log.debug("Parsing class page: " + classUrl);
 
-        Document doc = configureConnection(classUrl).get();
-        String htmlContent = doc.html();
+        String htmlContent = fetchPage(classUrl, trace);
+        long parseStart = System.nanoTime();
+        JavadocClass javadocClass = parseClassHtml(htmlContent, classUrl, packageName, simpleClzName);
+        long parseNanos = System.nanoTime() - parseStart;
+        if (progressTracker != null) {
+            progressTracker.recordParse(parseNanos);
+        }
+        if (trace != null) {
+            trace.setParseMicros(TimeUnit.NANOSECONDS.toMicros(parseNanos));
+        }
+        return javadocClass;
+    }
+
+    /**
+     * Gets the raw HTML of a page, from the HTML cache when available.
+     *
+     * @param url The URL of the page
+     * @return The raw page HTML
+     * @throws IOException if the page is neither cached nor fetchable
+     */
+    public String fetchPage(String url) throws IOException {
+        return fetchPage(url, null);
+    }
+
+    /**
+     * Gets the raw HTML of a page and records the cache outcome and download phases in a trace record.
+     *
+     * @param url   The URL of the page
+     * @param trace The trace record to fill, or null
+     * @return The raw page HTML
+     * @throws IOException if the page is neither cached nor fetchable
+     */
+    public String fetchPage(String url, CrawlTraceRecord trace) throws IOException {
+        PageFetchEvent fetchEvent = JfrSupport.AVAILABLE ? new PageFetchEvent() : null;
+        if (fetchEvent != null) {
+            fetchEvent.begin();
+        }
+        if (htmlCache != null && offline) {
+            long cacheStart = System.nanoTime();
+            String cached = htmlCache.get(url);
+            if (cached != null) {
+                if (progressTracker != null) {
+                    progressTracker.recordHtmlCacheHit(System.nanoTime() - cacheStart);
+                }
+                commitFetchEvent(fetchEvent, url, cached.length(), true);
+                if (trace != null) {
+                    trace.setCache(CrawlTraceRecord.CACHE_HTML);
+                    trace.setBytes(cached.length());
+                }
+                return cached;
+            }
+        }
+
+        if (offline) {
+            throw new IOException("Page not in HTML cache: " + url);
+        }
+
+        if (trace != null) {
+            trace.setCache(CrawlTraceRecord.CACHE_MISS);
+            traceDnsLookup(url, trace);
+        }
+
+        Connection connection = configureConnection(url);
+        // A request given less than the configured timeout because of the budget did not fail on its own
+        boolean budgetLimited = budgetDeadlineNanos != 0 && connection.request().timeout() != timeout;
+        String htmlContent;
+        byte[] body;
+        Charset charset;
+        long fetchStart = System.nanoTime();
+        try {
+            // jsoup returns once the response headers are read and loads the body on first access
+            Connection.Response response = connection.execute();
+            long headersReceived = System.nanoTime();
+            body = response.bodyAsBytes();
+            long bodyReceived = System.nanoTime();
+            if (progressTracker != null) {
+                progressTracker.recordFetch(bodyReceived - fetchStart, body.length);
+            }
+            if (trace != null) {
+                trace.setStatus(response.statusCode());
+                trace.setTtfbMicros(TimeUnit.NANOSECONDS.toMicros(headersReceived - fetchStart));
+                trace.setBodyMicros(TimeUnit.NANOSECONDS.toMicros(bodyReceived - headersReceived));
+                trace.setBytes(body.length);
+            }
+            commitFetchEvent(fetchEvent, url, body.length, false);
+            // Cached as sent, with the charset used to decode it, so a reparse sees the same page
+            charset = detectCharset(response.charset(), body);
+            htmlContent = HtmlPageCache.decode(body, charset);
+        } catch (HttpStatusException e) {
+            if (trace != null) {
+                trace.setStatus(e.getStatusCode());
+                trace.setTtfbMicros(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - fetchStart));
+            }
+            throw e;
+        } catch (SocketTimeoutException e) {
+            if (budgetLimited) {
+                throw new CrawlBudgetExceededException("Crawl time budget too short to finish fetching: " + url);
+            }
+            throw e;
+        }
+        // jsoup ends the body stream early when the thread is interrupted, so the page may be truncated
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CrawlBudgetExceededException("Fetch cancelled: " + url);
+        }
+        if (htmlCache != null) {
+            htmlCache.put(url, body, charset);
+        }
+        return htmlContent;
+    }
+
+    /**
+     * The charset of a page: the one declared in the Content-Type header, otherwise the one given by the byte
+     * order mark or a meta tag near the start of the page, otherwise UTF-8, like {@code Connection.get()} decides.
+     * Only a prefix of the body is scanned, so the page is parsed once, by {@link #parseClassHtml}.
+     */
+    static Charset detectCharset(String declared, byte[] body) {
+        Charset charset = charsetForName(declared);
+        if (charset != null) {
+            return charset;
+        }
+        if (body.length >= 3 && (body[0] & 0xFF) == 0xEF && (body[1] & 0xFF) == 0xBB && (body[2] & 0xFF) == 0xBF) {
+            return StandardCharsets.UTF_8;
+        }
+        if (body.length >= 2 && ((body[0] & 0xFF) == 0xFE && (body[1] & 0xFF) == 0xFF
+                || (body[0] & 0xFF) == 0xFF && (body[1] & 0xFF) == 0xFE)) {
+            // The UTF-16 decoder reads the byte order from the mark
+            return StandardCharsets.UTF_16;
+        }
+        String head = new String(body, 0, Math.min(body.length, CHARSET_SNIFF_BYTES), StandardCharsets.ISO_8859_1);
+        Matcher meta = META_CHARSET.matcher(head);
+        while (meta.find()) {
+            charset = charsetForName(meta.group(1));
+            if (charset != null) {
+                return charset;
+            }
+        }
+        return StandardCharsets.UTF_8;
+    }
+
+    private static Charset charsetForName(String name) {
+        if (name == null) {
+            return null;
+        }
+        try {
+            return Charset.forName(name.trim());
+        } catch (IllegalArgumentException e) {
+            // Unknown or malformed charset name
+            return null;
+        }
+    }
+
+    /**
+     * Times the host name lookup ahead of the request. The JVM caches the result, so the request itself
+     * does not resolve the host again. Skipped behind a proxy, which resolves hosts itself.
+     */
+    private void traceDnsLookup(String url, CrawlTraceRecord trace) {
+        if (proxyHost != null && !proxyHost.trim().isEmpty()) {
+            return;
+        }
+        long lookupStart = System.nanoTime();
+        try {
+            InetAddress.getAllByName(new URL(url).getHost());
+            trace.setDnsMicros(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - lookupStart));
+        } catch (IOException e) {
+            // The request reports the failure
+        }
+    }
+
+    private static void commitFetchEvent(PageFetchEvent event, String url, long bytes, boolean cacheHit) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.setUrl(url);
+            event.setBytes(bytes);
+            event.setCacheHit(cacheHit);
+            event.commit();
+        }
+    }
+
+    /**
+     * The qualified name of a class; classes in the default package have no package prefix.
+     */
+    private static String fullClassName(String packageName, String simpleName) {
+        return packageName != null && !packageName.isEmpty() ? packageName + "." + simpleName : simpleName;
+    }
+
+    /**
+     * Parses the raw HTML of a class page and extracts JavadocClass information.
+     *
+     * @param htmlContent   The raw page HTML
+     * @param classUrl      The URL of the page, used to resolve relative links
+     * @param packageName   The package of the class
+     * @param simpleClzName The simple name of the class
+     * @return JavadocClass object with extracted information
+     */
+    public JavadocClass parseClassHtml(String htmlContent, String classUrl, String packageName, String simpleClzName) {
+        PageParseEvent parseEvent = JfrSupport.AVAILABLE ? new PageParseEvent() : null;
+        if (parseEvent != null) {
+            parseEvent.begin();
+        }
+        Document doc = Jsoup.parse(htmlContent, classUrl);
+        if (parseEvent != null) {
+            parseEvent.end();
+            if (parseEvent.shouldCommit()) {
+                parseEvent.setUrl(classUrl);
+                parseEvent.setClassName(fullClassName(packageName, simpleClzName));
+                parseEvent.setHtmlSize(htmlContent.length());
+                parseEvent.commit();
+            }
+        }
+
+        DialectExtractEvent extractEvent = JfrSupport.AVAILABLE ? new DialectExtractEvent() : null;
+        if (extractEvent != null) {
+            extractEvent.begin();
+        }
 
         // Select appropriate parsing configuration
         JavadocParsingConfig config = selectParsingConfig(htmlContent);
@@ -90,6 +393,18 @@ public class JavadocPageParser {
         javadocClass.getFields().addAll(parseFieldsWithConfig(doc, config));
         javadocClass.getConstructors().addAll(parseSimpleConstructorsWithConfig(doc, config));
 
+        if (extractEvent != null) {
+            extractEvent.end();
+            if (extractEvent.shouldCommit()) {
+                extractEvent.setClassName(fullClassName(javadocClass.getPackageName(), javadocClass.getName()));
+                extractEvent.setDialect(config.getConfigName());
+                extractEvent.setMethodCount(javadocClass.getMethods().size());
+                extractEvent.setFieldCount(javadocClass.getFields().size());
+                extractEvent.setConstructorCount(javadocClass.getConstructors().size());
+                extractEvent.commit();
+            }
+        }
+
         log.info("Parsed class: " + javadocClass.getName() + " with " +
                 javadocClass.getMethods().size() + " simple methods, " +
                 javadocClass.getFields().size() + " simple fields, and " +
@@ -254,10 +569,26 @@ public class JavadocPageParser {
      * @param url The URL to connect to
      * @return Configured Connection object
      */
-    private Connection configureConnection(String url) {
+    private Connection configureConnection(String url) throws IOException {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CrawlBudgetExceededException("Fetch cancelled: " + url);
+        }
+        // The jsoup timeout covers the whole request, so it doubles as the per-URL deadline
+        int requestTimeout = timeout;
+        long deadline = budgetDeadlineNanos;
+        if (deadline != 0) {
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            // jsoup waits half of the timeout for the response headers and treats a timeout of 0 as none
+            if (remainingMillis < 2) {
+                throw new CrawlBudgetExceededException("Crawl time budget exhausted before fetching: " + url);
+            }
+            // No request may outlive the budget
+            requestTimeout = (int) Math.min(requestTimeout > 0 ? requestTimeout : Integer.MAX_VALUE, remainingMillis);
+        }
+
         Connection connection = Jsoup.connect(url)
                 .userAgent(userAgent)
-                .timeout(timeout);
+                .timeout(requestTimeout);
 
         // Configure proxy if provided
         if (proxyHost != null && !proxyHost.trim().isEmpty()) {
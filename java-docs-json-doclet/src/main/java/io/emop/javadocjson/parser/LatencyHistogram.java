@@ -0,0 +1,149 @@
+package io.emop.javadocjson.parser;
+
+import lombok.Data;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free latency histogram with fixed buckets.
+ * <p>
+ * Buckets follow a 1-2-5 series from 50µs to 60s plus an overflow bucket, which keeps percentiles within
+ * a factor of 2.5 of the true value at a constant memory cost. Recording only touches {@link LongAdder}s,
+ * so many crawler threads can record concurrently without contention.
+ */
+public class LatencyHistogram {
+
+    // Upper bucket bounds in microseconds
+    private static final long[] BOUNDS_MICROS = {
+            50, 100, 200, 500,
+            1_000, 2_000, 5_000, 10_000, 20_000, 50_000, 100_000, 200_000, 500_000,
+            1_000_000, 2_000_000, 5_000_000, 10_000_000, 20_000_000, 30_000_000, 60_000_000
+    };
+
+    private final LongAdder[] buckets = new LongAdder[BOUNDS_MICROS.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records one measurement.
+     *
+     * @param nanos The measured duration in nanoseconds
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        long micros = TimeUnit.NANOSECONDS.toMicros(value);
+        int index = 0;
+        while (index < BOUNDS_MICROS.length && micros > BOUNDS_MICROS[index]) {
+            index++;
+        }
+        buckets[index].increment();
+        count.increment();
+        totalNanos.add(value);
+        maxNanos.accumulate(value);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Estimates a percentile as the upper bound of the bucket that contains it, capped by the maximum.
+     *
+     * @param percentile The percentile between 0 and 100
+     * @return The estimate in milliseconds, or 0 without measurements
+     */
+    public double getPercentileMillis(double percentile) {
+        long[] counts = new long[buckets.length];
+        long total = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(percentile / 100.0 * total);
+        long seen = 0;
+        double maxMillis = getMaxMillis();
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank && counts[i] > 0) {
+                if (i == BOUNDS_MICROS.length) {
+                    return maxMillis;
+                }
+                return Math.min(BOUNDS_MICROS[i] / 1000.0, maxMillis);
+            }
+        }
+        return maxMillis;
+    }
+
+    public double getMaxMillis() {
+        return maxNanos.get() / 1_000_000.0;
+    }
+
+    public double getMeanMillis() {
+        long n = count.sum();
+        return n == 0 ? 0 : totalNanos.sum() / 1_000_000.0 / n;
+    }
+
+    /**
+     * Formats the histogram for log output.
+     *
+     * @return e.g. {@code n=120 p50=20.0ms p95=50.0ms p99=100.0ms max=87.3ms}
+     */
+    public String format() {
+        return String.format("n=%d p50=%.1fms p95=%.1fms p99=%.1fms max=%.1fms",
+                getCount(), getPercentileMillis(50), getPercentileMillis(95), getPercentileMillis(99), getMaxMillis());
+    }
+
+    /**
+     * Takes a point-in-time snapshot for the machine-readable summary.
+     *
+     * @return The snapshot
+     */
+    public Snapshot snapshot() {
+        Snapshot snapshot = new Snapshot();
+        snapshot.setCount(getCount());
+        snapshot.setMeanMillis(getMeanMillis());
+        snapshot.setP50Millis(getPercentileMillis(50));
+        snapshot.setP95Millis(getPercentileMillis(95));
+        snapshot.setP99Millis(getPercentileMillis(99));
+        snapshot.setMaxMillis(getMaxMillis());
+        return snapshot;
+    }
+
+    /**
+     * Resets all buckets.
+     */
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+    }
+
+    /**
+     * Histogram values at one point in time.
+     */
+    @Data
+    public static class Snapshot {
+        private long count;
+        private double meanMillis;
+        private double p50Millis;
+        private double p95Millis;
+        private double p99Millis;
+        private double maxMillis;
+    }
+}
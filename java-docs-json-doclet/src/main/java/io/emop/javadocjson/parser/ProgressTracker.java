@@ -1,23 +1,44 @@
 package io.emop.javadocjson.parser;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.Data;
 import org.apache.maven.plugin.logging.Log;
 
-import java.util.concurrent.atomic.AtomicInteger;
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Progress tracking utility for the Javadoc crawler.
+ * <p>
+ * Workers only bump {@link LongAdder}s and histograms, so updates do not contend with each other.
+ * Progress is logged by a single reporter thread at a fixed interval instead of by the workers.
  */
 public class ProgressTracker {
     
     private final Log log;
-    private final AtomicInteger totalClasses;
-    private final AtomicInteger processedClasses;
-    private final AtomicInteger skippedClasses;
-    private final AtomicInteger failedClasses;
+    private final LongAdder totalClasses = new LongAdder();
+    private final LongAdder processedClasses = new LongAdder();
+    private final LongAdder skippedClasses = new LongAdder();
+    private final LongAdder failedClasses = new LongAdder();
+    private final LongAdder bytesDownloaded = new LongAdder();
+    private final LongAdder inFlight = new LongAdder();
+    
+    private final LatencyHistogram fetchLatency = new LatencyHistogram();
+    private final LatencyHistogram parseLatency = new LatencyHistogram();
+    private final LatencyHistogram classCacheHitLatency = new LatencyHistogram();
+    private final LatencyHistogram htmlCacheHitLatency = new LatencyHistogram();
+    private final LatencyHistogram writeLatency = new LatencyHistogram();
     
-    private long startTime;
-    private long lastLogTime;
     private final long logInterval; // Log interval in milliseconds
+    private volatile long startTime;
+    private ScheduledExecutorService reporter;
     
     public ProgressTracker(Log log) {
         this(log, 5000); // Default log interval of 5 seconds
@@ -25,22 +46,36 @@ public class ProgressTracker {
     
     public ProgressTracker(Log log, long logIntervalMs) {
         this.log = log;
-        this.totalClasses = new AtomicInteger(0);
-        this.processedClasses = new AtomicInteger(0);
-        this.skippedClasses = new AtomicInteger(0);
-        this.failedClasses = new AtomicInteger(0);
         this.logInterval = logIntervalMs;
         this.startTime = System.currentTimeMillis();
-        this.lastLogTime = startTime;
     }
     
     /**
-     * Starts tracking progress.
+     * Starts tracking progress and the periodic progress reporter.
      */
-    public void start() {
+    public synchronized void start() {
         this.startTime = System.currentTimeMillis();
-        this.lastLogTime = startTime;
         log.info("Starting Javadoc crawling...");
+        
+        stop();
+        if (logInterval > 0) {
+            reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "crawl-progress");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reporter.scheduleAtFixedRate(this::logProgress, logInterval, logInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    /**
+     * Stops the periodic progress reporter.
+     */
+    public synchronized void stop() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+        }
     }
     
     /**
@@ -49,7 +84,8 @@ public class ProgressTracker {
      * @param total The total number of classes
      */
     public void setTotalClasses(int total) {
-        totalClasses.set(total);
+        totalClasses.reset();
+        totalClasses.add(total);
         log.info("Total classes to process: " + total);
     }
     
@@ -59,83 +95,122 @@ public class ProgressTracker {
      * @param count The number of classes to add
      */
     public void addToTotalClasses(int count) {
-        int newTotal = totalClasses.addAndGet(count);
-        log.debug("Added " + count + " classes to total. New total: " + newTotal);
+        totalClasses.add(count);
+        log.debug("Added " + count + " classes to total. New total: " + totalClasses.sum());
     }
     
     /**
      * Increments the count of processed classes.
      */
     public void incrementProcessed() {
-        int processed = processedClasses.incrementAndGet();
-        logProgressIfNeeded(processed);
+        processedClasses.increment();
     }
     
     /**
      * Increments the count of skipped classes.
      */
     public void incrementSkipped() {
-        skippedClasses.incrementAndGet();
-        // Calculate total processed (including skipped) for progress tracking
-        int totalProcessed = processedClasses.get() + skippedClasses.get();
-        logProgressIfNeeded(totalProcessed);
+        skippedClasses.increment();
     }
     
     /**
      * Increments the count of failed classes.
      */
     public void incrementFailed() {
-        failedClasses.incrementAndGet();
-        // Calculate total processed (including failed) for progress tracking
-        int totalProcessed = processedClasses.get() + skippedClasses.get() + failedClasses.get();
-        logProgressIfNeeded(totalProcessed);
+        failedClasses.increment();
     }
     
     /**
-     * Logs progress if enough time has passed since the last log.
+     * Marks the start of processing one class page.
+     */
+    public void pageStarted() {
+        inFlight.increment();
+    }
+    
+    /**
+     * Marks the end of processing one class page.
+     */
+    public void pageFinished() {
+        inFlight.decrement();
+    }
+    
+    /**
+     * Records a page download.
      * 
-     * @param currentProcessed The current number of processed classes
+     * @param nanos The download time
+     * @param bytes The size of the downloaded page
      */
-    private void logProgressIfNeeded(int currentProcessed) {
-        long currentTime = System.currentTimeMillis();
-        
-        if (currentTime - lastLogTime >= logInterval) {
-            logProgress();
-            lastLogTime = currentTime;
-        }
+    public void recordFetch(long nanos, long bytes) {
+        fetchLatency.record(nanos);
+        bytesDownloaded.add(bytes);
+    }
+    
+    /**
+     * Records the parsing of one page.
+     * 
+     * @param nanos The parse time
+     */
+    public void recordParse(long nanos) {
+        parseLatency.record(nanos);
+    }
+    
+    /**
+     * Records a parsed class served from the class cache.
+     * 
+     * @param nanos The cache read time
+     */
+    public void recordClassCacheHit(long nanos) {
+        classCacheHitLatency.record(nanos);
+    }
+    
+    /**
+     * Records a page served from the HTML cache.
+     * 
+     * @param nanos The cache read time
+     */
+    public void recordHtmlCacheHit(long nanos) {
+        htmlCacheHitLatency.record(nanos);
+    }
+    
+    /**
+     * Records the writing of one output file.
+     * 
+     * @param nanos The write time
+     */
+    public void recordWrite(long nanos) {
+        writeLatency.record(nanos);
     }
     
     /**
      * Forces a progress log regardless of timing.
      */
     public void logProgress() {
-        int total = totalClasses.get();
-        int processed = processedClasses.get();
-        int skipped = skippedClasses.get();
-        int failed = failedClasses.get();
+        long total = totalClasses.sum();
+        long processed = processedClasses.sum();
+        long skipped = skippedClasses.sum();
+        long failed = failedClasses.sum();
         
         if (total > 0) {
             double percentage = (double) processed / total * 100;
-            long elapsed = System.currentTimeMillis() - startTime;
-            double rate = processed > 0 ? (double) processed / (elapsed / 1000.0) : 0;
-            
-            log.info(String.format("Progress: %d/%d (%.1f%%) processed, %d skipped, %d failed. Rate: %.1f classes/sec", 
-                                 processed, total, percentage, skipped, failed, rate));
+            log.info(String.format("Progress: %d/%d (%.1f%%) processed, %d skipped, %d failed, %d in flight. Rate: %.1f classes/sec, %s downloaded", 
+                                 processed, total, percentage, skipped, failed, inFlight.sum(), getProcessingRate(), formatBytes(bytesDownloaded.sum())));
         } else {
-            log.info(String.format("Progress: %d processed, %d skipped, %d failed", 
-                                 processed, skipped, failed));
+            log.info(String.format("Progress: %d processed, %d skipped, %d failed, %d in flight", 
+                                 processed, skipped, failed, inFlight.sum()));
         }
     }
     
     /**
-     * Logs the final summary when crawling is complete.
+     * Logs the final summary when crawling is complete and stops the reporter.
      */
     public void logFinalSummary() {
+        stop();
+        
         long totalTime = System.currentTimeMillis() - startTime;
-        int total = totalClasses.get();
-        int processed = processedClasses.get();
-        int skipped = skippedClasses.get();
-        int failed = failedClasses.get();
+        long total = totalClasses.sum();
+        long processed = processedClasses.sum();
+        long skipped = skippedClasses.sum();
+        long failed = failedClasses.sum();
         
         double totalTimeSeconds = totalTime / 1000.0;
         double averageRate = processed > 0 ? processed / totalTimeSeconds : 0;
@@ -153,16 +228,70 @@ public class ProgressTracker {
         }
         
         log.info(String.format("Average processing rate: %.2f classes/second", averageRate));
+        log.info("Bytes downloaded: " + formatBytes(bytesDownloaded.sum()));
+        log.info("Fetch latency: " + fetchLatency.format());
+        log.info("Parse latency: " + parseLatency.format());
+        log.info("Class cache hit latency: " + classCacheHitLatency.format());
+        log.info("HTML cache hit latency: " + htmlCacheHitLatency.format());
+        log.info("Write latency: " + writeLatency.format());
         log.info("======================");
     }
     
+    /**
+     * Builds the machine-readable summary of the crawl.
+     * 
+     * @return The summary
+     */
+    public Summary getSummary() {
+        Summary summary = new Summary();
+        summary.setElapsedMillis(getElapsedTime());
+        summary.setTotalClasses(totalClasses.sum());
+        summary.setProcessedClasses(processedClasses.sum());
+        summary.setSkippedClasses(skippedClasses.sum());
+        summary.setFailedClasses(failedClasses.sum());
+        summary.setInFlight(inFlight.sum());
+        summary.setBytesDownloaded(bytesDownloaded.sum());
+        summary.setClassesPerSecond(getProcessingRate());
+        summary.getLatency().put("fetch", fetchLatency.snapshot());
+        summary.getLatency().put("parse", parseLatency.snapshot());
+        summary.getLatency().put("classCacheHit", classCacheHitLatency.snapshot());
+        summary.getLatency().put("htmlCacheHit", htmlCacheHitLatency.snapshot());
+        summary.getLatency().put("write", writeLatency.snapshot());
+        return summary;
+    }
+    
+    /**
+     * Writes the machine-readable summary as JSON.
+     * 
+     * @param file The target file
+     * @throws IOException if the file cannot be written
+     */
+    public void writeSummary(File file) throws IOException {
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.enable(SerializationFeature.INDENT_OUTPUT);
+        mapper.writeValue(file, getSummary());
+    }
+    
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format("%.1f KiB", bytes / 1024.0);
+        }
+        return String.format("%.1f MiB", bytes / (1024.0 * 1024.0));
+    }
+    
     /**
      * Gets the current number of processed classes.
      * 
      * @return The number of processed classes
      */
     public int getProcessedCount() {
-        return processedClasses.get();
+        return (int) processedClasses.sum();
     }
     
     /**
@@ -171,7 +300,7 @@ public class ProgressTracker {
      * @return The number of skipped classes
      */
     public int getSkippedCount() {
-        return skippedClasses.get();
+        return (int) skippedClasses.sum();
     }
     
     /**
@@ -180,7 +309,7 @@ public class ProgressTracker {
      * @return The number of failed classes
      */
     public int getFailedCount() {
-        return failedClasses.get();
+        return (int) failedClasses.sum();
     }
     
     /**
@@ -189,7 +318,25 @@ public class ProgressTracker {
      * @return The total number of classes
      */
     public int getTotalCount() {
-        return totalClasses.get();
+        return (int) totalClasses.sum();
+    }
+    
+    /**
+     * Gets the number of class pages currently being processed.
+     * 
+     * @return The in-flight count
+     */
+    public int getInFlightCount() {
+        return (int) inFlight.sum();
+    }
+    
+    /**
+     * Gets the number of bytes downloaded so far.
+     * 
+     * @return The downloaded bytes
+     */
+    public long getBytesDownloaded() {
+        return bytesDownloaded.sum();
     }
     
     /**
@@ -198,11 +345,11 @@ public class ProgressTracker {
      * @return The progress percentage (0-100)
      */
     public double getProgressPercentage() {
-        int total = totalClasses.get();
+        long total = totalClasses.sum();
         if (total == 0) {
             return 0.0;
         }
-        return (double) processedClasses.get() / total * 100;
+        return (double) processedClasses.sum() / total * 100;
     }
     
     /**
@@ -224,7 +371,7 @@ public class ProgressTracker {
         if (elapsed == 0) {
             return 0.0;
         }
-        return (double) processedClasses.get() / (elapsed / 1000.0);
+        return (double) processedClasses.sum() / (elapsed / 1000.0);
     }
     
     /**
@@ -233,14 +380,14 @@ public class ProgressTracker {
      * @return The estimated remaining time, or -1 if cannot be estimated
      */
     public long getEstimatedRemainingTime() {
-        int total = totalClasses.get();
-        int processed = processedClasses.get();
+        long total = totalClasses.sum();
+        long processed = processedClasses.sum();
         
         if (total == 0 || processed == 0) {
             return -1;
         }
         
-        int remaining = total - processed;
+        long remaining = total - processed;
         double rate = getProcessingRate();
         
         if (rate == 0) {
@@ -254,11 +401,33 @@ public class ProgressTracker {
      * Resets all counters and timers.
      */
     public void reset() {
-        totalClasses.set(0);
-        processedClasses.set(0);
-        skippedClasses.set(0);
-        failedClasses.set(0);
+        totalClasses.reset();
+        processedClasses.reset();
+        skippedClasses.reset();
+        failedClasses.reset();
+        bytesDownloaded.reset();
+        inFlight.reset();
+        fetchLatency.reset();
+        parseLatency.reset();
+        classCacheHitLatency.reset();
+        htmlCacheHitLatency.reset();
+        writeLatency.reset();
         startTime = System.currentTimeMillis();
-        lastLogTime = startTime;
     }
-}
\ No newline at end of file
+    
+    /**
+     * Machine-readable crawl summary.
+     */
+    @Data
+    public static class Summary {
+        private long elapsedMillis;
+        private long totalClasses;
+        private long processedClasses;
+        private long skippedClasses;
+        private long failedClasses;
+        private long inFlight;
+        private long bytesDownloaded;
+        private double classesPerSecond;
+        private Map<String, LatencyHistogram.Snapshot> latency = new LinkedHashMap<>();
+    }
+}
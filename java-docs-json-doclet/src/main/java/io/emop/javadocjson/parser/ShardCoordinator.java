@@ -0,0 +1,276 @@
+package io.emop.javadocjson.parser;
+
+import io.emop.javadocjson.util.FileUtils;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * File-based coordinator that lets several crawler processes share one crawl.
+ * <p>
+ * The first worker publishes the sorted list of class URLs as {@code frontier.txt} in the shard directory.
+ * The frontier is split into fixed-size shards; a worker claims a shard by writing a lease file with an
+ * expiry time, renews the lease while it works, and writes a done marker when the shard is finished.
+ * All state changes happen while holding an exclusive lock on {@code coordinator.lock}, so workers may
+ * run in separate JVMs or on machines sharing the filesystem. A lease that is not renewed in time expires,
+ * and its shard is handed to the next worker that asks, which recovers the URLs of a crashed worker.
+ */
+public class ShardCoordinator {
+
+    private static final String LOCK_FILE = "coordinator.lock";
+    private static final String FRONTIER_FILE = "frontier.txt";
+    private static final String LEASES_DIR = "leases";
+    private static final String DONE_DIR = "done";
+
+    // FileChannel locks are held per JVM, so threads of one JVM also need an in-process monitor
+    private static final Map<Path, Object> JVM_LOCKS = new ConcurrentHashMap<>();
+
+    private final Log log;
+    private final Path directory;
+    @Getter
+    private final String workerId;
+    private final int shardSize;
+    private final long leaseMillis;
+    private final Object jvmLock;
+
+    private List<String> frontier;
+
+    public ShardCoordinator(Log log, Path directory, String workerId, int shardSize, long leaseMillis) throws IOException {
+        if (shardSize <= 0) {
+            throw new IllegalArgumentException("shardSize must be positive: " + shardSize);
+        }
+        this.log = log;
+        this.directory = directory.toAbsolutePath().normalize();
+        this.workerId = workerId;
+        this.shardSize = shardSize;
+        this.leaseMillis = leaseMillis;
+        this.jvmLock = JVM_LOCKS.computeIfAbsent(this.directory, path -> new Object());
+
+        Files.createDirectories(this.directory.resolve(LEASES_DIR));
+        Files.createDirectories(this.directory.resolve(DONE_DIR));
+    }
+
+    /**
+     * Checks whether a worker already published the frontier.
+     *
+     * @return true if the frontier file exists
+     */
+    public boolean hasFrontier() {
+        return Files.exists(directory.resolve(FRONTIER_FILE));
+    }
+
+    /**
+     * Publishes the frontier unless another worker already did; the first published frontier wins.
+     *
+     * @param urls The class URLs discovered by this worker
+     * @return The frontier all workers share
+     * @throws IOException if the shard directory cannot be accessed
+     */
+    public List<String> publishFrontier(Collection<String> urls) throws IOException {
+        return withLock(() -> {
+            Path frontierFile = directory.resolve(FRONTIER_FILE);
+            if (!Files.exists(frontierFile)) {
+                List<String> sorted = new ArrayList<>(new TreeSet<>(urls));
+                writeAtomically(frontierFile, String.join("\n", sorted) + "\n");
+                log.info("Worker " + workerId + " published frontier with " + sorted.size() + " URLs");
+            }
+            return loadFrontier();
+        });
+    }
+
+    /**
+     * Gets the number of shards of the published frontier.
+     *
+     * @return The shard count
+     * @throws IOException if the frontier cannot be read
+     */
+    public int getShardCount() throws IOException {
+        return (loadFrontier().size() + shardSize - 1) / shardSize;
+    }
+
+    /**
+     * Claims the next shard that is neither done nor leased by a live worker. When all remaining shards are
+     * leased by other workers, waits for them to finish or for their leases to expire.
+     *
+     * @return The claimed shard, or null when every shard is done
+     * @throws IOException          if the shard directory cannot be accessed
+     * @throws InterruptedException if interrupted while waiting for other workers
+     */
+    public Shard claimNextShard() throws IOException, InterruptedException {
+        List<String> urls = loadFrontier();
+        int shardCount = getShardCount();
+        long pollMillis = Math.max(50, Math.min(1000, leaseMillis / 4));
+
+        while (true) {
+            int claimed = withLock(() -> {
+                long now = System.currentTimeMillis();
+                boolean pending = false;
+                for (int i = 0; i < shardCount; i++) {
+                    if (Files.exists(doneFile(i))) {
+                        continue;
+                    }
+                    Lease lease = readLease(i);
+                    if (lease == null || lease.getExpiresAt() < now || workerId.equals(lease.getOwner())) {
+                        if (lease != null && !workerId.equals(lease.getOwner())) {
+                            log.warn("Reclaiming shard " + i + " from expired lease of worker " + lease.getOwner());
+                        }
+                        writeLease(i, now + leaseMillis);
+                        return i;
+                    }
+                    pending = true;
+                }
+                return pending ? -1 : -2;
+            });
+
+            if (claimed >= 0) {
+                int from = claimed * shardSize;
+                int to = Math.min(urls.size(), from + shardSize);
+                return new Shard(claimed, Collections.unmodifiableList(urls.subList(from, to)));
+            }
+            if (claimed == -2) {
+                return null;
+            }
+            Thread.sleep(pollMillis);
+        }
+    }
+
+    /**
+     * Extends the lease of a shard this worker is processing.
+     *
+     * @param shard The shard being processed
+     * @return false if the lease was lost to another worker or released because the shard is done
+     * @throws IOException if the lease cannot be written
+     */
+    public boolean renew(Shard shard) throws IOException {
+        return withLock(() -> {
+            Lease lease = readLease(shard.getIndex());
+            if (lease == null || Files.exists(doneFile(shard.getIndex()))) {
+                // Writing a lease here would hand a finished shard back to this worker
+                log.warn("Worker " + workerId + " lost lease of shard " + shard.getIndex() + ", it was released or finished");
+                return false;
+            }
+            if (!workerId.equals(lease.getOwner())) {
+                log.warn("Worker " + workerId + " lost lease of shard " + shard.getIndex() + " to " + lease.getOwner());
+                return false;
+            }
+            writeLease(shard.getIndex(), System.currentTimeMillis() + leaseMillis);
+            return true;
+        });
+    }
+
+    /**
+     * Marks a shard as done and releases its lease, provided this worker still holds the lease.
+     *
+     * @param shard The finished shard
+     * @return false if the lease was lost to another worker, which then owns the shard
+     * @throws IOException if the marker cannot be written
+     */
+    public boolean complete(Shard shard) throws IOException {
+        return withLock(() -> {
+            Lease lease = readLease(shard.getIndex());
+            if (lease == null || !workerId.equals(lease.getOwner())) {
+                log.warn("Worker " + workerId + " no longer holds the lease of shard " + shard.getIndex()
+                        + (lease == null ? "" : ", now held by " + lease.getOwner()) + "; not marking it done");
+                return false;
+            }
+            writeAtomically(doneFile(shard.getIndex()), workerId + "\n");
+            Files.deleteIfExists(leaseFile(shard.getIndex()));
+            return true;
+        });
+    }
+
+    private synchronized List<String> loadFrontier() throws IOException {
+        if (frontier == null) {
+            Path frontierFile = directory.resolve(FRONTIER_FILE);
+            if (!Files.exists(frontierFile)) {
+                throw new IOException("Frontier has not been published: " + frontierFile);
+            }
+            List<String> lines = new ArrayList<>();
+            for (String line : Files.readAllLines(frontierFile, StandardCharsets.UTF_8)) {
+                if (!line.isEmpty()) {
+                    lines.add(line);
+                }
+            }
+            frontier = Collections.unmodifiableList(lines);
+        }
+        return frontier;
+    }
+
+    private Lease readLease(int index) throws IOException {
+        Path leaseFile = leaseFile(index);
+        if (!Files.exists(leaseFile)) {
+            return null;
+        }
+        List<String> lines = Files.readAllLines(leaseFile, StandardCharsets.UTF_8);
+        if (lines.size() < 2) {
+            return null;
+        }
+        try {
+            return new Lease(lines.get(0), Long.parseLong(lines.get(1).trim()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void writeLease(int index, long expiresAt) throws IOException {
+        writeAtomically(leaseFile(index), workerId + "\n" + expiresAt + "\n");
+    }
+
+    private Path leaseFile(int index) {
+        return directory.resolve(LEASES_DIR).resolve(index + ".lease");
+    }
+
+    private Path doneFile(int index) {
+        return directory.resolve(DONE_DIR).resolve(index + ".done");
+    }
+
+    private <T> T withLock(LockedAction<T> action) throws IOException {
+        synchronized (jvmLock) {
+            try (FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE),
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                return action.run();
+            }
+        }
+    }
+
+    private static void writeAtomically(Path target, String content) throws IOException {
+        FileUtils.writeAtomically(target, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private interface LockedAction<T> {
+        T run() throws IOException;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class Lease {
+        private final String owner;
+        private final long expiresAt;
+    }
+
+    /**
+     * A contiguous range of frontier URLs claimed by one worker.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class Shard {
+        private final int index;
+        private final List<String> urls;
+    }
+}
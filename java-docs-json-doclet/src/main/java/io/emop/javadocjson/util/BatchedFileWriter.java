@@ -0,0 +1,130 @@
+package io.emop.javadocjson.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes whole files with a single write each and makes them durable in batches.
+ * <p>
+ * Every file is written as a new file: an existing one is unlinked first, so a file that is hard-linked into a
+ * published snapshot (see {@link SnapshotDirectory}) is replaced rather than modified. With {@code syncEvery > 0}
+ * written files stay open until {@code syncEvery} of them are pending; the batch is then forced to disk together
+ * with the directories holding it, which costs one flush per batch instead of one per file. With {@code 0} files
+ * are closed right away and durability is left to the operating system.
+ * <p>
+ * Instances are thread-safe.
+ */
+public class BatchedFileWriter implements Closeable {
+
+    private final int syncEvery;
+    private final List<FileChannel> pending = new ArrayList<>();
+    private final Set<Path> pendingDirectories = new LinkedHashSet<>();
+    private long filesWritten;
+    private long batchesSynced;
+
+    public BatchedFileWriter(int syncEvery) {
+        this.syncEvery = syncEvery;
+    }
+
+    /**
+     * Write a file, replacing any existing file of that name.
+     */
+    public synchronized void write(Path file, byte[] content) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Files.deleteIfExists(file);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(content);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        filesWritten++;
+        if (syncEvery <= 0) {
+            channel.close();
+            return;
+        }
+        pending.add(channel);
+        pendingDirectories.add(parent);
+        if (pending.size() >= syncEvery) {
+            sync();
+        }
+    }
+
+    /**
+     * Force the pending files and their directories to disk.
+     */
+    public synchronized void flush() throws IOException {
+        if (!pending.isEmpty()) {
+            sync();
+        }
+    }
+
+    private void sync() throws IOException {
+        IOException failure = null;
+        for (FileChannel channel : pending) {
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                failure = failure != null ? failure : e;
+            } finally {
+                channel.close();
+            }
+        }
+        pending.clear();
+        for (Path directory : pendingDirectories) {
+            syncDirectory(directory);
+        }
+        pendingDirectories.clear();
+        batchesSynced++;
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * Force a directory's entries to disk where the platform supports it; directories cannot be opened on Windows.
+     */
+    public static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Not supported on this platform
+        }
+    }
+
+    /**
+     * Force a file written by other means to disk.
+     */
+    public static void syncFile(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.force(false);
+        }
+    }
+
+    public synchronized long getFilesWritten() {
+        return filesWritten;
+    }
+
+    public synchronized long getBatchesSynced() {
+        return batchesSynced;
+    }
+
+    @Override
+    public void close() throws IOException {
+        flush();
+    }
+}
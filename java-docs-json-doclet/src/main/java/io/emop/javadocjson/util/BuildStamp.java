@@ -0,0 +1,134 @@
+package io.emop.javadocjson.util;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Fingerprint of everything a documentation run depends on, kept as a stamp file in the output directory.
+ * <p>
+ * Sources and classpath entries contribute their path, size and modification time rather than their content,
+ * so computing the fingerprint costs one file attribute read per file. When the fingerprint equals the stamp of
+ * the previous run the output is up to date. The stamp lives inside the output directory, so a build cache that
+ * restores the output restores the stamp with it, and deleting the output invalidates it.
+ */
+public class BuildStamp {
+
+    /**
+     * File name of the stamp inside {@link JsonGenerator#METADATA_DIRECTORY}.
+     */
+    public static final String STAMP_FILE = "build-stamp.txt";
+
+    private final MessageDigest digest = HashUtils.newSha256();
+    private int fileCount;
+
+    /**
+     * Add a configuration value.
+     */
+    public BuildStamp addValue(String name, Object value) {
+        update("value", name, String.valueOf(value));
+        return this;
+    }
+
+    /**
+     * Add source files; the order of the collection does not matter.
+     */
+    public BuildStamp addFiles(Collection<Path> files) throws IOException {
+        List<Path> sorted = new ArrayList<>(files);
+        Collections.sort(sorted);
+        for (Path file : sorted) {
+            addFile("file", file);
+        }
+        return this;
+    }
+
+    /**
+     * Add classpath entries in order. Directories contribute every file below them.
+     */
+    public BuildStamp addClasspath(List<String> classpath) throws IOException {
+        for (String element : classpath) {
+            Path path = Paths.get(element);
+            if (Files.isDirectory(path)) {
+                update("directory", element, "");
+                try (Stream<Path> paths = Files.walk(path)) {
+                    for (Path file : paths.filter(Files::isRegularFile).sorted().collect(Collectors.toList())) {
+                        addFile("classpath", file);
+                    }
+                }
+            } else if (Files.isRegularFile(path)) {
+                addFile("classpath", path);
+            } else {
+                update("missing", element, "");
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Number of files that contributed to the fingerprint.
+     */
+    public int getFileCount() {
+        return fileCount;
+    }
+
+    /**
+     * The fingerprint of everything added so far. The stamp cannot be extended afterwards.
+     */
+    public String fingerprint() {
+        return HashUtils.toHex(digest.digest());
+    }
+
+    /**
+     * Whether the stamp of the previous run in the output directory equals the fingerprint.
+     */
+    public static boolean matches(Path outputDirectory, String fingerprint) {
+        Path stamp = stampFile(outputDirectory);
+        try {
+            return Files.isRegularFile(stamp)
+                    && fingerprint.equals(new String(Files.readAllBytes(stamp), StandardCharsets.UTF_8).trim());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Record the fingerprint of a successful run.
+     */
+    public static void write(Path outputDirectory, String fingerprint) throws IOException {
+        Path stamp = stampFile(outputDirectory);
+        Files.createDirectories(stamp.getParent());
+        Files.write(stamp, (fingerprint + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Remove the stamp before a run, so an interrupted run is never considered up to date.
+     */
+    public static void delete(Path outputDirectory) throws IOException {
+        Files.deleteIfExists(stampFile(outputDirectory));
+    }
+
+    private static Path stampFile(Path outputDirectory) {
+        return outputDirectory.resolve(JsonGenerator.METADATA_DIRECTORY).resolve(STAMP_FILE);
+    }
+
+    private void addFile(String kind, Path file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        update(kind, file.toString(), attributes.size() + "@" + attributes.lastModifiedTime().toMillis());
+        fileCount++;
+    }
+
+    private void update(String kind, String name, String value) {
+        // NUL separators keep adjacent fields from running into each other
+        digest.update((kind + '\0' + name + '\0' + value + '\n').getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,200 @@
+package io.emop.javadocjson.util;
+
+import com.fasterxml.jackson.core.util.DefaultIndenter;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import io.emop.javadocjson.model.BaseJavadocConstructor;
+import io.emop.javadocjson.model.BaseJavadocField;
+import io.emop.javadocjson.model.BaseJavadocMethod;
+import io.emop.javadocjson.model.JavadocClass;
+import io.emop.javadocjson.model.JavadocConstructor;
+import io.emop.javadocjson.model.JavadocMethod;
+import io.emop.javadocjson.model.JavadocField;
+import io.emop.javadocjson.model.JavadocParameter;
+import io.emop.javadocjson.model.SimpleJavadocConstructor;
+import io.emop.javadocjson.model.SimpleJavadocField;
+import io.emop.javadocjson.model.SimpleJavadocMethod;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Canonical JSON output: the same documentation always serializes to the same bytes.
+ * <p>
+ * The canonical form sorts object keys and map entries, orders members by name and signature and modifiers in
+ * declaration-keyword order, normalizes line endings and trailing whitespace in documentation text, and always
+ * indents with {@code \n} line feeds regardless of the platform. Output files then only change when the
+ * documentation does, which keeps content-addressed build caches and downstream syncs effective.
+ */
+public final class CanonicalJson {
+
+    // Modifier keywords in the order of javax.lang.model.element.Modifier
+    private static final List<String> MODIFIER_ORDER = Arrays.asList("public", "protected", "private", "abstract",
+            "default", "static", "sealed", "non-sealed", "final", "transient", "volatile", "synchronized", "native",
+            "strictfp");
+
+    private static final Comparator<String> MODIFIERS = Comparator
+            .comparingInt((String modifier) -> {
+                int index = MODIFIER_ORDER.indexOf(modifier);
+                return index >= 0 ? index : MODIFIER_ORDER.size();
+            })
+            .thenComparing(Comparator.naturalOrder());
+
+    private CanonicalJson() {
+    }
+
+    /**
+     * Creates a mapper that writes sorted keys and platform independent indentation.
+     *
+     * @return a new mapper
+     */
+    public static ObjectMapper newMapper() {
+        DefaultPrettyPrinter printer = new DefaultPrettyPrinter()
+                .withObjectIndenter(new DefaultIndenter("  ", "\n"));
+        return JsonMapper.builder()
+                .findAndAddModules()
+                .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+                .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(SerializationFeature.FAIL_ON_EMPTY_BEANS)
+                .defaultPrettyPrinter(printer)
+                .build();
+    }
+
+    /**
+     * Brings a class into canonical form in place: normalized text, sorted modifiers and sorted members.
+     *
+     * @param javadocClass the class to normalize
+     * @return the same class
+     */
+    public static JavadocClass canonicalize(JavadocClass javadocClass) {
+        javadocClass.setDescription(normalizeText(javadocClass.getDescription()));
+        javadocClass.setModifiers(sortModifiers(javadocClass.getModifiers()));
+
+        for (BaseJavadocConstructor constructor : javadocClass.getConstructors()) {
+            constructor.setDescription(normalizeText(constructor.getDescription()));
+            if (constructor instanceof JavadocConstructor) {
+                JavadocConstructor detailed = (JavadocConstructor) constructor;
+                detailed.setModifiers(sortModifiers(detailed.getModifiers()));
+                normalizeParameters(detailed.getParameters());
+                normalizeValues(detailed.getExceptionDescriptions());
+                detailed.setSince(normalizeText(detailed.getSince()));
+            } else if (constructor instanceof SimpleJavadocConstructor) {
+                SimpleJavadocConstructor simple = (SimpleJavadocConstructor) constructor;
+                simple.setDetailText(normalizeText(simple.getDetailText()));
+            }
+        }
+        for (BaseJavadocMethod method : javadocClass.getMethods()) {
+            method.setDescription(normalizeText(method.getDescription()));
+            if (method instanceof JavadocMethod) {
+                JavadocMethod detailed = (JavadocMethod) method;
+                detailed.setModifiers(sortModifiers(detailed.getModifiers()));
+                normalizeParameters(detailed.getParameters());
+                detailed.setReturnDescription(normalizeText(detailed.getReturnDescription()));
+                normalizeValues(detailed.getExceptionDescriptions());
+                detailed.setSince(normalizeText(detailed.getSince()));
+            } else if (method instanceof SimpleJavadocMethod) {
+                SimpleJavadocMethod simple = (SimpleJavadocMethod) method;
+                simple.setModifierAndType(normalizeText(simple.getModifierAndType()));
+                simple.setDetailText(normalizeText(simple.getDetailText()));
+            }
+        }
+        for (BaseJavadocField field : javadocClass.getFields()) {
+            field.setDescription(normalizeText(field.getDescription()));
+            if (field instanceof JavadocField) {
+                JavadocField detailed = (JavadocField) field;
+                detailed.setModifiers(sortModifiers(detailed.getModifiers()));
+            } else if (field instanceof SimpleJavadocField) {
+                SimpleJavadocField simple = (SimpleJavadocField) field;
+                simple.setModifierAndType(normalizeText(simple.getModifierAndType()));
+            }
+        }
+
+        javadocClass.getConstructors().sort(byNameThen(BaseJavadocConstructor::getName, constructor ->
+                constructor instanceof JavadocConstructor ? ((JavadocConstructor) constructor).getSignature()
+                        : constructor instanceof SimpleJavadocConstructor ? ((SimpleJavadocConstructor) constructor).getDetailText()
+                        : constructor.getDescription()));
+        javadocClass.getMethods().sort(byNameThen(BaseJavadocMethod::getName, method ->
+                method instanceof JavadocMethod ? ((JavadocMethod) method).getSignature()
+                        : method instanceof SimpleJavadocMethod ? ((SimpleJavadocMethod) method).getDetailText()
+                        : method.getDescription()));
+        javadocClass.getFields().sort(byNameThen(BaseJavadocField::getName, BaseJavadocField::getDescription));
+        return javadocClass;
+    }
+
+    /**
+     * Unifies line endings to {@code \n}, strips trailing whitespace from every line and trims the text.
+     *
+     * @param text the text, may be null
+     * @return the normalized text, or null
+     */
+    public static String normalizeText(String text) {
+        if (text == null) {
+            return null;
+        }
+        String unified = text.indexOf('\r') < 0 ? text : text.replace("\r\n", "\n").replace('\r', '\n');
+        StringBuilder normalized = new StringBuilder(unified.length());
+        int start = 0;
+        while (start <= unified.length()) {
+            int end = unified.indexOf('\n', start);
+            if (end < 0) {
+                end = unified.length();
+            }
+            int lineEnd = end;
+            while (lineEnd > start && Character.isWhitespace(unified.charAt(lineEnd - 1))) {
+                lineEnd--;
+            }
+            if (start > 0) {
+                normalized.append('\n');
+            }
+            normalized.append(unified, start, lineEnd);
+            start = end + 1;
+        }
+        return normalized.toString().trim();
+    }
+
+    /**
+     * Modifiers in canonical order. The list is never sorted in place, because a {@link CorpusReader} shares one
+     * unmodifiable list between members; a list already in order is returned as is.
+     */
+    private static List<String> sortModifiers(List<String> modifiers) {
+        if (modifiers == null || modifiers.size() < 2) {
+            return modifiers;
+        }
+        for (int i = 1; i < modifiers.size(); i++) {
+            if (MODIFIERS.compare(modifiers.get(i - 1), modifiers.get(i)) > 0) {
+                List<String> sorted = new ArrayList<>(modifiers);
+                sorted.sort(MODIFIERS);
+                return sorted;
+            }
+        }
+        return modifiers;
+    }
+
+    private static void normalizeParameters(List<JavadocParameter> parameters) {
+        if (parameters != null) {
+            for (JavadocParameter parameter : parameters) {
+                parameter.setDescription(normalizeText(parameter.getDescription()));
+            }
+        }
+    }
+
+    private static void normalizeValues(Map<String, String> values) {
+        if (values != null) {
+            values.replaceAll((key, value) -> normalizeText(value));
+        }
+    }
+
+    private static <T> Comparator<T> byNameThen(Function<T, String> name, Function<T, String> detail) {
+        return Comparator.comparing(name, Comparator.nullsFirst(Comparator.<String>naturalOrder()))
+                .thenComparing(detail, Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+    }
+}
@@ -0,0 +1,278 @@
+package io.emop.javadocjson.util;
+
+import io.emop.javadocjson.model.BaseJavadocConstructor;
+import io.emop.javadocjson.model.BaseJavadocField;
+import io.emop.javadocjson.model.BaseJavadocMethod;
+import io.emop.javadocjson.model.JavadocClass;
+import io.emop.javadocjson.model.JavadocConstructor;
+import io.emop.javadocjson.model.JavadocField;
+import io.emop.javadocjson.model.JavadocMethod;
+import io.emop.javadocjson.model.JavadocParameter;
+import io.emop.javadocjson.model.SimpleJavadocConstructor;
+import io.emop.javadocjson.model.SimpleJavadocField;
+import io.emop.javadocjson.model.SimpleJavadocMethod;
+import lombok.Setter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a corpus file written by {@link CorpusWriter} back into the Java model.
+ * <p>
+ * Strings are decoded once from the string table, so every reference to the same string, for example the
+ * {@code java.lang.String} parameter type of thousands of methods, resolves to the same {@link String} instance;
+ * loading a corpus interns its strings without touching the JVM string table. Modifier, interface and exception
+ * lists are likewise shared between all members that have the same list. Shared lists are unmodifiable, which
+ * {@link CanonicalJson#canonicalize} respects by replacing rather than sorting them; disable
+ * {@link #setShareLists(boolean) shareLists} to get a mutable list per member. Member lists and maps are always
+ * mutable.
+ */
+public class CorpusReader {
+
+    /**
+     * Whether members with equal string lists share one unmodifiable list instance.
+     */
+    @Setter
+    private boolean shareLists = true;
+
+    private ByteBuffer buffer;
+    private String[] strings;
+    private List<String>[] lists;
+
+    /**
+     * Read all classes of a corpus file.
+     *
+     * @param file the corpus file
+     * @return the classes in the order they were added
+     * @throws IOException if the file cannot be read or is not a corpus
+     */
+    public List<JavadocClass> read(Path file) throws IOException {
+        return read(Files.readAllBytes(file));
+    }
+
+    /**
+     * Read all classes of an encoded corpus.
+     *
+     * @param content the corpus content
+     * @return the classes in the order they were added
+     * @throws IOException if the content is not a corpus
+     */
+    public synchronized List<JavadocClass> read(byte[] content) throws IOException {
+        buffer = ByteBuffer.wrap(content);
+        try {
+            byte[] magic = new byte[CorpusWriter.MAGIC.length];
+            if (content.length < magic.length) {
+                throw new IOException("Not a javadoc-json corpus");
+            }
+            buffer.get(magic);
+            if (!Arrays.equals(magic, CorpusWriter.MAGIC)) {
+                throw new IOException("Not a javadoc-json corpus");
+            }
+            int version = readVarint();
+            if (version != CorpusWriter.FORMAT_VERSION) {
+                throw new IOException("Unsupported corpus format version " + version);
+            }
+
+            strings = new String[readVarint()];
+            for (int i = 0; i < strings.length; i++) {
+                int length = readVarint();
+                strings[i] = new String(content, buffer.position(), length, StandardCharsets.UTF_8);
+                buffer.position(buffer.position() + length);
+            }
+            readLists();
+
+            int count = readVarint();
+            List<JavadocClass> classes = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int length = readVarint();
+                int end = buffer.position() + length;
+                classes.add(readClass());
+                if (buffer.position() != end) {
+                    throw new IOException("Corrupt corpus record " + i);
+                }
+            }
+            return classes;
+        } catch (RuntimeException e) {
+            // Buffer underflow or an out of range reference
+            throw new IOException("Corrupt corpus: " + e, e);
+        } finally {
+            buffer = null;
+            strings = null;
+            lists = null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readLists() {
+        lists = new List[readVarint()];
+        for (int i = 0; i < lists.length; i++) {
+            String[] values = new String[readVarint()];
+            for (int j = 0; j < values.length; j++) {
+                values[j] = readString();
+            }
+            lists[i] = values.length == 0 ? Collections.emptyList() : Collections.unmodifiableList(Arrays.asList(values));
+        }
+    }
+
+    private JavadocClass readClass() throws IOException {
+        JavadocClass javadocClass = new JavadocClass();
+        javadocClass.setName(readString());
+        javadocClass.setPackageName(readString());
+        javadocClass.setType(readString());
+        javadocClass.setDescription(readString());
+        javadocClass.setModifiers(readList());
+        javadocClass.setSuperClass(readString());
+        javadocClass.setInterfaces(readList());
+
+        int constructors = readVarint() - 1;
+        if (constructors < 0) {
+            javadocClass.setConstructors(null);
+        }
+        for (int i = 0; i < constructors; i++) {
+            javadocClass.getConstructors().add(readConstructor());
+        }
+        int methods = readVarint() - 1;
+        if (methods < 0) {
+            javadocClass.setMethods(null);
+        }
+        for (int i = 0; i < methods; i++) {
+            javadocClass.getMethods().add(readMethod());
+        }
+        int fields = readVarint() - 1;
+        if (fields < 0) {
+            javadocClass.setFields(null);
+        }
+        for (int i = 0; i < fields; i++) {
+            javadocClass.getFields().add(readField());
+        }
+        return javadocClass;
+    }
+
+    private BaseJavadocConstructor readConstructor() throws IOException {
+        int kind = readVarint();
+        if (kind == CorpusWriter.DETAILED) {
+            JavadocConstructor constructor = new JavadocConstructor();
+            constructor.setName(readString());
+            constructor.setDescription(readString());
+            constructor.setSignature(readString());
+            constructor.setModifiers(readList());
+            constructor.setParameters(readParameters());
+            constructor.setExceptions(readList());
+            constructor.setExceptionDescriptions(readMap());
+            constructor.setSince(readString());
+            return constructor;
+        } else if (kind == CorpusWriter.SIMPLE) {
+            SimpleJavadocConstructor constructor = new SimpleJavadocConstructor();
+            constructor.setName(readString());
+            constructor.setDescription(readString());
+            constructor.setDetailText(readString());
+            return constructor;
+        }
+        throw new IOException("Unknown constructor kind " + kind);
+    }
+
+    private BaseJavadocMethod readMethod() throws IOException {
+        int kind = readVarint();
+        if (kind == CorpusWriter.DETAILED) {
+            JavadocMethod method = new JavadocMethod();
+            method.setName(readString());
+            method.setDescription(readString());
+            method.setSignature(readString());
+            method.setModifiers(readList());
+            method.setReturnType(readString());
+            method.setParameters(readParameters());
+            method.setExceptions(readList());
+            method.setReturnDescription(readString());
+            method.setExceptionDescriptions(readMap());
+            method.setSince(readString());
+            return method;
+        } else if (kind == CorpusWriter.SIMPLE) {
+            SimpleJavadocMethod method = new SimpleJavadocMethod();
+            method.setName(readString());
+            method.setDescription(readString());
+            method.setModifierAndType(readString());
+            method.setDetailText(readString());
+            return method;
+        }
+        throw new IOException("Unknown method kind " + kind);
+    }
+
+    private BaseJavadocField readField() throws IOException {
+        int kind = readVarint();
+        if (kind == CorpusWriter.DETAILED) {
+            JavadocField field = new JavadocField();
+            field.setName(readString());
+            field.setDescription(readString());
+            field.setType(readString());
+            field.setModifiers(readList());
+            field.setDefaultValue(readString());
+            return field;
+        } else if (kind == CorpusWriter.SIMPLE) {
+            SimpleJavadocField field = new SimpleJavadocField();
+            field.setName(readString());
+            field.setDescription(readString());
+            field.setModifierAndType(readString());
+            return field;
+        }
+        throw new IOException("Unknown field kind " + kind);
+    }
+
+    private List<JavadocParameter> readParameters() {
+        int size = readVarint() - 1;
+        if (size < 0) {
+            return null;
+        }
+        List<JavadocParameter> parameters = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            parameters.add(new JavadocParameter(readString(), readString(), readString()));
+        }
+        return parameters;
+    }
+
+    private Map<String, String> readMap() {
+        int size = readVarint() - 1;
+        if (size < 0) {
+            return null;
+        }
+        Map<String, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            map.put(readString(), readString());
+        }
+        return map;
+    }
+
+    private List<String> readList() {
+        int ref = readVarint();
+        if (ref == 0) {
+            return null;
+        }
+        List<String> list = lists[ref - 1];
+        return shareLists ? list : new ArrayList<>(list);
+    }
+
+    private String readString() {
+        int ref = readVarint();
+        return ref == 0 ? null : strings[ref - 1];
+    }
+
+    private int readVarint() {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+}
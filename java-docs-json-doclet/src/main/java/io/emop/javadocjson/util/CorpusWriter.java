@@ -0,0 +1,310 @@
+package io.emop.javadocjson.util;
+
+import io.emop.javadocjson.model.BaseJavadocConstructor;
+import io.emop.javadocjson.model.BaseJavadocField;
+import io.emop.javadocjson.model.BaseJavadocMethod;
+import io.emop.javadocjson.model.JavadocClass;
+import io.emop.javadocjson.model.JavadocConstructor;
+import io.emop.javadocjson.model.JavadocField;
+import io.emop.javadocjson.model.JavadocMethod;
+import io.emop.javadocjson.model.JavadocParameter;
+import io.emop.javadocjson.model.SimpleJavadocConstructor;
+import io.emop.javadocjson.model.SimpleJavadocField;
+import io.emop.javadocjson.model.SimpleJavadocMethod;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Writes many classes into one compact binary corpus file, read back with {@link CorpusReader}.
+ * <p>
+ * Type names, modifiers and other strings repeat across a corpus far more often than they vary. Every distinct
+ * string is therefore stored once in a global string table and referenced by its index, and every distinct string
+ * list (modifiers, interfaces, exceptions) once in a list table. All integers are unsigned LEB128 varints, so most
+ * references take one or two bytes. The file layout is:
+ * <pre>
+ * "JDJC" format-version
+ * string-count  (utf8-length utf8-bytes)*
+ * list-count    (size string-ref*)*
+ * class-count   (record-length record)*
+ * </pre>
+ * A reference is 0 for null and index + 1 otherwise; collections are written as 0 for null or size + 1 followed
+ * by their elements, members with a leading kind ({@link #DETAILED} or {@link #SIMPLE}). Class records are
+ * length-prefixed so a reader can skip them without decoding. Properties the JSON output leaves out when empty,
+ * such as {@code since} or {@code exceptionDescriptions}, are stored as null, so a class loaded from a corpus
+ * equals the same class loaded from its JSON file.
+ * <p>
+ * Records are encoded as classes are added and kept in memory in encoded form; the tables are only complete after
+ * the last class, so the file is written by {@link #writeTo(Path)}. Instances are thread-safe.
+ */
+public class CorpusWriter {
+
+    static final byte[] MAGIC = {'J', 'D', 'J', 'C'};
+    static final int FORMAT_VERSION = 1;
+    static final int DETAILED = 1;
+    static final int SIMPLE = 2;
+
+    private final Map<String, Integer> strings = new HashMap<>();
+    private final List<String> stringTable = new ArrayList<>();
+    private final Map<List<String>, Integer> lists = new HashMap<>();
+    private final List<List<String>> listTable = new ArrayList<>();
+    private final ByteArrayOutputStream records = new ByteArrayOutputStream(1 << 16);
+    private final ByteArrayOutputStream record = new ByteArrayOutputStream(1 << 12);
+    private int classCount;
+
+    /**
+     * Encode a class and append it to the corpus.
+     *
+     * @param javadocClass the class to add
+     * @return the size of the encoded record in bytes, without the strings it added to the table
+     */
+    public synchronized int add(JavadocClass javadocClass) {
+        record.reset();
+        writeString(javadocClass.getName());
+        writeString(javadocClass.getPackageName());
+        writeString(javadocClass.getType());
+        writeString(javadocClass.getDescription());
+        writeList(javadocClass.getModifiers());
+        writeString(javadocClass.getSuperClass());
+        writeList(javadocClass.getInterfaces());
+
+        writeSize(javadocClass.getConstructors());
+        if (javadocClass.getConstructors() != null) {
+            for (BaseJavadocConstructor constructor : javadocClass.getConstructors()) {
+                writeConstructor(constructor);
+            }
+        }
+        writeSize(javadocClass.getMethods());
+        if (javadocClass.getMethods() != null) {
+            for (BaseJavadocMethod method : javadocClass.getMethods()) {
+                writeMethod(method);
+            }
+        }
+        writeSize(javadocClass.getFields());
+        if (javadocClass.getFields() != null) {
+            for (BaseJavadocField field : javadocClass.getFields()) {
+                writeField(field);
+            }
+        }
+
+        writeVarint(records, record.size());
+        records.write(record.toByteArray(), 0, record.size());
+        classCount++;
+        return record.size();
+    }
+
+    private void writeConstructor(BaseJavadocConstructor constructor) {
+        if (constructor instanceof JavadocConstructor) {
+            JavadocConstructor detailed = (JavadocConstructor) constructor;
+            writeVarint(record, DETAILED);
+            writeString(detailed.getName());
+            writeString(detailed.getDescription());
+            writeString(detailed.getSignature());
+            writeList(detailed.getModifiers());
+            writeParameters(detailed.getParameters());
+            writeList(detailed.getExceptions());
+            writeMap(detailed.getExceptionDescriptions());
+            writeOptionalString(detailed.getSince());
+        } else if (constructor instanceof SimpleJavadocConstructor) {
+            SimpleJavadocConstructor simple = (SimpleJavadocConstructor) constructor;
+            writeVarint(record, SIMPLE);
+            writeString(simple.getName());
+            writeString(simple.getDescription());
+            writeString(simple.getDetailText());
+        } else {
+            throw new IllegalArgumentException("Unsupported constructor type: " + describe(constructor));
+        }
+    }
+
+    private void writeMethod(BaseJavadocMethod method) {
+        if (method instanceof JavadocMethod) {
+            JavadocMethod detailed = (JavadocMethod) method;
+            writeVarint(record, DETAILED);
+            writeString(detailed.getName());
+            writeString(detailed.getDescription());
+            writeString(detailed.getSignature());
+            writeList(detailed.getModifiers());
+            writeString(detailed.getReturnType());
+            writeParameters(detailed.getParameters());
+            writeList(detailed.getExceptions());
+            writeOptionalString(detailed.getReturnDescription());
+            writeMap(detailed.getExceptionDescriptions());
+            writeOptionalString(detailed.getSince());
+        } else if (method instanceof SimpleJavadocMethod) {
+            SimpleJavadocMethod simple = (SimpleJavadocMethod) method;
+            writeVarint(record, SIMPLE);
+            writeString(simple.getName());
+            writeString(simple.getDescription());
+            writeString(simple.getModifierAndType());
+            writeString(simple.getDetailText());
+        } else {
+            throw new IllegalArgumentException("Unsupported method type: " + describe(method));
+        }
+    }
+
+    private void writeField(BaseJavadocField field) {
+        if (field instanceof JavadocField) {
+            JavadocField detailed = (JavadocField) field;
+            writeVarint(record, DETAILED);
+            writeString(detailed.getName());
+            writeString(detailed.getDescription());
+            writeString(detailed.getType());
+            writeList(detailed.getModifiers());
+            writeString(detailed.getDefaultValue());
+        } else if (field instanceof SimpleJavadocField) {
+            SimpleJavadocField simple = (SimpleJavadocField) field;
+            writeVarint(record, SIMPLE);
+            writeString(simple.getName());
+            writeString(simple.getDescription());
+            writeString(simple.getModifierAndType());
+        } else {
+            throw new IllegalArgumentException("Unsupported field type: " + describe(field));
+        }
+    }
+
+    private void writeParameters(List<JavadocParameter> parameters) {
+        writeSize(parameters);
+        if (parameters != null) {
+            for (JavadocParameter parameter : parameters) {
+                writeString(parameter.getName());
+                writeString(parameter.getType());
+                writeString(parameter.getDescription());
+            }
+        }
+    }
+
+    private void writeMap(Map<String, String> map) {
+        // Omitted from the JSON when empty, like the optional strings
+        writeVarint(record, map == null || map.isEmpty() ? 0 : map.size() + 1);
+        if (map != null) {
+            for (Map.Entry<String, String> entry : map.entrySet()) {
+                writeString(entry.getKey());
+                writeString(entry.getValue());
+            }
+        }
+    }
+
+    private void writeSize(List<?> list) {
+        writeVarint(record, list == null ? 0 : list.size() + 1);
+    }
+
+    private void writeString(String value) {
+        writeVarint(record, value == null ? 0 : intern(value) + 1);
+    }
+
+    /**
+     * A property the JSON output omits when empty, stored as null so a corpus loads like the JSON files.
+     */
+    private void writeOptionalString(String value) {
+        writeString(value == null || value.isEmpty() ? null : value);
+    }
+
+    private void writeList(List<String> list) {
+        if (list == null) {
+            writeVarint(record, 0);
+            return;
+        }
+        Integer index = lists.get(list);
+        if (index == null) {
+            List<String> copy = new ArrayList<>(list);
+            for (String value : copy) {
+                intern(value);
+            }
+            index = listTable.size();
+            listTable.add(copy);
+            lists.put(copy, index);
+        }
+        writeVarint(record, index + 1);
+    }
+
+    private int intern(String value) {
+        Integer index = strings.get(value);
+        if (index == null) {
+            index = stringTable.size();
+            stringTable.add(value);
+            strings.put(value, index);
+        }
+        return index;
+    }
+
+    private static String describe(Object member) {
+        return member == null ? "null" : member.getClass().getName();
+    }
+
+    /**
+     * Write the corpus to a file, replacing it atomically.
+     *
+     * @param file the corpus file
+     * @return the size of the file in bytes
+     * @throws IOException if the file cannot be written
+     */
+    public synchronized long writeTo(Path file) throws IOException {
+        Path target = file.toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        Path temp = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16)) {
+                writeTo(out);
+            }
+            BatchedFileWriter.syncFile(temp);
+            FileUtils.moveAtomically(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        BatchedFileWriter.syncDirectory(target.getParent());
+        return Files.size(target);
+    }
+
+    /**
+     * Write the corpus to a stream.
+     */
+    public synchronized void writeTo(OutputStream out) throws IOException {
+        out.write(MAGIC);
+        writeVarint(out, FORMAT_VERSION);
+        writeVarint(out, stringTable.size());
+        for (String value : stringTable) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(out, bytes.length);
+            out.write(bytes);
+        }
+        writeVarint(out, listTable.size());
+        for (List<String> list : listTable) {
+            writeVarint(out, list.size());
+            for (String value : list) {
+                writeVarint(out, value == null ? 0 : strings.get(value) + 1);
+            }
+        }
+        writeVarint(out, classCount);
+        records.writeTo(out);
+    }
+
+    public synchronized int getClassCount() {
+        return classCount;
+    }
+
+    public synchronized int getStringCount() {
+        return stringTable.size();
+    }
+
+    private static void writeVarint(OutputStream out, int value) {
+        try {
+            while ((value & ~0x7F) != 0) {
+                out.write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.write(value);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
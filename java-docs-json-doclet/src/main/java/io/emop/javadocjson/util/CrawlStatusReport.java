@@ -0,0 +1,54 @@
+package io.emop.javadocjson.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.Data;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Completion status of a crawl, written next to the class files so consumers can tell a complete
+ * output from one that was cut short by the time budget.
+ */
+@Data
+public class CrawlStatusReport {
+
+    /**
+     * File name of the status report inside {@link JsonGenerator#METADATA_DIRECTORY}.
+     */
+    public static final String STATUS_FILE = "crawl-status.json";
+
+    public enum Status {
+        /** Every discovered class was processed. */
+        COMPLETE,
+        /** The time budget ran out; the written classes are valid but some classes are missing. */
+        PARTIAL,
+        /** The crawl produced no classes. */
+        FAILED
+    }
+
+    private Status status;
+    private String baseUrl;
+    private String startedAt;
+    private String finishedAt;
+    private long durationMillis;
+    private int classesWritten;
+    private int classesFailed;
+    private int classesNotCrawled;
+
+    /**
+     * Writes the report into the metadata directory of an output directory.
+     *
+     * @param outputDirectory The class output directory
+     * @param fileName        The report file name, normally {@link #STATUS_FILE}
+     * @throws IOException if the report cannot be written
+     */
+    public void writeTo(File outputDirectory, String fileName) throws IOException {
+        File file = new File(new File(outputDirectory, JsonGenerator.METADATA_DIRECTORY), fileName);
+        file.getParentFile().mkdirs();
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.enable(SerializationFeature.INDENT_OUTPUT);
+        mapper.writeValue(file, this);
+    }
+}
@@ -0,0 +1,54 @@
+package io.emop.javadocjson.util;
+
+import java.time.Duration;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * Parses duration parameters of the Maven goals.
+ */
+public final class Durations {
+
+    private Durations() {
+    }
+
+    /**
+     * Parses a duration such as {@code 500ms}, {@code 90s}, {@code 30m}, {@code 2h} or ISO-8601 {@code PT30M}.
+     * A bare number is read as seconds.
+     *
+     * @param text the duration text
+     * @return the duration in milliseconds, or 0 if the text is empty
+     * @throws IllegalArgumentException if the text is not a valid duration
+     */
+    public static long parseMillis(String text) {
+        if (text == null || text.trim().isEmpty()) {
+            return 0;
+        }
+        String value = text.trim().toLowerCase(Locale.ROOT);
+        try {
+            if (value.startsWith("p")) {
+                return Duration.parse(value.toUpperCase(Locale.ROOT)).toMillis();
+            }
+            if (value.endsWith("ms")) {
+                return Long.parseLong(value.substring(0, value.length() - 2).trim());
+            }
+            char unit = value.charAt(value.length() - 1);
+            if (Character.isDigit(unit)) {
+                return Long.parseLong(value) * 1000L;
+            }
+            long amount = Long.parseLong(value.substring(0, value.length() - 1).trim());
+            switch (unit) {
+                case 's':
+                    return amount * 1000L;
+                case 'm':
+                    return amount * 60_000L;
+                case 'h':
+                    return amount * 3_600_000L;
+                default:
+                    throw new IllegalArgumentException("Unknown duration unit in: " + text);
+            }
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid duration: " + text, e);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package io.emop.javadocjson.util;
+
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileAttribute;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * File helpers shared by the caches, coordinators and output writers.
+ */
+public final class FileUtils {
+
+    private FileUtils() {
+    }
+
+    /**
+     * Write a file through a temporary sibling so readers never see partial content.
+     *
+     * @param target     the file to write
+     * @param content    the complete content
+     * @param attributes attributes the temporary file is created with, e.g. POSIX permissions
+     * @throws IOException if the file cannot be written
+     */
+    public static void writeAtomically(Path target, byte[] content, FileAttribute<?>... attributes)
+            throws IOException {
+        Path parent = target.toAbsolutePath().getParent();
+        Path temp = Files.createTempFile(parent, target.getFileName().toString(), ".tmp", attributes);
+        try {
+            Files.write(temp, content);
+            moveAtomically(temp, target);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Move a completely written file over the target, atomically where the file system supports it.
+     *
+     * @param source the completely written file
+     * @param target the file to replace
+     * @throws IOException if the file cannot be moved
+     */
+    public static void moveAtomically(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Delete a file or directory tree; a symbolic link is removed without following it.
+     *
+     * @param path the file or directory to delete, which may not exist
+     * @throws IOException if an entry cannot be deleted
+     */
+    public static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        List<Path> entries;
+        try (Stream<Path> paths = Files.walk(path)) {
+            entries = paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+        }
+        for (Path entry : entries) {
+            Files.deleteIfExists(entry);
+        }
+    }
+}
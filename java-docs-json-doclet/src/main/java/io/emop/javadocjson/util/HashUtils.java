@@ -0,0 +1,65 @@
+package io.emop.javadocjson.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Hashing helpers shared by the caches and output writers.
+ */
+public final class HashUtils {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private HashUtils() {
+    }
+
+    /**
+     * Computes the SHA-256 digest of the given bytes.
+     *
+     * @param data the bytes to hash
+     * @return lower-case hex encoded digest
+     */
+    public static String sha256Hex(byte[] data) {
+        return toHex(newSha256().digest(data));
+    }
+
+    /**
+     * Computes the SHA-256 digest of the UTF-8 encoding of the given text.
+     *
+     * @param text the text to hash
+     * @return lower-case hex encoded digest
+     */
+    public static String sha256Hex(String text) {
+        return sha256Hex(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Creates a new SHA-256 message digest for incremental hashing.
+     *
+     * @return a fresh digest instance
+     */
+    public static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Encodes bytes as lower-case hex.
+     *
+     * @param bytes the bytes to encode
+     * @return hex string
+     */
+    public static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            int v = bytes[i] & 0xFF;
+            chars[i * 2] = HEX[v >>> 4];
+            chars[i * 2 + 1] = HEX[v & 0x0F];
+        }
+        return new String(chars);
+    }
+}
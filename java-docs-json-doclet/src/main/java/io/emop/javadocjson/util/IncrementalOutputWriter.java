@@ -0,0 +1,185 @@
+package io.emop.javadocjson.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.emop.javadocjson.model.JavadocClass;
+import lombok.Data;
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes class JSON files into an existing output directory, touching only what changed.
+ * <p>
+ * Each new class is compared by content hash against the file already on disk; byte-identical files are
+ * left alone, and classes that are no longer produced can be deleted. Classes that failed in this run are
+ * {@link #keep(String) kept} instead, so a transient error does not delete valid output. The outcome is
+ * recorded in a change manifest so consumers can reload incrementally.
+ */
+public class IncrementalOutputWriter {
+
+    /**
+     * File name of the change manifest inside {@link JsonGenerator#METADATA_DIRECTORY}.
+     */
+    public static final String MANIFEST_FILE = "changes.json";
+
+    private final Log log;
+    private final JsonGenerator generator;
+    private final File outputDirectory;
+
+    // Existing output files by class full name, removed from the map once the class is written again
+    private final Map<String, Path> previousFiles = new HashMap<>();
+    private final Set<String> written = new HashSet<>();
+    private final ChangeSet changeSet = new ChangeSet();
+    private String manifestName = MANIFEST_FILE;
+    private BatchedFileWriter fileWriter = new BatchedFileWriter(0);
+
+    public IncrementalOutputWriter(Log log, JsonGenerator generator, File outputDirectory) throws IOException {
+        this.log = log;
+        this.generator = generator;
+        this.outputDirectory = outputDirectory;
+        scanExistingOutput();
+    }
+
+    private void scanExistingOutput() throws IOException {
+        Path dir = outputDirectory.toPath();
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*.json")) {
+            for (Path file : stream) {
+                if (Files.isRegularFile(file)) {
+                    String fileName = file.getFileName().toString();
+                    previousFiles.put(fileName.substring(0, fileName.length() - ".json".length()), file);
+                }
+            }
+        }
+        log.debug("Found " + previousFiles.size() + " existing class files in " + outputDirectory);
+    }
+
+    /**
+     * Sets the manifest file name, used when several writers share one output directory.
+     *
+     * @param manifestName The file name inside {@link JsonGenerator#METADATA_DIRECTORY}
+     */
+    public void setManifestName(String manifestName) {
+        this.manifestName = manifestName;
+    }
+
+    /**
+     * Sets the writer used for class files, e.g. one that forces them to disk in batches.
+     *
+     * @param fileWriter The writer, flushed by {@link #finish(boolean)}
+     */
+    public void setFileWriter(BatchedFileWriter fileWriter) {
+        this.fileWriter = fileWriter;
+    }
+
+    /**
+     * Writes a class unless the existing file already has identical content.
+     *
+     * @param javadocClass The class to write
+     * @throws IOException if the file cannot be read or written
+     */
+    public void write(JavadocClass javadocClass) throws IOException {
+        String fullName = javadocClass.getFullName();
+        byte[] content = generator.toJsonBytes(javadocClass);
+        Path target = outputDirectory.toPath().resolve(fullName + ".json");
+
+        Path previous = previousFiles.remove(fullName);
+        if (!written.add(fullName)) {
+            log.debug("Class written more than once in this run: " + fullName);
+        } else if (previous == null) {
+            changeSet.getAdded().add(fullName);
+        } else if (isSameContent(previous, content)) {
+            changeSet.setUnchangedCount(changeSet.getUnchangedCount() + 1);
+            return;
+        } else {
+            changeSet.getChanged().add(fullName);
+        }
+
+        fileWriter.write(target, content);
+    }
+
+    /**
+     * Keeps the existing file of a class that could not be produced in this run, e.g. because its page failed
+     * to load, instead of deleting it as missing.
+     *
+     * @param fullName The full name of the class
+     */
+    public void keep(String fullName) {
+        if (!written.contains(fullName) && previousFiles.remove(fullName) != null) {
+            changeSet.getKept().add(fullName);
+        }
+    }
+
+    private static boolean isSameContent(Path existing, byte[] content) throws IOException {
+        // Sizes differ for most real changes, so only hash when they match
+        if (Files.size(existing) != content.length) {
+            return false;
+        }
+        return HashUtils.sha256Hex(Files.readAllBytes(existing)).equals(HashUtils.sha256Hex(content));
+    }
+
+    /**
+     * Completes the run: optionally deletes classes that were not written again and writes the change manifest.
+     *
+     * @param removeMissing whether to delete output files of classes that disappeared
+     * @return the recorded changes
+     * @throws IOException if files cannot be deleted or the manifest cannot be written
+     */
+    public ChangeSet finish(boolean removeMissing) throws IOException {
+        if (removeMissing) {
+            List<String> missing = new ArrayList<>(previousFiles.keySet());
+            Collections.sort(missing);
+            for (String fullName : missing) {
+                Files.deleteIfExists(previousFiles.get(fullName));
+                changeSet.getRemoved().add(fullName);
+            }
+        } else if (!previousFiles.isEmpty()) {
+            log.info("Keeping " + previousFiles.size() + " class files that were not produced by this run");
+        }
+        previousFiles.clear();
+        fileWriter.flush();
+
+        Collections.sort(changeSet.getAdded());
+        Collections.sort(changeSet.getChanged());
+        Collections.sort(changeSet.getKept());
+
+        File manifest = new File(new File(outputDirectory, JsonGenerator.METADATA_DIRECTORY), manifestName);
+        manifest.getParentFile().mkdirs();
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.enable(SerializationFeature.INDENT_OUTPUT);
+        mapper.writeValue(manifest, changeSet);
+
+        log.info(String.format("Output changes: %d added, %d changed, %d removed, %d unchanged, %d kept after errors",
+                changeSet.getAdded().size(), changeSet.getChanged().size(),
+                changeSet.getRemoved().size(), changeSet.getUnchangedCount(), changeSet.getKept().size()));
+        return changeSet;
+    }
+
+    /**
+     * Change manifest of one output run, listing class full names.
+     */
+    @Data
+    public static class ChangeSet {
+        private List<String> added = new ArrayList<>();
+        private List<String> changed = new ArrayList<>();
+        private List<String> removed = new ArrayList<>();
+        // Classes that failed in this run and keep their previous output
+        private List<String> kept = new ArrayList<>();
+        private int unchangedCount;
+    }
+}
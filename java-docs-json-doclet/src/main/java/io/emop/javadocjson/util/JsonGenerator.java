@@ -1,9 +1,20 @@
 package io.emop.javadocjson.util;
 
+import io.emop.javadocjson.jfr.JfrSupport;
+import io.emop.javadocjson.jfr.JsonWriteEvent;
+import io.emop.javadocjson.model.BaseJavadocConstructor;
+import io.emop.javadocjson.model.BaseJavadocField;
+import io.emop.javadocjson.model.BaseJavadocMethod;
 import io.emop.javadocjson.model.JavadocClass;
 import io.emop.javadocjson.model.JavadocMethod;
 import io.emop.javadocjson.model.JavadocField;
 import io.emop.javadocjson.model.JavadocConstructor;
+import io.emop.javadocjson.model.SimpleJavadocConstructor;
+import io.emop.javadocjson.model.SimpleJavadocField;
+import io.emop.javadocjson.model.SimpleJavadocMethod;
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
@@ -21,9 +32,38 @@ import java.util.List;
  * Provides enhanced formatting and compatibility with mcp-javadoc-search.
  */
 public class JsonGenerator {
+
+    /**
+     * Name of the sub directory of an output directory holding run metadata such as change manifests.
+     * It is hidden and not a JSON file, so loaders scanning the output directory ignore it.
+     */
+    public static final String METADATA_DIRECTORY = ".javadoc-json";
     
-    private final ObjectMapper objectMapper;
+    // Member types are told apart by their properties, e.g. signature versus detailText
+    @JsonTypeInfo(use = JsonTypeInfo.Id.DEDUCTION, defaultImpl = JavadocMethod.class)
+    @JsonSubTypes({@JsonSubTypes.Type(JavadocMethod.class), @JsonSubTypes.Type(SimpleJavadocMethod.class)})
+    private interface MethodMixin {
+    }
+
+    @JsonTypeInfo(use = JsonTypeInfo.Id.DEDUCTION, defaultImpl = JavadocConstructor.class)
+    @JsonSubTypes({@JsonSubTypes.Type(JavadocConstructor.class), @JsonSubTypes.Type(SimpleJavadocConstructor.class)})
+    private interface ConstructorMixin {
+    }
+
+    @JsonTypeInfo(use = JsonTypeInfo.Id.DEDUCTION, defaultImpl = JavadocField.class)
+    @JsonSubTypes({@JsonSubTypes.Type(JavadocField.class), @JsonSubTypes.Type(SimpleJavadocField.class)})
+    private interface FieldMixin {
+    }
+
+    private static final ObjectMapper READER = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .addMixIn(BaseJavadocMethod.class, MethodMixin.class)
+            .addMixIn(BaseJavadocConstructor.class, ConstructorMixin.class)
+            .addMixIn(BaseJavadocField.class, FieldMixin.class);
+
+    private ObjectMapper objectMapper;
     private boolean mcpCompatible = true;
+    private boolean canonical;
 
     public JsonGenerator() {
         this.objectMapper = new ObjectMapper();
@@ -40,6 +80,18 @@ public class JsonGenerator {
     public void setMcpCompatible(boolean mcpCompatible) {
         this.mcpCompatible = mcpCompatible;
     }
+
+    /**
+     * Set canonical mode, writing byte-identical output for identical documentation.
+     *
+     * @param canonical whether to write canonical JSON, see {@link CanonicalJson}
+     */
+    public void setCanonical(boolean canonical) {
+        this.canonical = canonical;
+        if (canonical) {
+            this.objectMapper = CanonicalJson.newMapper();
+        }
+    }
     
 
     
@@ -57,25 +109,108 @@ public class JsonGenerator {
             parentDir.mkdirs();
         }
         
-        if (mcpCompatible) {
-            writeEnhancedClassFormat(javadocClass, outputFile);
-        } else {
-            objectMapper.writeValue(outputFile, javadocClass);
+        JsonWriteEvent event = JfrSupport.AVAILABLE ? new JsonWriteEvent() : null;
+        if (event != null) {
+            event.begin();
         }
+        byte[] content = serialize(javadocClass);
+        Files.write(outputFile.toPath(), content);
+        commitWriteEvent(event, javadocClass, outputFile.getPath(), content.length);
     }
-    
 
-    
+    /**
+     * Write individual JavadocClass to JSON file through a batched writer, which replaces an existing file
+     * instead of overwriting it in place.
+     *
+     * @param javadocClass the JavadocClass object to serialize
+     * @param outputFile the target file
+     * @param fileWriter the writer that makes the file durable
+     * @throws IOException if writing fails
+     */
+    public void writeClassToFile(JavadocClass javadocClass, File outputFile, BatchedFileWriter fileWriter) throws IOException {
+        JsonWriteEvent event = JfrSupport.AVAILABLE ? new JsonWriteEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        byte[] content = serialize(javadocClass);
+        fileWriter.write(outputFile.toPath(), content);
+        commitWriteEvent(event, javadocClass, outputFile.getPath(), content.length);
+    }
 
-    
     /**
-     * Write enhanced format for individual class with MCP compatibility.
+     * Write individual JavadocClass as an entry of an archive.
+     *
+     * @param javadocClass the JavadocClass object to serialize
+     * @param entryName the entry name, usually the class full name with a {@code .json} extension
+     * @param archive the archive being written
+     * @throws IOException if writing fails
      */
-    private void writeEnhancedClassFormat(JavadocClass javadocClass, File outputFile) throws IOException {
-        String jsonContent = createEnhancedClassFormat(javadocClass);
-        Files.write(outputFile.toPath(), jsonContent.getBytes(StandardCharsets.UTF_8));
+    public void writeClassToArchive(JavadocClass javadocClass, String entryName, ZipOutputSink archive) throws IOException {
+        JsonWriteEvent event = JfrSupport.AVAILABLE ? new JsonWriteEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        byte[] content = serialize(javadocClass);
+        archive.write(entryName, content);
+        commitWriteEvent(event, javadocClass, archive.getArchive() + "!/" + entryName, content.length);
+    }
+
+    /**
+     * Serialize a JavadocClass to the bytes that {@link #writeClassToFile} would write.
+     *
+     * @param javadocClass the JavadocClass object to serialize
+     * @return UTF-8 encoded JSON
+     * @throws IOException if serialization fails
+     */
+    public byte[] toJsonBytes(JavadocClass javadocClass) throws IOException {
+        JsonWriteEvent event = JfrSupport.AVAILABLE ? new JsonWriteEvent() : null;
+        if (event != null) {
+            event.begin();
+        }
+        byte[] content = serialize(javadocClass);
+        commitWriteEvent(event, javadocClass, "", content.length);
+        return content;
+    }
+
+    /**
+     * Read a class JSON file back into the model. Both the plain and the MCP compatible format are accepted; the
+     * extra MCP properties such as {@code searchKeywords} are ignored.
+     *
+     * @param inputFile a file written by {@link #writeClassToFile}
+     * @return the class
+     * @throws IOException if the file cannot be read or parsed
+     */
+    public static JavadocClass readClassFromFile(File inputFile) throws IOException {
+        return READER.readValue(inputFile, JavadocClass.class);
+    }
+
+    private byte[] serialize(JavadocClass javadocClass) throws IOException {
+        if (canonical) {
+            CanonicalJson.canonicalize(javadocClass);
+        }
+        if (mcpCompatible) {
+            return createEnhancedClassFormat(javadocClass).getBytes(StandardCharsets.UTF_8);
+        }
+        return objectMapper.writeValueAsBytes(javadocClass);
+    }
+
+    private static void commitWriteEvent(JsonWriteEvent event, JavadocClass javadocClass, String file, long bytes) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.setClassName(javadocClass.getFullName());
+            event.setFile(file);
+            event.setBytes(bytes);
+            event.commit();
+        }
     }
     
+
+    
+
+    
     /**
      * Create enhanced JSON format for individual class with MCP compatibility.
      */
@@ -89,7 +224,11 @@ public class JsonGenerator {
         mcpMetadata.put("compatible", "mcp-javadoc-search");
         mcpMetadata.put("className", javadocClass.getFullName());
         classNode.set("mcpMetadata", mcpMetadata);
-        
+
+        if (canonical) {
+            // Tree nodes keep insertion order; as plain maps the mapper sorts every level by key
+            return objectMapper.writeValueAsString(objectMapper.convertValue(classNode, Object.class));
+        }
         return objectMapper.writeValueAsString(classNode);
     }
     
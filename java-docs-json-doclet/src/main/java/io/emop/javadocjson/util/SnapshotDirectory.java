@@ -0,0 +1,203 @@
+package io.emop.javadocjson.util;
+
+import org.apache.maven.plugin.logging.Log;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Publishes an output directory as a whole, so readers never see a half-written or mixed generation.
+ * <p>
+ * A run writes into a staging directory next to the output, {@code .<name>.snapshots/staging-*}, which is seeded
+ * with the current output: class files are hard-linked (copied where links are not supported) and the
+ * {@link JsonGenerator#METADATA_DIRECTORY} is copied, so a run that only updates some classes behaves as if it
+ * wrote in place. Files are always replaced rather than modified (see {@link BatchedFileWriter}), which leaves
+ * the published snapshot untouched while the next one is written.
+ * <p>
+ * {@link #publish(Path)} turns the output path into a symbolic link to the new snapshot with a single atomic
+ * rename. A reader that resolves the output directory once ({@link Path#toRealPath}) keeps a consistent view
+ * even while the next snapshot is published; the previous snapshot is kept for such readers and older ones are
+ * deleted. The first publish moves an existing real output directory aside, so the output path is briefly
+ * missing once. Where symbolic links cannot be created the snapshot is renamed into place instead, which is
+ * atomic per rename but leaves a short window without output.
+ * <p>
+ * Only one writer may stage an output directory at a time.
+ */
+public class SnapshotDirectory {
+
+    /**
+     * Suffix of the hidden sibling directory holding the snapshots of an output directory.
+     */
+    public static final String SNAPSHOTS_SUFFIX = ".snapshots";
+
+    private static final String STAGING_PREFIX = "staging-";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String LINK_PREFIX = "link-";
+
+    private final Log log;
+    private final Path live;
+    private final Path snapshots;
+
+    public SnapshotDirectory(Log log, Path live) {
+        this.log = log;
+        this.live = live.toAbsolutePath().normalize();
+        this.snapshots = this.live.resolveSibling("." + this.live.getFileName() + SNAPSHOTS_SUFFIX);
+    }
+
+    /**
+     * Create a staging directory seeded with the current output.
+     *
+     * @return the directory to write the next generation into
+     * @throws IOException if the staging directory cannot be created
+     */
+    public Path stage() throws IOException {
+        Files.createDirectories(snapshots);
+        // Left behind by runs that crashed before publishing
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(snapshots, "{" + STAGING_PREFIX + "," + LINK_PREFIX + "}*")) {
+            for (Path stale : stream) {
+                FileUtils.deleteRecursively(stale);
+            }
+        }
+        Path staged = snapshots.resolve(STAGING_PREFIX + UUID.randomUUID());
+        Files.createDirectory(staged);
+        if (Files.isDirectory(live)) {
+            int[] linked = new int[2];
+            Path source = live.toRealPath();
+            Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    Files.createDirectories(staged.resolve(source.relativize(dir).toString()));
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                    Path relative = source.relativize(file);
+                    Path target = staged.resolve(relative.toString());
+                    if (!relative.startsWith(JsonGenerator.METADATA_DIRECTORY)) {
+                        try {
+                            Files.createLink(target, file);
+                            linked[0]++;
+                            return FileVisitResult.CONTINUE;
+                        } catch (IOException | UnsupportedOperationException e) {
+                            // Fall back to copying
+                        }
+                    }
+                    Files.copy(file, target, StandardCopyOption.COPY_ATTRIBUTES);
+                    if (!relative.startsWith(JsonGenerator.METADATA_DIRECTORY)) {
+                        BatchedFileWriter.syncFile(target);
+                    }
+                    linked[1]++;
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            log.debug(String.format("Staged %s with %d linked and %d copied files", staged, linked[0], linked[1]));
+        }
+        return staged;
+    }
+
+    /**
+     * Make a staged directory the output. Files written with a {@link BatchedFileWriter} must be flushed first;
+     * copied files and every directory of the snapshot are forced to disk here, before the switch.
+     *
+     * @param staged a directory returned by {@link #stage()}
+     * @return the published snapshot directory
+     * @throws IOException if the snapshot cannot be published; the previous output is then still in place
+     */
+    public Path publish(Path staged) throws IOException {
+        syncTree(staged);
+        Path snapshot = snapshots.resolve(SNAPSHOT_PREFIX
+                + new SimpleDateFormat("yyyyMMdd-HHmmss-SSS").format(new Date()) + "-" + UUID.randomUUID().toString().substring(0, 8));
+        Files.move(staged, snapshot, StandardCopyOption.ATOMIC_MOVE);
+        BatchedFileWriter.syncDirectory(snapshots);
+
+        Path previous = Files.isSymbolicLink(live)
+                ? live.getParent().resolve(Files.readSymbolicLink(live)).normalize() : null;
+        Path link = snapshots.resolve(LINK_PREFIX + UUID.randomUUID());
+        boolean symbolicLinks;
+        try {
+            Files.createSymbolicLink(link, live.getParent().relativize(snapshot));
+            symbolicLinks = true;
+        } catch (IOException | UnsupportedOperationException e) {
+            log.debug("Symbolic links not available, renaming the snapshot into place: " + e.getMessage());
+            symbolicLinks = false;
+        }
+
+        if (Files.exists(live, LinkOption.NOFOLLOW_LINKS) && previous == null) {
+            // A real directory cannot be replaced atomically, keep it as the previous snapshot
+            previous = snapshots.resolve(SNAPSHOT_PREFIX + "0-" + UUID.randomUUID().toString().substring(0, 8));
+            Files.move(live, previous, StandardCopyOption.ATOMIC_MOVE);
+        }
+        if (symbolicLinks) {
+            Files.move(link, live, StandardCopyOption.ATOMIC_MOVE);
+        } else {
+            Files.deleteIfExists(live);
+            Files.move(snapshot, live, StandardCopyOption.ATOMIC_MOVE);
+            snapshot = live;
+        }
+        BatchedFileWriter.syncDirectory(live.getParent());
+        log.info("Published output snapshot " + snapshot);
+
+        prune(snapshot, previous);
+        return snapshot;
+    }
+
+    /**
+     * Delete a staged directory without publishing it.
+     */
+    public void discard(Path staged) throws IOException {
+        FileUtils.deleteRecursively(staged);
+    }
+
+    /**
+     * Delete all snapshots except the current and the previous one.
+     */
+    private void prune(Path current, Path previous) {
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(snapshots, SNAPSHOT_PREFIX + "*")) {
+            for (Path snapshot : stream) {
+                if (!snapshot.equals(current) && !snapshot.equals(previous)) {
+                    FileUtils.deleteRecursively(snapshot);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Cannot delete old output snapshots: " + e.getMessage());
+        }
+    }
+
+    private static void syncTree(Path root) throws IOException {
+        Path metadata = root.resolve(JsonGenerator.METADATA_DIRECTORY);
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                // Class files are synced by the writer, when seeded, or linked from a published snapshot
+                if (file.startsWith(metadata)) {
+                    BatchedFileWriter.syncFile(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) {
+                BatchedFileWriter.syncDirectory(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * The directory holding the snapshots of this output directory.
+     */
+    public Path getSnapshotsDirectory() {
+        return snapshots;
+    }
+}
@@ -0,0 +1,130 @@
+package io.emop.javadocjson.util;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams class JSON files into a single zip or jar archive as they are produced, instead of writing one file per
+ * class and zipping the directory afterwards.
+ * <p>
+ * Entries are written in the order they are added, so callers add them sorted by name to get a stable entry order.
+ * Every entry gets the same timestamp, which makes archives of identical documentation byte-identical. Stored
+ * (uncompressed) entries can be read in place from a memory-mapped archive; deflated entries are several times
+ * smaller.
+ * <p>
+ * The archive is written to a temporary file next to the target and moved into place by {@link #finish()}; closing
+ * a sink that was not finished deletes the temporary file and leaves an existing archive untouched. Instances are
+ * thread-safe.
+ */
+public class ZipOutputSink implements Closeable {
+
+    // A fixed DOS time, written without time zone conversion
+    private static final LocalDateTime ENTRY_TIME = LocalDateTime.of(2000, 1, 1, 0, 0);
+
+    private final Path archive;
+    private final Path temp;
+    private final boolean stored;
+    private final ZipOutputStream out;
+    private String lastEntry;
+    private boolean sorted = true;
+    private int entries;
+    private boolean finished;
+
+    /**
+     * @param archive the zip or jar file to write
+     * @param stored  whether to store entries uncompressed
+     * @throws IOException if the temporary file cannot be created
+     */
+    public ZipOutputSink(Path archive, boolean stored) throws IOException {
+        this.archive = archive.toAbsolutePath();
+        this.stored = stored;
+        Files.createDirectories(this.archive.getParent());
+        this.temp = this.archive.resolveSibling(this.archive.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        OutputStream file = Files.newOutputStream(temp);
+        this.out = new ZipOutputStream(new BufferedOutputStream(file, 1 << 16));
+    }
+
+    /**
+     * Add an entry.
+     *
+     * @param name    the entry name, e.g. {@code java.util.List.json}
+     * @param content the entry content
+     * @throws IOException if the entry cannot be written
+     */
+    public synchronized void write(String name, byte[] content) throws IOException {
+        if (finished) {
+            throw new IOException("Archive already finished: " + archive);
+        }
+        ZipEntry entry = new ZipEntry(name);
+        entry.setTimeLocal(ENTRY_TIME);
+        if (stored) {
+            CRC32 crc = new CRC32();
+            crc.update(content);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(content.length);
+            entry.setCompressedSize(content.length);
+            entry.setCrc(crc.getValue());
+        }
+        out.putNextEntry(entry);
+        out.write(content);
+        out.closeEntry();
+        if (lastEntry != null && lastEntry.compareTo(name) > 0) {
+            // Still a valid archive, only the entry order may differ between runs
+            sorted = false;
+        }
+        lastEntry = name;
+        entries++;
+    }
+
+    /**
+     * Complete the archive and move it into place.
+     *
+     * @throws IOException if the archive cannot be completed
+     */
+    public synchronized void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        out.close();
+        BatchedFileWriter.syncFile(temp);
+        FileUtils.moveAtomically(temp, archive);
+        BatchedFileWriter.syncDirectory(archive.getParent());
+        finished = true;
+    }
+
+    /**
+     * Whether all entries so far were added in ascending name order.
+     */
+    public synchronized boolean isSorted() {
+        return sorted;
+    }
+
+    public synchronized int getEntries() {
+        return entries;
+    }
+
+    public Path getArchive() {
+        return archive;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (!finished) {
+            finished = true;
+            try {
+                out.close();
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+}
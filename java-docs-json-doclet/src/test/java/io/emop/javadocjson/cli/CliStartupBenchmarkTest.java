@@ -0,0 +1,187 @@
+package io.emop.javadocjson.cli;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.emop.javadocjson.parser.JavadocSiteServer;
+import io.emop.javadocjson.parser.SimpleConsoleLog;
+import lombok.Data;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 命令行启动基准测试，默认不运行，使用 mvn test -Pbenchmark 执行
+ * <p>
+ * 分别以独立 JVM 运行命令行爬取、带 AppCDS 归档的命令行爬取和 Maven 目标爬取，测量从启动进程到本地站点收到
+ * 第一个请求的时间以及进程总耗时，取中位数，结果同时写入 target/benchmark/cli-startup.json。
+ * Maven 目标需要本插件已安装到本地仓库且 PATH 中有 mvn，否则跳过该项。
+ * 可通过系统属性 benchmark.runs 调整每项的运行次数
+ */
+@Tag("benchmark")
+public class CliStartupBenchmarkTest {
+
+    private final Log log = new SimpleConsoleLog();
+
+    private static final Pattern PLUGIN_VERSION = Pattern.compile("<version>([^<]+)</version>");
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void benchmarkTimeToFirstRequest() throws Exception {
+        int runs = Integer.getInteger("benchmark.runs", 5);
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        // AppCDS 只能归档 jar 中的类，先把插件类打成 jar，与依赖 jar 组成类路径
+        String classpath = jarClasspath();
+        Path archive = tempDir.resolve("javadoc-json.jsa");
+        List<Result> results = new ArrayList<>();
+
+        results.add(measure("cli", runs, url -> command(java, null, classpath, url)));
+
+        // 训练运行生成归档，不计入结果
+        try (JavadocSiteServer site = new JavadocSiteServer(2, 5, 5).start()) {
+            List<String> training = new ArrayList<>(Arrays.asList(java, "-cp", classpath, JavadocJsonCli.class.getName(), "cds",
+                    archive.toString()));
+            training.addAll(crawlArguments(site.getBaseUrl()));
+            assertEquals(0, new ProcessBuilder(training).redirectErrorStream(true)
+                    .redirectOutput(tempDir.resolve("training.log").toFile()).start().waitFor());
+        }
+        assertTrue(Files.isRegularFile(archive), "训练运行应生成 AppCDS 归档");
+        results.add(measure("cli+cds", runs, url -> command(java, archive, classpath, url)));
+
+        String version = pluginVersion();
+        Path plugin = Paths.get(System.getProperty("user.home"), ".m2", "repository", "io", "github", "beamliu",
+                "java-docs-json-doclet", version, "java-docs-json-doclet-" + version + ".jar");
+        String mvn = findOnPath(System.getProperty("os.name").startsWith("Windows") ? "mvn.cmd" : "mvn");
+        if (mvn != null && Files.isRegularFile(plugin)) {
+            results.add(measure("maven", runs, url -> Arrays.asList(mvn, "-B", "-q", "-o",
+                    "io.github.beamliu:java-docs-json-doclet:" + version + ":crawl", "-DbaseUrl=" + url,
+                    "-DoutputDirectory=" + tempDir.resolve("maven-output"))));
+        } else {
+            log.warn("Maven goal skipped: plugin " + version + " is not installed or mvn is not on the PATH");
+        }
+
+        log.info(String.format("Time to first request over %d runs (median)", runs));
+        log.info(String.format("%-10s %18s %14s", "launcher", "first request ms", "total ms"));
+        for (Result result : results) {
+            log.info(String.format("%-10s %18d %14d", result.getLauncher(), result.getFirstRequestMillis(),
+                    result.getTotalMillis()));
+        }
+        File report = new File("target/benchmark/cli-startup.json");
+        report.getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(report, results);
+    }
+
+    private Result measure(String launcher, int runs, Function<String, List<String>> command) throws Exception {
+        List<Long> firstRequest = new ArrayList<>();
+        List<Long> total = new ArrayList<>();
+        for (int i = 0; i < runs; i++) {
+            // 每次使用新端口，避免页面缓存命中导致没有请求
+            try (JavadocSiteServer site = new JavadocSiteServer(2, 5, 5).start()) {
+                long start = System.currentTimeMillis();
+                Process process = new ProcessBuilder(command.apply(site.getBaseUrl())).redirectErrorStream(true)
+                        .redirectOutput(tempDir.resolve(launcher + "-" + i + ".log").toFile()).start();
+                assertTrue(process.waitFor(5, TimeUnit.MINUTES));
+                long end = System.currentTimeMillis();
+                assertEquals(0, process.exitValue(), launcher + " 运行失败，见 " + tempDir.resolve(launcher + "-" + i + ".log"));
+                assertTrue(site.getFirstRequestMillis() > 0, "站点应收到请求");
+                firstRequest.add(site.getFirstRequestMillis() - start);
+                total.add(end - start);
+            }
+        }
+        Result result = new Result();
+        result.setLauncher(launcher);
+        result.setRuns(runs);
+        result.setFirstRequestMillis(median(firstRequest));
+        result.setTotalMillis(median(total));
+        return result;
+    }
+
+    private List<String> command(String java, Path archive, String classpath, String url) {
+        List<String> command = new ArrayList<>();
+        command.add(java);
+        if (archive != null) {
+            command.add("-XX:SharedArchiveFile=" + archive);
+        }
+        command.add("-cp");
+        command.add(classpath);
+        command.add(JavadocJsonCli.class.getName());
+        command.addAll(crawlArguments(url));
+        return command;
+    }
+
+    private List<String> crawlArguments(String url) {
+        return Arrays.asList("crawl", url, "--no-cache", "--output", tempDir.resolve("cli-output").toString());
+    }
+
+    private String jarClasspath() throws Exception {
+        Path jar = tempDir.resolve("java-docs-json-doclet.jar");
+        Path classes = Paths.get("target/classes");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar));
+             Stream<Path> files = Files.walk(classes)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                out.putNextEntry(new JarEntry(classes.relativize(file).toString().replace(File.separatorChar, '/')));
+                Files.copy(file, out);
+                out.closeEntry();
+            }
+        }
+        List<String> entries = new ArrayList<>();
+        entries.add(jar.toString());
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            if (entry.endsWith(".jar")) {
+                entries.add(entry);
+            }
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+
+    private static long median(List<Long> values) {
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted.get(sorted.size() / 2);
+    }
+
+    private static String pluginVersion() throws Exception {
+        String descriptor = new String(Files.readAllBytes(Paths.get("target/classes/META-INF/maven/plugin.xml")), "UTF-8");
+        Matcher matcher = PLUGIN_VERSION.matcher(descriptor);
+        return matcher.find() ? matcher.group(1) : "";
+    }
+
+    private static String findOnPath(String executable) {
+        for (String dir : System.getenv().getOrDefault("PATH", "").split(File.pathSeparator)) {
+            File file = new File(dir, executable);
+            if (file.canExecute()) {
+                return file.getAbsolutePath();
+            }
+        }
+        return null;
+    }
+
+    @Data
+    public static class Result {
+        private String launcher;
+        private int runs;
+        private long firstRequestMillis;
+        private long totalMillis;
+    }
+}
@@ -0,0 +1,75 @@
+package io.emop.javadocjson.cli;
+
+import io.emop.javadocjson.doclet.SyntheticSourceTree;
+import io.emop.javadocjson.parser.CrawlerCache;
+import io.emop.javadocjson.parser.JavadocSiteServer;
+import io.emop.javadocjson.parser.QuietLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 命令行入口测试：不经过 Maven 直接爬取本地站点、从源码生成 JSON，参数错误时返回用法退出码
+ */
+public class JavadocJsonCliTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testCrawlWithoutMaven() throws Exception {
+        Path output = tempDir.resolve("crawl");
+        try (JavadocSiteServer site = new JavadocSiteServer(2, 3, 2).start()) {
+            int exitCode = JavadocJsonCli.run(new String[]{"crawl", site.getBaseUrl(), "--output", output.toString(),
+                    "--threads", "2", "--no-cache"}, new QuietLog());
+            assertEquals(0, exitCode);
+            assertEquals(site.getClassCount(), countJson(output), "每个类页面应生成一个 JSON 文件");
+            assertTrue(site.getFirstRequestMillis() > 0);
+
+            // 写入归档时不应创建输出目录
+            Path archive = tempDir.resolve("crawl.zip");
+            Path unused = tempDir.resolve("unused");
+            assertEquals(0, JavadocJsonCli.run(new String[]{"crawl", site.getBaseUrl(), "--output", unused.toString(),
+                    "--archive", archive.toString(), "--atomic-output", "--no-cache"}, new QuietLog()));
+            assertTrue(Files.isRegularFile(archive));
+            assertFalse(Files.exists(unused), "使用 --archive 时不应创建 --output 目录");
+        }
+    }
+
+    @Test
+    void testPublishWithoutMaven() throws Exception {
+        Path sources = tempDir.resolve("src");
+        Path output = tempDir.resolve("json");
+        SyntheticSourceTree tree = new SyntheticSourceTree().setClassesPerPackage(5).setLombokRatio(0).setTotalClasses(10);
+        tree.generate(sources);
+
+        int exitCode = JavadocJsonCli.run(new String[]{"publish", "--source-root", sources.toString(),
+                "--output", output.toString(), "--canonical"}, new QuietLog());
+        assertEquals(0, exitCode);
+        assertEquals(tree.getTotalClasses(), countJson(output));
+    }
+
+    @Test
+    void testInvalidArguments() {
+        assertEquals(2, JavadocJsonCli.run(new String[0], new QuietLog()), "无参数时应打印用法");
+        assertTrue(JavadocJsonCli.USAGE.contains(CrawlerCache.DEFAULT_CACHE_DIR), "用法应给出实际的缓存目录");
+        assertEquals(2, JavadocJsonCli.run(new String[]{"unknown"}, new QuietLog()));
+        assertEquals(2, JavadocJsonCli.run(new String[]{"crawl"}, new QuietLog()), "缺少基础 URL");
+        assertEquals(2, JavadocJsonCli.run(new String[]{"crawl", "http://localhost/", "--threads"}, new QuietLog()));
+        assertEquals(2, JavadocJsonCli.run(new String[]{"cds", "app.jsa"}, new QuietLog()), "cds 需要训练命令");
+    }
+
+    private static long countJson(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> path.toString().endsWith(".json")).count();
+        }
+    }
+}
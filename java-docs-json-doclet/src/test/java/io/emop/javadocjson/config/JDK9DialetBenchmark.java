@@ -0,0 +1,102 @@
+package io.emop.javadocjson.config;
+
+import io.emop.javadocjson.model.JavadocClass;
+import io.emop.javadocjson.parser.JavadocPageParser;
+import io.emop.javadocjson.parser.JavadocParsingConfig;
+import io.emop.javadocjson.parser.QuietLog;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JDK9Dialet 页面解析的 JMH 基准
+ * 覆盖整页解析、jsoup 建树、方法选择器、方法行过滤、详情提取和不可见字符清理
+ * 由 JDK9DialetBenchmarkTest 在 benchmark profile 下运行
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+@Fork(1)
+public class JDK9DialetBenchmark {
+
+    @Param({"small", "medium", "pathological"})
+    public String fixture;
+
+    private String html;
+    private String url;
+    private String className;
+    private JavadocPageParser parser;
+    private JavadocParsingConfig.MethodParsingConfig methodConfig;
+    private Document doc;
+    private Elements methodRows;
+    private Element lastMethodRow;
+    private String signatureText;
+
+    @Setup
+    public void setUp() throws Exception {
+        html = Jdk9Fixtures.load(fixture);
+        url = Jdk9Fixtures.url(fixture);
+        className = Jdk9Fixtures.className(fixture);
+        JDK9Dialet dialect = new JDK9Dialet();
+        parser = new JavadocPageParser(new QuietLog(), dialect, "benchmark", 1000, null, 0, null, null);
+        methodConfig = dialect.getMethodParsingConfig();
+        doc = Jsoup.parse(html, url);
+        methodRows = doc.select(methodConfig.getMethodSelector());
+        if (methodRows.isEmpty()) {
+            throw new IllegalStateException("Fixture " + fixture + " has no method rows");
+        }
+        lastMethodRow = methodRows.last();
+        // 详情页中的签名带 &nbsp; 和零宽空格，正是 cleanInvisibleChars 要处理的输入
+        Element signature = doc.selectFirst("pre.methodSignature");
+        signatureText = signature != null ? signature.text() : lastMethodRow.text();
+    }
+
+    @Benchmark
+    public JavadocClass parseClassHtml() {
+        return parser.parseClassHtml(html, url, Jdk9Fixtures.PACKAGE_NAME, className);
+    }
+
+    @Benchmark
+    public Document jsoupParse() {
+        return Jsoup.parse(html, url);
+    }
+
+    @Benchmark
+    public Elements selectMethods() {
+        return doc.select(methodConfig.getMethodSelector());
+    }
+
+    @Benchmark
+    public void isValidMethodElement(Blackhole bh) {
+        for (Element row : methodRows) {
+            bh.consume(methodConfig.isValidMethodElement(row));
+        }
+    }
+
+    @Benchmark
+    public String extractDetailText() {
+        return methodConfig.extractDetailText(lastMethodRow, doc);
+    }
+
+    @Benchmark
+    public String cleanInvisibleChars() {
+        return JDK9Dialet.cleanInvisibleChars(signatureText);
+    }
+}
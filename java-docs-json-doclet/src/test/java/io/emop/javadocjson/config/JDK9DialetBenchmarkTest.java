@@ -0,0 +1,147 @@
+package io.emop.javadocjson.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.emop.javadocjson.parser.SimpleConsoleLog;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 运行 JDK9DialetBenchmark 并与 src/test/resources/benchmark/jdk9-dialet-baseline.json 比较，
+ * 默认不运行，使用 mvn test -Pbenchmark 执行
+ * <p>
+ * 每次分配字节数（gc.alloc.rate.norm）与机器无关，比基线高出 benchmark.allocTolerance（默认 10%）即失败。
+ * 绝对耗时随机器变化，只报告同一次运行中各基准相对同一 fixture 的 jsoupParse 的耗时比；
+ * 设置 benchmark.timeTolerance（如 0.5）后，耗时比高出基线的耗时比该比例也会失败。
+ * 完整结果写入 target/benchmark/jdk9-dialet.json，本次结果整理成的候选基线写入
+ * target/benchmark/jdk9-dialet-baseline.json，确认后手动复制到 src/test/resources/benchmark/ 即可更新基线
+ */
+@Tag("benchmark")
+public class JDK9DialetBenchmarkTest {
+
+    private static final String BASELINE_RESOURCE = "/benchmark/jdk9-dialet-baseline.json";
+    private static final File RESULT = new File("target/benchmark/jdk9-dialet.json");
+    private static final File CANDIDATE = new File("target/benchmark/jdk9-dialet-baseline.json");
+    private static final String ALLOC_METRIC = "gc.alloc.rate.norm";
+    private static final String REFERENCE = "jsoupParse";
+
+    private final Log log = new SimpleConsoleLog();
+
+    @Test
+    void compareWithBaseline() throws Exception {
+        double allocTolerance = Double.parseDouble(System.getProperty("benchmark.allocTolerance", "0.10"));
+        String timeTolerance = System.getProperty("benchmark.timeTolerance");
+        RESULT.getParentFile().mkdirs();
+
+        Options options = new OptionsBuilder()
+                .include(JDK9DialetBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                // surefire 使用 manifest jar 启动，fork 的 JVM 需要显式的类路径
+                .jvmArgsAppend("-cp", System.getProperty("java.class.path"))
+                .resultFormat(ResultFormatType.JSON)
+                .result(RESULT.getPath())
+                .build();
+        new Runner(options).run();
+
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        Map<String, Score> current = summarize(mapper.readTree(RESULT));
+
+        ObjectNode candidate = mapper.createObjectNode();
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            ObjectNode node = candidate.putObject(entry.getKey());
+            node.put("microsPerOp", entry.getValue().micros);
+            node.put("bytesPerOp", entry.getValue().bytes);
+        }
+        mapper.writeValue(CANDIDATE, candidate);
+        log.info("Candidate benchmark baseline written to " + CANDIDATE.getPath());
+
+        JsonNode baseline;
+        try (InputStream in = getClass().getResourceAsStream(BASELINE_RESOURCE)) {
+            assertNotNull(in, "缺少基线 src/test/resources" + BASELINE_RESOURCE + "，请确认本次结果后将 "
+                    + CANDIDATE.getPath() + " 复制到该位置");
+            baseline = mapper.readTree(in);
+        }
+
+        List<String> regressions = new ArrayList<>();
+        log.info(String.format("%-45s %12s %12s %10s %10s %14s %14s", "benchmark", "base us/op", "us/op",
+                "base ratio", "ratio", "base B/op", "B/op"));
+        for (Map.Entry<String, Score> entry : current.entrySet()) {
+            JsonNode base = baseline.get(entry.getKey());
+            Score score = entry.getValue();
+            if (base == null) {
+                log.info(String.format("%-45s %12s %12.2f %10s %10s %14s %14.0f", entry.getKey(), "-", score.micros,
+                        "-", "-", "-", score.bytes));
+                continue;
+            }
+            double baseMicros = base.path("microsPerOp").asDouble();
+            double baseBytes = base.path("bytesPerOp").asDouble();
+            String fixture = fixtureOf(entry.getKey());
+            Score reference = current.get(REFERENCE + ":" + fixture);
+            JsonNode baseReference = baseline.get(REFERENCE + ":" + fixture);
+            double ratio = reference != null ? score.micros / reference.micros : Double.NaN;
+            double baseRatio = baseReference != null ? baseMicros / baseReference.path("microsPerOp").asDouble() : Double.NaN;
+            log.info(String.format("%-45s %12.2f %12.2f %10.3f %10.3f %14.0f %14.0f",
+                    entry.getKey(), baseMicros, score.micros, baseRatio, ratio, baseBytes, score.bytes));
+            // 极小的分配量只比较绝对值，避免几十字节的抖动被放大成百分比
+            if (score.bytes > baseBytes * (1 + allocTolerance) && score.bytes - baseBytes > 256) {
+                regressions.add(String.format("%s 分配 %.0f B/op，基线 %.0f B/op", entry.getKey(), score.bytes, baseBytes));
+            }
+            if (timeTolerance != null && !entry.getKey().startsWith(REFERENCE + ":")
+                    && ratio > baseRatio * (1 + Double.parseDouble(timeTolerance))) {
+                regressions.add(String.format("%s 耗时是 %s 的 %.3f 倍，基线 %.3f 倍", entry.getKey(), REFERENCE, ratio, baseRatio));
+            }
+        }
+        assertTrue(regressions.isEmpty(), "解析性能相对基线回退:\n" + String.join("\n", regressions));
+    }
+
+    private static String fixtureOf(String key) {
+        return key.substring(key.indexOf(':') + 1);
+    }
+
+    /**
+     * 按 benchmark:fixture 汇总平均耗时和每次分配字节数
+     */
+    private static Map<String, Score> summarize(JsonNode results) {
+        Map<String, Score> scores = new TreeMap<>();
+        for (JsonNode result : results) {
+            String benchmark = result.path("benchmark").asText();
+            String key = benchmark.substring(benchmark.lastIndexOf('.') + 1) + ":" + result.path("params").path("fixture").asText();
+            Score score = new Score();
+            score.micros = result.path("primaryMetric").path("score").asDouble();
+            Iterator<Map.Entry<String, JsonNode>> secondary = result.path("secondaryMetrics").fields();
+            while (secondary.hasNext()) {
+                Map.Entry<String, JsonNode> metric = secondary.next();
+                // JMH 在次要指标名前加 "·" 前缀
+                if (metric.getKey().replace("·", "").equals(ALLOC_METRIC)) {
+                    score.bytes = metric.getValue().path("score").asDouble();
+                }
+            }
+            scores.put(key, score);
+        }
+        return scores;
+    }
+
+    private static class Score {
+        double micros;
+        double bytes;
+    }
+}
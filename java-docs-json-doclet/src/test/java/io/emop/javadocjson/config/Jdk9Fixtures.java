@@ -0,0 +1,48 @@
+package io.emop.javadocjson.config;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * JDK9 风格类页面的测试语料，保存在 src/test/resources/fixtures/jdk9 下
+ * small: 5 个方法，medium: 80 个方法，pathological: 1200 个方法
+ */
+public final class Jdk9Fixtures {
+
+    public static final String PACKAGE_NAME = "nxopen.features";
+
+    private Jdk9Fixtures() {
+    }
+
+    /**
+     * 读取语料页面的 HTML
+     */
+    public static String load(String name) throws IOException {
+        String resource = "/fixtures/jdk9/" + name + ".html.gz";
+        try (InputStream in = Jdk9Fixtures.class.getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Fixture not found: " + resource);
+            }
+            try (InputStream gzip = new GZIPInputStream(in)) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                byte[] buffer = new byte[8192];
+                int read;
+                while ((read = gzip.read(buffer)) != -1) {
+                    out.write(buffer, 0, read);
+                }
+                return new String(out.toByteArray(), StandardCharsets.UTF_8);
+            }
+        }
+    }
+
+    public static String className(String name) {
+        return "Feature" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    public static String url(String name) {
+        return "https://docs.example.com/" + PACKAGE_NAME.replace('.', '/') + "/" + className(name) + ".html";
+    }
+}
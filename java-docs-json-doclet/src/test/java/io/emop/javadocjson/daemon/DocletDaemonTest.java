@@ -0,0 +1,178 @@
+package io.emop.javadocjson.daemon;
+
+import io.emop.javadocjson.doclet.SyntheticSourceTree;
+import io.emop.javadocjson.parser.QuietLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 常驻 doclet 守护进程测试：并发请求互不干扰且复用文件管理器，令牌错误的请求被拒绝，状态文件只对当前用户可读且请求行长度有上限，空闲超时后自动退出，
+ * 类路径变化后旧的守护进程被替换
+ */
+public class DocletDaemonTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testConcurrentRequestsReuseFileManagers() throws Exception {
+        Path first = tempDir.resolve("first");
+        Path second = tempDir.resolve("second");
+        new SyntheticSourceTree().setClassesPerPackage(10).setLombokRatio(0).setTotalClasses(20).generate(first);
+        new SyntheticSourceTree().setClassesPerPackage(10).setLombokRatio(0).setTotalClasses(30).generate(second);
+
+        DocletDaemon daemon = new DocletDaemon(new QuietLog(), tempDir.resolve("daemon.json"));
+        daemon.start();
+        ExecutorService clients = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<DaemonResponse>> responses = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                Path sources = i % 2 == 0 ? first : second;
+                // 两个请求写同一个输出目录，另外两个写各自的目录
+                Path output = tempDir.resolve(i < 2 ? "json-shared" : "json-" + i);
+                responses.add(clients.submit(() -> DaemonClient.send(tempDir.resolve("daemon.json"), request(sources, output))));
+            }
+            for (Future<DaemonResponse> response : responses) {
+                assertTrue(response.get().isSuccess(), "并发请求应全部成功: " + response.get().getOutput());
+            }
+            assertEquals(20, count(tempDir.resolve("json-2")));
+            assertEquals(30, count(tempDir.resolve("json-3")));
+            assertEquals(30, count(tempDir.resolve("json-shared")), "写同一目录的请求串行执行，输出应为两棵树中类的并集");
+
+            DaemonResponse again = DaemonClient.send(tempDir.resolve("daemon.json"), request(first, tempDir.resolve("json-again")));
+            assertTrue(again.isSuccess());
+            assertEquals(5, again.getRequestsServed());
+            assertTrue(again.getFileManagersReused() > 0, "后续请求应复用已建立类路径索引的文件管理器");
+            assertTrue(again.getOutput().contains("JSON documentation generated"), "响应应包含请求的日志输出");
+        } finally {
+            clients.shutdownNow();
+            daemon.close();
+        }
+        assertFalse(Files.exists(tempDir.resolve("daemon.json")), "退出时应删除状态文件");
+    }
+
+    @Test
+    void testRejectsWrongTokenAndStopsWhenIdle() throws Exception {
+        Path stateFile = tempDir.resolve("daemon.json");
+        DocletDaemon daemon = new DocletDaemon(new QuietLog(), stateFile);
+        daemon.setIdleTimeoutMillis(500);
+        daemon.start();
+
+        Path forged = tempDir.resolve("forged.json");
+        String state = new String(Files.readAllBytes(stateFile), "UTF-8");
+        Files.write(forged, state.replaceAll("\"token\":\"[0-9a-f]+\"", "\"token\":\"0000\"").getBytes("UTF-8"));
+        DaemonResponse rejected = DaemonClient.send(forged, request(tempDir, tempDir.resolve("json")));
+        assertFalse(rejected.isSuccess(), "令牌错误的请求应被拒绝");
+        assertTrue(DaemonClient.isRunning(stateFile));
+
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (!daemon.isStopped() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertTrue(daemon.isStopped(), "空闲超时后守护进程应自动退出");
+        assertFalse(DaemonClient.isRunning(stateFile));
+        assertEquals(0, daemon.getRequestsServed());
+    }
+
+    @Test
+    void testStateFileIsPrivateAndRequestLinesAreBounded() throws Exception {
+        Path stateFile = tempDir.resolve("state/daemon.json");
+        DocletDaemon daemon = new DocletDaemon(new QuietLog(), stateFile);
+        daemon.start();
+        try {
+            if (Files.getFileStore(tempDir).supportsFileAttributeView("posix")) {
+                assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(stateFile.getParent())),
+                        "新建的状态目录只应对当前用户开放");
+                assertEquals("rw-------", PosixFilePermissions.toString(Files.getPosixFilePermissions(stateFile)),
+                        "状态文件包含令牌，只应对当前用户可读");
+            }
+            try (Stream<Path> files = Files.list(stateFile.getParent())) {
+                assertEquals(1, files.count(), "不应残留临时文件");
+            }
+        } finally {
+            daemon.close();
+        }
+
+        assertEquals("{\"command\":\"STATUS\"}",
+                DocletDaemon.readRequestLine(new BufferedReader(new StringReader("{\"command\":\"STATUS\"}\r\nrest"))));
+        assertNull(DocletDaemon.readRequestLine(new BufferedReader(new StringReader(""))));
+        char[] oversized = new char[DocletDaemon.MAX_REQUEST_LENGTH + 1];
+        Arrays.fill(oversized, 'x');
+        assertThrows(IOException.class,
+                () -> DocletDaemon.readRequestLine(new BufferedReader(new StringReader(new String(oversized)))),
+                "超长的请求行应在校验令牌前被拒绝");
+    }
+
+    @Test
+    void testStartsAndStopsForkedDaemon() throws Exception {
+        Path stateFile = tempDir.resolve("forked/daemon.json");
+        String classpath = System.getProperty("java.class.path");
+        DaemonClient.ensureRunning(stateFile, classpath, 60, new QuietLog());
+        assertTrue(DaemonClient.isRunning(stateFile));
+        long pid = DaemonClient.readState(stateFile).getPid();
+        DaemonClient.ensureRunning(stateFile, classpath, 60, new QuietLog());
+        assertEquals(pid, DaemonClient.readState(stateFile).getPid(), "类路径相同时应复用正在运行的守护进程");
+
+        // 插件升级后类路径不同，旧的守护进程应被替换
+        Path upgraded = Files.write(tempDir.resolve("upgraded.jar"), new byte[0]);
+        DaemonClient.ensureRunning(stateFile, classpath + java.io.File.pathSeparator + upgraded, 60, new QuietLog());
+        assertTrue(DaemonClient.isRunning(stateFile));
+        assertNotEquals(pid, DaemonClient.readState(stateFile).getPid(), "类路径变化后应启动新的守护进程");
+        ProcessHandle old = ProcessHandle.of(pid).orElse(null);
+        long exitDeadline = System.currentTimeMillis() + 10_000;
+        while (old != null && old.isAlive() && System.currentTimeMillis() < exitDeadline) {
+            Thread.sleep(100);
+        }
+        assertFalse(old != null && old.isAlive(), "旧的守护进程应退出");
+
+        DaemonRequest stop = new DaemonRequest();
+        stop.setCommand(DaemonRequest.STOP);
+        assertTrue(DaemonClient.send(stateFile, stop).isSuccess());
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (DaemonClient.isRunning(stateFile) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        assertFalse(DaemonClient.isRunning(stateFile), "收到 stop 后守护进程应退出");
+    }
+
+    private static DaemonRequest request(Path sources, Path output) throws Exception {
+        DaemonRequest request = new DaemonRequest();
+        request.setOutputDirectory(output.toString());
+        request.setSourceRoots(Arrays.asList(sources.toString()));
+        request.setClasspath(Arrays.asList(System.getProperty("java.class.path").split(java.io.File.pathSeparator)));
+        try (Stream<Path> files = Files.walk(sources)) {
+            request.setFiles(files.filter(path -> path.toString().endsWith(".java"))
+                    .map(Path::toString)
+                    .collect(Collectors.toList()));
+        }
+        return request;
+    }
+
+    private static long count(Path dir) throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> path.toString().endsWith(".json")).count();
+        }
+    }
+}
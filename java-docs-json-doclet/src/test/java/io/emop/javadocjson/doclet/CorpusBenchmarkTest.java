@@ -0,0 +1,143 @@
+package io.emop.javadocjson.doclet;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.emop.javadocjson.model.JavadocClass;
+import io.emop.javadocjson.parser.QuietLog;
+import io.emop.javadocjson.parser.SimpleConsoleLog;
+import io.emop.javadocjson.util.CorpusReader;
+import io.emop.javadocjson.util.JsonGenerator;
+import lombok.Data;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 紧凑语料与逐类 JSON 的对比基准测试，默认不运行，使用 mvn test -Pbenchmark 执行
+ * <p>
+ * 对合成源码树运行一次 doclet，同时写出 JSON 目录和语料文件，然后分别比较磁盘大小、全部加载的耗时
+ * 和加载后模型的堆占用。可通过 benchmark.corpusClasses（默认 10000）和 benchmark.corpusIterations
+ * （默认 5，取最快一次）调整，结果写入 target/benchmark/corpus.json
+ */
+@Tag("benchmark")
+public class CorpusBenchmarkTest {
+
+    private final Log log = new SimpleConsoleLog();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void benchmarkCorpusAgainstJson() throws Exception {
+        int classes = Integer.getInteger("benchmark.corpusClasses", 10000);
+        int iterations = Integer.getInteger("benchmark.corpusIterations", 5);
+        SyntheticSourceTree tree = new SyntheticSourceTree()
+                .setLombokRatio(0)
+                .setTotalClasses(classes);
+        Path sourceDir = tempDir.resolve("src");
+        List<File> files = tree.generate(sourceDir).stream().map(Path::toFile).collect(Collectors.toList());
+
+        Path jsonDir = tempDir.resolve("json");
+        Path corpusFile = tempDir.resolve("docs.corpus");
+        JavadocInvoker invoker = new JavadocInvoker(new QuietLog());
+        invoker.setOutputDirectory(jsonDir.toString());
+        invoker.setSourceRoots(Collections.singletonList(sourceDir));
+        invoker.setOutputCorpus(corpusFile);
+        assertTrue(invoker.run(files), "doclet 运行失败");
+
+        List<Path> jsonFiles;
+        try (Stream<Path> paths = Files.list(jsonDir)) {
+            jsonFiles = paths.filter(path -> path.toString().endsWith(".json")).sorted().collect(Collectors.toList());
+        }
+        Result result = new Result();
+        result.setClasses(jsonFiles.size());
+        for (Path file : jsonFiles) {
+            result.setJsonBytes(result.getJsonBytes() + Files.size(file));
+        }
+        result.setCorpusBytes(Files.size(corpusFile));
+
+        long jsonNanos = Long.MAX_VALUE;
+        long corpusNanos = Long.MAX_VALUE;
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            List<JavadocClass> fromJson = loadJson(jsonFiles);
+            jsonNanos = Math.min(jsonNanos, System.nanoTime() - start);
+            assertEquals(jsonFiles.size(), fromJson.size());
+
+            start = System.nanoTime();
+            List<JavadocClass> fromCorpus = new CorpusReader().read(corpusFile);
+            corpusNanos = Math.min(corpusNanos, System.nanoTime() - start);
+            assertEquals(fromJson.size(), fromCorpus.size(), "语料应包含所有类");
+        }
+        result.setJsonLoadMillis(jsonNanos / 1_000_000.0);
+        result.setCorpusLoadMillis(corpusNanos / 1_000_000.0);
+
+        // 加载后仍被引用的模型占用的堆
+        long before = usedHeapAfterGc();
+        List<JavadocClass> retained = loadJson(jsonFiles);
+        result.setJsonHeapBytes(usedHeapAfterGc() - before);
+        assertEquals(jsonFiles.size(), retained.size());
+        retained = null;
+
+        before = usedHeapAfterGc();
+        retained = new CorpusReader().read(corpusFile);
+        result.setCorpusHeapBytes(usedHeapAfterGc() - before);
+        assertEquals(jsonFiles.size(), retained.size());
+
+        log.info(String.format("Corpus versus per-class JSON, %d classes", result.getClasses()));
+        log.info(String.format("%8s %12s %12s %12s", "format", "disk KiB", "load ms", "heap KiB"));
+        log.info(String.format("%8s %12d %12.1f %12d", "json", result.getJsonBytes() / 1024,
+                result.getJsonLoadMillis(), result.getJsonHeapBytes() / 1024));
+        log.info(String.format("%8s %12d %12.1f %12d", "corpus", result.getCorpusBytes() / 1024,
+                result.getCorpusLoadMillis(), result.getCorpusHeapBytes() / 1024));
+
+        File report = new File("target/benchmark/corpus.json");
+        report.getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(report, result);
+
+        assertTrue(result.getCorpusBytes() < result.getJsonBytes(), "语料应小于 JSON 目录");
+        assertTrue(result.getCorpusHeapBytes() < result.getJsonHeapBytes(), "语料加载后的堆占用应小于 JSON");
+    }
+
+    private static List<JavadocClass> loadJson(List<Path> files) throws Exception {
+        List<JavadocClass> classes = new ArrayList<>(files.size());
+        for (Path file : files) {
+            classes.add(JsonGenerator.readClassFromFile(file.toFile()));
+        }
+        return classes;
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    @Data
+    public static class Result {
+        private int classes;
+        private long jsonBytes;
+        private long corpusBytes;
+        private double jsonLoadMillis;
+        private double corpusLoadMillis;
+        private long jsonHeapBytes;
+        private long corpusHeapBytes;
+    }
+}
@@ -0,0 +1,104 @@
+package io.emop.javadocjson.doclet;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.emop.javadocjson.parser.SimpleConsoleLog;
+import lombok.Data;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 分区并行 doclet 基准测试，默认不运行，使用 mvn test -Pbenchmark 执行
+ * <p>
+ * 对同一棵合成源码树按不同分区数运行 doclet，输出耗时和全部线程的 CPU 时间，
+ * 结果写入 target/benchmark/doclet-partitions.json。可通过系统属性调整：
+ * benchmark.partitionClasses（默认 5000）、benchmark.partitions（默认 1,2,4,8）
+ */
+@Tag("benchmark")
+public class DocletPartitionBenchmarkTest {
+
+    private final Log log = new SimpleConsoleLog();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void benchmarkPartitionCounts() throws Exception {
+        int classes = Integer.getInteger("benchmark.partitionClasses", 5000);
+        String[] partitionCounts = System.getProperty("benchmark.partitions", "1,2,4,8").split(",");
+        SyntheticSourceTree tree = new SyntheticSourceTree().setTotalClasses(classes);
+        Path sourceDir = tempDir.resolve("src");
+        tree.generate(sourceDir);
+
+        // 预热 JIT，结果不计入
+        run(sourceDir, tempDir.resolve("warmup"), 1);
+
+        List<Result> results = new ArrayList<>();
+        for (String count : partitionCounts) {
+            int partitions = Integer.parseInt(count.trim());
+            Result result = run(sourceDir, tempDir.resolve("out-" + partitions), partitions);
+            assertEquals(tree.getTotalClasses(), result.getOutputFiles(), "每个类型应输出一个 JSON 文件");
+            results.add(result);
+        }
+
+        log.info(String.format("Doclet partition benchmark: %d classes, %d cores", tree.getTotalClasses(),
+                Runtime.getRuntime().availableProcessors()));
+        log.info(String.format("%10s %10s %10s %10s", "partitions", "wall ms", "cpu ms", "speedup"));
+        double baseline = results.isEmpty() ? 1 : results.get(0).getWallMillis();
+        for (Result result : results) {
+            log.info(String.format("%10d %10d %10d %10.2f", result.getPartitions(), result.getWallMillis(),
+                    result.getCpuMillis(), baseline / Math.max(1, result.getWallMillis())));
+        }
+
+        File report = new File("target/benchmark/doclet-partitions.json");
+        report.getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(report, results);
+    }
+
+    private Result run(Path sourceDir, Path outputDir, int partitions) throws Exception {
+        long cpuBefore = totalCpuNanos();
+        long start = System.nanoTime();
+        DocletRunner.run(sourceDir, outputDir, JsonDoclet.class, partitions);
+        Result result = new Result();
+        result.setPartitions(partitions);
+        result.setWallMillis((System.nanoTime() - start) / 1_000_000);
+        result.setCpuMillis((totalCpuNanos() - cpuBefore) / 1_000_000);
+        try (Stream<Path> files = Files.list(outputDir)) {
+            result.setOutputFiles(files.count());
+        }
+        return result;
+    }
+
+    /**
+     * 进程的 CPU 时间，分区线程在运行结束后退出，因此不能只统计存活线程
+     */
+    private static long totalCpuNanos() {
+        java.lang.management.OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuTime();
+        }
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        return threads.getCurrentThreadCpuTime();
+    }
+
+    @Data
+    public static class Result {
+        private int partitions;
+        private long wallMillis;
+        private long cpuMillis;
+        private long outputFiles;
+    }
+}
@@ -0,0 +1,103 @@
+package io.emop.javadocjson.doclet;
+
+import com.sun.source.util.DocTreePath;
+import io.emop.javadocjson.parser.SimpleConsoleLog;
+import jdk.javadoc.doclet.DocletEnvironment;
+import jdk.javadoc.doclet.Reporter;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.lang.model.element.Element;
+import javax.tools.Diagnostic;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Path;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JsonDoclet 逐个类型输出后，doclet 结束时保留的堆不随类数增长。
+ * 依赖 System.gc() 后的堆采样，结果受 JVM 和 GC 影响，默认不运行，使用 mvn test -Pbenchmark 执行
+ */
+@Tag("benchmark")
+public class DocletRetainedHeapBenchmarkTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final Log log = new SimpleConsoleLog();
+
+    @Test
+    void testRetainedHeapStaysFlat() throws Exception {
+        long small = retainedAfterRun(100);
+        long large = retainedAfterRun(500);
+        log.info(String.format("doclet 运行结束时保留的堆: 100 个类 %d KiB, 500 个类 %d KiB", small / 1024, large / 1024));
+        // 累积全部模型时 100 和 500 个类保留的堆约为 1.3 MiB 和 5.1 MiB，差值约 3.8 MiB
+        assertTrue(large - small < 2 * 1024 * 1024, "doclet 保留的堆不应随类数增长: " + small + " -> " + large);
+    }
+
+    /**
+     * 在同一环境上运行两次 doclet（第一次填充 javac 的注释缓存），返回第二次运行结束时相对开始时多保留的堆
+     */
+    private long retainedAfterRun(int classes) throws Exception {
+        Path runDir = tempDir.resolve("retained-" + classes);
+        new SyntheticSourceTree().setClassesPerPackage(100).setTotalClasses(classes).setLombokRatio(0).generate(runDir.resolve("src"));
+        HeapSamplingDoclet.retained = -1;
+        DocletRunner.run(runDir.resolve("src"), runDir.resolve("json"), HeapSamplingDoclet.class);
+        assertTrue(HeapSamplingDoclet.retained >= 0, "应在 doclet 结束时采样");
+        return HeapSamplingDoclet.retained;
+    }
+
+    /**
+     * 在 doclet 打印最终汇总时（所有类型已处理、run 尚未返回）采样堆
+     */
+    public static class HeapSamplingDoclet extends JsonDoclet {
+        static long retained;
+        private long before;
+        private boolean sampling;
+
+        @Override
+        public void init(Locale locale, Reporter reporter) {
+            super.init(locale, new Reporter() {
+                @Override
+                public void print(Diagnostic.Kind kind, String message) {
+                    if (sampling && message.startsWith("JSON documentation generated")) {
+                        retained = Math.max(0, usedHeapAfterGc() - before);
+                    }
+                    reporter.print(kind, message);
+                }
+
+                @Override
+                public void print(Diagnostic.Kind kind, DocTreePath path, String message) {
+                    reporter.print(kind, path, message);
+                }
+
+                @Override
+                public void print(Diagnostic.Kind kind, Element element, String message) {
+                    reporter.print(kind, element, message);
+                }
+            });
+        }
+
+        @Override
+        public boolean run(DocletEnvironment environment) {
+            if (!super.run(environment)) {
+                return false;
+            }
+            before = usedHeapAfterGc();
+            sampling = true;
+            return super.run(environment);
+        }
+
+        private static long usedHeapAfterGc() {
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+            for (int i = 0; i < 3; i++) {
+                System.gc();
+            }
+            return memory.getHeapMemoryUsage().getUsed();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package io.emop.javadocjson.doclet;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.emop.javadocjson.parser.QuietLog;
+import lombok.Data;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 以 PublishMojo 相同的方式（JavadocInvoker）对源码目录运行 doclet
+ * <p>
+ * 作为 main 运行时由 DocletScaleBenchmarkTest 以单独的 JVM 启动，以便测量该次运行的峰值 RSS 和 GC 时间，
+ * 参数: sourceDir outputDir resultFile，结果以 JSON 写入 resultFile
+ */
+public class DocletRunner {
+
+    /**
+     * 运行 doclet，失败时抛出异常，javadoc 的输出以错误级别写入日志
+     */
+    public static void run(Path sourceDir, Path outputDir) throws IOException {
+        run(sourceDir, outputDir, JsonDoclet.class);
+    }
+
+    /**
+     * 使用指定的 doclet 类（JsonDoclet 或其测试子类）运行
+     */
+    public static void run(Path sourceDir, Path outputDir, Class<? extends JsonDoclet> docletClass) throws IOException {
+        run(sourceDir, outputDir, docletClass, 1);
+    }
+
+    /**
+     * 以指定的分区数运行
+     */
+    public static void run(Path sourceDir, Path outputDir, Class<? extends JsonDoclet> docletClass, int partitions) throws IOException {
+        List<File> javaFiles;
+        try (Stream<Path> paths = Files.walk(sourceDir)) {
+            javaFiles = paths.filter(path -> path.toString().endsWith(".java"))
+                    .map(Path::toFile)
+                    .collect(Collectors.toList());
+        }
+        JavadocInvoker invoker = new JavadocInvoker(new QuietLog());
+        invoker.setOutputDirectory(outputDir.toString());
+        invoker.setClasspath(Arrays.asList(System.getProperty("java.class.path").split(File.pathSeparator)));
+        invoker.setSourceRoots(Collections.singletonList(sourceDir));
+        invoker.setPartitions(partitions);
+        invoker.setDocletClass(docletClass);
+        if (!invoker.run(javaFiles)) {
+            throw new IOException("Doclet execution failed");
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path outputDir = Paths.get(args[1]);
+        long start = System.nanoTime();
+        run(Paths.get(args[0]), outputDir);
+
+        Result result = new Result();
+        result.setWallMillis((System.nanoTime() - start) / 1_000_000);
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            result.setGcMillis(result.getGcMillis() + Math.max(0, gc.getCollectionTime()));
+            result.setGcCount(result.getGcCount() + Math.max(0, gc.getCollectionCount()));
+        }
+        result.setPeakRssKiB(readPeakRssKiB());
+        try (Stream<Path> files = Files.list(outputDir)) {
+            for (Path file : (Iterable<Path>) files.filter(path -> path.toString().endsWith(".json"))::iterator) {
+                result.setOutputFiles(result.getOutputFiles() + 1);
+                result.setOutputBytes(result.getOutputBytes() + Files.size(file));
+            }
+        }
+        new ObjectMapper().writeValue(new File(args[2]), result);
+    }
+
+    /**
+     * 读取 /proc/self/status 中的 VmHWM，非 Linux 系统返回 -1
+     */
+    private static long readPeakRssKiB() {
+        Path status = Paths.get("/proc/self/status");
+        if (!Files.isReadable(status)) {
+            return -1;
+        }
+        try {
+            for (String line : Files.readAllLines(status)) {
+                if (line.startsWith("VmHWM:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", ""));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // 无法读取时按不可用处理
+        }
+        return -1;
+    }
+
+    @Data
+    public static class Result {
+        private long wallMillis;
+        private long gcMillis;
+        private long gcCount;
+        private long peakRssKiB;
+        private long outputFiles;
+        private long outputBytes;
+    }
+}
@@ -0,0 +1,96 @@
+package io.emop.javadocjson.doclet;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.emop.javadocjson.parser.SimpleConsoleLog;
+import lombok.Data;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JsonDoclet 规模基准测试，默认不运行，使用 mvn test -Pbenchmark 执行
+ * <p>
+ * 对不同规模的合成源码树分别在单独的 JVM 中运行 doclet，输出耗时、峰值 RSS、GC 时间和输出字节数，
+ * 结果同时写入 target/benchmark/doclet-scale.json。可通过系统属性调整：
+ * benchmark.docletClasses（默认 1000,10000,50000）、benchmark.docletHeap（默认 4g）、
+ * benchmark.docletMethods、benchmark.docletFields、benchmark.docletGenericsDepth、
+ * benchmark.docletJavadocSentences、benchmark.docletLombokRatio
+ */
+@Tag("benchmark")
+public class DocletScaleBenchmarkTest {
+
+    private final Log log = new SimpleConsoleLog();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void benchmarkDocletScale() throws Exception {
+        String[] sizes = System.getProperty("benchmark.docletClasses", "1000,10000,50000").split(",");
+        String heap = System.getProperty("benchmark.docletHeap", "4g");
+        String javaBin = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+        List<Result> results = new ArrayList<>();
+        for (String size : sizes) {
+            int classes = Integer.parseInt(size.trim());
+            SyntheticSourceTree tree = new SyntheticSourceTree()
+                    .setMethodsPerClass(Integer.getInteger("benchmark.docletMethods", 10))
+                    .setFieldsPerClass(Integer.getInteger("benchmark.docletFields", 4))
+                    .setGenericsDepth(Integer.getInteger("benchmark.docletGenericsDepth", 2))
+                    .setJavadocSentences(Integer.getInteger("benchmark.docletJavadocSentences", 3))
+                    .setLombokRatio(Double.parseDouble(System.getProperty("benchmark.docletLombokRatio", "0.2")))
+                    .setTotalClasses(classes);
+            Path runDir = tempDir.resolve("run-" + classes);
+            Path sourceDir = runDir.resolve("src");
+            Path outputDir = runDir.resolve("json");
+            File resultFile = runDir.resolve("result.json").toFile();
+            tree.generate(sourceDir);
+
+            ProcessBuilder builder = new ProcessBuilder(javaBin, "-Xmx" + heap, "-cp", System.getProperty("java.class.path"),
+                    DocletRunner.class.getName(), sourceDir.toString(), outputDir.toString(), resultFile.getPath());
+            builder.redirectErrorStream(true);
+            builder.redirectOutput(runDir.resolve("doclet.log").toFile());
+            Process process = builder.start();
+            assertTrue(process.waitFor(2, TimeUnit.HOURS), "doclet 应在超时前结束");
+            assertEquals(0, process.exitValue(), "doclet 进程失败，日志见 " + runDir.resolve("doclet.log"));
+
+            Result result = new Result();
+            result.setClasses(tree.getTotalClasses());
+            result.setRun(mapper.readValue(resultFile, DocletRunner.Result.class));
+            assertEquals(tree.getTotalClasses(), result.getRun().getOutputFiles(), "每个类型应输出一个 JSON 文件");
+            results.add(result);
+        }
+
+        log.info(String.format("Doclet scale benchmark, heap %s", heap));
+        log.info(String.format("%8s %10s %10s %10s %8s %12s %12s", "classes", "wall ms", "classes/s", "gc ms", "gc n", "peak RSS MiB", "output MiB"));
+        for (Result result : results) {
+            DocletRunner.Result run = result.getRun();
+            log.info(String.format("%8d %10d %10.1f %10d %8d %12.1f %12.1f", result.getClasses(), run.getWallMillis(),
+                    result.getClasses() * 1000.0 / Math.max(1, run.getWallMillis()), run.getGcMillis(), run.getGcCount(),
+                    run.getPeakRssKiB() / 1024.0, run.getOutputBytes() / 1024.0 / 1024.0));
+        }
+
+        File report = new File("target/benchmark/doclet-scale.json");
+        report.getParentFile().mkdirs();
+        mapper.writeValue(report, results);
+    }
+
+    @Data
+    public static class Result {
+        private int classes;
+        private DocletRunner.Result run;
+    }
+}
@@ -0,0 +1,137 @@
+package io.emop.javadocjson.doclet;
+
+import io.emop.javadocjson.parser.QuietLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 增量重新生成和源码监听测试：只处理变化的编译单元，删除不再声明的类，出错时保留原输出，批量变化合并处理
+ */
+public class IncrementalRegeneratorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRegeneratesOnlyChangedCompilationUnits() throws Exception {
+        Path src = tempDir.resolve("src");
+        Path out = tempDir.resolve("json");
+        Path alpha = write(src, "demo/Alpha.java", "package demo;\n/** First version. */\npublic class Alpha {\n    public static class Helper {}\n}\n");
+        write(src, "demo/Beta.java", "package demo;\n/** Beta. */\npublic class Beta extends Alpha {}\n");
+
+        IncrementalRegenerator regenerator = new IncrementalRegenerator(new QuietLog(), out, Collections.singletonList(src));
+        IncrementalRegenerator.Result initial = regenerator.regenerateAll();
+        assertTrue(initial.isSuccess());
+        assertEquals(3, initial.getWritten());
+        assertEquals(2, regenerator.classesOf(alpha).size(), "索引应记录 Alpha.java 中声明的两个类");
+
+        FileTime old = FileTime.fromMillis(1_000_000L);
+        Files.setLastModifiedTime(out.resolve("demo.Beta.json"), old);
+        Files.setLastModifiedTime(out.resolve("demo.Alpha$Helper.json"), old);
+
+        write(src, "demo/Alpha.java", "package demo;\n/** Second version. */\npublic class Alpha {\n    public static class Helper {}\n}\n");
+        IncrementalRegenerator.Result changed = regenerator.regenerate(Collections.singletonList(alpha));
+        assertTrue(changed.isSuccess());
+        assertEquals(1, changed.getSourceFiles());
+        assertEquals(1, changed.getWritten());
+        assertEquals(1, changed.getUnchanged(), "内容相同的类文件不应被替换");
+        assertTrue(read(out.resolve("demo.Alpha.json")).contains("Second version"));
+        assertEquals(old, Files.getLastModifiedTime(out.resolve("demo.Beta.json")), "未变化的编译单元不应重新生成");
+        assertEquals(old, Files.getLastModifiedTime(out.resolve("demo.Alpha$Helper.json")));
+
+        // 重命名文件中的嵌套类：旧类文件删除，新类文件写入
+        write(src, "demo/Alpha.java", "package demo;\n/** Second version. */\npublic class Alpha {\n    public static class Renamed {}\n}\n");
+        IncrementalRegenerator.Result renamed = regenerator.regenerate(Collections.singletonList(alpha));
+        assertEquals(1, renamed.getDeleted());
+        assertFalse(Files.exists(out.resolve("demo.Alpha$Helper.json")));
+        assertTrue(Files.exists(out.resolve("demo.Alpha$Renamed.json")));
+
+        // 编辑中途保存的语法错误不应破坏已有输出
+        write(src, "demo/Alpha.java", "package demo;\n/** Broken. */\npublic class Alpha {\n");
+        IncrementalRegenerator.Result broken = regenerator.regenerate(Collections.singletonList(alpha));
+        assertFalse(broken.isSuccess());
+        assertTrue(read(out.resolve("demo.Alpha.json")).contains("Second version"));
+        assertTrue(Files.exists(out.resolve("demo.Alpha$Renamed.json")));
+
+        // 删除整个包目录
+        Files.delete(alpha);
+        Files.delete(src.resolve("demo/Beta.java"));
+        Files.delete(src.resolve("demo"));
+        IncrementalRegenerator.Result deleted = regenerator.regenerate(Collections.singletonList(src.resolve("demo")));
+        assertTrue(deleted.isSuccess());
+        assertEquals(3, deleted.getDeleted());
+        try (Stream<Path> files = Files.list(out)) {
+            assertEquals(0, files.filter(path -> path.toString().endsWith(".json")).count());
+        }
+        try (Stream<Path> files = Files.list(out.resolve(".javadoc-json"))) {
+            assertEquals(0, files.count(), "暂存目录应被清理");
+        }
+    }
+
+    @Test
+    void testWatcherCoalescesBulkChanges() throws Exception {
+        Path src = tempDir.resolve("src");
+        Path out = tempDir.resolve("json");
+        write(src, "demo/Alpha.java", "package demo;\n/** Version 0. */\npublic class Alpha {}\n");
+
+        IncrementalRegenerator regenerator = new IncrementalRegenerator(new QuietLog(), out, Collections.singletonList(src));
+        regenerator.regenerateAll();
+        SourceWatcher watcher = new SourceWatcher(new QuietLog(), regenerator, Collections.singletonList(src));
+        watcher.setDebounceMillis(200);
+        watcher.start();
+        Thread thread = new Thread(watcher::run, "source-watcher");
+        thread.start();
+        try {
+            // 连续快速保存同一文件，同时新建一个包含大量文件的包（类似切换分支）
+            for (int i = 1; i <= 5; i++) {
+                write(src, "demo/Alpha.java", "package demo;\n/** Version " + i + ". */\npublic class Alpha {}\n");
+            }
+            for (int i = 0; i < 300; i++) {
+                write(src, "bulk/Bulk" + i + ".java", "package bulk;\n/** Bulk " + i + ". */\npublic class Bulk" + i + " {}\n");
+            }
+
+            long deadline = System.currentTimeMillis() + 60_000;
+            while (System.currentTimeMillis() < deadline
+                    && !(Files.exists(out.resolve("bulk.Bulk299.json")) && countJson(out) == 301
+                    && read(out.resolve("demo.Alpha.json")).contains("Version 5"))) {
+                Thread.sleep(100);
+            }
+            assertEquals(301, countJson(out), "新包中的所有类都应生成");
+            assertTrue(read(out.resolve("demo.Alpha.json")).contains("Version 5"), "应反映最后一次保存的内容");
+            assertTrue(watcher.getBatches() < 20, "大量变化应合并成少量批次: " + watcher.getBatches());
+        } finally {
+            watcher.close();
+            thread.join(10_000);
+        }
+        assertFalse(thread.isAlive(), "关闭后监听线程应退出");
+    }
+
+    private static Path write(Path root, String relative, String content) throws IOException {
+        Path file = root.resolve(relative);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+
+    private static long countJson(Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> path.toString().endsWith(".json")).count();
+        }
+    }
+}
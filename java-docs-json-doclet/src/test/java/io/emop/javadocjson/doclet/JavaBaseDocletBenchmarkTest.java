@@ -0,0 +1,149 @@
+package io.emop.javadocjson.doclet;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.emop.javadocjson.parser.SimpleConsoleLog;
+import jdk.javadoc.doclet.DocletEnvironment;
+import lombok.Data;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.DocumentationTool;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 在 JDK 自带的 java.base 源码上测量 JsonDoclet 本身的开销，默认不运行，使用 mvn test -Pbenchmark 执行
+ * <p>
+ * javadoc 只解析一次源码，之后在同一个 DocletEnvironment 上重复运行 doclet，
+ * 因此测得的耗时和分配字节数不包含 javadoc 的解析和类型检查。源码取自 $JAVA_HOME/lib/src.zip，
+ * 可通过 benchmark.javaBasePackages（默认 java.lang,java.util,java.util.concurrent,java.io,java.time）
+ * 和 benchmark.docletIterations（默认 5，第一次为预热）调整，结果写入 target/benchmark/doclet-java-base.json
+ */
+@Tag("benchmark")
+public class JavaBaseDocletBenchmarkTest {
+
+    private final Log log = new SimpleConsoleLog();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void benchmarkDocletOnJavaBase() throws Exception {
+        String[] packages = System.getProperty("benchmark.javaBasePackages",
+                "java.lang,java.util,java.util.concurrent,java.io,java.time").split(",");
+        int iterations = Integer.getInteger("benchmark.docletIterations", 5);
+        Path srcZip = Paths.get(System.getProperty("java.home"), "lib", "src.zip");
+        assertTrue(Files.exists(srcZip), "需要包含 src.zip 的 JDK: " + srcZip);
+
+        Path moduleDir = tempDir.resolve("java.base");
+        List<File> files = extract(srcZip, moduleDir, packages);
+        TimingDoclet.iterations = iterations;
+        TimingDoclet.samples = new ArrayList<>();
+
+        DocumentationTool docTool = ToolProvider.getSystemDocumentationTool();
+        StringWriter output = new StringWriter();
+        List<String> options = Arrays.asList(
+                "-outputDirectory", tempDir.resolve("json").toString(),
+                "-encoding", "UTF-8",
+                "-quiet",
+                "--patch-module", "java.base=" + moduleDir);
+        try (StandardJavaFileManager fileManager = docTool.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjectsFromFiles(files);
+            Boolean result = docTool.getTask(output, fileManager, null, TimingDoclet.class, options, units).call();
+            assertTrue(result != null && result, "doclet 运行失败:\n" + output);
+        }
+
+        List<Sample> samples = TimingDoclet.samples;
+        log.info(String.format("JsonDoclet on java.base (%s), %d source files", String.join(",", packages), files.size()));
+        log.info(String.format("%10s %10s %14s", "iteration", "ms", "allocated MiB"));
+        for (Sample sample : samples) {
+            log.info(String.format("%10d %10.1f %14.1f", sample.getIteration(), sample.getMillis(), sample.getAllocatedBytes() / 1024.0 / 1024.0));
+        }
+
+        File report = new File("target/benchmark/doclet-java-base.json");
+        report.getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(report, samples);
+    }
+
+    private static List<File> extract(Path srcZip, Path moduleDir, String[] packages) throws Exception {
+        Set<String> directories = new HashSet<>();
+        for (String pkg : packages) {
+            directories.add("java.base/" + pkg.trim().replace('.', '/') + "/");
+        }
+        List<File> files = new ArrayList<>();
+        try (ZipFile zip = new ZipFile(srcZip.toFile())) {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                String name = entry.getName();
+                int slash = name.lastIndexOf('/');
+                if (!name.endsWith(".java") || !directories.contains(name.substring(0, slash + 1))) {
+                    continue;
+                }
+                Path target = moduleDir.resolve(name.substring("java.base/".length()));
+                Files.createDirectories(target.getParent());
+                try (InputStream in = zip.getInputStream(entry)) {
+                    Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+                files.add(target.toFile());
+            }
+        }
+        return files;
+    }
+
+    /**
+     * 在同一个 DocletEnvironment 上重复运行 JsonDoclet 并记录每次的耗时和当前线程分配的字节数
+     */
+    public static class TimingDoclet extends JsonDoclet {
+        static int iterations;
+        static List<Sample> samples;
+
+        @Override
+        public boolean run(DocletEnvironment environment) {
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            for (int i = 0; i < iterations; i++) {
+                long allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+                long start = System.nanoTime();
+                if (!super.run(environment)) {
+                    return false;
+                }
+                Sample sample = new Sample();
+                sample.setIteration(i);
+                sample.setMillis((System.nanoTime() - start) / 1_000_000.0);
+                sample.setAllocatedBytes(threads.getCurrentThreadAllocatedBytes() - allocatedBefore);
+                samples.add(sample);
+            }
+            return true;
+        }
+    }
+
+    @Data
+    public static class Sample {
+        private int iteration;
+        private double millis;
+        private long allocatedBytes;
+    }
+}
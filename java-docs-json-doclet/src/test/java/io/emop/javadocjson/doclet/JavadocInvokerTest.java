@@ -0,0 +1,290 @@
+package io.emop.javadocjson.doclet;
+
+import io.emop.javadocjson.model.JavadocClass;
+import io.emop.javadocjson.model.JavadocMethod;
+import io.emop.javadocjson.parser.QuietLog;
+import io.emop.javadocjson.util.CorpusReader;
+import io.emop.javadocjson.util.JsonGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 分区并行运行 doclet 的测试：跨分区引用的类型解析结果应与单次运行完全一致，
+ * 按源码根目录映射输出目录时每个模块的类写入各自的目录，写入归档时条目顺序稳定且内容与目录输出一致
+ */
+public class JavadocInvokerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testPartitionByPackage() {
+        List<Path> files = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            files.add(Paths.get("/src/a/A" + i + ".java"));
+        }
+        for (int i = 0; i < 3; i++) {
+            files.add(Paths.get("/src/b/B" + i + ".java"));
+            files.add(Paths.get("/src/c/C" + i + ".java"));
+        }
+        files.add(Paths.get("/src/d/D0.java"));
+
+        List<List<Path>> partitions = JavadocInvoker.partitionByPackage(files, 3);
+        assertEquals(3, partitions.size());
+        Set<Path> seen = new HashSet<>();
+        for (List<Path> partition : partitions) {
+            Set<Path> packages = partition.stream().map(Path::getParent).collect(Collectors.toSet());
+            for (Path pkg : packages) {
+                // 同一个包只能出现在一个分区中
+                for (List<Path> other : partitions) {
+                    if (other != partition) {
+                        assertTrue(other.stream().noneMatch(file -> file.getParent().equals(pkg)), "包 " + pkg + " 被拆分");
+                    }
+                }
+            }
+            seen.addAll(partition);
+        }
+        assertEquals(files.size(), seen.size(), "每个文件应恰好分到一个分区");
+        assertEquals(6, partitions.get(0).size(), "最大的包单独成区");
+
+        assertEquals(1, JavadocInvoker.partitionByPackage(files, 1).size());
+        assertEquals(4, JavadocInvoker.partitionByPackage(files, 16).size(), "分区数不超过包数");
+    }
+
+    @Test
+    void testPartitionedRunMatchesSingleRun() throws Exception {
+        Path sourceDir = tempDir.resolve("src");
+        write(sourceDir, "demo/base/Base.java", "package demo.base;\n"
+                + "/** Base type. @param <T> value type */\n"
+                + "public abstract class Base<T extends Comparable<T>> implements demo.api.Named {\n"
+                + "    /** @return the value */\n"
+                + "    public abstract T value();\n"
+                + "}\n");
+        write(sourceDir, "demo/api/Named.java", "package demo.api;\n"
+                + "/** Something with a name. */\n"
+                + "public interface Named {\n"
+                + "    /** @return the name */\n"
+                + "    default String name() { return getClass().getSimpleName(); }\n"
+                + "}\n");
+        write(sourceDir, "demo/api/Kind.java", "package demo.api;\n"
+                + "/** Kinds. */\n"
+                + "public enum Kind { SMALL, LARGE }\n");
+        write(sourceDir, "demo/impl/Impl.java", "package demo.impl;\n"
+                + "import demo.api.Kind;\n"
+                + "import demo.base.Base;\n"
+                + "import java.util.List;\n"
+                + "import java.util.Map;\n"
+                + "/** Implementation that only compiles when the other packages resolve. */\n"
+                + "public class Impl extends Base<String> {\n"
+                + "    /** The kind. */\n"
+                + "    public static final Kind DEFAULT_KIND = Kind.SMALL;\n"
+                + "    /** {@inheritDoc} */\n"
+                + "    @Override\n"
+                + "    public String value() { return \"\"; }\n"
+                + "    /**\n"
+                + "     * Groups by kind.\n"
+                + "     * @param items the items\n"
+                + "     * @return items by kind\n"
+                + "     */\n"
+                + "    public Map<Kind, List<Base<String>>> group(List<? extends Base<String>> items) { return null; }\n"
+                + "}\n");
+
+        Path single = tempDir.resolve("single");
+        Path partitioned = tempDir.resolve("partitioned");
+        DocletRunner.run(sourceDir, single, JsonDoclet.class, 1);
+        DocletRunner.run(sourceDir, partitioned, JsonDoclet.class, 3);
+
+        List<String> singleFiles = list(single);
+        assertEquals(Arrays.asList("demo.api.Kind.json", "demo.api.Named.json", "demo.base.Base.json", "demo.impl.Impl.json"),
+                singleFiles);
+        assertEquals(singleFiles, list(partitioned), "分区运行应输出相同的文件");
+        for (String name : singleFiles) {
+            assertArrayEquals(Files.readAllBytes(single.resolve(name)), Files.readAllBytes(partitioned.resolve(name)),
+                    name + " 的内容应与单次运行一致");
+        }
+        String impl = new String(Files.readAllBytes(partitioned.resolve("demo.impl.Impl.json")), StandardCharsets.UTF_8);
+        assertTrue(impl.contains("demo.base.Base<java.lang.String>"), "跨分区的父类应完整解析");
+        assertTrue(impl.contains("java.util.Map<demo.api.Kind,java.util.List<demo.base.Base<java.lang.String>>>"),
+                "跨分区的泛型返回类型应完整解析");
+    }
+
+    @Test
+    void testOutputMappingsSplitByModule() throws Exception {
+        Path core = tempDir.resolve("core/src/main/java");
+        Path app = tempDir.resolve("app/src/main/java");
+        write(core, "demo/core/Entity.java", "package demo.core;\n"
+                + "/** Core entity. */\n"
+                + "public class Entity {\n"
+                + "    /** @return the id */\n"
+                + "    public long id() { return 0; }\n"
+                + "}\n");
+        write(app, "demo/app/Order.java", "package demo.app;\n"
+                + "/** Order from another module. */\n"
+                + "public class Order extends demo.core.Entity { }\n");
+
+        List<File> files = new ArrayList<>();
+        files.add(core.resolve("demo/core/Entity.java").toFile());
+        files.add(app.resolve("demo/app/Order.java").toFile());
+        Map<String, String> mappings = new LinkedHashMap<>();
+        mappings.put(core.toString(), tempDir.resolve("core/target/javadoc-json").toString());
+        mappings.put(app.toString(), tempDir.resolve("app/target/javadoc-json").toString());
+
+        JavadocInvoker invoker = new JavadocInvoker(new QuietLog());
+        invoker.setOutputDirectory(tempDir.resolve("combined").toString());
+        invoker.setSourceRoots(Arrays.asList(core, app));
+        invoker.setOutputMappings(mappings);
+        invoker.setPartitions(2);
+        assertTrue(invoker.run(files));
+
+        assertEquals(Collections.singletonList("demo.core.Entity.json"), list(tempDir.resolve("core/target/javadoc-json")));
+        assertEquals(Collections.singletonList("demo.app.Order.json"), list(tempDir.resolve("app/target/javadoc-json")));
+        String order = new String(Files.readAllBytes(tempDir.resolve("app/target/javadoc-json/demo.app.Order.json")), StandardCharsets.UTF_8);
+        assertTrue(order.contains("\"superClass\" : \"demo.core.Entity\""), "其他模块的父类应从源码解析");
+    }
+
+    @Test
+    void testArchiveOutputMatchesDirectory() throws Exception {
+        Path sourceDir = tempDir.resolve("src");
+        write(sourceDir, "demo/Outer.java", "package demo;\n"
+                + "/** Outer. */\n"
+                + "public class Outer {\n"
+                + "    /** Nested. */\n"
+                + "    public static class Inner { }\n"
+                + "}\n");
+        write(sourceDir, "demo/OuterB.java", "package demo;\n/** Another. */\npublic class OuterB { }\n");
+        write(sourceDir, "demo/api/Named.java", "package demo.api;\n/** Named. */\npublic interface Named { }\n");
+        List<File> files;
+        try (Stream<Path> paths = Files.walk(sourceDir)) {
+            files = paths.filter(Files::isRegularFile).map(Path::toFile).collect(Collectors.toList());
+        }
+
+        Path directory = tempDir.resolve("directory");
+        JavadocInvoker invoker = new JavadocInvoker(new QuietLog());
+        invoker.setOutputDirectory(directory.toString());
+        invoker.setSourceRoots(Collections.singletonList(sourceDir));
+        assertTrue(invoker.run(files));
+
+        Path archive = tempDir.resolve("out/javadoc-json.jar");
+        invoker.setOutputArchive(archive);
+        invoker.setArchiveStored(true);
+        invoker.setPartitions(2);
+        assertTrue(invoker.run(files));
+        byte[] first = Files.readAllBytes(archive);
+
+        List<String> names = new ArrayList<>();
+        try (ZipFile zip = new ZipFile(archive.toFile())) {
+            for (ZipEntry entry : Collections.list(zip.entries())) {
+                names.add(entry.getName());
+                assertEquals(ZipEntry.STORED, entry.getMethod(), "应使用不压缩的条目");
+                try (InputStream in = zip.getInputStream(entry)) {
+                    assertArrayEquals(Files.readAllBytes(directory.resolve(entry.getName())), readAll(in),
+                            entry.getName() + " 的内容应与目录输出一致");
+                }
+            }
+        }
+        assertEquals(list(directory), names, "条目应按文件名顺序写入");
+        assertEquals("demo.Outer$Inner.json", names.get(0));
+
+        assertTrue(invoker.run(files));
+        assertArrayEquals(first, Files.readAllBytes(archive), "相同源码应生成逐字节相同的归档");
+        assertEquals(Collections.singletonList("javadoc-json.jar"), list(archive.getParent()), "临时文件应被移走");
+    }
+
+    @Test
+    void testCorpusMatchesDirectoryOutput() throws Exception {
+        Path sourceDir = tempDir.resolve("src");
+        write(sourceDir, "demo/Repository.java", "package demo;\n"
+                + "import java.util.List;\n"
+                + "/** Stores items. */\n"
+                + "public interface Repository<T> {\n"
+                + "    /** Finds items.\n     * @param name the name\n     * @return the items\n"
+                + "     * @throws IllegalStateException if closed */\n"
+                + "    List<T> find(String name) throws IllegalStateException;\n"
+                + "}\n");
+        write(sourceDir, "demo/Names.java", "package demo;\n"
+                + "import java.util.List;\n"
+                + "/** Names. */\n"
+                + "public class Names implements Repository<String> {\n"
+                + "    /** The limit. */\n"
+                + "    public static final int LIMIT = 10;\n"
+                + "    /** Creates it. @param prefix the prefix */\n"
+                + "    public Names(String prefix) { }\n"
+                + "    @Override\n"
+                + "    public List<String> find(String name) { return null; }\n"
+                + "}\n");
+        List<File> files;
+        try (Stream<Path> paths = Files.walk(sourceDir)) {
+            files = paths.filter(Files::isRegularFile).map(Path::toFile).collect(Collectors.toList());
+        }
+
+        Path directory = tempDir.resolve("json");
+        Path corpus = tempDir.resolve("out/docs.corpus");
+        JavadocInvoker invoker = new JavadocInvoker(new QuietLog());
+        invoker.setOutputDirectory(directory.toString());
+        invoker.setSourceRoots(Collections.singletonList(sourceDir));
+        invoker.setOutputCorpus(corpus);
+        invoker.setPartitions(2);
+        assertTrue(invoker.run(files));
+
+        List<JavadocClass> loaded = new CorpusReader().read(corpus);
+        List<String> names = new ArrayList<>();
+        for (JavadocClass javadocClass : loaded) {
+            names.add(javadocClass.getFullName() + ".json");
+            assertEquals(JsonGenerator.readClassFromFile(directory.resolve(javadocClass.getFullName() + ".json").toFile()),
+                    javadocClass, javadocClass.getFullName() + " 应与 JSON 输出一致");
+        }
+        assertEquals(list(directory), names, "语料应包含所有类且按文件名排序");
+
+        JavadocMethod declared = (JavadocMethod) loaded.get(1).getMethods().get(0);
+        JavadocMethod implemented = (JavadocMethod) loaded.get(0).getMethods().get(0);
+        assertSame(declared.getParameters().get(0).getType(), implemented.getParameters().get(0).getType(),
+                "加载后相同的类型名应共享同一实例");
+    }
+
+    private static byte[] readAll(InputStream in) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static void write(Path root, String path, String content) throws Exception {
+        Path file = root.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static List<String> list(Path dir) throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(path -> path.getFileName().toString()).sorted().collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package io.emop.javadocjson.doclet;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.emop.javadocjson.parser.QuietLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JsonDoclet 测试：描述和 @param、@return、@throws、@since 应在一次遍历中完整提取，
+ * 规范输出模式下结果逐字节稳定；保留的堆不随类数增长由 DocletRetainedHeapBenchmarkTest 验证
+ */
+public class JsonDocletTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testExtractDocCommentParts() throws Exception {
+        Path sourceDir = tempDir.resolve("src");
+        Path packageDir = Files.createDirectories(sourceDir.resolve("demo"));
+        String source = "package demo;\n"
+                + "/** Demo class. */\n"
+                + "public class Demo {\n"
+                + "    /**\n"
+                + "     * Creates a demo.\n"
+                + "     *\n"
+                + "     * @param name the name\n"
+                + "     * @exception IllegalArgumentException if {@code name} is empty\n"
+                + "     */\n"
+                + "    public Demo(String name) { }\n"
+                + "\n"
+                + "    /**\n"
+                + "     * Returns the {@code value} of <b>this</b> &amp; {@link String} 文件 part.\n"
+                + "     *\n"
+                + "     * @param <T> the element type\n"
+                + "     * @param first the {@code first} value\n"
+                + "     * @param second the second value\n"
+                + "     * @return the result\n"
+                + "     * @throws IllegalStateException when {@code first} is negative\n"
+                + "     * @since 1.2\n"
+                + "     */\n"
+                + "    public <T> int compute(int first, T second) throws IllegalStateException { return first; }\n"
+                + "\n"
+                + "    /** No block tags. */\n"
+                + "    public void plain() { }\n"
+                + "}\n";
+        Files.write(packageDir.resolve("Demo.java"), source.getBytes(StandardCharsets.UTF_8));
+
+        Path outputDir = tempDir.resolve("json");
+        DocletRunner.run(sourceDir, outputDir);
+        JsonNode demo = new ObjectMapper().readTree(outputDir.resolve("demo.Demo.json").toFile());
+
+        JsonNode compute = findByName(demo.path("methods"), "compute");
+        assertEquals("Returns the {@code value} of <b>this</b> &amp; {@link String} 文件 part.",
+                compute.path("description").asText(), "描述应按源码形式拼接且不含块标签");
+        assertEquals("the {@code first} value", compute.path("parameters").get(0).path("description").asText());
+        assertEquals("the second value", compute.path("parameters").get(1).path("description").asText());
+        assertEquals("the result", compute.path("returnDescription").asText());
+        assertEquals("when {@code first} is negative", compute.path("exceptionDescriptions").path("IllegalStateException").asText());
+        assertEquals("1.2", compute.path("since").asText());
+
+        JsonNode plain = findByName(demo.path("methods"), "plain");
+        assertEquals("No block tags.", plain.path("description").asText());
+        assertFalse(plain.has("returnDescription"), "没有 @return 时不输出该字段");
+        assertFalse(plain.has("exceptionDescriptions"), "没有 @throws 时不输出该字段");
+
+        JsonNode constructor = demo.path("constructors").get(0);
+        assertEquals("Creates a demo.", constructor.path("description").asText());
+        assertEquals("the name", constructor.path("parameters").get(0).path("description").asText());
+        assertEquals("if {@code name} is empty", constructor.path("exceptionDescriptions").path("IllegalArgumentException").asText(),
+                "@exception 与 @throws 等价");
+    }
+
+    @Test
+    void testDecodeUnicodeEscapes() {
+        DocCommentExtractor extractor = new DocCommentExtractor();
+        String plain = "no escapes here";
+        assertSame(plain, extractor.decode(plain), "没有转义时应直接返回原字符串");
+        assertEquals("文件路径", extractor.decode("\\u6587\\u4ef6\\u8def\\u5f84"));
+        assertEquals("a\\uZZZZ文", extractor.decode("a\\uZZZZ\\u6587"), "非法的转义保持原样");
+    }
+
+    @Test
+    void testCanonicalOutputIsByteStable() throws Exception {
+        String members = "    /** Second. \n     * @return the size   \n     */\n    public int size() { return 0; }\n"
+                + "    /** The name. */\n    protected static final String NAME = \"n\";\n"
+                + "    /** Adds. @param value the value */\n    public void add(String value) { }\n"
+                + "    /** Adds many. @param values the values */\n    public void add(String... values) { }\n"
+                + "    /** Count. */\n    public final static int COUNT = 1;\n";
+        String reordered = "    /** Adds many. @param values the values */\n    public void add(String... values) { }\n"
+                + "    /** Count. */\n    final public static int COUNT = 1;\n"
+                + "    /** Second. \n     * @return the size\n     */\n    public int size() { return 0; }\n"
+                + "    /** Adds. @param value the value */\n    public void add(String value) { }\n"
+                + "    /** The name. */\n    protected static final String NAME = \"n\";\n";
+        Path first = canonicalRun("first", members, "\n");
+        Path again = canonicalRun("again", members, "\n");
+        Path shuffled = canonicalRun("shuffled", reordered, "\r\n");
+
+        byte[] expected = Files.readAllBytes(first.resolve("demo.Stable.json"));
+        assertArrayEquals(expected, Files.readAllBytes(again.resolve("demo.Stable.json")), "重复运行应输出相同的字节");
+        assertArrayEquals(expected, Files.readAllBytes(shuffled.resolve("demo.Stable.json")),
+                "成员顺序、修饰符顺序、行尾和行尾空白不应影响输出");
+
+        String json = new String(expected, StandardCharsets.UTF_8);
+        assertFalse(json.contains("\r"), "输出只使用 \\n 换行");
+        JsonNode stable = new ObjectMapper().readTree(expected);
+        assertEquals("add", stable.path("methods").get(0).path("name").asText(), "成员按名称排序");
+        assertEquals("size", stable.path("methods").get(2).path("name").asText());
+        assertEquals("[\"public\",\"static\",\"final\"]", stable.path("fields").get(0).path("modifiers").toString());
+        List<String> keys = new ArrayList<>();
+        stable.fieldNames().forEachRemaining(keys::add);
+        List<String> sorted = new ArrayList<>(keys);
+        Collections.sort(sorted);
+        assertEquals(sorted, keys, "属性按键名排序");
+    }
+
+    private Path canonicalRun(String name, String members, String lineSeparator) throws Exception {
+        Path sourceDir = tempDir.resolve(name).resolve("src");
+        Path packageDir = Files.createDirectories(sourceDir.resolve("demo"));
+        String source = "package demo;\n/** Stable output. */\npublic class Stable {\n" + members + "}\n";
+        Files.write(packageDir.resolve("Stable.java"), source.replace("\n", lineSeparator).getBytes(StandardCharsets.UTF_8));
+
+        Path outputDir = tempDir.resolve(name).resolve("json");
+        JavadocInvoker invoker = new JavadocInvoker(new QuietLog());
+        invoker.setOutputDirectory(outputDir.toString());
+        invoker.setSourceRoots(Collections.singletonList(sourceDir));
+        invoker.setCanonical(true);
+        assertTrue(invoker.run(Collections.singletonList(packageDir.resolve("Stable.java").toFile())));
+        return outputDir;
+    }
+
+    private static JsonNode findByName(JsonNode members, String name) {
+        for (JsonNode member : members) {
+            if (name.equals(member.path("name").asText())) {
+                return member;
+            }
+        }
+        throw new AssertionError("未找到成员 " + name);
+    }
+}
@@ -0,0 +1,163 @@
+package io.emop.javadocjson.doclet;
+
+import io.emop.javadocjson.parser.QuietLog;
+import io.emop.javadocjson.util.JsonGenerator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 依赖 -sources.jar 缓存测试：直接从 jar 中读取源码生成 JSON，按 GAV 缓存后可直接复用，
+ * 编码或依赖自身的传递依赖不同时不复用，类路径不同的使用方只要依赖坐标相同就共用同一缓存，SNAPSHOT 版本的 jar 变化后缓存失效
+ */
+public class SourcesJarCacheTest {
+
+    private static final Map<String, String> NONE = Collections.emptyMap();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testGenerateFromJarAndReuse() throws Exception {
+        Map<String, String> sources = new LinkedHashMap<>();
+        sources.put("module-info.java", "module demo.lib { exports demo.lib; }\n");
+        sources.put("demo/lib/Client.java", "package demo.lib;\n"
+                + "import optional.missing.Tracer;\n"
+                + "/** Client of the library. */\n"
+                + "public class Client {\n"
+                + "    /**\n"
+                + "     * Sends a request.\n"
+                + "     * @param request the request\n"
+                + "     * @return the response\n"
+                + "     */\n"
+                + "    public Response send(Request request) { return null; }\n"
+                + "    /** @param tracer optional tracer from a dependency that is not on the classpath */\n"
+                + "    public void trace(Tracer tracer) { }\n"
+                + "}\n");
+        sources.put("demo/lib/Request.java", "package demo.lib;\n/** A request. */\npublic class Request { }\n");
+        sources.put("demo/lib/Response.java", "package demo.lib;\n/** A response. */\npublic interface Response { }\n");
+        sources.put("META-INF/versions/11/demo/lib/Request.java", "package demo.lib;\npublic class Request { }\n");
+        Path jar = writeJar(tempDir.resolve("demo-lib-1.0-sources.jar"), sources);
+
+        SourcesJarCache cache = new SourcesJarCache(new QuietLog(), tempDir.resolve("cache"));
+        assertNull(cache.lookup("demo", "demo-lib", "1.0", jar, NONE), "首次运行时缓存应为空");
+
+        Path entry = cache.generate("demo", "demo-lib", "1.0", jar, NONE, 2);
+        assertEquals(tempDir.resolve("cache/demo/demo-lib/1.0"), entry.getParent(), "缓存应按 GAV 分目录");
+        assertTrue(entry.getFileName().toString().startsWith("public-"), "缓存应按可见性分目录");
+        assertEquals(Arrays.asList("demo.lib.Client.json", "demo.lib.Request.json", "demo.lib.Response.json"), list(entry));
+        String client = new String(Files.readAllBytes(entry.resolve("demo.lib.Client.json")), StandardCharsets.UTF_8);
+        assertTrue(client.contains("\"returnType\" : \"demo.lib.Response\""), "同一 jar 中的类型应从源码解析");
+        assertTrue(client.contains("\"name\" : \"trace\""), "引用缺失的可选依赖时仍应生成文档");
+        assertTrue(Files.isRegularFile(entry.resolve(JsonGenerator.METADATA_DIRECTORY).resolve(SourcesJarCache.ENTRY_FILE)));
+
+        assertEquals(entry, cache.lookup("demo", "demo-lib", "1.0", jar, NONE), "生成后应命中缓存");
+        Path output = tempDir.resolve("output");
+        assertEquals(3, SourcesJarCache.copyEntry(entry, output));
+        assertEquals(list(entry), list(output), "只复制类的 JSON 文件");
+
+        try (Stream<Path> siblings = Files.list(entry.getParent())) {
+            assertEquals(1, siblings.count(), "发布后不应留下临时目录");
+        }
+
+        // 编码或依赖自身的传递依赖不同时生成的文档可能不同，不应复用
+        SourcesJarCache latin = new SourcesJarCache(new QuietLog(), tempDir.resolve("cache"));
+        latin.setEncoding("ISO-8859-1");
+        assertNull(latin.lookup("demo", "demo-lib", "1.0", jar, NONE), "编码不同时不应命中缓存");
+        Map<String, String> withTracer = Collections.singletonMap("optional:tracer:jar:1.0",
+                tempDir.resolve("tracer.jar").toString());
+        assertNull(cache.lookup("demo", "demo-lib", "1.0", jar, withTracer), "传递依赖不同时不应命中缓存");
+        assertEquals(entry, new SourcesJarCache(new QuietLog(), tempDir.resolve("cache")).lookup("demo", "demo-lib", "1.0", jar, NONE),
+                "相同设置应命中缓存");
+    }
+
+    @Test
+    void testConsumersWithDifferentClasspathsShareEntry() throws Exception {
+        Map<String, String> sources = new LinkedHashMap<>();
+        sources.put("demo/web/Handler.java", "package demo.web;\n/** Handles requests. */\npublic class Handler { }\n");
+        Path jar = writeJar(tempDir.resolve("demo-web-2.0-sources.jar"), sources);
+
+        // 两个使用方的类路径不同，本地仓库位置也不同，但 demo-web 自身解析出的传递依赖坐标相同
+        Map<String, String> firstConsumer = new TreeMap<>();
+        firstConsumer.put("demo:demo-core:jar:2.0", emptyJar(tempDir.resolve("first-repo/demo-core-2.0.jar")));
+        firstConsumer.put("demo:demo-json:jar:1.4", emptyJar(tempDir.resolve("first-repo/demo-json-1.4.jar")));
+        Map<String, String> secondConsumer = new LinkedHashMap<>();
+        secondConsumer.put("demo:demo-json:jar:1.4", emptyJar(tempDir.resolve("second-repo/demo-json-1.4.jar")));
+        secondConsumer.put("demo:demo-core:jar:2.0", emptyJar(tempDir.resolve("second-repo/demo-core-2.0.jar")));
+
+        Path entry = new SourcesJarCache(new QuietLog(), tempDir.resolve("cache"))
+                .generate("demo", "demo-web", "2.0", jar, firstConsumer, 1);
+        SourcesJarCache second = new SourcesJarCache(new QuietLog(), tempDir.resolve("cache"));
+        assertEquals(entry, second.lookup("demo", "demo-web", "2.0", jar, secondConsumer),
+                "依赖坐标相同时，类路径不同的使用方应命中同一缓存");
+
+        secondConsumer.put("demo:demo-json:jar:1.5", secondConsumer.remove("demo:demo-json:jar:1.4"));
+        assertNull(second.lookup("demo", "demo-web", "2.0", jar, secondConsumer), "传递依赖版本不同时不应命中缓存");
+    }
+
+    @Test
+    void testSnapshotEntryInvalidatedByNewJar() throws Exception {
+        Map<String, String> sources = new LinkedHashMap<>();
+        sources.put("demo/snap/Api.java", "package demo.snap;\n/** The API. */\npublic class Api { }\n");
+        Path jar = writeJar(tempDir.resolve("demo-snap-1.0-SNAPSHOT-sources.jar"), sources);
+
+        SourcesJarCache cache = new SourcesJarCache(new QuietLog(), tempDir.resolve("cache"));
+        cache.setIncludePrivate(true);
+        Path entry = cache.generate("demo", "demo-snap", "1.0-SNAPSHOT", jar, NONE, 1);
+        assertTrue(entry.getFileName().toString().startsWith("private-"));
+        assertNotNull(cache.lookup("demo", "demo-snap", "1.0-SNAPSHOT", jar, NONE));
+
+        sources.put("demo/snap/Extra.java", "package demo.snap;\n/** Added later. */\npublic class Extra { }\n");
+        writeJar(jar, sources);
+        Files.setLastModifiedTime(jar, FileTime.fromMillis(Files.getLastModifiedTime(jar).toMillis() + 1000));
+        assertNull(cache.lookup("demo", "demo-snap", "1.0-SNAPSHOT", jar, NONE), "SNAPSHOT 的 jar 变化后缓存应失效");
+
+        cache.generate("demo", "demo-snap", "1.0-SNAPSHOT", jar, NONE, 1);
+        assertEquals(Arrays.asList("demo.snap.Api.json", "demo.snap.Extra.json"), list(entry), "重新生成应替换旧的缓存");
+    }
+
+    private static Path writeJar(Path jar, Map<String, String> sources) throws Exception {
+        try (OutputStream out = Files.newOutputStream(jar); ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (Map.Entry<String, String> source : sources.entrySet()) {
+                zip.putNextEntry(new ZipEntry(source.getKey()));
+                zip.write(source.getValue().getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return jar;
+    }
+
+    private static String emptyJar(Path jar) throws Exception {
+        Files.createDirectories(jar.getParent());
+        return writeJar(jar, Collections.emptyMap()).toString();
+    }
+
+    private static List<String> list(Path dir) throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(Files::isRegularFile)
+                    .map(path -> path.getFileName().toString())
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+}
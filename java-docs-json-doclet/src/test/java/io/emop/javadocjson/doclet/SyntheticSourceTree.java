@@ -0,0 +1,246 @@
+package io.emop.javadocjson.doclet;
+
+import lombok.Getter;
+import lombok.Setter;
+import lombok.experimental.Accessors;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 生成可编译的合成 Java 源码树，用于在大规模下测试 JsonDoclet 和 PublishMojo
+ * <p>
+ * 包数、每包类数、方法数、字段数、泛型嵌套深度、Javadoc 长度和使用 Lombok 的类比例均可调整。
+ * 每个包中每 4 个类型有一个接口（只含 default 方法），其余为类，类会继承前一个类（继承链不超过 5 层）
+ * 并实现最近的接口；使用 Lombok 的类通过 @Getter/@Setter 生成访问器，编译时需要 Lombok 在类路径上。
+ * 也可以直接运行: SyntheticSourceTree &lt;outputDir&gt; &lt;classCount&gt;
+ */
+@Getter
+@Setter
+@Accessors(chain = true)
+public class SyntheticSourceTree {
+
+    public static final String BASE_PACKAGE = "synthetic";
+
+    private int packages = 10;
+    private int classesPerPackage = 100;
+    private int methodsPerClass = 10;
+    private int fieldsPerClass = 4;
+    private int genericsDepth = 2;
+    private int javadocSentences = 3;
+    private double lombokRatio = 0.2;
+    private long seed = 42;
+
+    /**
+     * 按总类数设置包数，每包类数保持不变
+     */
+    public SyntheticSourceTree setTotalClasses(int totalClasses) {
+        this.packages = Math.max(1, (totalClasses + classesPerPackage - 1) / classesPerPackage);
+        return this;
+    }
+
+    public int getTotalClasses() {
+        return packages * classesPerPackage;
+    }
+
+    /**
+     * 包中第 index 个类型是否生成为接口
+     */
+    public static boolean isInterface(int index) {
+        return index % 4 == 3;
+    }
+
+    /**
+     * 在 root 下生成源码树
+     *
+     * @return 生成的源文件
+     */
+    public List<Path> generate(Path root) throws IOException {
+        Random random = new Random(seed);
+        List<Path> files = new ArrayList<>();
+        for (int p = 0; p < packages; p++) {
+            String packageName = packageName(p);
+            Path dir = root.resolve(packageName.replace('.', '/'));
+            Files.createDirectories(dir);
+            Files.write(dir.resolve("package-info.java"), packageInfo(packageName, random).getBytes(StandardCharsets.UTF_8));
+            for (int c = 0; c < classesPerPackage; c++) {
+                Path file = dir.resolve(typeName(c) + ".java");
+                String source = isInterface(c) ? interfaceSource(packageName, c, random) : classSource(packageName, c, random);
+                Files.write(file, source.getBytes(StandardCharsets.UTF_8));
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    public static String packageName(int index) {
+        return BASE_PACKAGE + ".p" + index;
+    }
+
+    public static String typeName(int index) {
+        return "Type" + index;
+    }
+
+    private String packageInfo(String packageName, Random random) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("/**\n * ").append(sentences(random, Math.max(1, javadocSentences))).append("\n */\n");
+        sb.append("package ").append(packageName).append(";\n");
+        return sb.toString();
+    }
+
+    private String interfaceSource(String packageName, int index, Random random) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("package ").append(packageName).append(";\n\n");
+        javadoc(sb, "", random, null, false, false);
+        sb.append("public interface ").append(typeName(index)).append(" {\n\n");
+        for (int m = 0; m < methodsPerClass; m++) {
+            javadoc(sb, "    ", random, new String[]{"input"}, true, false);
+            sb.append("    default ").append(genericType(genericsDepth)).append(" describe").append(m)
+                    .append("(String input) {\n        return null;\n    }\n\n");
+        }
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    private String classSource(String packageName, int index, Random random) {
+        String name = typeName(index);
+        boolean generic = genericsDepth > 0;
+        boolean lombok = random.nextDouble() < lombokRatio;
+        String typeParameters = generic ? "<T extends Comparable<T>>" : "";
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("package ").append(packageName).append(";\n\n");
+        if (lombok) {
+            sb.append("import lombok.Getter;\nimport lombok.Setter;\n\n");
+        }
+        javadoc(sb, "", random, null, false, false);
+        if (lombok) {
+            sb.append("@Getter\n@Setter\n");
+        }
+        sb.append("public class ").append(name).append(typeParameters);
+        int superIndex = index - 1;
+        if (index % 5 != 0 && superIndex >= 0 && !isInterface(superIndex)) {
+            sb.append(" extends ").append(typeName(superIndex)).append(generic ? "<T>" : "");
+        }
+        int interfaceIndex = index - 1;
+        while (interfaceIndex >= 0 && !isInterface(interfaceIndex)) {
+            interfaceIndex--;
+        }
+        if (interfaceIndex >= 0) {
+            sb.append(" implements ").append(typeName(interfaceIndex));
+        }
+        sb.append(" {\n\n");
+
+        for (int f = 0; f < fieldsPerClass; f++) {
+            javadoc(sb, "    ", random, null, false, false);
+            if (f == 0) {
+                sb.append("    public static final int LIMIT_").append(index).append(" = ").append(index).append(";\n\n");
+            } else if (lombok) {
+                sb.append("    private ").append(genericType(genericsDepth - 1)).append(" field").append(f).append(";\n\n");
+            } else {
+                sb.append("    protected ").append(genericType(genericsDepth - 1)).append(" field").append(f).append(";\n\n");
+            }
+        }
+
+        javadoc(sb, "    ", random, null, false, false);
+        sb.append("    public ").append(name).append("() {\n    }\n\n");
+        javadoc(sb, "    ", random, new String[]{"value"}, false, true);
+        sb.append("    protected ").append(name).append("(String value) throws IllegalArgumentException {\n")
+                .append("        if (value == null) {\n            throw new IllegalArgumentException();\n        }\n    }\n\n");
+
+        for (int m = 0; m < methodsPerClass; m++) {
+            if (m % 3 == 2) {
+                javadoc(sb, "    ", random, new String[]{"first", "second"}, true, true);
+                sb.append("    public int compute").append(m).append("(int first, ").append(generic ? "T" : "String")
+                        .append(" second) throws IllegalArgumentException {\n        return first;\n    }\n\n");
+            } else {
+                javadoc(sb, "    ", random, new String[]{"input"}, true, false);
+                sb.append("    public ").append(genericType(genericsDepth)).append(" compute").append(m)
+                        .append("(").append(genericType(genericsDepth - 1)).append(" input) {\n        return null;\n    }\n\n");
+            }
+        }
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    /**
+     * 嵌套 depth 层的泛型类型，depth 为 0 时是 String
+     */
+    static String genericType(int depth) {
+        if (depth <= 0) {
+            return "String";
+        }
+        if (depth % 2 == 1) {
+            return "java.util.List<" + genericType(depth - 1) + ">";
+        }
+        return "java.util.Map<String, " + genericType(depth - 1) + ">";
+    }
+
+    private void javadoc(StringBuilder sb, String indent, Random random, String[] params, boolean returns, boolean throwsTag) {
+        if (javadocSentences <= 0) {
+            return;
+        }
+        sb.append(indent).append("/**\n");
+        sb.append(indent).append(" * ").append(sentences(random, javadocSentences)).append("\n");
+        if (params != null) {
+            sb.append(indent).append(" *\n");
+            for (String param : params) {
+                sb.append(indent).append(" * @param ").append(param).append(' ').append(sentences(random, 1)).append("\n");
+            }
+        }
+        if (returns) {
+            sb.append(indent).append(" * @return ").append(sentences(random, 1)).append("\n");
+        }
+        if (throwsTag) {
+            sb.append(indent).append(" * @throws IllegalArgumentException if the value is rejected\n");
+        }
+        sb.append(indent).append(" * @since 1.").append(random.nextInt(10)).append("\n");
+        sb.append(indent).append(" */\n");
+    }
+
+    private static final String[] WORDS = {
+            "returns", "the", "current", "value", "of", "this", "part", "session", "feature", "body",
+            "expression", "builder", "collection", "tagged", "object", "which", "is", "used", "by", "journal",
+            "when", "update", "callers", "should", "not", "modify", "result", "and", "may", "be"
+    };
+
+    private static String sentences(Random random, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int s = 0; s < count; s++) {
+            if (s > 0) {
+                sb.append(' ');
+            }
+            int words = 6 + random.nextInt(10);
+            for (int w = 0; w < words; w++) {
+                String word = WORDS[random.nextInt(WORDS.length)];
+                if (w == 0) {
+                    sb.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+                } else if (w == 3 && s % 2 == 1) {
+                    sb.append(" {@code ").append(word).append('}');
+                } else if (w == 5 && s % 3 == 2) {
+                    sb.append(" {@link String}");
+                } else {
+                    sb.append(' ').append(word);
+                }
+            }
+            sb.append('.');
+        }
+        return sb.toString();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: SyntheticSourceTree <outputDir> <classCount>");
+            System.exit(1);
+        }
+        SyntheticSourceTree tree = new SyntheticSourceTree().setTotalClasses(Integer.parseInt(args[1]));
+        List<Path> files = tree.generate(Paths.get(args[0]));
+        System.out.println("Generated " + files.size() + " classes in " + tree.getPackages() + " packages under " + args[0]);
+    }
+}
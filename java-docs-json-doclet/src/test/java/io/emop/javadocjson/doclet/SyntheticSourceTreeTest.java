@@ -0,0 +1,71 @@
+package io.emop.javadocjson.doclet;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 合成源码树测试：生成的源码应能编译，JsonDoclet 应为每个类型输出一个 JSON 文件
+ */
+public class SyntheticSourceTreeTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testGeneratedTreeCompilesAndDocuments() throws Exception {
+        SyntheticSourceTree tree = new SyntheticSourceTree()
+                .setPackages(2)
+                .setClassesPerPackage(12)
+                .setMethodsPerClass(4)
+                .setGenericsDepth(3)
+                .setLombokRatio(0.5);
+        Path sourceDir = tempDir.resolve("src");
+        List<Path> files = tree.generate(sourceDir);
+        assertEquals(24, files.size());
+
+        // 使用 Lombok 的类需要注解处理器，javac 会从类路径中发现它
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        StringWriter output = new StringWriter();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+            Iterable<? extends JavaFileObject> units = fileManager.getJavaFileObjectsFromPaths(files);
+            Path classesDir = Files.createDirectories(tempDir.resolve("classes"));
+            List<String> options = Arrays.asList("-d", classesDir.toString(),
+                    "-classpath", System.getProperty("java.class.path"));
+            boolean compiled = compiler.getTask(output, fileManager, null, options, null, units).call();
+            assertTrue(compiled, "合成源码应能编译:\n" + output);
+        }
+
+        Path outputDir = tempDir.resolve("json");
+        DocletRunner.run(sourceDir, outputDir);
+
+        ObjectMapper mapper = new ObjectMapper();
+        for (int c = 0; c < tree.getClassesPerPackage(); c++) {
+            String fullName = SyntheticSourceTree.packageName(1) + "." + SyntheticSourceTree.typeName(c);
+            Path json = outputDir.resolve(fullName + ".json");
+            assertTrue(Files.exists(json), "缺少 " + fullName);
+            JsonNode node = mapper.readTree(json.toFile());
+            assertEquals(4, node.path("methods").size(), fullName + " 方法数");
+            assertFalse(node.path("description").asText().isEmpty(), fullName + " 应有描述");
+            if (!SyntheticSourceTree.isInterface(c)) {
+                assertEquals(2, node.path("constructors").size(), fullName + " 构造函数数");
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package io.emop.javadocjson.jfr;
+
+import io.emop.javadocjson.config.JDK9Dialet;
+import io.emop.javadocjson.model.JavadocClass;
+import io.emop.javadocjson.parser.HtmlCrawler;
+import io.emop.javadocjson.parser.JavadocSiteServer;
+import io.emop.javadocjson.parser.SimpleConsoleLog;
+import io.emop.javadocjson.util.JsonGenerator;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * FlightRecording 和自定义 JFR 事件测试类
+ */
+public class FlightRecordingTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testCrawlAndWriteEventsAreRecorded() throws Exception {
+        File jfrFile = tempDir.resolve("crawl.jfr").toFile();
+        int classCount;
+        try (JavadocSiteServer site = new JavadocSiteServer(2, 3, 2).start()) {
+            classCount = site.getClassCount();
+            try (FlightRecording ignored = FlightRecording.start(new SimpleConsoleLog(), jfrFile)) {
+                HtmlCrawler crawler = new HtmlCrawler(new SimpleConsoleLog(), new JDK9Dialet());
+                crawler.setCacheDir(tempDir.resolve("cache").toString());
+                List<JavadocClass> classes = crawler.crawl(site.getBaseUrl());
+                assertEquals(classCount, classes.size());
+
+                JsonGenerator generator = new JsonGenerator();
+                for (JavadocClass javadocClass : classes) {
+                    generator.writeClassToFile(javadocClass, tempDir.resolve("out").resolve(javadocClass.getFullName() + ".json").toFile());
+                }
+            }
+        }
+
+        assertTrue(jfrFile.length() > 0, "关闭后应写出 .jfr 文件");
+        List<RecordedEvent> events = RecordingFile.readAllEvents(jfrFile.toPath()).stream()
+                .filter(event -> event.getEventType().getName().startsWith("io.emop.javadocjson."))
+                .collect(Collectors.toList());
+        Map<String, List<RecordedEvent>> byType = events.stream()
+                .collect(Collectors.groupingBy(event -> event.getEventType().getName()));
+
+        List<RecordedEvent> crawls = byType.get("io.emop.javadocjson.ClassCrawl");
+        assertEquals(classCount, crawls.size(), "每个类应有一个爬取事件");
+        for (RecordedEvent crawl : crawls) {
+            assertEquals("PARSED", crawl.getString("outcome"));
+            assertTrue(crawl.getString("url").startsWith("http://127.0.0.1:"));
+        }
+
+        // 类页面之外还会抓取 allclasses.html
+        List<RecordedEvent> fetches = byType.get("io.emop.javadocjson.PageFetch");
+        assertTrue(fetches.size() >= classCount);
+        assertTrue(fetches.stream().allMatch(fetch -> fetch.getLong("bytes") > 0), "抓取事件应记录页面大小");
+
+        List<RecordedEvent> parses = byType.get("io.emop.javadocjson.PageParse");
+        assertEquals(classCount, parses.size());
+        assertTrue(parses.stream().allMatch(parse -> parse.getString("className").startsWith("com.example.pkg")),
+                "解析事件应记录完整类名");
+        List<RecordedEvent> extracts = byType.get("io.emop.javadocjson.DialectExtract");
+        assertEquals(classCount, extracts.size());
+        assertEquals(new JDK9Dialet().getConfigName(), extracts.get(0).getString("dialect"));
+        assertTrue(extracts.get(0).getString("className").startsWith("com.example.pkg"));
+
+        List<RecordedEvent> writes = byType.get("io.emop.javadocjson.JsonWrite");
+        assertEquals(classCount, writes.size(), "每个类应有一个写出事件");
+        assertTrue(writes.stream().allMatch(write -> write.getLong("bytes") > 0 && write.getString("file").endsWith(".json")));
+    }
+}
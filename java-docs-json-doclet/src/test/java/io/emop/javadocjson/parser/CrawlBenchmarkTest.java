@@ -0,0 +1,154 @@
+package io.emop.javadocjson.parser;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.emop.javadocjson.config.JDK9Dialet;
+import io.emop.javadocjson.model.JavadocClass;
+import lombok.Data;
+import org.apache.maven.plugin.logging.Log;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 爬虫端到端基准测试，默认不运行，使用 mvn test -Pbenchmark 执行
+ * <p>
+ * 在本地站点上按不同的线程数和单主机并发限制爬取，输出每秒页面数、每页 CPU 时间和堆内存峰值，
+ * 结果同时写入 target/benchmark/crawl-benchmark.json。可通过系统属性调整：
+ * benchmark.classes、benchmark.pageBytes、benchmark.latencyMillis、benchmark.latencySigma、
+ * benchmark.errorRate、benchmark.executors（例如 1,4,16,16:8，冒号后为单主机并发限制）
+ */
+@Tag("benchmark")
+public class CrawlBenchmarkTest {
+
+    private final Log log = new SimpleConsoleLog();
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void benchmarkExecutorConfigurations() throws Exception {
+        int classes = Integer.getInteger("benchmark.classes", 400);
+        int pageBytes = Integer.getInteger("benchmark.pageBytes", 32 * 1024);
+        double latencyMillis = Double.parseDouble(System.getProperty("benchmark.latencyMillis", "20"));
+        double latencySigma = Double.parseDouble(System.getProperty("benchmark.latencySigma", "0.5"));
+        double errorRate = Double.parseDouble(System.getProperty("benchmark.errorRate", "0.01"));
+        String[] executors = System.getProperty("benchmark.executors", "1,4,16,32,32:8").split(",");
+
+        int packages = Math.max(1, classes / 20);
+        List<Result> results = new ArrayList<>();
+        try (JavadocSiteServer site = new JavadocSiteServer(packages, Math.max(1, classes / packages), 10).start()) {
+            site.setPagePaddingBytes(pageBytes)
+                    .setClassPageLatency(JavadocSiteServer.logNormalLatency(latencyMillis, latencySigma, 7))
+                    .setErrorRate(errorRate, 503);
+
+            // 预热 JIT 和连接，结果不计入
+            run(site, 8, 0, "warmup");
+
+            for (String executor : executors) {
+                String[] parts = executor.trim().split(":");
+                int threads = Integer.parseInt(parts[0]);
+                int maxPerHost = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+                Result result = run(site, threads, maxPerHost, executor.trim());
+                assertEquals(site.getClassCount(), result.getPages() + result.getFailed(), "每个类应被处理或计为失败");
+                results.add(result);
+            }
+        }
+
+        log.info(String.format("Crawl benchmark: %d classes, %d KiB pages, latency median %.0fms sigma %.1f, error rate %.1f%%",
+                classes, pageBytes / 1024, latencyMillis, latencySigma, errorRate * 100));
+        log.info(String.format("%-10s %8s %8s %10s %12s %14s", "executor", "pages", "failed", "pages/s", "cpu ms/page", "peak heap MiB"));
+        for (Result result : results) {
+            log.info(String.format("%-10s %8d %8d %10.1f %12.2f %14.1f", result.getExecutor(), result.getPages(),
+                    result.getFailed(), result.getPagesPerSecond(), result.getCpuMillisPerPage(), result.getPeakHeapMiB()));
+        }
+
+        File report = new File("target/benchmark/crawl-benchmark.json");
+        report.getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(report, results);
+    }
+
+    private Result run(JavadocSiteServer site, int threads, int maxPerHost, String name) {
+        HtmlCrawler crawler = new HtmlCrawler(new QuietLog(), new JDK9Dialet());
+        crawler.setCacheDir(tempDir.resolve("cache-" + name.replace(':', '-')).toString());
+        // 关闭缓存，只测量下载和解析
+        crawler.setEnableCache(false);
+        crawler.setEnableHtmlCache(false);
+        crawler.setThreadPoolSize(threads);
+        FetchScheduler scheduler = maxPerHost > 0 ? new FetchScheduler(threads, maxPerHost) : null;
+        crawler.setScheduler(scheduler);
+
+        System.gc();
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+                heapPools.add(pool);
+            }
+        }
+        long cpuStart = processCpuNanos() - site.getServerCpuNanos();
+        long start = System.nanoTime();
+
+        List<JavadocClass> crawled;
+        try {
+            crawled = crawler.crawl(site.getBaseUrl());
+        } finally {
+            if (scheduler != null) {
+                scheduler.shutdownNow();
+            }
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        long cpuNanos = processCpuNanos() - site.getServerCpuNanos() - cpuStart;
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            peakHeap += pool.getPeakUsage().getUsed();
+        }
+
+        Result result = new Result();
+        result.setExecutor(name);
+        result.setThreads(threads);
+        result.setMaxConnectionsPerHost(maxPerHost);
+        result.setPages(crawled.size());
+        result.setFailed(crawler.getFailedCount());
+        result.setElapsedMillis(elapsedNanos / 1_000_000);
+        result.setPagesPerSecond(crawled.size() / (elapsedNanos / 1e9));
+        result.setCpuMillisPerPage(crawled.isEmpty() ? 0 : cpuNanos / 1e6 / crawled.size());
+        result.setPeakHeapMiB(peakHeap / (1024.0 * 1024.0));
+        return result;
+    }
+
+    private static long processCpuNanos() {
+        java.lang.management.OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuTime();
+        }
+        return 0;
+    }
+
+    /**
+     * 基准测试结果
+     */
+    @Data
+    public static class Result {
+        private String executor;
+        private int threads;
+        private int maxConnectionsPerHost;
+        private int pages;
+        private int failed;
+        private long elapsedMillis;
+        private double pagesPerSecond;
+        private double cpuMillisPerPage;
+        private double peakHeapMiB;
+    }
+}
@@ -0,0 +1,84 @@
+package io.emop.javadocjson.parser;
+
+import io.emop.javadocjson.config.JDK9Dialet;
+import io.emop.javadocjson.model.JavadocClass;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CrawlPriority 测试类
+ */
+public class CrawlPriorityTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testLongestPrefixRuleWins() {
+        Map<String, Integer> weights = new HashMap<>();
+        weights.put("java.util", 5);
+        weights.put("java.util.concurrent", 10);
+        weights.put("java.util.List", 20);
+        CrawlPriority priority = new CrawlPriority(weights, null);
+
+        assertEquals(5, priority.score("java.util.Map"));
+        assertEquals(10, priority.score("java.util.concurrent.Future"));
+        assertEquals(20, priority.score("java.util.List"));
+        // 前缀规则按包名边界匹配
+        assertEquals(0, priority.score("java.utility.Foo"));
+    }
+
+    @Test
+    void testPopularityFromQueryStats() throws Exception {
+        File stats = tempDir.resolve("query-stats.json").toFile();
+        Files.write(stats.toPath(), "{\"classes\": {\"com.example.Popular\": 50, \"com.example.Rare\": 1}}"
+                .getBytes(StandardCharsets.UTF_8));
+        CrawlPriority priority = CrawlPriority.load(new SimpleConsoleLog(), Collections.singletonMap("org.important", 100), stats);
+
+        assertTrue(priority.score("com.example.Popular") > priority.score("com.example.Rare"));
+        assertTrue(priority.score("com.example.Unknown") > priority.score("org.other.Unknown"), "同包热门类应提升整个包的优先级");
+        assertTrue(priority.score("org.important.Foo") > priority.score("com.example.Popular"), "显式权重应优先于热度");
+    }
+
+    @Test
+    void testCrawlInPriorityOrderAndStopAtDeadline() throws Exception {
+        try (JavadocSiteServer site = new JavadocSiteServer(3, 4, 1).start()) {
+            HtmlCrawler crawler = new HtmlCrawler(new SimpleConsoleLog(), new JDK9Dialet());
+            crawler.setCacheDir(tempDir.resolve("cache").toString());
+            crawler.setThreadPoolSize(1);
+            crawler.setCrawlPriority(new CrawlPriority(Collections.singletonMap(JavadocSiteServer.packageName(2), 10), null));
+            List<String> order = new ArrayList<>();
+            crawler.setClassListener(javadocClass -> order.add(javadocClass.getFullName()));
+
+            List<JavadocClass> classes = crawler.crawl(site.getBaseUrl());
+            assertEquals(site.getClassCount(), classes.size());
+            assertEquals(order.size(), classes.size());
+            // 高权重包的类应最先输出，其余按名称稳定排序
+            for (int i = 0; i < 4; i++) {
+                assertTrue(order.get(i).startsWith(JavadocSiteServer.packageName(2) + "."), "高权重包应先输出: " + order);
+            }
+            assertTrue(order.get(4).startsWith(JavadocSiteServer.packageName(0) + "."));
+
+            HtmlCrawler limited = new HtmlCrawler(new SimpleConsoleLog(), new JDK9Dialet());
+            limited.setCacheDir(tempDir.resolve("cache-limited").toString());
+            limited.setThreadPoolSize(1);
+            limited.setMaxCrawlDurationMillis(1);
+            List<JavadocClass> partial = limited.crawl(site.getBaseUrl());
+            assertTrue(limited.isDeadlineReached());
+            assertEquals(site.getClassCount(), partial.size() + limited.getDeferredCount(), "未完成的类应被计为延后");
+        }
+    }
+}
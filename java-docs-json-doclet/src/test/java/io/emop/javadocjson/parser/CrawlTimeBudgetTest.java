@@ -0,0 +1,59 @@
+package io.emop.javadocjson.parser;
+
+import io.emop.javadocjson.config.JDK9Dialet;
+import io.emop.javadocjson.model.JavadocClass;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 爬取时间预算测试类
+ * 使用慢速的本地站点验证预算耗尽时正在进行的请求被及时取消
+ */
+public class CrawlTimeBudgetTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testInFlightFetchesCancelledWhenBudgetRunsOut() throws Exception {
+        try (JavadocSiteServer site = new JavadocSiteServer(2, 4, 1).start().setClassPageDelayMillis(10000)) {
+            HtmlCrawler crawler = new HtmlCrawler(new SimpleConsoleLog(), new JDK9Dialet());
+            crawler.setCacheDir(tempDir.resolve("cache").toString());
+            crawler.setThreadPoolSize(3);
+            crawler.setTimeout(30000);
+            crawler.setMaxCrawlDurationMillis(500);
+
+            long start = System.nanoTime();
+            List<JavadocClass> classes = crawler.crawl(site.getBaseUrl());
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+            assertTrue(elapsedMillis < 5000, "预算耗尽后应立即返回，而不是等待慢速请求: " + elapsedMillis + "ms");
+            assertTrue(crawler.isDeadlineReached());
+            assertTrue(classes.isEmpty());
+            assertEquals(site.getClassCount(), crawler.getDeferredCount(), "被取消的类应计为未爬取");
+            assertEquals(0, crawler.getFailedCount(), "被取消的类不应计为失败");
+
+            // 取消后工作线程应被释放
+            long threadDeadline = System.currentTimeMillis() + 3000;
+            while (hasCrawlWorkers() && System.currentTimeMillis() < threadDeadline) {
+                Thread.sleep(50);
+            }
+            assertTrue(!hasCrawlWorkers(), "取消后不应残留爬虫工作线程");
+        }
+    }
+
+    private static boolean hasCrawlWorkers() {
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.isAlive() && thread.getName().startsWith("crawl-worker-")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,69 @@
+package io.emop.javadocjson.parser;
+
+import io.emop.javadocjson.config.JDK9Dialet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CrawlTraceWriter 和 CrawlTraceAnalyzer 测试类
+ */
+public class CrawlTraceTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testTraceRecordsEveryUrlAndAnalyzes() throws Exception {
+        File traceFile = tempDir.resolve("crawl-trace.ndjson").toFile();
+        File cachedTraceFile = tempDir.resolve("crawl-trace-cached.ndjson").toFile();
+        try (JavadocSiteServer site = new JavadocSiteServer(2, 3, 2).start()) {
+            crawlWithTrace(site, traceFile);
+            // 第二次爬取命中缓存，不再下载
+            crawlWithTrace(site, cachedTraceFile);
+        }
+
+        CrawlTraceAnalyzer analyzer = CrawlTraceAnalyzer.load(traceFile);
+        List<CrawlTraceRecord> records = analyzer.getRecords();
+        assertEquals(6, records.size(), "每个类 URL 应有一条记录");
+        for (CrawlTraceRecord record : records) {
+            assertEquals(CrawlTraceRecord.OUTCOME_OK, record.getOutcome());
+            assertEquals(CrawlTraceRecord.CACHE_MISS, record.getCache());
+            assertEquals(200, record.getStatus());
+            assertTrue(record.getBytes() > 0);
+            assertTrue(record.getQueueWaitMicros() >= 0 && record.getDnsMicros() >= 0);
+            assertTrue(record.getTtfbMicros() >= 0 && record.getBodyMicros() >= 0);
+            assertTrue(record.getParseMicros() >= 0);
+            assertTrue(record.getTotalMicros() >= record.getParseMicros());
+            assertTrue(record.getClassName().startsWith(record.getPackageName() + "."));
+        }
+
+        Map<String, CrawlTraceAnalyzer.PackageTotals> totals = analyzer.getPackageTotals();
+        assertEquals(2, totals.size());
+        assertEquals(3, totals.get(JavadocSiteServer.packageName(0)).getPages());
+        assertEquals(6, analyzer.getTimeline(1000).stream().mapToLong(CrawlTraceAnalyzer.TimelineBucket::getPages).sum());
+        assertEquals(2, analyzer.getSlowestPages(2).size());
+        assertTrue(analyzer.formatReport(5, 1000).stream().anyMatch(line -> line.contains(JavadocSiteServer.packageName(1))));
+
+        List<CrawlTraceRecord> cached = CrawlTraceAnalyzer.load(cachedTraceFile).getRecords();
+        assertEquals(6, cached.size());
+        assertTrue(cached.stream().allMatch(record -> !CrawlTraceRecord.CACHE_MISS.equals(record.getCache()) && record.getTtfbMicros() == -1),
+                "命中缓存时不应有下载阶段");
+    }
+
+    private void crawlWithTrace(JavadocSiteServer site, File traceFile) throws Exception {
+        HtmlCrawler crawler = new HtmlCrawler(new SimpleConsoleLog(), new JDK9Dialet());
+        crawler.setCacheDir(tempDir.resolve("cache").toString());
+        try (CrawlTraceWriter writer = new CrawlTraceWriter(new SimpleConsoleLog(), traceFile)) {
+            crawler.setTraceWriter(writer);
+            assertEquals(site.getClassCount(), crawler.crawl(site.getBaseUrl()).size());
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package io.emop.javadocjson.parser;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * FetchScheduler 测试类
+ */
+public class FetchSchedulerTest {
+
+    @Test
+    void testRoundRobinAcrossHosts() throws Exception {
+        FetchScheduler scheduler = new FetchScheduler(1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        scheduler.submit("blocker", () -> {
+            started.countDown();
+            release.await();
+            return null;
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            String name = "a" + i;
+            futures.add(scheduler.submit("a.example.com", () -> order.add(name)));
+        }
+        for (int i = 1; i <= 3; i++) {
+            String name = "b" + i;
+            futures.add(scheduler.submit("b.example.com", () -> order.add(name)));
+        }
+        release.countDown();
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+
+        // 两个站点应交替执行，而不是先完成一个站点
+        assertEquals(Arrays.asList("a1", "b1", "a2", "b2", "a3", "b3"), order);
+        scheduler.shutdown();
+        assertTrue(scheduler.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testMaxPerHostLimit() throws Exception {
+        FetchScheduler scheduler = new FetchScheduler(4, 1);
+        AtomicInteger concurrent = new AtomicInteger();
+        AtomicInteger maxConcurrent = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(scheduler.submit("slow.example.com", () -> {
+                maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+                Thread.sleep(10);
+                concurrent.decrementAndGet();
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(1, maxConcurrent.get(), "同一主机的并发数不应超过限制");
+        scheduler.shutdownNow();
+        assertTrue(scheduler.awaitTermination(5, TimeUnit.SECONDS));
+    }
+}
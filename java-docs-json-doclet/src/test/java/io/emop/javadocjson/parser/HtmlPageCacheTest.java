@@ -0,0 +1,116 @@
+package io.emop.javadocjson.parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * HtmlPageCache 测试类
+ */
+public class HtmlPageCacheTest {
+
+    @TempDir
+    Path cacheDir;
+
+    @Test
+    void testRoundTrip() {
+        HtmlPageCache cache = new HtmlPageCache(new SimpleConsoleLog(), true, cacheDir.toString());
+        String url = "http://localhost/docs/a/b/Foo.html";
+        String html = "<html><body>Foo 类 – é</body></html>";
+
+        assertNull(cache.get(url));
+        cache.put(url, html);
+        assertEquals(html, cache.get(url));
+
+        // 新实例应能读取已持久化的页面
+        HtmlPageCache reopened = new HtmlPageCache(new SimpleConsoleLog(), true, cacheDir.toString());
+        assertEquals(html, reopened.get(url));
+        assertEquals(List.of(url), reopened.getCachedUrls());
+    }
+
+    @Test
+    void testIdenticalContentStoredOnce() throws IOException {
+        HtmlPageCache cache = new HtmlPageCache(new SimpleConsoleLog(), true, cacheDir.toString());
+        cache.put("http://localhost/docs/a/Foo.html", "<html>same</html>");
+        cache.put("http://localhost/docs/a/Bar.html", "<html>same</html>");
+
+        try (Stream<Path> files = Files.walk(cacheDir.resolve("html").resolve("objects"))) {
+            List<Path> objects = files.filter(Files::isRegularFile).collect(Collectors.toList());
+            assertEquals(1, objects.size(), "相同内容只应存储一次");
+        }
+        assertEquals(2, cache.getCachedUrls().size());
+    }
+
+    @Test
+    void testUpdatedContentReplacesReference() {
+        HtmlPageCache cache = new HtmlPageCache(new SimpleConsoleLog(), true, cacheDir.toString());
+        String url = "http://localhost/docs/a/Foo.html";
+        cache.put(url, "<html>v1</html>");
+        cache.put(url, "<html>v2</html>");
+
+        assertEquals("<html>v2</html>", cache.get(url));
+        assertTrue(cache.getCachedUrls().contains(url));
+    }
+
+    @Test
+    void testStoresBodyAsReceived() throws IOException {
+        HtmlPageCache cache = new HtmlPageCache(new SimpleConsoleLog(), true, cacheDir.toString());
+        String url = "http://localhost/docs/a/Latin.html";
+        Charset latin1 = StandardCharsets.ISO_8859_1;
+        byte[] body = "<html><body>caf\u00e9</body></html>".getBytes(latin1);
+        cache.put(url, body, latin1);
+
+        try (Stream<Path> files = Files.walk(cacheDir.resolve("html").resolve("objects"))) {
+            Path object = files.filter(Files::isRegularFile).findFirst().get();
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(object))) {
+                ByteArrayOutputStream stored = new ByteArrayOutputStream();
+                byte[] chunk = new byte[4096];
+                int read;
+                while ((read = in.read(chunk)) > 0) {
+                    stored.write(chunk, 0, read);
+                }
+                assertArrayEquals(body, stored.toByteArray(), "缓存应保存服务器发送的原始字节");
+            }
+        }
+        assertEquals("<html><body>caf\u00e9</body></html>", cache.get(url), "读取时应使用记录的字符集解码");
+    }
+
+    @Test
+    void testDetectsCharsetFromPagePrefix() {
+        byte[] meta = "<html><head><meta charset=\"ISO-8859-1\"></head><body>x</body></html>".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(StandardCharsets.ISO_8859_1, JavadocPageParser.detectCharset(null, meta));
+        byte[] httpEquiv = "<META http-equiv=\"Content-Type\" content=\"text/html; charset=windows-1252\">".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(Charset.forName("windows-1252"), JavadocPageParser.detectCharset(null, httpEquiv));
+        assertEquals(StandardCharsets.UTF_8, JavadocPageParser.detectCharset("utf-8", meta), "响应头声明的字符集优先");
+        assertEquals(StandardCharsets.UTF_8, JavadocPageParser.detectCharset(null, "<html></html>".getBytes(StandardCharsets.US_ASCII)),
+                "没有声明时默认 UTF-8");
+
+        byte[] bom = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF, '<', 'p', '>'};
+        assertEquals(StandardCharsets.UTF_8, JavadocPageParser.detectCharset(null, bom));
+        assertEquals("<p>", HtmlPageCache.decode(bom, StandardCharsets.UTF_8), "解码时应去掉字节顺序标记");
+
+        // 只扫描页面开头，之后的 meta 不再生效
+        StringBuilder late = new StringBuilder("<html><head>");
+        for (int i = 0; i < 1000; i++) {
+            late.append("<!-- padding -->");
+        }
+        late.append("<meta charset=\"ISO-8859-1\">");
+        assertEquals(StandardCharsets.UTF_8, JavadocPageParser.detectCharset(null, late.toString().getBytes(StandardCharsets.US_ASCII)));
+    }
+}
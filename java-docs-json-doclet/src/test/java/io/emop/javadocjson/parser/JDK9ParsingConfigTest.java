@@ -1,5 +1,41 @@
 package io.emop.javadocjson.parser;
 
+import io.emop.javadocjson.config.JDK9Dialet;
+import io.emop.javadocjson.config.Jdk9Fixtures;
+import io.emop.javadocjson.model.BaseJavadocMethod;
+import io.emop.javadocjson.model.JavadocClass;
+import io.emop.javadocjson.model.SimpleJavadocMethod;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JDK9Dialet 解析测试类，使用 fixtures/jdk9 下的语料页面
+ */
 public class JDK9ParsingConfigTest {
 
-}
\ No newline at end of file
+    @Test
+    void testParseFixturePages() throws Exception {
+        JavadocPageParser parser = new JavadocPageParser(new QuietLog(), new JDK9Dialet(), "test", 1000, null, 0, null, null);
+        // 重载的构造函数按名称去重
+        int[][] expected = {{5, 2, 1}, {80, 10, 1}};
+        String[] names = {"small", "medium"};
+        for (int i = 0; i < names.length; i++) {
+            String name = names[i];
+            JavadocClass javadocClass = parser.parseClassHtml(Jdk9Fixtures.load(name), Jdk9Fixtures.url(name),
+                    Jdk9Fixtures.PACKAGE_NAME, Jdk9Fixtures.className(name));
+
+            assertEquals(expected[i][0], javadocClass.getMethods().size(), name + " 方法数");
+            assertEquals(expected[i][1], javadocClass.getFields().size(), name + " 字段数");
+            assertEquals(expected[i][2], javadocClass.getConstructors().size(), name + " 构造函数数");
+            assertEquals("nxopen.TaggedObject", javadocClass.getSuperClass());
+            assertTrue(javadocClass.getInterfaces().contains("nxopen.INXObject"));
+            for (BaseJavadocMethod method : javadocClass.getMethods()) {
+                // 签名中的零宽空格和 &nbsp; 不应影响详情匹配
+                assertFalse(((SimpleJavadocMethod) method).getDetailText().isEmpty(), name + " 方法详情应被找到");
+            }
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package io.emop.javadocjson.parser;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 本地 Javadoc 站点替身，生成 JDK9 风格的 allclasses.html 和类页面
+ * 用于在不访问网络的情况下测试爬虫，可配置页面大小、响应延迟分布和错误注入，用于基准测试
+ */
+public class JavadocSiteServer implements AutoCloseable {
+
+    private final int packageCount;
+    private final int classesPerPackage;
+    private final int methodsPerClass;
+    private final Map<String, AtomicInteger> requestCounts = new ConcurrentHashMap<>();
+
+    private volatile LongSupplier classPageLatency = () -> 0;
+    private volatile int pagePaddingBytes;
+    private volatile double errorRate;
+    private volatile int errorStatus = 503;
+    private final Random errorRandom = new Random(42);
+    private final AtomicInteger errorCount = new AtomicInteger();
+    private final Set<String> failingPaths = ConcurrentHashMap.newKeySet();
+    private final LongAdder serverCpuNanos = new LongAdder();
+    private final AtomicLong firstRequestMillis = new AtomicLong();
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public JavadocSiteServer(int packageCount, int classesPerPackage, int methodsPerClass) {
+        this.packageCount = packageCount;
+        this.classesPerPackage = classesPerPackage;
+        this.methodsPerClass = methodsPerClass;
+    }
+
+    /**
+     * 在随机端口启动服务
+     */
+    public JavadocSiteServer start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext("/docs/", this::handle);
+        server.start();
+        return this;
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/docs/";
+    }
+
+    public int getClassCount() {
+        return packageCount * classesPerPackage;
+    }
+
+    /**
+     * 设置类页面的响应延迟，用于模拟慢速站点
+     */
+    public JavadocSiteServer setClassPageDelayMillis(long classPageDelayMillis) {
+        return setClassPageLatency(fixedLatency(classPageDelayMillis));
+    }
+
+    /**
+     * 设置类页面的响应延迟分布，每次请求取一个毫秒值
+     */
+    public JavadocSiteServer setClassPageLatency(LongSupplier classPageLatency) {
+        this.classPageLatency = classPageLatency;
+        return this;
+    }
+
+    /**
+     * 用注释填充类页面，使每个页面至少增大指定字节数
+     */
+    public JavadocSiteServer setPagePaddingBytes(int pagePaddingBytes) {
+        this.pagePaddingBytes = pagePaddingBytes;
+        return this;
+    }
+
+    /**
+     * 按比例让类页面请求返回错误状态码
+     */
+    public JavadocSiteServer setErrorRate(double errorRate, int errorStatus) {
+        this.errorRate = errorRate;
+        this.errorStatus = errorStatus;
+        return this;
+    }
+
+    /**
+     * 让指定类页面的请求总是返回 503
+     */
+    public JavadocSiteServer setFailingClass(String fullClassName) {
+        failingPaths.add(fullClassName.replace('.', '/') + ".html");
+        return this;
+    }
+
+    /**
+     * 固定延迟
+     */
+    public static LongSupplier fixedLatency(long millis) {
+        return () -> millis;
+    }
+
+    /**
+     * 对数正态分布的延迟，模拟真实站点的长尾响应时间
+     *
+     * @param medianMillis 中位数
+     * @param sigma        对数标准差，越大长尾越明显
+     * @param seed         随机种子，保证结果可复现
+     */
+    public static LongSupplier logNormalLatency(double medianMillis, double sigma, long seed) {
+        Random random = new Random(seed);
+        return () -> {
+            double gaussian;
+            synchronized (random) {
+                gaussian = random.nextGaussian();
+            }
+            return Math.round(medianMillis * Math.exp(sigma * gaussian));
+        };
+    }
+
+    /**
+     * 已注入的错误响应数
+     */
+    public int getErrorCount() {
+        return errorCount.get();
+    }
+
+    /**
+     * 服务端处理请求消耗的 CPU 时间（不含延迟等待），用于从进程 CPU 中扣除
+     */
+    public long getServerCpuNanos() {
+        return serverCpuNanos.sum();
+    }
+
+    /**
+     * 某个类页面被请求的次数
+     */
+    public int getRequestCount(String fullClassName) {
+        AtomicInteger count = requestCounts.get("/docs/" + fullClassName.replace('.', '/') + ".html");
+        return count != null ? count.get() : 0;
+    }
+
+    /**
+     * 自上次重置以来第一个请求到达的时间（epoch 毫秒），尚无请求时为 0，用于测量客户端进程的启动时间
+     */
+    public long getFirstRequestMillis() {
+        return firstRequestMillis.get();
+    }
+
+    public void resetFirstRequest() {
+        firstRequestMillis.set(0);
+    }
+
+    public static String packageName(int packageIndex) {
+        return "com.example.pkg" + packageIndex;
+    }
+
+    public static String className(int classIndex) {
+        return "Class" + classIndex;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long cpuStart = threadBean.getCurrentThreadCpuTime();
+        String path = exchange.getRequestURI().getPath();
+        firstRequestMillis.compareAndSet(0, System.currentTimeMillis());
+        requestCounts.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+
+        String relativePath = path.substring("/docs/".length());
+        String body = render(relativePath);
+        boolean classPage = body != null && !"allclasses.html".equals(relativePath);
+        try {
+            if (classPage) {
+                long latency = classPageLatency.getAsLong();
+                if (latency > 0) {
+                    serverCpuNanos.add(threadBean.getCurrentThreadCpuTime() - cpuStart);
+                    try {
+                        Thread.sleep(latency);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    } finally {
+                        cpuStart = threadBean.getCurrentThreadCpuTime();
+                    }
+                }
+                if (failingPaths.contains(relativePath)) {
+                    exchange.sendResponseHeaders(503, -1);
+                    return;
+                }
+                if (isInjectedError()) {
+                    errorCount.incrementAndGet();
+                    exchange.sendResponseHeaders(errorStatus, -1);
+                    return;
+                }
+            }
+            if (body == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } finally {
+            exchange.close();
+            serverCpuNanos.add(threadBean.getCurrentThreadCpuTime() - cpuStart);
+        }
+    }
+
+    private boolean isInjectedError() {
+        if (errorRate <= 0) {
+            return false;
+        }
+        synchronized (errorRandom) {
+            return errorRandom.nextDouble() < errorRate;
+        }
+    }
+
+    private String render(String relativePath) {
+        if ("allclasses.html".equals(relativePath)) {
+            return renderAllClasses();
+        }
+        if (!relativePath.endsWith(".html")) {
+            return null;
+        }
+        String name = relativePath.substring(0, relativePath.length() - ".html".length());
+        int slash = name.lastIndexOf('/');
+        if (slash < 0) {
+            return null;
+        }
+        String packageName = name.substring(0, slash).replace('/', '.');
+        String simpleName = name.substring(slash + 1);
+        for (int p = 0; p < packageCount; p++) {
+            if (packageName(p).equals(packageName)) {
+                for (int c = 0; c < classesPerPackage; c++) {
+                    if (className(c).equals(simpleName)) {
+                        return renderClass(packageName, simpleName);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private String renderAllClasses() {
+        StringBuilder html = new StringBuilder("<html><head><title>All Classes</title></head><body><ul>");
+        for (int p = 0; p < packageCount; p++) {
+            for (int c = 0; c < classesPerPackage; c++) {
+                String path = packageName(p).replace('.', '/') + "/" + className(c) + ".html";
+                html.append("<li><a href=\"").append(path).append("\">").append(className(c)).append("</a></li>");
+            }
+        }
+        return html.append("</ul></body></html>").toString();
+    }
+
+    private String renderClass(String packageName, String simpleName) {
+        StringBuilder html = new StringBuilder();
+        html.append("<html><head><title>").append(simpleName).append("</title></head><body>");
+        html.append("<div class=\"header\"><h2 class=\"title\">Class ").append(simpleName).append("</h2></div>");
+        html.append("<div class=\"contentContainer\">");
+        html.append("<ul class=\"inheritance\"><li>java.lang.Object</li><li><ul class=\"inheritance\"><li>")
+                .append(packageName).append('.').append(simpleName).append("</li></ul></li></ul>");
+        html.append("<div class=\"description\"><ul class=\"blockList\"><li class=\"blockList\">");
+        html.append("<pre>public class ").append(simpleName).append("\nextends java.lang.Object</pre>");
+        html.append("<div class=\"block\">Generated class ").append(simpleName).append(" for crawler tests.</div>");
+        if (pagePaddingBytes > 0) {
+            // 注释不影响解析结果，只增大页面体积
+            html.append("<!-- ");
+            for (int i = 0; i < pagePaddingBytes; i += 64) {
+                html.append("padding padding padding padding padding padding padding padding\n");
+            }
+            html.append(" -->");
+        }
+        html.append("</li></ul></div>");
+
+        html.append("<div class=\"summary\"><ul class=\"blockList\"><li class=\"blockList\">");
+        html.append("<a id=\"method.summary\"></a><h3>Method Summary</h3>");
+        html.append("<table class=\"memberSummary\"><tr><th class=\"colFirst\">Modifier and Type</th>")
+                .append("<th class=\"colSecond\">Method</th><th class=\"colLast\">Description</th></tr>");
+        for (int m = 0; m < methodsPerClass; m++) {
+            html.append("<tr class=\"altColor\"><td class=\"colFirst\"><code>int</code></td>")
+                    .append("<th class=\"colSecond\"><code><a href=\"#method").append(m).append("(int)\">method").append(m)
+                    .append("</a>(int value)</code></th>")
+                    .append("<td class=\"colLast\"><div class=\"block\">Summary of method").append(m).append(".</div></td></tr>");
+        }
+        html.append("</table></li></ul></div>");
+
+        html.append("<div class=\"details\"><ul class=\"blockList\">");
+        for (int m = 0; m < methodsPerClass; m++) {
+            html.append("<li class=\"blockList\"><h4>method").append(m).append("</h4>")
+                    .append("<pre class=\"methodSignature\">public int method").append(m).append("(int value)</pre>")
+                    .append("<div class=\"block\">Details of method").append(m).append(".</div></li>");
+        }
+        html.append("</ul></div></div></body></html>");
+        return html.toString();
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
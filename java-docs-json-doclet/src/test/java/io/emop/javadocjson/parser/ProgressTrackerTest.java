@@ -0,0 +1,87 @@
+package io.emop.javadocjson.parser;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ProgressTracker 和 LatencyHistogram 测试类
+ */
+public class ProgressTrackerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 98; i++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(3));
+        }
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(150));
+        histogram.record(TimeUnit.MILLISECONDS.toNanos(700));
+
+        assertEquals(100, histogram.getCount());
+        // 百分位取所在桶的上界
+        assertEquals(5.0, histogram.getPercentileMillis(50));
+        assertEquals(5.0, histogram.getPercentileMillis(95));
+        assertEquals(200.0, histogram.getPercentileMillis(99));
+        assertEquals(700.0, histogram.getMaxMillis(), 0.001);
+        // 百分位不应超过最大值
+        assertEquals(700.0, histogram.getPercentileMillis(100), 0.001);
+    }
+
+    @Test
+    void testConcurrentUpdatesAndSummaryFile() throws Exception {
+        ProgressTracker tracker = new ProgressTracker(new SimpleConsoleLog(), 20);
+        tracker.start();
+        tracker.setTotalClasses(8000);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    tracker.pageStarted();
+                    tracker.recordFetch(TimeUnit.MILLISECONDS.toNanos(10), 1024);
+                    tracker.recordParse(TimeUnit.MILLISECONDS.toNanos(1));
+                    tracker.incrementProcessed();
+                    tracker.pageFinished();
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        tracker.logFinalSummary();
+
+        assertEquals(8000, tracker.getProcessedCount());
+        assertEquals(0, tracker.getInFlightCount());
+        assertEquals(8000L * 1024, tracker.getBytesDownloaded());
+
+        File summaryFile = tempDir.resolve("crawl-summary.json").toFile();
+        tracker.writeSummary(summaryFile);
+        JsonNode summary = new ObjectMapper().readTree(summaryFile);
+        assertEquals(8000, summary.get("processedClasses").asLong());
+        assertEquals(8000, summary.get("latency").get("fetch").get("count").asLong());
+        assertEquals(10.0, summary.get("latency").get("fetch").get("p99Millis").asDouble(), 0.001);
+        assertTrue(summary.get("latency").has("write"));
+
+        // 汇总后报告线程应已停止
+        Thread.sleep(50);
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            assertTrue(!thread.getName().equals("crawl-progress") || !thread.isAlive(), "报告线程应已停止");
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package io.emop.javadocjson.parser;
+
+/**
+ * 只输出警告和错误的日志实现，避免日志开销影响基准测试测量
+ */
+public class QuietLog extends SimpleConsoleLog {
+    @Override
+    public boolean isDebugEnabled() { return false; }
+
+    @Override
+    public void debug(CharSequence content) { }
+
+    @Override
+    public boolean isInfoEnabled() { return false; }
+
+    @Override
+    public void info(CharSequence content) { }
+}
@@ -0,0 +1,125 @@
+package io.emop.javadocjson.parser;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ShardCoordinator 测试类
+ * 包含多个本地 JVM 针对本地 HTTP 站点替身的分片爬取测试
+ */
+public class ShardCoordinatorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private static List<String> urls(int count) {
+        return IntStream.range(0, count).mapToObj(i -> "http://localhost/docs/p/C" + i + ".html").collect(Collectors.toList());
+    }
+
+    @Test
+    void testWorkersClaimDisjointShards() throws Exception {
+        ShardCoordinator first = new ShardCoordinator(new SimpleConsoleLog(), tempDir, "w1", 3, 60000);
+        ShardCoordinator second = new ShardCoordinator(new SimpleConsoleLog(), tempDir, "w2", 3, 60000);
+        first.publishFrontier(urls(10));
+        // 后发布的 frontier 不应覆盖先发布的
+        assertEquals(10, second.publishFrontier(urls(4)).size());
+        assertEquals(4, first.getShardCount());
+
+        Set<String> seen = new HashSet<>();
+        ShardCoordinator.Shard a = first.claimNextShard();
+        ShardCoordinator.Shard b = second.claimNextShard();
+        assertTrue(a.getIndex() != b.getIndex(), "两个工作进程不应领取同一分片");
+        for (ShardCoordinator.Shard shard : new ShardCoordinator.Shard[]{a, b}) {
+            assertTrue(seen.addAll(shard.getUrls()), "分片之间不应有重复 URL");
+        }
+        first.complete(a);
+        second.complete(b);
+
+        ShardCoordinator.Shard shard;
+        while ((shard = first.claimNextShard()) != null) {
+            assertTrue(seen.addAll(shard.getUrls()), "分片之间不应有重复 URL");
+            first.complete(shard);
+        }
+        assertEquals(10, seen.size());
+        assertNull(second.claimNextShard(), "所有分片完成后不应再有可领取的分片");
+    }
+
+    @Test
+    void testExpiredLeaseIsReclaimed() throws Exception {
+        ShardCoordinator crashed = new ShardCoordinator(new SimpleConsoleLog(), tempDir, "crashed", 5, 200);
+        crashed.publishFrontier(urls(5));
+        ShardCoordinator.Shard lost = crashed.claimNextShard();
+        assertNotNull(lost);
+
+        // 崩溃的工作进程不再续租，租约过期后其 URL 应由其他工作进程接管
+        ShardCoordinator survivor = new ShardCoordinator(new SimpleConsoleLog(), tempDir, "survivor", 5, 200);
+        long start = System.currentTimeMillis();
+        ShardCoordinator.Shard reclaimed = survivor.claimNextShard();
+        assertNotNull(reclaimed);
+        assertEquals(lost.getIndex(), reclaimed.getIndex());
+        assertEquals(lost.getUrls(), reclaimed.getUrls());
+        assertTrue(System.currentTimeMillis() - start >= 100, "应等待租约过期后再接管");
+
+        assertTrue(!crashed.renew(lost), "租约被接管后原工作进程续租应失败");
+        assertFalse(crashed.complete(lost), "租约被接管后原工作进程不能标记分片完成");
+        assertTrue(survivor.complete(reclaimed));
+        assertFalse(survivor.renew(reclaimed), "分片完成后续租应失败，不能重新写出租约");
+        assertFalse(Files.exists(tempDir.resolve("leases").resolve(reclaimed.getIndex() + ".lease")), "已完成的分片不应再有租约");
+        assertNull(survivor.claimNextShard());
+    }
+
+    @Test
+    void testShardedCrawlWithSeveralJvms() throws Exception {
+        try (JavadocSiteServer site = new JavadocSiteServer(3, 8, 2).start()) {
+            Path shardDir = tempDir.resolve("shards");
+            Path outputDir = tempDir.resolve("output");
+            String javaBin = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+
+            List<Process> processes = new ArrayList<>();
+            for (int i = 1; i <= 3; i++) {
+                String workerId = "worker" + i;
+                ProcessBuilder builder = new ProcessBuilder(javaBin, "-cp", System.getProperty("java.class.path"),
+                        ShardWorkerMain.class.getName(), site.getBaseUrl(), shardDir.toString(), workerId,
+                        tempDir.resolve("cache").toString(), outputDir.toString(), "4");
+                builder.redirectErrorStream(true);
+                builder.redirectOutput(tempDir.resolve(workerId + ".log").toFile());
+                processes.add(builder.start());
+            }
+            for (Process process : processes) {
+                assertTrue(process.waitFor(120, TimeUnit.SECONDS), "工作进程应在超时前结束");
+                assertEquals(0, process.exitValue());
+            }
+
+            try (Stream<Path> files = Files.list(outputDir)) {
+                assertEquals(site.getClassCount(), files.filter(p -> p.toString().endsWith(".json")).count(),
+                        "所有工作进程的输出合起来应覆盖全部类");
+            }
+            for (int p = 0; p < 3; p++) {
+                for (int c = 0; c < 8; c++) {
+                    String fullName = JavadocSiteServer.packageName(p) + "." + JavadocSiteServer.className(c);
+                    assertEquals(1, site.getRequestCount(fullName), "每个类页面应只被一个工作进程抓取: " + fullName);
+                    assertTrue(new File(outputDir.toFile(), fullName + ".json").exists());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package io.emop.javadocjson.parser;
+
+import io.emop.javadocjson.config.JDK9Dialet;
+import io.emop.javadocjson.model.JavadocClass;
+import io.emop.javadocjson.util.JsonGenerator;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * 分片爬取的独立工作进程入口，由 ShardCoordinatorTest 以单独的 JVM 启动
+ * 参数: baseUrl shardDir workerId cacheDir outputDir shardSize
+ */
+public class ShardWorkerMain {
+
+    public static void main(String[] args) throws Exception {
+        HtmlCrawler crawler = new HtmlCrawler(new SimpleConsoleLog(), new JDK9Dialet());
+        crawler.setShardDirectory(args[1]);
+        crawler.setWorkerId(args[2]);
+        crawler.setCacheDir(args[3]);
+        crawler.setShardSize(Integer.parseInt(args[5]));
+        crawler.setThreadPoolSize(2);
+
+        List<JavadocClass> classes = crawler.crawl(args[0]);
+
+        JsonGenerator generator = new JsonGenerator();
+        File outputDir = new File(args[4]);
+        outputDir.mkdirs();
+        for (JavadocClass javadocClass : classes) {
+            generator.writeClassToFile(javadocClass, new File(outputDir, javadocClass.getFullName() + ".json"));
+        }
+        System.out.println("WORKER " + args[2] + " CRAWLED " + classes.size());
+    }
+}
@@ -0,0 +1,80 @@
+package io.emop.javadocjson.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 构建戳测试：源码、类路径或配置不变时指纹一致，任一变化时指纹改变
+ */
+public class BuildStampTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testFingerprintTracksInputs() throws Exception {
+        Path a = write("src/demo/A.java", "class A {}");
+        Path b = write("src/demo/B.java", "class B {}");
+        Path jar = write("lib/dep.jar", "jar");
+        Path classes = tempDir.resolve("lib/classes");
+        write("lib/classes/demo/Dep.class", "class");
+        List<String> classpath = Arrays.asList(jar.toString(), classes.toString());
+
+        String base = fingerprint(Arrays.asList(a, b), classpath, true);
+        assertEquals(base, fingerprint(Arrays.asList(b, a), classpath, true), "源码顺序不应影响指纹");
+
+        assertNotEquals(base, fingerprint(Arrays.asList(a, b), classpath, false), "配置变化应改变指纹");
+        assertNotEquals(base, fingerprint(Collections.singletonList(a), classpath, true), "删除源码应改变指纹");
+
+        Files.setLastModifiedTime(a, FileTime.fromMillis(Files.getLastModifiedTime(a).toMillis() + 2000));
+        String touched = fingerprint(Arrays.asList(a, b), classpath, true);
+        assertNotEquals(base, touched, "修改时间变化应改变指纹");
+
+        write("lib/classes/demo/Dep.class", "class changed");
+        assertNotEquals(touched, fingerprint(Arrays.asList(a, b), classpath, true), "类路径目录中的文件变化应改变指纹");
+    }
+
+    @Test
+    void testStampFile() throws Exception {
+        Path output = tempDir.resolve("json");
+        String fingerprint = new BuildStamp().addValue("encoding", "UTF-8").fingerprint();
+        assertFalse(BuildStamp.matches(output, fingerprint), "没有戳文件时不是最新");
+
+        BuildStamp.write(output, fingerprint);
+        assertTrue(BuildStamp.matches(output, fingerprint));
+        assertFalse(BuildStamp.matches(output, new BuildStamp().addValue("encoding", "GBK").fingerprint()));
+        assertTrue(Files.isRegularFile(output.resolve(JsonGenerator.METADATA_DIRECTORY).resolve(BuildStamp.STAMP_FILE)),
+                "戳文件应位于元数据目录中，不影响加载 JSON");
+
+        BuildStamp.delete(output);
+        assertFalse(BuildStamp.matches(output, fingerprint));
+    }
+
+    private static String fingerprint(List<Path> files, List<String> classpath, boolean includePrivate) throws Exception {
+        return new BuildStamp()
+                .addValue("includePrivate", includePrivate)
+                .addFiles(files)
+                .addClasspath(classpath)
+                .fingerprint();
+    }
+
+    private Path write(String path, String content) throws Exception {
+        Path file = tempDir.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
@@ -0,0 +1,73 @@
+package io.emop.javadocjson.util;
+
+import io.emop.javadocjson.model.JavadocClass;
+import io.emop.javadocjson.model.SimpleJavadocField;
+import io.emop.javadocjson.model.SimpleJavadocMethod;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 规范 JSON 测试：爬取得到的类无论成员顺序、修饰符顺序和换行方式如何，输出的字节都相同
+ */
+public class CanonicalJsonTest {
+
+    @Test
+    void testNormalizeText() {
+        assertNull(CanonicalJson.normalizeText(null));
+        assertEquals("first\nsecond", CanonicalJson.normalizeText("  first  \r\nsecond\t\r\n\r\n"));
+        assertEquals("a\n\n  b", CanonicalJson.normalizeText("a \r\r  b "), "保留行首缩进和空行");
+        assertEquals("plain", CanonicalJson.normalizeText("plain"));
+    }
+
+    @Test
+    void testGeneratorOutputIndependentOfCrawlOrder() throws Exception {
+        JsonGenerator generator = new JsonGenerator();
+        generator.setCanonical(true);
+
+        byte[] first = generator.toJsonBytes(crawledClass(false));
+        byte[] second = generator.toJsonBytes(crawledClass(true));
+        assertArrayEquals(first, second, "成员顺序和换行方式不同的同一个类应输出相同的字节");
+
+        String json = new String(first, StandardCharsets.UTF_8);
+        assertFalse(json.contains("\r"), "输出只使用 \\n 换行");
+        assertTrue(json.indexOf("\"get\"") < json.indexOf("\"put\""), "成员按名称排序");
+        assertTrue(json.indexOf("\"constructorCount\"") < json.indexOf("\"mcpMetadata\"")
+                && json.indexOf("\"mcpMetadata\"") < json.indexOf("\"methods\""), "附加的 MCP 属性也按键名排序");
+        assertTrue(json.contains("\"public\", \"static\", \"final\""), "修饰符按关键字顺序排列");
+    }
+
+    private static JavadocClass crawledClass(boolean shuffled) {
+        JavadocClass javadocClass = new JavadocClass("Cache", "class");
+        javadocClass.setPackageName("demo");
+        javadocClass.setDescription(shuffled ? "A cache.\r\nThread safe.  " : "A cache.\nThread safe.");
+        javadocClass.setModifiers(shuffled ? Arrays.asList("final", "static", "public")
+                : Arrays.asList("public", "static", "final"));
+
+        SimpleJavadocMethod get = new SimpleJavadocMethod();
+        get.setName("get");
+        get.setDescription("Gets a value.");
+        get.setDetailText("public V get(K key)");
+        SimpleJavadocMethod put = new SimpleJavadocMethod();
+        put.setName("put");
+        put.setDescription(shuffled ? "Puts a value.\r\n" : "Puts a value.");
+        put.setDetailText("public void put(K key, V value)");
+        javadocClass.getMethods().addAll(shuffled ? Arrays.asList(put, get) : Arrays.asList(get, put));
+
+        SimpleJavadocField size = new SimpleJavadocField();
+        size.setName("SIZE");
+        size.setModifierAndType("static int");
+        SimpleJavadocField name = new SimpleJavadocField();
+        name.setName("NAME");
+        name.setModifierAndType("static String");
+        javadocClass.getFields().addAll(shuffled ? Arrays.asList(size, name) : Arrays.asList(name, size));
+        return javadocClass;
+    }
+}
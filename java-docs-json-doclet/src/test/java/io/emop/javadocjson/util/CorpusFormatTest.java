@@ -0,0 +1,147 @@
+package io.emop.javadocjson.util;
+
+import io.emop.javadocjson.model.JavadocClass;
+import io.emop.javadocjson.model.JavadocConstructor;
+import io.emop.javadocjson.model.JavadocField;
+import io.emop.javadocjson.model.JavadocMethod;
+import io.emop.javadocjson.model.JavadocParameter;
+import io.emop.javadocjson.model.SimpleJavadocField;
+import io.emop.javadocjson.model.SimpleJavadocMethod;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 紧凑语料格式测试：详细与简化成员往返一致，重复字符串和修饰符列表在加载后共享同一实例，损坏的文件被拒绝
+ */
+public class CorpusFormatTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testRoundTripSharesStrings() throws Exception {
+        List<JavadocClass> classes = Arrays.asList(detailedClass("Alpha"), detailedClass("Beta"), simpleClass());
+        CorpusWriter writer = new CorpusWriter();
+        for (JavadocClass javadocClass : classes) {
+            writer.add(javadocClass);
+        }
+        Path file = tempDir.resolve("docs.corpus");
+        long size = writer.writeTo(file);
+        assertEquals(Files.size(file), size);
+        assertEquals(3, writer.getClassCount());
+
+        List<JavadocClass> loaded = new CorpusReader().read(file);
+        assertEquals(classes, loaded, "读回的类应与写入的类相等");
+
+        JavadocMethod alpha = (JavadocMethod) loaded.get(0).getMethods().get(0);
+        JavadocMethod beta = (JavadocMethod) loaded.get(1).getMethods().get(0);
+        assertSame(alpha.getReturnType(), beta.getReturnType(), "相同的类型名应是同一个字符串实例");
+        assertSame(alpha.getParameters().get(0).getType(), beta.getParameters().get(0).getType());
+        assertSame(alpha.getModifiers(), beta.getModifiers(), "相同的修饰符列表应共享");
+        assertThrows(UnsupportedOperationException.class, () -> alpha.getModifiers().add("final"), "共享列表不可修改");
+        assertNull(loaded.get(2).getSuperClass());
+
+        // 规范化不会原地排序共享列表，而是换成新的有序列表
+        List<String> shared = alpha.getModifiers();
+        CanonicalJson.canonicalize(loaded.get(0));
+        assertEquals(Arrays.asList("public", "static"), ((JavadocMethod) loaded.get(0).getMethods().get(0)).getModifiers());
+        assertEquals(new ArrayList<>(shared), new ArrayList<>(beta.getModifiers()), "其他成员共享的列表不应被修改");
+
+        // 不共享时每个成员有自己的可变列表，可以规范化
+        CorpusReader reader = new CorpusReader();
+        reader.setShareLists(false);
+        List<JavadocClass> mutable = reader.read(file);
+        JavadocMethod method = (JavadocMethod) mutable.get(0).getMethods().get(0);
+        assertNotSame(method.getModifiers(), ((JavadocMethod) mutable.get(1).getMethods().get(0)).getModifiers());
+        CanonicalJson.canonicalize(mutable.get(0));
+        assertEquals(Arrays.asList("public", "static"), method.getModifiers());
+
+        // 同样的输入得到逐字节相同的文件
+        CorpusWriter again = new CorpusWriter();
+        for (JavadocClass javadocClass : classes) {
+            again.add(javadocClass);
+        }
+        Path second = tempDir.resolve("again.corpus");
+        again.writeTo(second);
+        assertTrue(Arrays.equals(Files.readAllBytes(file), Files.readAllBytes(second)), "语料文件应可复现");
+    }
+
+    @Test
+    void testCorruptCorpusIsRejected() throws Exception {
+        CorpusWriter writer = new CorpusWriter();
+        writer.add(detailedClass("Alpha"));
+        Path file = tempDir.resolve("docs.corpus");
+        writer.writeTo(file);
+        byte[] content = Files.readAllBytes(file);
+
+        assertThrows(IOException.class, () -> new CorpusReader().read(Arrays.copyOf(content, content.length - 3)),
+                "截断的文件应报错");
+        assertThrows(IOException.class, () -> new CorpusReader().read("{\"name\":\"A\"}".getBytes()),
+                "JSON 文件不是语料");
+    }
+
+    private static JavadocClass detailedClass(String name) {
+        JavadocClass javadocClass = new JavadocClass(name, "class");
+        javadocClass.setPackageName("demo");
+        javadocClass.setDescription("文档 " + name);
+        javadocClass.getModifiers().add("public");
+        javadocClass.setSuperClass("java.lang.Object");
+        javadocClass.getInterfaces().add("java.io.Serializable");
+
+        JavadocConstructor constructor = new JavadocConstructor(name, name + "(java.lang.String)", "Creates it.");
+        constructor.getModifiers().add("public");
+        constructor.getParameters().add(new JavadocParameter("value", "java.lang.String", "the value"));
+        constructor.getExceptions().add("java.io.IOException");
+        Map<String, String> exceptions = new LinkedHashMap<>();
+        exceptions.put("java.io.IOException", "if it fails");
+        constructor.setExceptionDescriptions(exceptions);
+        javadocClass.getConstructors().add(constructor);
+
+        JavadocMethod method = new JavadocMethod("get", "get(java.lang.String)", "Gets it.");
+        method.setModifiers(new ArrayList<>(Arrays.asList("static", "public")));
+        method.setReturnType("java.util.List<java.lang.String>");
+        method.getParameters().add(new JavadocParameter("key", "java.lang.String", null));
+        method.setReturnDescription("the list");
+        method.setSince("1.2");
+        javadocClass.getMethods().add(method);
+
+        JavadocField field = new JavadocField();
+        field.setName("LIMIT");
+        field.setType("int");
+        field.setModifiers(new ArrayList<>(Arrays.asList("public", "static", "final")));
+        field.setDefaultValue("10");
+        javadocClass.getFields().add(field);
+        return javadocClass;
+    }
+
+    private static JavadocClass simpleClass() {
+        JavadocClass javadocClass = new JavadocClass("Crawled", "interface");
+        javadocClass.setPackageName("demo.html");
+        javadocClass.setModifiers(Collections.emptyList());
+        javadocClass.setInterfaces(null);
+        SimpleJavadocMethod method = new SimpleJavadocMethod();
+        method.setName("run");
+        method.setModifierAndType("void");
+        method.setDetailText("void run()\nRuns it.");
+        javadocClass.getMethods().add(method);
+        javadocClass.getFields().add(new SimpleJavadocField("SIZE", "static int", "The size."));
+        return javadocClass;
+    }
+}
@@ -0,0 +1,111 @@
+package io.emop.javadocjson.util;
+
+import io.emop.javadocjson.model.JavadocClass;
+import io.emop.javadocjson.config.JDK9Dialet;
+import io.emop.javadocjson.parser.HtmlCrawler;
+import io.emop.javadocjson.parser.JavadocSiteServer;
+import io.emop.javadocjson.parser.SimpleConsoleLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * IncrementalOutputWriter 测试类
+ */
+public class IncrementalOutputWriterTest {
+
+    @TempDir
+    Path outputDir;
+
+    @Test
+    void testOnlyChangedClassesAreWritten() throws IOException {
+        JsonGenerator generator = new JsonGenerator();
+        File dir = outputDir.toFile();
+
+        IncrementalOutputWriter first = new IncrementalOutputWriter(new SimpleConsoleLog(), generator, dir);
+        first.write(newClass("Foo", "foo"));
+        first.write(newClass("Bar", "bar"));
+        first.write(newClass("Gone", "gone"));
+        IncrementalOutputWriter.ChangeSet initial = first.finish(true);
+        assertEquals(List.of("a.Bar", "a.Foo", "a.Gone"), initial.getAdded());
+
+        Path fooFile = outputDir.resolve("a.Foo.json");
+        FileTime fooTime = FileTime.fromMillis(1000);
+        Files.setLastModifiedTime(fooFile, fooTime);
+
+        IncrementalOutputWriter second = new IncrementalOutputWriter(new SimpleConsoleLog(), generator, dir);
+        second.write(newClass("Foo", "foo"));
+        second.write(newClass("Bar", "bar changed"));
+        second.write(newClass("New", "new"));
+        IncrementalOutputWriter.ChangeSet changes = second.finish(true);
+
+        assertEquals(List.of("a.New"), changes.getAdded());
+        assertEquals(List.of("a.Bar"), changes.getChanged());
+        assertEquals(List.of("a.Gone"), changes.getRemoved());
+        assertEquals(1, changes.getUnchangedCount());
+
+        assertEquals(fooTime, Files.getLastModifiedTime(fooFile), "未变化的文件不应被重写");
+        assertFalse(Files.exists(outputDir.resolve("a.Gone.json")));
+        assertTrue(Files.exists(outputDir.resolve(JsonGenerator.METADATA_DIRECTORY).resolve(IncrementalOutputWriter.MANIFEST_FILE)));
+    }
+
+    @Test
+    void testFailedPageKeepsPreviousFile() throws Exception {
+        JsonGenerator generator = new JsonGenerator();
+        File dir = outputDir.resolve("json").toFile();
+        String failing = JavadocSiteServer.packageName(0) + "." + JavadocSiteServer.className(1);
+        try (JavadocSiteServer site = new JavadocSiteServer(1, 3, 1).start()) {
+            IncrementalOutputWriter first = new IncrementalOutputWriter(new SimpleConsoleLog(), generator, dir);
+            crawl(site, first);
+            assertEquals(3, first.finish(true).getAdded().size());
+
+            // 第二次爬取时一个类页面返回 503
+            site.setFailingClass(failing);
+            IncrementalOutputWriter second = new IncrementalOutputWriter(new SimpleConsoleLog(), generator, dir);
+            HtmlCrawler crawler = crawl(site, second);
+            assertEquals(Set.of(failing), crawler.getFailedClassNames());
+            crawler.getFailedClassNames().forEach(second::keep);
+            IncrementalOutputWriter.ChangeSet changes = second.finish(true);
+
+            assertEquals(List.of(failing), changes.getKept(), "失败的类应记为保留");
+            assertTrue(changes.getRemoved().isEmpty(), "暂时失败的类不应被删除");
+            assertEquals(2, changes.getUnchangedCount());
+            assertTrue(Files.exists(dir.toPath().resolve(failing + ".json")), "失败类的旧文件应保留");
+        }
+    }
+
+    private HtmlCrawler crawl(JavadocSiteServer site, IncrementalOutputWriter writer) {
+        HtmlCrawler crawler = new HtmlCrawler(new SimpleConsoleLog(), new JDK9Dialet());
+        crawler.setEnableCache(false);
+        crawler.setEnableHtmlCache(false);
+        crawler.setCacheDir(outputDir.resolve("cache").toString());
+        crawler.setClassListener(javadocClass -> {
+            try {
+                writer.write(javadocClass);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        crawler.crawl(site.getBaseUrl());
+        return crawler;
+    }
+
+    private static JavadocClass newClass(String name, String description) {
+        JavadocClass javadocClass = new JavadocClass(name, "class");
+        javadocClass.setPackageName("a");
+        javadocClass.setDescription(description);
+        return javadocClass;
+    }
+}
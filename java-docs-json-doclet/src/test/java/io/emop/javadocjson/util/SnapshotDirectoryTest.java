@@ -0,0 +1,133 @@
+package io.emop.javadocjson.util;
+
+import io.emop.javadocjson.parser.QuietLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 快照目录测试：暂存目录以现有输出为基础，整体原子发布，已打开的读者看到的旧快照不受影响，失败的运行不改变输出
+ */
+public class SnapshotDirectoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testPublishReplacesOutputAsAWhole() throws Exception {
+        Path live = tempDir.resolve("javadoc-json");
+        // 原有的普通输出目录
+        write(live.resolve("demo.A.json"), "A1");
+        write(live.resolve("demo.B.json"), "B1");
+        write(live.resolve(JsonGenerator.METADATA_DIRECTORY).resolve("changes.json"), "{}");
+
+        SnapshotDirectory snapshots = new SnapshotDirectory(new QuietLog(), live);
+        Path staged = snapshots.stage();
+        assertEquals("A1", read(staged.resolve("demo.A.json")), "暂存目录应包含现有输出");
+        assertTrue(Files.exists(staged.resolve(JsonGenerator.METADATA_DIRECTORY).resolve("changes.json")));
+
+        BatchedFileWriter writer = new BatchedFileWriter(1);
+        writer.write(staged.resolve("demo.A.json"), bytes("A2"));
+        writer.write(staged.resolve("demo.C.json"), bytes("C2"));
+        writer.flush();
+        Files.delete(staged.resolve("demo.B.json"));
+        assertEquals("A1", read(live.resolve("demo.A.json")), "发布前输出不应改变");
+
+        Path first = snapshots.publish(staged);
+        assertTrue(Files.isSymbolicLink(live), "输出目录应指向当前快照");
+        assertEquals(first, live.toRealPath());
+        assertEquals("A2", read(live.resolve("demo.A.json")));
+        assertEquals("C2", read(live.resolve("demo.C.json")));
+        assertFalse(Files.exists(live.resolve("demo.B.json")));
+
+        // 读者在发布前解析出的快照路径，发布下一个快照后内容不变
+        Path reader = live.toRealPath();
+        Path next = snapshots.stage();
+        writer.write(next.resolve("demo.A.json"), bytes("A3"));
+        writer.flush();
+        Path second = snapshots.publish(next);
+        assertEquals("A3", read(live.resolve("demo.A.json")));
+        assertEquals("A2", read(reader.resolve("demo.A.json")), "硬链接的旧快照文件不应被修改");
+        assertEquals("C2", read(reader.resolve("demo.C.json")));
+
+        // 再发布一次后，只保留当前和上一个快照
+        Path third = snapshots.stage();
+        snapshots.publish(third);
+        assertFalse(Files.exists(first), "更早的快照应被删除");
+        assertTrue(Files.exists(second), "上一个快照应保留给已打开的读者");
+        assertEquals(2, countEntries(snapshots.getSnapshotsDirectory()));
+    }
+
+    @Test
+    void testDiscardKeepsPublishedOutput() throws Exception {
+        Path live = tempDir.resolve("out");
+        SnapshotDirectory snapshots = new SnapshotDirectory(new QuietLog(), live);
+        Path staged = snapshots.stage();
+        write(staged.resolve("demo.A.json"), "A1");
+        snapshots.publish(staged);
+
+        Path failed = snapshots.stage();
+        // 暂存的类文件是已发布文件的硬链接，只能替换不能就地修改
+        new BatchedFileWriter(0).write(failed.resolve("demo.A.json"), bytes("broken"));
+        snapshots.discard(failed);
+        assertFalse(Files.exists(failed));
+        assertEquals("A1", read(live.resolve("demo.A.json")), "丢弃的暂存目录不应影响输出");
+
+        // 崩溃遗留的暂存目录在下次暂存时清理
+        snapshots.stage();
+        Path staging = snapshots.stage();
+        assertEquals(2, countEntries(snapshots.getSnapshotsDirectory()), "只应剩下当前快照和新的暂存目录");
+        assertTrue(Files.exists(staging));
+    }
+
+    @Test
+    void testBatchedWriterSyncsInBatches() throws Exception {
+        BatchedFileWriter writer = new BatchedFileWriter(10);
+        for (int i = 0; i < 25; i++) {
+            writer.write(tempDir.resolve("batch/" + i + ".json"), bytes("content " + i));
+        }
+        assertEquals(2, writer.getBatchesSynced(), "每 10 个文件同步一次");
+        writer.close();
+        assertEquals(3, writer.getBatchesSynced(), "关闭时同步剩余文件");
+        assertEquals(25, writer.getFilesWritten());
+        assertEquals("content 24", read(tempDir.resolve("batch/24.json")));
+
+        // 替换而不是就地修改：已有的硬链接保持原内容
+        Path file = tempDir.resolve("batch/0.json");
+        Path link = tempDir.resolve("link.json");
+        Files.createLink(link, file);
+        BatchedFileWriter unsynced = new BatchedFileWriter(0);
+        unsynced.write(file, bytes("replaced"));
+        assertEquals(0, unsynced.getBatchesSynced());
+        assertEquals("replaced", read(file));
+        assertEquals("content 0", read(link));
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, bytes(content));
+    }
+
+    private static byte[] bytes(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String read(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+
+    private static long countEntries(Path dir) throws IOException {
+        try (Stream<Path> entries = Files.list(dir)) {
+            return entries.count();
+        }
+    }
+}
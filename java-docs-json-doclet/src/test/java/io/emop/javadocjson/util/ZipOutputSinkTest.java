@@ -0,0 +1,58 @@
+package io.emop.javadocjson.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 归档输出测试：压缩条目可正常读取，未完成的归档不会覆盖已有文件，乱序写入可被检测
+ */
+public class ZipOutputSinkTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testUnfinishedArchiveKeepsPreviousOne() throws Exception {
+        Path archive = tempDir.resolve("docs.zip");
+        byte[] content = "{\"name\" : \"A\"}".getBytes(StandardCharsets.UTF_8);
+        try (ZipOutputSink sink = new ZipOutputSink(archive, false)) {
+            sink.write("demo.A.json", content);
+            sink.write("demo.B.json", content);
+            assertTrue(sink.isSorted());
+            sink.finish();
+            assertEquals(2, sink.getEntries());
+        }
+        byte[] previous = Files.readAllBytes(archive);
+        try (ZipFile zip = new ZipFile(archive.toFile())) {
+            ZipEntry entry = zip.getEntry("demo.B.json");
+            assertEquals(ZipEntry.DEFLATED, entry.getMethod(), "默认应压缩条目");
+            assertEquals(content.length, entry.getSize());
+        }
+
+        // 中途失败：不调用 finish 直接关闭
+        try (ZipOutputSink sink = new ZipOutputSink(archive, false)) {
+            sink.write("demo.C.json", content);
+            sink.write("demo.A.json", content);
+            assertFalse(sink.isSorted(), "乱序写入应被检测到");
+        }
+        assertArrayEquals(previous, Files.readAllBytes(archive), "未完成的归档不应替换已有归档");
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(Collections.singletonList(archive), files.collect(Collectors.toList()),
+                    "临时文件应被删除");
+        }
+    }
+}
@@ -11,6 +11,7 @@ import { join, dirname } from 'path';
 import { fileURLToPath } from 'url';
 import { JavaDocDataLoader } from './dataLoader.js';
 import { JavaDocSearchEngine, SearchMode } from './searchEngine.js';
+import { QueryStatsRecorder } from './queryStats.js';
 
 const __filename = fileURLToPath(import.meta.url);
 const __dirname = dirname(__filename);
@@ -18,8 +19,9 @@ const __dirname = dirname(__filename);
 export class JavaDocMCPServer {
   private server: Server;
   private searchEngine!: JavaDocSearchEngine;
+  private queryStats: QueryStatsRecorder | null = null;
 
-  constructor(javadocJsonPaths?: string | string[]) {
+  constructor(javadocJsonPaths?: string | string[], queryStatsPath?: string) {
     this.server = new Server({
       name: 'mcp-javadoc-server',
       version: '0.1.6',
@@ -30,6 +32,7 @@ export class JavaDocMCPServer {
     });
 
     this.initializeData(javadocJsonPaths);
+    this.initializeQueryStats(queryStatsPath || process.env.JAVADOC_QUERY_STATS);
     this.setupHandlers();
   }
 
@@ -72,6 +75,16 @@ export class JavaDocMCPServer {
     }
   }
 
+  private initializeQueryStats(queryStatsPath?: string) {
+    if (!queryStatsPath) {
+      return;
+    }
+    console.error(`Recording query stats to: ${queryStatsPath}`);
+    const recorder = new QueryStatsRecorder(queryStatsPath);
+    process.on('exit', () => recorder.flush());
+    this.queryStats = recorder;
+  }
+
   private setupHandlers() {
     this.server.setRequestHandler(ListToolsRequestSchema, async () => ({
       tools: [
@@ -220,6 +233,7 @@ export class JavaDocMCPServer {
               mode?: SearchMode
             };
             const results = this.searchEngine.searchAll(query, limit, mode);
+            this.queryStats?.recordResults(results);
             return {
               content: [
                 {
@@ -242,6 +256,7 @@ export class JavaDocMCPServer {
               mode?: SearchMode
             };
             const results = this.searchEngine.searchClasses(query, limit, mode);
+            this.queryStats?.recordResults(results);
             return {
               content: [
                 {
@@ -265,6 +280,7 @@ export class JavaDocMCPServer {
               mode?: SearchMode
             };
             const results = this.searchEngine.searchMethods(query, className, limit, mode);
+            this.queryStats?.recordResults(results);
             return {
               content: [
                 {
@@ -289,6 +305,7 @@ export class JavaDocMCPServer {
               mode?: SearchMode
             };
             const results = this.searchEngine.searchFields(query, className, limit, mode);
+            this.queryStats?.recordResults(results);
             return {
               content: [
                 {
@@ -312,6 +329,7 @@ export class JavaDocMCPServer {
             if (!classDetails) {
               throw new McpError(ErrorCode.InvalidRequest, `Class not found: ${className}`);
             }
+            this.queryStats?.recordClass(classDetails);
 
             return {
               content: [
@@ -355,9 +373,9 @@ export class JavaDocMCPServer {
 }
 
 // Parse command line arguments
-function parseArgs(): { javadocPaths?: string[]; help?: boolean } {
+function parseArgs(): { javadocPaths?: string[]; queryStatsPath?: string; help?: boolean } {
   const args = process.argv.slice(2);
-  const result: { javadocPaths?: string[]; help?: boolean } = {};
+  const result: { javadocPaths?: string[]; queryStatsPath?: string; help?: boolean } = {};
 
   for (let i = 0; i < args.length; i++) {
     const arg = args[i];
@@ -366,6 +384,8 @@ function parseArgs(): { javadocPaths?: string[]; help?: boolean } {
         result.javadocPaths = [];
       }
       result.javadocPaths.push(args[++i]);
+    } else if (arg === '--query-stats') {
+      result.queryStatsPath = args[++i];
     } else if (arg === '--help' || arg === '-h') {
       result.help = true;
     }
@@ -382,6 +402,8 @@ Usage: node dist/index.js [options]
 
 Options:
   -p, --javadoc-path <path>   Path to JavaDoc JSON directory (can be specified multiple times)
+  --query-stats <file>        Record per-class query counts to this JSON file
+                              (also JAVADOC_QUERY_STATS); feed it to the crawler's queryStatsFile
   -h, --help                  Show this help message
 
 Configuration Priority:
@@ -436,7 +458,7 @@ if (isMainModule) {
     }
 
     console.error('Starting JavaDoc MCP Server...');
-    const server = new JavaDocMCPServer(args.javadocPaths);
+    const server = new JavaDocMCPServer(args.javadocPaths, args.queryStatsPath);
     server.run().catch((error) => {
       console.error('Server run error:', error);
       console.error('Stack trace:', error instanceof Error ? error.stack : 'No stack trace available');
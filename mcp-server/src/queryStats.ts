@@ -0,0 +1,81 @@
+import { existsSync, readFileSync, renameSync, writeFileSync } from 'fs';
+import { JavaDocClass, SearchResult } from './types.js';
+
+/**
+ * Counts how often each class appears in query results and persists the counts as
+ * {"classes": {"com.example.Foo": 3}}. The crawler reads this file to crawl popular classes first.
+ */
+export class QueryStatsRecorder {
+  private counts: Record<string, number> = {};
+  private flushTimer: NodeJS.Timeout | null = null;
+
+  constructor(private filePath: string, private flushDelayMs: number = 2000) {
+    this.load();
+  }
+
+  private load() {
+    if (!existsSync(this.filePath)) {
+      return;
+    }
+    try {
+      const data = JSON.parse(readFileSync(this.filePath, 'utf-8'));
+      const classes = data && typeof data.classes === 'object' ? data.classes : {};
+      for (const [name, count] of Object.entries(classes)) {
+        if (typeof count === 'number') {
+          this.counts[name] = count;
+        }
+      }
+    } catch (error) {
+      console.error(`Ignoring unreadable query stats file ${this.filePath}:`, error instanceof Error ? error.message : String(error));
+    }
+  }
+
+  /**
+   * Records the classes of a result list; every class is counted once per query.
+   */
+  recordResults(results: SearchResult[]) {
+    const classNames = new Set<string>();
+    for (const result of results) {
+      if (result.type === 'class') {
+        classNames.add(result.fullName);
+      } else if (result.parentClass) {
+        classNames.add(result.package ? `${result.package}.${result.parentClass}` : result.parentClass);
+      }
+    }
+    classNames.forEach(name => this.increment(name));
+  }
+
+  recordClass(cls: JavaDocClass) {
+    this.increment(cls.packageName ? `${cls.packageName}.${cls.name}` : cls.name);
+  }
+
+  private increment(className: string) {
+    this.counts[className] = (this.counts[className] || 0) + 1;
+    this.scheduleFlush();
+  }
+
+  private scheduleFlush() {
+    if (this.flushTimer) {
+      return;
+    }
+    this.flushTimer = setTimeout(() => this.flush(), this.flushDelayMs);
+    this.flushTimer.unref();
+  }
+
+  /**
+   * Writes the counts through a temporary file, so the crawler never reads a partial file.
+   */
+  flush() {
+    if (this.flushTimer) {
+      clearTimeout(this.flushTimer);
+      this.flushTimer = null;
+    }
+    try {
+      const tempPath = `${this.filePath}.tmp`;
+      writeFileSync(tempPath, JSON.stringify({ classes: this.counts }, null, 2));
+      renameSync(tempPath, this.filePath);
+    } catch (error) {
+      console.error(`Failed to write query stats ${this.filePath}:`, error instanceof Error ? error.message : String(error));
+    }
+  }
+}